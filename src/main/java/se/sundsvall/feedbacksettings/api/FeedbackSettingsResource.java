@@ -1,81 +1,229 @@
 package se.sundsvall.feedbacksettings.api;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static javax.ws.rs.core.HttpHeaders.ETAG;
+import static javax.ws.rs.core.HttpHeaders.IF_MATCH;
+import static javax.ws.rs.core.HttpHeaders.IF_MODIFIED_SINCE;
+import static javax.ws.rs.core.HttpHeaders.IF_NONE_MATCH;
+import static javax.ws.rs.core.HttpHeaders.LAST_MODIFIED;
 import static javax.ws.rs.core.HttpHeaders.LOCATION;
 import static javax.ws.rs.core.Response.created;
 import static javax.ws.rs.core.Response.noContent;
 import static javax.ws.rs.core.Response.ok;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static org.eclipse.microprofile.openapi.annotations.enums.ParameterIn.HEADER;
 import static org.eclipse.microprofile.openapi.annotations.enums.SchemaType.STRING;
+import static se.sundsvall.feedbacksettings.api.filter.IdempotencyFilter.IDEMPOTENCY_KEY;
+import static se.sundsvall.feedbacksettings.api.filter.IdempotencyFilter.IDEMPOTENT_REPLAYED;
+import static se.sundsvall.feedbacksettings.api.filter.TenantFilter.TENANT_ID;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.regex.Pattern;
 
 import javax.inject.Inject;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.PATCH;
 import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
 import org.eclipse.microprofile.openapi.annotations.headers.Header;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 
+import se.sundsvall.feedbacksettings.ContactMethod;
 import se.sundsvall.feedbacksettings.api.exception.ServiceException;
 import se.sundsvall.feedbacksettings.api.exception.model.ServiceErrorResponse;
+import se.sundsvall.feedbacksettings.api.filter.Idempotent;
+import se.sundsvall.feedbacksettings.api.model.BatchCreateRequest;
+import se.sundsvall.feedbacksettings.api.model.BatchCreateResult;
 import se.sundsvall.feedbacksettings.api.model.CreateFeedbackSettingsRequest;
 import se.sundsvall.feedbacksettings.api.model.FeedbackSettings;
+import se.sundsvall.feedbacksettings.api.model.LookupRequest;
+import se.sundsvall.feedbacksettings.api.model.LookupResult;
+import se.sundsvall.feedbacksettings.api.model.MetaData;
 import se.sundsvall.feedbacksettings.api.model.SearchResult;
 import se.sundsvall.feedbacksettings.api.model.UpdateFeedbackSettingsRequest;
 import se.sundsvall.feedbacksettings.api.validation.ValidUuid;
 import se.sundsvall.feedbacksettings.service.FeedbackSettingsService;
+import se.sundsvall.feedbacksettings.service.async.DatabaseExecutor;
 
 @Path("settings/")
 public class FeedbackSettingsResource {
+	static final String APPLICATION_NDJSON = "application/x-ndjson";
+	static final int MAX_LIMIT = 1000;
+	static final String IF_MATCH_NOT_MATCHING = "If-Match header '%s' does not match the entity tag of the settings";
+	private static final String ANY_ENTITY_TAG = "*";
+	private static final String IDEMPOTENCY_KEY_DESCRIPTION = "Unique key chosen by the client. Retries of the request with the same key get the response of the first successful request, without the request being executed again. Stored responses are kept for a configurable time, 24 hours by default.";
+	private static final String IDEMPOTENT_REPLAYED_DESCRIPTION = "Present with value true when the response is a stored response to an earlier request with the same idempotency key";
+	private static final String IDEMPOTENCY_KEY_IN_PROGRESS_DESCRIPTION = "A request with the same idempotency key is in progress";
+	private static final String TENANT_ID_DESCRIPTION = "Tenant (for example a municipality) owning the settings. Settings are only read and written within this tenant. The header is not authenticated, hence callers must be kept from choosing the tenant of another caller by the gateway in front of the service. The default tenant is used when the header is not present.";
+	private static final String TOO_MANY_REQUESTS_DESCRIPTION = "The tenant has the maximum number of requests in progress";
+	private static final Pattern VERSION_ENTITY_TAG = Pattern.compile("^\"(\\d{1,18})-([0-9a-f]{16})\"$");
+
 	@Inject
 	FeedbackSettingsService feedbackSettingsService;
 
+	@Inject
+	DatabaseExecutor databaseExecutor;
+
 	@Context
 	UriInfo uriInfo;
+
+	@Context
+	Request request;
 	
 	@POST
+	@Idempotent
 	@Consumes(MediaType.APPLICATION_JSON)
-	@APIResponse(responseCode = "201", headers = @Header(name = LOCATION, schema = @Schema(type = STRING)), description = "Created", content = @Content(schema = @Schema(implementation = FeedbackSettings.class)))
+	@Parameter(in = HEADER, name = IDEMPOTENCY_KEY, description = IDEMPOTENCY_KEY_DESCRIPTION, schema = @Schema(type = STRING, maxLength = 255))
+	@APIResponse(responseCode = "201", headers = { @Header(name = LOCATION, schema = @Schema(type = STRING)), @Header(name = ETAG, schema = @Schema(type = STRING)), 
+			@Header(name = IDEMPOTENT_REPLAYED, description = IDEMPOTENT_REPLAYED_DESCRIPTION, schema = @Schema(type = STRING)) },
+		description = "Created", content = @Content(schema = @Schema(implementation = FeedbackSettings.class)))
 	@APIResponse(responseCode = "400", description = "Bad request", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	@APIResponse(responseCode = "409", description = IDEMPOTENCY_KEY_IN_PROGRESS_DESCRIPTION, content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
 	@APIResponse(responseCode = "500", description = "Internal Server error", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
-	public Response postFeedbackSettings(@NotNull @Valid CreateFeedbackSettingsRequest body) throws ServiceException {
-
-		FeedbackSettings settings = feedbackSettingsService.createFeedbackSettings(body);
-		
-		final var locationUri = uriInfo.getAbsolutePathBuilder()
-				.path("/{id}")
-				.buildFromMap(Map.of("id", settings.getId()));
-		return created(locationUri).entity(settings).build();
+	@Parameter(in = HEADER, name = TENANT_ID, description = TENANT_ID_DESCRIPTION, schema = @Schema(type = STRING, maxLength = 64))
+	@APIResponse(responseCode = "429", description = TOO_MANY_REQUESTS_DESCRIPTION, content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	public CompletionStage<Response> postFeedbackSettings(@NotNull @Valid CreateFeedbackSettingsRequest body) {
+
+		return databaseExecutor.submit(() -> feedbackSettingsService.createFeedbackSettings(body))
+			.map(settings -> {
+				final var locationUri = uriInfo.getAbsolutePathBuilder()
+						.path("/{id}")
+						.buildFromMap(Map.of("id", settings.getId()));
+				return created(locationUri).entity(settings).tag(toEntityTag(settings)).build();
+			})
+			.subscribeAsCompletionStage();
+	}
+
+	@POST
+	@Idempotent
+	@Path("/batch")
+	@Consumes(MediaType.APPLICATION_JSON)
+	@Produces(MediaType.APPLICATION_JSON)
+	@Parameter(in = HEADER, name = IDEMPOTENCY_KEY, description = IDEMPOTENCY_KEY_DESCRIPTION, schema = @Schema(type = STRING, maxLength = 255))
+	@APIResponse(responseCode = "200", headers = @Header(name = IDEMPOTENT_REPLAYED, description = IDEMPOTENT_REPLAYED_DESCRIPTION, schema = @Schema(type = STRING)),
+		description = "Successful operation, outcome for each feedback settings in the request is found in the result", 
+		content = @Content(schema = @Schema(implementation = BatchCreateResult.class)))
+	@APIResponse(responseCode = "400", description = "Bad request", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	@APIResponse(responseCode = "409", description = IDEMPOTENCY_KEY_IN_PROGRESS_DESCRIPTION, content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	@APIResponse(responseCode = "500", description = "Internal Server error", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	@Parameter(in = HEADER, name = TENANT_ID, description = TENANT_ID_DESCRIPTION, schema = @Schema(type = STRING, maxLength = 64))
+	@APIResponse(responseCode = "429", description = TOO_MANY_REQUESTS_DESCRIPTION, content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	public CompletionStage<Response> postFeedbackSettingsBatch(@NotNull @Valid BatchCreateRequest body) {
+
+		return databaseExecutor.submit(() -> feedbackSettingsService.createFeedbackSettings(body))
+			.map(result -> ok(result).build())
+			.subscribeAsCompletionStage();
+	}
+
+	@POST
+	@Path("/lookup")
+	@Consumes(MediaType.APPLICATION_JSON)
+	@Produces(MediaType.APPLICATION_JSON)
+	@APIResponse(responseCode = "200", description = "Successful operation", content = @Content(schema = @Schema(implementation = LookupResult.class)))
+	@APIResponse(responseCode = "400", description = "Bad request", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	@APIResponse(responseCode = "500", description = "Internal Server error", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	@Parameter(in = HEADER, name = TENANT_ID, description = TENANT_ID_DESCRIPTION, schema = @Schema(type = STRING, maxLength = 64))
+	@APIResponse(responseCode = "429", description = TOO_MANY_REQUESTS_DESCRIPTION, content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	public CompletionStage<Response> lookupFeedbackSettings(@NotNull @Valid LookupRequest body) {
+
+		return databaseExecutor.submit(() -> feedbackSettingsService.lookupFeedbackSettings(body))
+			.map(result -> ok(result).build())
+			.subscribeAsCompletionStage();
 	}
 
 	@PATCH
+	@Idempotent
 	@Path("/{id}")
 	@Consumes(MediaType.APPLICATION_JSON)
 	@Produces(MediaType.APPLICATION_JSON)
-	@APIResponse(responseCode = "200", description = "Successful operation", content = @Content(schema = @Schema(implementation = FeedbackSettings.class)))
+	@Parameter(in = HEADER, name = IDEMPOTENCY_KEY, description = IDEMPOTENCY_KEY_DESCRIPTION, schema = @Schema(type = STRING, maxLength = 255))
+	@APIResponse(responseCode = "200", headers = { @Header(name = ETAG, schema = @Schema(type = STRING)), 
+			@Header(name = IDEMPOTENT_REPLAYED, description = IDEMPOTENT_REPLAYED_DESCRIPTION, schema = @Schema(type = STRING)) },
+		description = "Successful operation", content = @Content(schema = @Schema(implementation = FeedbackSettings.class)))
 	@APIResponse(responseCode = "400", description = "Bad request", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
 	@APIResponse(responseCode = "404", description = "Not found", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	@APIResponse(responseCode = "409", description = "Settings were modified by another request during the update, or a request with the same idempotency key is in progress",
+		content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	@APIResponse(responseCode = "412", description = "Settings do not match the If-Match header", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
 	@APIResponse(responseCode = "500", description = "Internal Server error", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
-	public Response patchFeedbackSettings(@PathParam("id") @ValidUuid String id,
-			@NotNull @Valid UpdateFeedbackSettingsRequest body) throws ServiceException {
+	@Parameter(in = HEADER, name = TENANT_ID, description = TENANT_ID_DESCRIPTION, schema = @Schema(type = STRING, maxLength = 64))
+	@APIResponse(responseCode = "429", description = TOO_MANY_REQUESTS_DESCRIPTION, content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	public CompletionStage<Response> patchFeedbackSettings(@PathParam("id") @ValidUuid String id,
+			@Parameter(description = "Entity tag from the ETag header of a previous response. When present, settings are only updated if they have not been modified since.")
+			@HeaderParam(IF_MATCH) String ifMatch,
+			@NotNull @Valid UpdateFeedbackSettingsRequest body) {
 
-		return ok(feedbackSettingsService.updateFeedbackSettings(id, body)).build();
+		return databaseExecutor.submit(() -> feedbackSettingsService.updateFeedbackSettings(id, toVersion(id, ifMatch), body))
+			.map(settings -> ok(settings).tag(toEntityTag(settings)).build())
+			.subscribeAsCompletionStage();
+	}
+
+	@PUT
+	@Path("/by-owner")
+	@Consumes(MediaType.APPLICATION_JSON)
+	@Produces(MediaType.APPLICATION_JSON)
+	@APIResponse(responseCode = "200", headers = @Header(name = ETAG, schema = @Schema(type = STRING)), description = "Successful operation, existing settings were replaced",
+		content = @Content(schema = @Schema(implementation = FeedbackSettings.class)))
+	@APIResponse(responseCode = "201", headers = { @Header(name = LOCATION, schema = @Schema(type = STRING)), @Header(name = ETAG, schema = @Schema(type = STRING)) },
+		description = "Created", content = @Content(schema = @Schema(implementation = FeedbackSettings.class)))
+	@APIResponse(responseCode = "400", description = "Bad request", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	@APIResponse(responseCode = "500", description = "Internal Server error", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	@Parameter(in = HEADER, name = TENANT_ID, description = TENANT_ID_DESCRIPTION, schema = @Schema(type = STRING, maxLength = 64))
+	@APIResponse(responseCode = "429", description = TOO_MANY_REQUESTS_DESCRIPTION, content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	public CompletionStage<Response> putFeedbackSettingsByOwner(
+			@QueryParam("personId") @NotNull @ValidUuid String personId,
+			@QueryParam("organizationId") @ValidUuid String organizationId,
+			@NotNull @Valid UpdateFeedbackSettingsRequest body) {
+
+		return databaseExecutor.submit(() -> feedbackSettingsService.upsertFeedbackSettings(personId, organizationId, body))
+			.map(result -> {
+				final var settings = result.feedbackSettings();
+				if (result.created()) {
+					final var locationUri = uriInfo.getBaseUriBuilder()
+							.path(FeedbackSettingsResource.class)
+							.path("/{id}")
+							.buildFromMap(Map.of("id", settings.getId()));
+					return created(locationUri).entity(settings).tag(toEntityTag(settings)).build();
+				}
+				return ok(settings).tag(toEntityTag(settings)).build();
+			})
+			.subscribeAsCompletionStage();
 	}
 
 	@DELETE
@@ -83,37 +231,181 @@ public class FeedbackSettingsResource {
 	@APIResponse(responseCode = "204", description = "Successful operation")
 	@APIResponse(responseCode = "400", description = "Bad request", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
 	@APIResponse(responseCode = "404", description = "Not found", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	@APIResponse(responseCode = "409", description = "Settings were modified by another request during the delete", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	@APIResponse(responseCode = "412", description = "Settings do not match the If-Match header", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
 	@APIResponse(responseCode = "500", description = "Internal Server error", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
-	public Response deleteFeedbackSettings(@PathParam("id") @ValidUuid String id) throws ServiceException {
-		feedbackSettingsService.deleteFeedbackSettings(id);
-		return noContent().build();
+	@Parameter(in = HEADER, name = TENANT_ID, description = TENANT_ID_DESCRIPTION, schema = @Schema(type = STRING, maxLength = 64))
+	@APIResponse(responseCode = "429", description = TOO_MANY_REQUESTS_DESCRIPTION, content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	public CompletionStage<Response> deleteFeedbackSettings(@PathParam("id") @ValidUuid String id,
+			@Parameter(description = "Entity tag from the ETag header of a previous response. When present, settings are only deleted if they have not been modified since.")
+			@HeaderParam(IF_MATCH) String ifMatch) {
+		return databaseExecutor.submit(() -> {
+			feedbackSettingsService.deleteFeedbackSettings(id, toVersion(id, ifMatch));
+			return noContent().build();
+		}).subscribeAsCompletionStage();
 	}
 
 	@GET
 	@Path("/{id}")
 	@Produces(MediaType.APPLICATION_JSON)
-	@APIResponse(responseCode = "200", description = "Successful operation", content = @Content(schema = @Schema(implementation = FeedbackSettings.class)))
+	@APIResponse(responseCode = "200", headers = { @Header(name = ETAG, schema = @Schema(type = STRING)), @Header(name = LAST_MODIFIED, schema = @Schema(type = STRING)) },
+		description = "Successful operation", content = @Content(schema = @Schema(implementation = FeedbackSettings.class)))
+	@APIResponse(responseCode = "304", headers = { @Header(name = ETAG, schema = @Schema(type = STRING)), @Header(name = LAST_MODIFIED, schema = @Schema(type = STRING)) },
+		description = "Not modified, settings match the If-None-Match or If-Modified-Since header")
 	@APIResponse(responseCode = "400", description = "Bad request", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
 	@APIResponse(responseCode = "404", description = "Not found", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
 	@APIResponse(responseCode = "500", description = "Internal Server error", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
-	public Response getFeedbackSettingsById(@PathParam("id") @ValidUuid String id) throws ServiceException {
+	@Parameter(in = HEADER, name = TENANT_ID, description = TENANT_ID_DESCRIPTION, schema = @Schema(type = STRING, maxLength = 64))
+	@APIResponse(responseCode = "429", description = TOO_MANY_REQUESTS_DESCRIPTION, content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	public CompletionStage<Response> getFeedbackSettingsById(@PathParam("id") @ValidUuid String id,
+			@Parameter(description = "Entity tag from the ETag header of a previous response. If the settings still match it, 304 is returned without body.")
+			@HeaderParam(IF_NONE_MATCH) String ifNoneMatch,
+			@Parameter(description = "Value of the Last-Modified header of a previous response. If the settings have not been modified since, 304 is returned without body.")
+			@HeaderParam(IF_MODIFIED_SINCE) String ifModifiedSince) {
+
+		return databaseExecutor.submit(() -> {
+			// Conditional requests are first evaluated against the version of the settings, without reading their channels
+			if (isNotBlank(ifNoneMatch) || isNotBlank(ifModifiedSince)) {
+				// If-Modified-Since is ignored when If-None-Match is present (RFC 7232, section 3.3)
+				FeedbackSettings current = feedbackSettingsService.getFeedbackSettingsVersionById(id);
+				ResponseBuilder notModified = isNotBlank(ifNoneMatch) ? request.evaluatePreconditions(toEntityTag(current)) : request.evaluatePreconditions(toLastModified(current));
+				if (nonNull(notModified)) {
+					return notModified.tag(toEntityTag(current)).lastModified(toLastModified(current)).build();
+				}
+			}
 
-		return ok(feedbackSettingsService.getFeedbackSettingsById(id)).build();
+			FeedbackSettings settings = feedbackSettingsService.getFeedbackSettingsById(id);
+			return ok(settings).tag(toEntityTag(settings)).lastModified(toLastModified(settings)).build();
+		}).subscribeAsCompletionStage();
+	}
+
+	@GET
+	@Path("/export")
+	@Produces(APPLICATION_NDJSON)
+	@APIResponse(responseCode = "200", description = "Successful operation, all settings as newline delimited JSON (one setting per line)", 
+		content = @Content(mediaType = APPLICATION_NDJSON, schema = @Schema(implementation = FeedbackSettings.class)))
+	@APIResponse(responseCode = "500", description = "Internal Server error", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	@Parameter(in = HEADER, name = TENANT_ID, description = TENANT_ID_DESCRIPTION, schema = @Schema(type = STRING, maxLength = 64))
+	@APIResponse(responseCode = "429", description = TOO_MANY_REQUESTS_DESCRIPTION, content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	public Response exportFeedbackSettings() {
+		StreamingOutput output = feedbackSettingsService::exportFeedbackSettings;
+		return ok(output).build();
 	}
 
 	@GET
 	@Produces(MediaType.APPLICATION_JSON)
-	@APIResponse(responseCode = "200", description = "Successful operation", content = @Content(schema = @Schema(implementation = SearchResult.class)))
+	@APIResponse(responseCode = "200", headers = @Header(name = ETAG, schema = @Schema(type = STRING)), description = "Successful operation",
+		content = @Content(schema = @Schema(implementation = SearchResult.class)))
+	@APIResponse(responseCode = "304", headers = @Header(name = ETAG, schema = @Schema(type = STRING)), description = "Not modified, result matches the If-None-Match header")
 	@APIResponse(responseCode = "400", description = "Bad request", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
 	@APIResponse(responseCode = "404", description = "Not found", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
 	@APIResponse(responseCode = "500", description = "Internal Server error", content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
-	public Response getFeedbackSettingsByQuery(
+	@Parameter(in = HEADER, name = TENANT_ID, description = TENANT_ID_DESCRIPTION, schema = @Schema(type = STRING, maxLength = 64))
+	@APIResponse(responseCode = "429", description = TOO_MANY_REQUESTS_DESCRIPTION, content = @Content(schema = @Schema(implementation = ServiceErrorResponse.class)))
+	public CompletionStage<Response> getFeedbackSettingsByQuery(
 			@QueryParam("personId") @ValidUuid String personId,
 			@QueryParam("organizationId") @ValidUuid String organizationId,
 			@QueryParam("page") @Min(1) @DefaultValue("1") int page,
-			@QueryParam("limit") @Min(1) @DefaultValue("20") int limit
+			@QueryParam("limit") @Min(1) @Max(MAX_LIMIT) @DefaultValue("20") int limit,
+			@Parameter(description = "If false, no total amount of hits and pages is calculated and metadata instead signals if there are more hits after current page")
+			@QueryParam("includeTotals") @DefaultValue("true") boolean includeTotals,
+			@Parameter(description = "Cursor for keyset paging. Send an empty value to fetch first page, then the value of _meta.next to fetch following pages. When present, parameter page is ignored.")
+			@QueryParam("after") String after,
+			@Parameter(description = "Returns settings having a channel with this destination (compared case insensitive and without whitespace). When present, parameters personId, organizationId and after are ignored.")
+			@QueryParam("destination") String destination,
+			@Parameter(description = "Contact method of the channel matching parameter destination. Ignored when destination is not present.")
+			@QueryParam("contactMethod") ContactMethod contactMethod,
+			@Parameter(description = "Entity tag from the ETag header of a previous response. If the result still matches it, 304 is returned without body.")
+			@HeaderParam(IF_NONE_MATCH) String ifNoneMatch
 			) {
 
-		return ok(feedbackSettingsService.getFeedbackSettings(personId, organizationId, page, limit)).build();
+		return databaseExecutor.submit(() -> {
+			if (isNotBlank(destination)) {
+				return feedbackSettingsService.getFeedbackSettingsByDestination(destination, contactMethod, page, limit, includeTotals);
+			} else if (nonNull(after)) {
+				return feedbackSettingsService.getFeedbackSettingsByCursor(personId, organizationId, after, limit);
+			}
+			return feedbackSettingsService.getFeedbackSettings(personId, organizationId, page, limit, includeTotals);
+		}).map(result -> {
+			// A matching result is answered without being serialized
+			EntityTag entityTag = toEntityTag(result);
+			return Optional.ofNullable(isNotBlank(ifNoneMatch) ? request.evaluatePreconditions(entityTag) : null)
+				.orElseGet(() -> ok(result))
+				.tag(entityTag)
+				.build();
+		}).subscribeAsCompletionStage();
+	}
+
+	private static EntityTag toEntityTag(FeedbackSettings settings) {
+		return isNull(settings.getVersion()) ? null : toEntityTag(settings.getId(), settings.getVersion());
+	}
+
+	/**
+	 * Method returns the entity tag of sent in version of the settings matching sent in id. The tag holds the version
+	 * followed by a hash of the id and the version, so that a tag issued for one settings never matches another settings
+	 * that happens to have the same version. Ids are hashed in lower case, as ids are matched regardless of case.
+	 */
+	static EntityTag toEntityTag(String id, long version) {
+		return new EntityTag(version + "-" + hashOf(id, version));
+	}
+
+	private static String hashOf(String id, long version) {
+		try {
+			final var digest = MessageDigest.getInstance("SHA-256").digest((id.toLowerCase(Locale.ROOT) + ':' + version).getBytes(UTF_8));
+			return HexFormat.of().formatHex(digest, 0, 8);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Method returns an entity tag for sent in search result, derived from its metadata and from the id and version of
+	 * each settings in the result. As every change of settings increments their version, the tag changes whenever the
+	 * content of the result does.
+	 */
+	private static EntityTag toEntityTag(SearchResult result) {
+		final var metaData = Optional.ofNullable(result.getMetaData()).orElseGet(MetaData::create);
+		final var content = new StringBuilder()
+			.append(metaData.getPage()).append('|')
+			.append(metaData.getLimit()).append('|')
+			.append(metaData.getTotalRecords()).append('|')
+			.append(metaData.getTotalPages()).append('|')
+			.append(metaData.getHasMore()).append('|')
+			.append(metaData.getNext());
+		Optional.ofNullable(result.getFeedbackSettings()).orElse(emptyList()).forEach(settings -> content.append('|').append(settings.getId()).append(':').append(settings.getVersion()));
+
+		try {
+			return new EntityTag(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content.toString().getBytes(UTF_8))));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Method returns the time of the last modification of sent in settings, or the time of their creation if they have
+	 * never been modified.
+	 */
+	private static Date toLastModified(FeedbackSettings settings) {
+		return Optional.ofNullable(settings.getModified())
+			.or(() -> Optional.ofNullable(settings.getCreated()))
+			.map(timestamp -> Date.from(timestamp.toInstant()))
+			.orElse(null);
+	}
+
+	/**
+	 * Method returns the version of the settings matching sent in id that sent in If-Match header requires, or null if no
+	 * specific version is required (i.e. if the header is absent or matches any settings).
+	 */
+	private static Long toVersion(String id, String ifMatch) throws ServiceException {
+		if (isBlank(ifMatch) || ANY_ENTITY_TAG.equals(ifMatch.trim())) {
+			return null;
+		}
+
+		// Weak entity tags, lists of entity tags and values not issued by this service for these settings can never match
+		final var matcher = VERSION_ENTITY_TAG.matcher(ifMatch.trim());
+		if (!matcher.matches() || !matcher.group(2).equals(hashOf(id, Long.parseLong(matcher.group(1))))) {
+			throw ServiceException.create(String.format(IF_MATCH_NOT_MATCHING, ifMatch), Status.PRECONDITION_FAILED, Status.PRECONDITION_FAILED);
+		}
+		return Long.valueOf(matcher.group(1));
 	}
-}
\ No newline at end of file
+}
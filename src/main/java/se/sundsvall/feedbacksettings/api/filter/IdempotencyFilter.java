@@ -0,0 +1,142 @@
+package se.sundsvall.feedbacksettings.api.filter;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static javax.ws.rs.core.HttpHeaders.ETAG;
+import static javax.ws.rs.core.HttpHeaders.LOCATION;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import javax.inject.Inject;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.Response.Status.Family;
+import javax.ws.rs.ext.Provider;
+
+import org.slf4j.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import se.sundsvall.feedbacksettings.api.exception.ServiceException;
+import se.sundsvall.feedbacksettings.service.idempotency.IdempotencyStore;
+import se.sundsvall.feedbacksettings.service.idempotency.IdempotentResponse;
+import se.sundsvall.feedbacksettings.service.tenant.TenantContext;
+
+/**
+ * Filter executing requests sent with an Idempotency-Key header at most once. Keys are scoped to the tenant of the
+ * request, so that different tenants may use the same keys. The first successful response for a key
+ * is stored and returned for every retry of the same request, without the resource method being invoked again. If the
+ * first request fails, the key is released so that the request can be retried.
+ */
+@Provider
+@Idempotent
+public class IdempotencyFilter implements ContainerRequestFilter, ContainerResponseFilter {
+	public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+	public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+	static final String INVALID_IDEMPOTENCY_KEY = "Idempotency key must not be longer than %s characters";
+	static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+	private static final Logger LOGGER = getLogger(IdempotencyFilter.class);
+	private static final String CLAIMED_IDEMPOTENCY_KEY = IdempotencyFilter.class.getName() + ".claimedIdempotencyKey";
+	private static final String REQUEST_HASH = IdempotencyFilter.class.getName() + ".requestHash";
+
+	@Inject
+	IdempotencyStore idempotencyStore;
+
+	@Inject
+	ObjectMapper objectMapper;
+
+	@Inject
+	TenantContext tenantContext;
+
+	@Override
+	public void filter(ContainerRequestContext requestContext) throws IOException {
+		String idempotencyKey = requestContext.getHeaderString(IDEMPOTENCY_KEY);
+		if (isBlank(idempotencyKey)) {
+			return;
+		}
+		if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+			throw ServiceException.create(String.format(INVALID_IDEMPOTENCY_KEY, MAX_IDEMPOTENCY_KEY_LENGTH), Status.BAD_REQUEST, Status.BAD_REQUEST).asRuntimeException();
+		}
+
+		// The body is read to be part of the request hash, and then put back for the resource method to read
+		byte[] body = requestContext.getEntityStream().readAllBytes();
+		requestContext.setEntityStream(new ByteArrayInputStream(body));
+
+		String requestHash = toRequestHash(requestContext, body);
+		IdempotentResponse storedResponse;
+		try {
+			storedResponse = idempotencyStore.findOrClaim(tenantContext.getTenantId(), idempotencyKey, requestHash);
+		} catch (ServiceException e) {
+			throw e.asRuntimeException();
+		}
+
+		if (isNull(storedResponse)) {
+			requestContext.setProperty(CLAIMED_IDEMPOTENCY_KEY, idempotencyKey);
+			requestContext.setProperty(REQUEST_HASH, requestHash);
+			return;
+		}
+		requestContext.abortWith(Response.status(storedResponse.status())
+			.entity(storedResponse.body())
+			.type(nonNull(storedResponse.body()) ? MediaType.APPLICATION_JSON_TYPE : null)
+			.header(LOCATION, storedResponse.location())
+			.header(ETAG, storedResponse.entityTag())
+			.header(IDEMPOTENT_REPLAYED, true)
+			.build());
+	}
+
+	@Override
+	public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) throws IOException {
+		String idempotencyKey = (String) requestContext.getProperty(CLAIMED_IDEMPOTENCY_KEY);
+		if (isNull(idempotencyKey)) {
+			return;
+		}
+
+		try {
+			if (responseContext.getStatusInfo().getFamily() == Family.SUCCESSFUL) {
+				idempotencyStore.complete(tenantContext.getTenantId(), idempotencyKey, new IdempotentResponse(
+					(String) requestContext.getProperty(REQUEST_HASH),
+					responseContext.getStatus(),
+					responseContext.getHeaderString(LOCATION),
+					responseContext.getHeaderString(ETAG),
+					responseContext.hasEntity() ? objectMapper.writeValueAsString(responseContext.getEntity()) : null));
+			} else {
+				idempotencyStore.release(tenantContext.getTenantId(), idempotencyKey);
+			}
+		} catch (RuntimeException e) {
+			// The request has already been handled, the key is released when its in progress timeout has passed
+			LOGGER.warn("Response for idempotency key '{}' could not be stored", idempotencyKey, e);
+		}
+	}
+
+	/**
+	 * Method returns a hash of the method, path, query and body of sent in request, used for detecting an idempotency key
+	 * being reused for a different request.
+	 */
+	private static String toRequestHash(ContainerRequestContext requestContext, byte[] body) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(requestContext.getMethod().getBytes(UTF_8));
+			digest.update((byte) ' ');
+			digest.update(requestContext.getUriInfo().getRequestUri().getRawPath().getBytes(UTF_8));
+			digest.update((byte) '?');
+			digest.update(String.valueOf(requestContext.getUriInfo().getRequestUri().getRawQuery()).getBytes(UTF_8));
+			digest.update((byte) '\n');
+			return HexFormat.of().formatHex(digest.digest(body));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
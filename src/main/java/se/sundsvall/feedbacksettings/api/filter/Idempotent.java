@@ -0,0 +1,20 @@
+package se.sundsvall.feedbacksettings.api.filter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.ws.rs.NameBinding;
+
+/**
+ * Marks resource methods where requests sent with an Idempotency-Key header are executed at most once, see
+ * {@link IdempotencyFilter}.
+ */
+@Documented
+@NameBinding
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Idempotent {
+}
@@ -0,0 +1,70 @@
+package se.sundsvall.feedbacksettings.api.filter;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.util.List;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.ext.Provider;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.vertx.ext.web.RoutingContext;
+
+import se.sundsvall.feedbacksettings.api.exception.ServiceException;
+import se.sundsvall.feedbacksettings.service.tenant.TenantConcurrencyLimits;
+import se.sundsvall.feedbacksettings.service.tenant.TenantContext;
+
+/**
+ * Filter resolving the tenant of each request from the X-Tenant-Id header (or the configured default tenant when the
+ * header is not present). Requests for unknown tenants are rejected, as are requests for tenants that already have the
+ * maximum number of requests in progress. Executed before all other filters, making the tenant known to them as well.
+ * The permit of the request is released when the HTTP exchange has ended, i.e. when the response has been written
+ * (including streamed responses), when the connection has been closed by the client or when the request has failed.
+ * The X-Tenant-Id header is not authenticated, hence it must be set by a gateway knowing the identity of the caller.
+ */
+@Provider
+@Priority(Priorities.AUTHORIZATION)
+public class TenantFilter implements ContainerRequestFilter {
+	public static final String TENANT_ID = "X-Tenant-Id";
+	static final String UNKNOWN_TENANT = "Unknown tenant '%s'";
+	static final String TOO_MANY_REQUESTS = "Tenant '%s' has too many requests in progress";
+
+	@ConfigProperty(name = "feedbacksettings.tenant.ids")
+	List<String> tenantIds;
+
+	@ConfigProperty(name = "feedbacksettings.tenant.default-id")
+	String defaultTenantId;
+
+	@Inject
+	TenantContext tenantContext;
+
+	@Inject
+	TenantConcurrencyLimits tenantConcurrencyLimits;
+
+	@Inject
+	RoutingContext routingContext;
+
+	@Override
+	public void filter(ContainerRequestContext requestContext) {
+		String tenantId = requestContext.getHeaderString(TENANT_ID);
+		if (isBlank(tenantId)) {
+			tenantId = defaultTenantId;
+		}
+		if (!tenantIds.contains(tenantId)) {
+			throw ServiceException.create(String.format(UNKNOWN_TENANT, tenantId), Status.BAD_REQUEST, Status.BAD_REQUEST).asRuntimeException();
+		}
+		if (!tenantConcurrencyLimits.tryAcquire(tenantId)) {
+			throw ServiceException.create(String.format(TOO_MANY_REQUESTS, tenantId), Status.TOO_MANY_REQUESTS, Status.TOO_MANY_REQUESTS).asRuntimeException();
+		}
+
+		final var acquiredTenantId = tenantId;
+		routingContext.addEndHandler(result -> tenantConcurrencyLimits.release(acquiredTenantId));
+		tenantContext.setTenantId(tenantId);
+	}
+}
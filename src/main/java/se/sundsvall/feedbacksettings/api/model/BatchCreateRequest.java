@@ -0,0 +1,63 @@
+package se.sundsvall.feedbacksettings.api.model;
+
+import java.util.List;
+import java.util.Objects;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+@Schema(description = "Request model for creating many feedback settings in one request")
+public class BatchCreateRequest {
+	static final int MAX_BATCH_SIZE = 10000;
+
+	@Schema(type = SchemaType.ARRAY, implementation = CreateFeedbackSettingsRequest.class, description = "Feedback settings to create")
+	@NotEmpty
+	@Size(max = MAX_BATCH_SIZE)
+	private List<@NotNull @Valid CreateFeedbackSettingsRequest> feedbackSettings;
+
+	public static BatchCreateRequest create() {
+		return new BatchCreateRequest();
+	}
+
+	public List<CreateFeedbackSettingsRequest> getFeedbackSettings() {
+		return feedbackSettings;
+	}
+
+	public void setFeedbackSettings(List<CreateFeedbackSettingsRequest> feedbackSettings) {
+		this.feedbackSettings = feedbackSettings;
+	}
+
+	public BatchCreateRequest withFeedbackSettings(List<CreateFeedbackSettingsRequest> feedbackSettings) {
+		this.feedbackSettings = feedbackSettings;
+		return this;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(feedbackSettings);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		BatchCreateRequest other = (BatchCreateRequest) obj;
+		return Objects.equals(feedbackSettings, other.feedbackSettings);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("BatchCreateRequest [feedbackSettings=").append(feedbackSettings).append("]");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,87 @@
+package se.sundsvall.feedbacksettings.api.model;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+@Schema(description = "Result of a batch request, with one result per feedback settings in the request")
+public class BatchCreateResult {
+	@Schema(description = "Number of created feedback settings", example = "1", readOnly = true)
+	private Integer created;
+
+	@Schema(description = "Number of feedback settings that were not created", example = "0", readOnly = true)
+	private Integer rejected;
+
+	@Schema(type = SchemaType.ARRAY, implementation = BatchItemResult.class, description = "Results in the same order as in the request", readOnly = true)
+	private List<BatchItemResult> results;
+
+	public static BatchCreateResult create() {
+		return new BatchCreateResult();
+	}
+
+	public Integer getCreated() {
+		return created;
+	}
+
+	public void setCreated(Integer created) {
+		this.created = created;
+	}
+
+	public BatchCreateResult withCreated(Integer created) {
+		this.created = created;
+		return this;
+	}
+
+	public Integer getRejected() {
+		return rejected;
+	}
+
+	public void setRejected(Integer rejected) {
+		this.rejected = rejected;
+	}
+
+	public BatchCreateResult withRejected(Integer rejected) {
+		this.rejected = rejected;
+		return this;
+	}
+
+	public List<BatchItemResult> getResults() {
+		return results;
+	}
+
+	public void setResults(List<BatchItemResult> results) {
+		this.results = results;
+	}
+
+	public BatchCreateResult withResults(List<BatchItemResult> results) {
+		this.results = results;
+		return this;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(created, rejected, results);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		BatchCreateResult other = (BatchCreateResult) obj;
+		return Objects.equals(created, other.created) && Objects.equals(rejected, other.rejected) && Objects.equals(results, other.results);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("BatchCreateResult [created=").append(created).append(", rejected=").append(rejected).append(", results=")
+				.append(results).append("]");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,102 @@
+package se.sundsvall.feedbacksettings.api.model;
+
+import java.util.Objects;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+@Schema(description = "Result for one of the feedback settings in a batch request")
+public class BatchItemResult {
+	@Schema(description = "Position (starting with 0) of the feedback settings in the request", example = "0", readOnly = true)
+	private Integer index;
+
+	@Schema(description = "HTTP status describing the outcome for the feedback settings", example = "201", readOnly = true)
+	private Integer status;
+
+	@Schema(description = "Description of why the feedback settings could not be processed", example = "Settings already exist for personId '15aee472-46ab-4f03-9605-68bd64ebc73f'", readOnly = true)
+	private String message;
+
+	@Schema(implementation = FeedbackSettings.class, readOnly = true)
+	private FeedbackSettings feedbackSettings;
+
+	public static BatchItemResult create() {
+		return new BatchItemResult();
+	}
+
+	public Integer getIndex() {
+		return index;
+	}
+
+	public void setIndex(Integer index) {
+		this.index = index;
+	}
+
+	public BatchItemResult withIndex(Integer index) {
+		this.index = index;
+		return this;
+	}
+
+	public Integer getStatus() {
+		return status;
+	}
+
+	public void setStatus(Integer status) {
+		this.status = status;
+	}
+
+	public BatchItemResult withStatus(Integer status) {
+		this.status = status;
+		return this;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	public BatchItemResult withMessage(String message) {
+		this.message = message;
+		return this;
+	}
+
+	public FeedbackSettings getFeedbackSettings() {
+		return feedbackSettings;
+	}
+
+	public void setFeedbackSettings(FeedbackSettings feedbackSettings) {
+		this.feedbackSettings = feedbackSettings;
+	}
+
+	public BatchItemResult withFeedbackSettings(FeedbackSettings feedbackSettings) {
+		this.feedbackSettings = feedbackSettings;
+		return this;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(feedbackSettings, index, message, status);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		BatchItemResult other = (BatchItemResult) obj;
+		return Objects.equals(feedbackSettings, other.feedbackSettings) && Objects.equals(index, other.index)
+				&& Objects.equals(message, other.message) && Objects.equals(status, other.status);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("BatchItemResult [index=").append(index).append(", status=").append(status).append(", message=")
+				.append(message).append(", feedbackSettings=").append(feedbackSettings).append("]");
+		return builder.toString();
+	}
+}
@@ -7,6 +7,8 @@ import java.util.Objects;
 import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 @Schema(description = "Feedback settings response model")
 public class FeedbackSettings {
 	@Schema(description = "Unique id for the feedback setting", example = "0d64c132-3aea-11ec-8d3d-0242ac130003", readOnly = true)
@@ -27,6 +29,10 @@ public class FeedbackSettings {
 
 	@Schema(description = "Timestamp for last modification", example = "2022-01-20T10:30:09.469+01:00", readOnly = true)
 	private OffsetDateTime modified;
+
+	// Not part of the response body, presented as entity tag in the ETag response header
+	@JsonIgnore
+	private Long version;
 	
 	public static FeedbackSettings create() {
 		return new FeedbackSettings();
@@ -110,9 +116,22 @@ public class FeedbackSettings {
 		return this;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public FeedbackSettings withVersion(Long version) {
+		this.version = version;
+		return this;
+	}
+
 	@Override
 	public int hashCode() {
-		return Objects.hash(channels, created, id, modified, organizationId, personId);
+		return Objects.hash(channels, created, id, modified, organizationId, personId, version);
 	}
 
 	@Override
@@ -126,7 +145,7 @@ public class FeedbackSettings {
 		FeedbackSettings other = (FeedbackSettings) obj;
 		return Objects.equals(channels, other.channels) && Objects.equals(created, other.created) && id == other.id
 				&& Objects.equals(modified, other.modified) && Objects.equals(organizationId, other.organizationId)
-				&& Objects.equals(personId, other.personId);
+				&& Objects.equals(personId, other.personId) && Objects.equals(version, other.version);
 	}
 
 	@Override
@@ -134,7 +153,8 @@ public class FeedbackSettings {
 		StringBuilder builder = new StringBuilder();
 		builder.append("FeedbackSettings [id=").append(id).append(", personId=").append(personId)
 				.append(", organizationId=").append(organizationId).append(", channels=").append(channels)
-				.append(", created=").append(created).append(", modified=").append(modified).append("]");
+				.append(", created=").append(created).append(", modified=").append(modified).append(", version=").append(version)
+				.append("]");
 		return builder.toString();
 	}
 }
@@ -0,0 +1,76 @@
+package se.sundsvall.feedbacksettings.api.model;
+
+import java.util.Objects;
+
+import javax.validation.constraints.NotNull;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+import se.sundsvall.feedbacksettings.api.validation.ValidUuid;
+
+@Schema(description = "Model identifying feedback settings by the person (and organization) to which they apply")
+public class FeedbackSettingsOwner {
+	@Schema(description = "Unique id for the person to whom the feedback setting applies", example = "15aee472-46ab-4f03-9605-68bd64ebc73f")
+	@ValidUuid
+	@NotNull
+	private String personId;
+
+	@Schema(description = "Unique id for the company to which the feedback setting applies in cases where the setting refers to an organizational representative. " 
+			+ "Leave out to match the personal settings for the person.", example = "15aee472-46ab-4f03-9605-68bd64ebc84a")
+	@ValidUuid
+	private String organizationId;
+
+	public static FeedbackSettingsOwner create() {
+		return new FeedbackSettingsOwner();
+	}
+
+	public String getPersonId() {
+		return personId;
+	}
+
+	public void setPersonId(String personId) {
+		this.personId = personId;
+	}
+
+	public FeedbackSettingsOwner withPersonId(String personId) {
+		this.personId = personId;
+		return this;
+	}
+
+	public String getOrganizationId() {
+		return organizationId;
+	}
+
+	public void setOrganizationId(String organizationId) {
+		this.organizationId = organizationId;
+	}
+
+	public FeedbackSettingsOwner withOrganizationId(String organizationId) {
+		this.organizationId = organizationId;
+		return this;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(organizationId, personId);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		FeedbackSettingsOwner other = (FeedbackSettingsOwner) obj;
+		return Objects.equals(organizationId, other.organizationId) && Objects.equals(personId, other.personId);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("FeedbackSettingsOwner [personId=").append(personId).append(", organizationId=").append(organizationId).append("]");
+		return builder.toString();
+	}
+}
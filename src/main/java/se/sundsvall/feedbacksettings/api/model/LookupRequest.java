@@ -0,0 +1,80 @@
+package se.sundsvall.feedbacksettings.api.model;
+
+import java.util.List;
+import java.util.Objects;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+import se.sundsvall.feedbacksettings.api.validation.ValidUuid;
+
+@Schema(description = "Request model for looking up many feedback settings in one request")
+public class LookupRequest {
+	static final int MAX_LOOKUP_SIZE = 10000;
+
+	@Schema(type = SchemaType.ARRAY, description = "Ids of feedback settings to look up", example = "[\"0d64c132-3aea-11ec-8d3d-0242ac130003\"]")
+	@Size(max = MAX_LOOKUP_SIZE)
+	private List<@NotNull @ValidUuid String> ids;
+
+	@Schema(type = SchemaType.ARRAY, implementation = FeedbackSettingsOwner.class, description = "Persons (and organizations) to look up feedback settings for")
+	@Size(max = MAX_LOOKUP_SIZE)
+	private List<@NotNull @Valid FeedbackSettingsOwner> owners;
+
+	public static LookupRequest create() {
+		return new LookupRequest();
+	}
+
+	public List<String> getIds() {
+		return ids;
+	}
+
+	public void setIds(List<String> ids) {
+		this.ids = ids;
+	}
+
+	public LookupRequest withIds(List<String> ids) {
+		this.ids = ids;
+		return this;
+	}
+
+	public List<FeedbackSettingsOwner> getOwners() {
+		return owners;
+	}
+
+	public void setOwners(List<FeedbackSettingsOwner> owners) {
+		this.owners = owners;
+	}
+
+	public LookupRequest withOwners(List<FeedbackSettingsOwner> owners) {
+		this.owners = owners;
+		return this;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(ids, owners);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		LookupRequest other = (LookupRequest) obj;
+		return Objects.equals(ids, other.ids) && Objects.equals(owners, other.owners);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("LookupRequest [ids=").append(ids).append(", owners=").append(owners).append("]");
+		return builder.toString();
+	}
+}
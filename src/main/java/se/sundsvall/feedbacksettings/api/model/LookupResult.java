@@ -0,0 +1,105 @@
+package se.sundsvall.feedbacksettings.api.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+@Schema(description = "Lookup result response model")
+public class LookupResult {
+	@Schema(type = SchemaType.OBJECT, description = "Matching feedback settings keyed by the requested id", readOnly = true)
+	private Map<String, FeedbackSettings> matchesById;
+
+	@Schema(type = SchemaType.ARRAY, implementation = OwnerMatch.class, description = "Matching feedback settings for each requested owner", readOnly = true)
+	private List<OwnerMatch> matchesByOwner;
+
+	@Schema(type = SchemaType.ARRAY, description = "Requested ids without matching feedback settings", readOnly = true)
+	private List<String> unmatchedIds;
+
+	@Schema(type = SchemaType.ARRAY, implementation = FeedbackSettingsOwner.class, description = "Requested owners without matching feedback settings", readOnly = true)
+	private List<FeedbackSettingsOwner> unmatchedOwners;
+
+	public static LookupResult create() {
+		return new LookupResult();
+	}
+
+	public Map<String, FeedbackSettings> getMatchesById() {
+		return matchesById;
+	}
+
+	public void setMatchesById(Map<String, FeedbackSettings> matchesById) {
+		this.matchesById = matchesById;
+	}
+
+	public LookupResult withMatchesById(Map<String, FeedbackSettings> matchesById) {
+		this.matchesById = matchesById;
+		return this;
+	}
+
+	public List<OwnerMatch> getMatchesByOwner() {
+		return matchesByOwner;
+	}
+
+	public void setMatchesByOwner(List<OwnerMatch> matchesByOwner) {
+		this.matchesByOwner = matchesByOwner;
+	}
+
+	public LookupResult withMatchesByOwner(List<OwnerMatch> matchesByOwner) {
+		this.matchesByOwner = matchesByOwner;
+		return this;
+	}
+
+	public List<String> getUnmatchedIds() {
+		return unmatchedIds;
+	}
+
+	public void setUnmatchedIds(List<String> unmatchedIds) {
+		this.unmatchedIds = unmatchedIds;
+	}
+
+	public LookupResult withUnmatchedIds(List<String> unmatchedIds) {
+		this.unmatchedIds = unmatchedIds;
+		return this;
+	}
+
+	public List<FeedbackSettingsOwner> getUnmatchedOwners() {
+		return unmatchedOwners;
+	}
+
+	public void setUnmatchedOwners(List<FeedbackSettingsOwner> unmatchedOwners) {
+		this.unmatchedOwners = unmatchedOwners;
+	}
+
+	public LookupResult withUnmatchedOwners(List<FeedbackSettingsOwner> unmatchedOwners) {
+		this.unmatchedOwners = unmatchedOwners;
+		return this;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(matchesById, matchesByOwner, unmatchedIds, unmatchedOwners);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		LookupResult other = (LookupResult) obj;
+		return Objects.equals(matchesById, other.matchesById) && Objects.equals(matchesByOwner, other.matchesByOwner)
+				&& Objects.equals(unmatchedIds, other.unmatchedIds) && Objects.equals(unmatchedOwners, other.unmatchedOwners);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("LookupResult [matchesById=").append(matchesById).append(", matchesByOwner=").append(matchesByOwner)
+				.append(", unmatchedIds=").append(unmatchedIds).append(", unmatchedOwners=").append(unmatchedOwners).append("]");
+		return builder.toString();
+	}
+}
@@ -7,8 +7,8 @@ import org.eclipse.microprofile.openapi.annotations.media.Schema;
 @Schema(description = "Metadata model")
 public class MetaData {
 
-	@Schema(description = "Current page", example = "5", readOnly = true)
-	private int page;
+	@Schema(description = "Current page, absent when paging with cursor", example = "5", readOnly = true)
+	private Integer page;
 
 	@Schema(description = "Displayed objects per page", example = "20", readOnly = true)
 	private int limit;
@@ -16,51 +16,71 @@ public class MetaData {
 	@Schema(description = "Displayed objects on current page", example = "13", readOnly = true)
 	private int count;
 
-	@Schema(description = "Total amount of hits based on provided search parameters", example = "98", readOnly = true)
-	private long totalRecords;
+	@Schema(description = "Total amount of hits based on provided search parameters, absent when totals are not requested", example = "98", readOnly = true)
+	private Long totalRecords;
 
-	@Schema(description = "Total amount of pages based on provided search parameters", example = "23", readOnly = true)
-	private int totalPages;
+	@Schema(description = "Total amount of pages based on provided search parameters, absent when totals are not requested", example = "23", readOnly = true)
+	private Integer totalPages;
+
+	@Schema(description = "Signals if more hits exist after current page, only present when totals are not requested", example = "true", readOnly = true)
+	private Boolean hasMore;
+
+	@Schema(description = "Opaque cursor to send as parameter 'after' to fetch next page when paging with cursor, absent when there are no more pages",
+			example = "OWEyNDc0M2MtNWMxOS00Nzc0LTk1NGUtYTNhZDY3YTczNGUz", readOnly = true)
+	private String next;
 	
 	public static MetaData create() {
 		return new MetaData();
 	}
 	
-	public long getTotalRecords() {
+	public Long getTotalRecords() {
 		return totalRecords;
 	}
 
-	public void setTotalRecords(long totalRecords) {
+	public void setTotalRecords(Long totalRecords) {
 		this.totalRecords = totalRecords;
 	}
 
-	public MetaData withTotalRecords(long totalRecords) {
+	public MetaData withTotalRecords(Long totalRecords) {
 		this.totalRecords = totalRecords;
 		return this;
 	}
 
-	public int getTotalPages() {
+	public Integer getTotalPages() {
 		return totalPages;
 	}
 
-	public void setTotalPages(int totalPages) {
+	public void setTotalPages(Integer totalPages) {
 		this.totalPages = totalPages;
 	}
 
-	public MetaData withTotalPages(int totalPages) {
+	public MetaData withTotalPages(Integer totalPages) {
 		this.totalPages = totalPages;
 		return this;
 	}
 
-	public int getPage() {
+	public Boolean getHasMore() {
+		return hasMore;
+	}
+
+	public void setHasMore(Boolean hasMore) {
+		this.hasMore = hasMore;
+	}
+
+	public MetaData withHasMore(Boolean hasMore) {
+		this.hasMore = hasMore;
+		return this;
+	}
+
+	public Integer getPage() {
 		return page;
 	}
 
-	public void setPage(int page) {
+	public void setPage(Integer page) {
 		this.page = page;
 	}
 
-	public MetaData withPage(int page) {
+	public MetaData withPage(Integer page) {
 		this.page = page;
 		return this;
 	}
@@ -91,9 +111,22 @@ public class MetaData {
 		return this;
 	}
 
+	public String getNext() {
+		return next;
+	}
+
+	public void setNext(String next) {
+		this.next = next;
+	}
+
+	public MetaData withNext(String next) {
+		this.next = next;
+		return this;
+	}
+
 	@Override
 	public int hashCode() {
-		return Objects.hash(count, limit, page, totalPages, totalRecords);
+		return Objects.hash(count, hasMore, limit, next, page, totalPages, totalRecords);
 	}
 
 	@Override
@@ -105,15 +138,16 @@ public class MetaData {
 		if (getClass() != obj.getClass())
 			return false;
 		MetaData other = (MetaData) obj;
-		return count == other.count && limit == other.limit && page == other.page && totalPages == other.totalPages
-				&& totalRecords == other.totalRecords;
+		return count == other.count && Objects.equals(hasMore, other.hasMore) && limit == other.limit && Objects.equals(next, other.next)
+				&& Objects.equals(page, other.page) && Objects.equals(totalPages, other.totalPages) && Objects.equals(totalRecords, other.totalRecords);
 	}
 
 	@Override
 	public String toString() {
 		StringBuilder builder = new StringBuilder();
 		builder.append("MetaData [page=").append(page).append(", limit=").append(limit).append(", count=").append(count)
-				.append(", totalRecords=").append(totalRecords).append(", totalPages=").append(totalPages).append("]");
+				.append(", totalRecords=").append(totalRecords).append(", totalPages=").append(totalPages).append(", hasMore=").append(hasMore)
+				.append(", next=").append(next).append("]");
 		return builder.toString();
 	}
 
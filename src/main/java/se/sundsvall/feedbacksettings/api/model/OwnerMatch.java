@@ -0,0 +1,68 @@
+package se.sundsvall.feedbacksettings.api.model;
+
+import java.util.Objects;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+@Schema(description = "Feedback settings matching one of the owners in a lookup request")
+public class OwnerMatch {
+	@Schema(implementation = FeedbackSettingsOwner.class, readOnly = true)
+	private FeedbackSettingsOwner owner;
+
+	@Schema(implementation = FeedbackSettings.class, readOnly = true)
+	private FeedbackSettings feedbackSettings;
+
+	public static OwnerMatch create() {
+		return new OwnerMatch();
+	}
+
+	public FeedbackSettingsOwner getOwner() {
+		return owner;
+	}
+
+	public void setOwner(FeedbackSettingsOwner owner) {
+		this.owner = owner;
+	}
+
+	public OwnerMatch withOwner(FeedbackSettingsOwner owner) {
+		this.owner = owner;
+		return this;
+	}
+
+	public FeedbackSettings getFeedbackSettings() {
+		return feedbackSettings;
+	}
+
+	public void setFeedbackSettings(FeedbackSettings feedbackSettings) {
+		this.feedbackSettings = feedbackSettings;
+	}
+
+	public OwnerMatch withFeedbackSettings(FeedbackSettings feedbackSettings) {
+		this.feedbackSettings = feedbackSettings;
+		return this;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(feedbackSettings, owner);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		OwnerMatch other = (OwnerMatch) obj;
+		return Objects.equals(feedbackSettings, other.feedbackSettings) && Objects.equals(owner, other.owner);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("OwnerMatch [owner=").append(owner).append(", feedbackSettings=").append(feedbackSettings).append("]");
+		return builder.toString();
+	}
+}
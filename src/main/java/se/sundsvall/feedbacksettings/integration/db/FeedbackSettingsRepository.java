@@ -1,36 +1,569 @@
 package se.sundsvall.feedbacksettings.integration.db;
 
+import static java.time.temporal.ChronoUnit.MILLIS;
+import static java.util.Collections.emptyList;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
-import static se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsEntity.FEEDBACK_SETTINGS_ORGANIZATION_ID_FILTER;
-import static se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsEntity.FEEDBACK_SETTINGS_PERSON_ID_FILTER;
+import static org.apache.commons.lang3.StringUtils.isNotEmpty;
+import static se.sundsvall.feedbacksettings.integration.db.model.FeedbackChannelEmbeddable.normalizeDestination;
+import static se.sundsvall.feedbacksettings.integration.db.type.BinaryUuidStringType.toBytes;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-import java.util.Map;
-import static java.util.Objects.isNull;
 import javax.enterprise.context.ApplicationScoped;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.TypedQuery;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.FlushMode;
+import org.hibernate.ReplicationMode;
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
 
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
+import se.sundsvall.feedbacksettings.ContactMethod;
+import se.sundsvall.feedbacksettings.integration.db.id.ShardKey;
+import se.sundsvall.feedbacksettings.integration.db.id.UuidGenerator;
+import se.sundsvall.feedbacksettings.integration.db.id.UuidStrategy;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsChannelRow;
 import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsEntity;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsJsonRow;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsRow;
 
 @ApplicationScoped
 public class FeedbackSettingsRepository implements PanacheRepositoryBase<FeedbackSettingsEntity, String> {
-	public PanacheQuery<FeedbackSettingsEntity> findByPersonIdAndOrganizationId(String personId, String organizationId) {
-		var query = findAll();
-		
+	private static final String ID = "id";
+	private static final String TENANT_ID = "tenantId";
+	private static final String PERSON_ID = "personId";
+	private static final String ORGANIZATION_ID = "organizationId";
+	private static final String DESTINATION = "destination";
+	private static final String CONTACT_METHOD = "contactMethod";
+	private static final String SELECT_CHANNEL_ROWS = "select new " + FeedbackSettingsChannelRow.class.getName()
+		+ "(s.id, s.personId, s.organizationId, s.created, s.modified, s.version, c.contactMethod, c.destination, c.sendFeedback) from FeedbackSettingsEntity s";
+
+	@ConfigProperty(name = UuidGenerator.STRATEGY_PROPERTY)
+	UuidStrategy uuidStrategy;
+
+	/**
+	 * Method returns settings of sent in tenant matching sent in personId and organizationId, ordered by id (the same order
+	 * as when the settings of all shards are merged). Parameters are matched by equality predicates, making it possible
+	 * for the database to use the indexes on tenant_id and person_id or organization_id.
+	 * 
+	 * @param tenantId tenant owning the settings
+	 * @param personId personId to filter on (or null for no filtering)
+	 * @param organizationId organizationId to filter on (or null for no filtering)
+	 * @return query for matching settings ordered by id
+	 */
+	public PanacheQuery<FeedbackSettingsEntity> findByPersonIdAndOrganizationId(String tenantId, String personId, String organizationId) {
+		return findByPersonIdAndOrganizationIdAfterId(tenantId, personId, organizationId, null, Sort.by(ID));
+	}
+
+	/**
+	 * Method returns settings of sent in tenant matching sent in personId and organizationId, ordered by id and starting
+	 * after sent in id (keyset paging). As the primary key is used both for ordering and positioning, the cost of fetching
+	 * a page is independent of how far into the result the page is located.
+	 * 
+	 * @param tenantId tenant owning the settings
+	 * @param personId personId to filter on (or null for no filtering)
+	 * @param organizationId organizationId to filter on (or null for no filtering)
+	 * @param afterId id of the last element on previous page (or null to start from the beginning)
+	 * @return query for settings ordered by id
+	 */
+	public PanacheQuery<FeedbackSettingsEntity> findByPersonIdAndOrganizationIdAfterId(String tenantId, String personId, String organizationId, String afterId) {
+		return findByPersonIdAndOrganizationIdAfterId(tenantId, personId, organizationId, afterId, Sort.by(ID));
+	}
+
+	/**
+	 * Method returns settings of sent in tenant matching sent in id, with feedback channels fetched in the same statement.
+	 * 
+	 * @param tenantId tenant owning the settings
+	 * @param id id of settings to return
+	 * @return optional containing settings if found
+	 */
+	public Optional<FeedbackSettingsEntity> findByIdWithFeedbackChannels(String tenantId, String id) {
+		return find("select distinct s from FeedbackSettingsEntity s left join fetch s.feedbackChannels where s.tenantId = ?1 and s.id = ?2", tenantId, id).singleResultOptional();
+	}
+
+	/**
+	 * Method returns a read only projection of settings of sent in tenant matching sent in id, without feedback channels.
+	 * Used for checking the version of settings without reading their channels.
+	 * 
+	 * @param tenantId tenant owning the settings
+	 * @param id id of settings to return
+	 * @return optional containing settings if found
+	 */
+	public Optional<FeedbackSettingsRow> findSettingsRowById(String tenantId, String id) {
+		return find(TENANT_ID + " = ?1 and " + ID + " = ?2", tenantId, id)
+			.withHint(QueryHints.HINT_READONLY, true)
+			.withHint(QueryHints.HINT_FLUSH_MODE, FlushMode.MANUAL)
+			.project(FeedbackSettingsRow.class)
+			.singleResultOptional();
+	}
+
+	/**
+	 * Method returns a read only projection of settings matching sent in id, with feedback channels read from the JSON
+	 * copy in the settings row. The setting is hence read by one primary key lookup, without joining feedback_channels.
+	 * 
+	 * @param tenantId tenant owning the settings
+	 * @param id id of settings to return
+	 * @return optional containing settings if found
+	 */
+	public Optional<FeedbackSettingsJsonRow> findJsonRowById(String tenantId, String id) {
+		return findJsonRows(tenantId, ID + " = ?2", id).singleResultOptional();
+	}
+
+	/**
+	 * Method returns a read only projection of settings matching any of sent in ids, with feedback channels read from the
+	 * JSON copy in the settings rows. Callers are responsible for keeping the number of ids at a level the database
+	 * accepts in one IN-predicate.
+	 * 
+	 * @param tenantId tenant owning the settings
+	 * @param ids ids of settings to return
+	 * @return list of matching settings
+	 */
+	public List<FeedbackSettingsJsonRow> findJsonRowsByIds(String tenantId, List<String> ids) {
+		return ids.isEmpty() ? emptyList() : findJsonRows(tenantId, ID + " in ?2", ids).list();
+	}
+
+	/**
+	 * Method returns a read only projection of all settings (personal as well as organizational representative settings)
+	 * belonging to any of sent in persons, with feedback channels read from the JSON copy in the settings rows.
+	 * 
+	 * @param tenantId tenant owning the settings
+	 * @param personIds ids of persons to return settings for
+	 * @return list of matching settings
+	 */
+	public List<FeedbackSettingsJsonRow> findJsonRowsByPersonIds(String tenantId, List<String> personIds) {
+		return personIds.isEmpty() ? emptyList() : findJsonRows(tenantId, PERSON_ID + " in ?2", personIds).list();
+	}
+
+	/**
+	 * Method returns settings matching sent in personId and organizationId, with feedback channels fetched in the same
+	 * statement.
+	 * 
+	 * @param tenantId tenant owning the settings
+	 * @param personId personId of settings to return
+	 * @param organizationId organizationId of settings to return (or null for personal settings)
+	 * @return optional containing settings if found
+	 */
+	public Optional<FeedbackSettingsEntity> findByPersonIdAndOrganizationIdWithFeedbackChannels(String tenantId, String personId, String organizationId) {
+		if (isNull(organizationId)) {
+			return find("select distinct s from FeedbackSettingsEntity s left join fetch s.feedbackChannels where s.tenantId = ?1 and s.personId = ?2 and s.organizationId is null", tenantId, personId).singleResultOptional();
+		}
+		return find("select distinct s from FeedbackSettingsEntity s left join fetch s.feedbackChannels where s.tenantId = ?1 and s.personId = ?2 and s.organizationId = ?3", tenantId, personId, organizationId).singleResultOptional();
+	}
+
+	/**
+	 * Method creates settings (without feedback channels) for sent in owner, or marks existing settings for the owner as
+	 * modified, with one atomic statement keyed on unique constraint feedback_settings_tenant_owner_unique_constraint.
+	 * Concurrent calls for the same owner therefore never fail on the constraint, and existing settings stay locked by
+	 * the statement until the transaction ends. The constraint covers the generated column organization_key instead of
+	 * organization_id, so that personal settings of the same person collide as well. The version of existing settings is
+	 * left as it is, as it is incremented when the changes of the caller are flushed.
+	 * 
+	 * @param tenantId tenant owning the settings
+	 * @param personId personId of settings to create or mark as modified
+	 * @param organizationId organizationId of settings to create or mark as modified (or null for personal settings)
+	 * @return id that the settings were given if created by the statement. Settings with another id existed already.
+	 */
+	public String upsertByPersonIdAndOrganizationId(String tenantId, String personId, String organizationId) {
+		OffsetDateTime now = OffsetDateTime.now().truncatedTo(MILLIS);
+		String id = ShardKey.withShardKeyOf(uuidStrategy.generate(), personId);
+
+		getEntityManager().createNativeQuery("insert into feedback_settings (id, tenant_id, person_id, organization_id, created, version) values (:id, :tenantId, :personId, :organizationId, :now, 0) "
+			+ "on duplicate key update modified = :now")
+			.setParameter(ID, toBytes(id))
+			.setParameter(TENANT_ID, tenantId)
+			.setParameter(PERSON_ID, toBytes(personId))
+			.setParameter(ORGANIZATION_ID, toBytes(organizationId))
+			.setParameter("now", now)
+			.executeUpdate();
+		return id;
+	}
+
+	/**
+	 * Method returns a read only projection of settings matching sent in id, with one row per feedback channel (or one
+	 * row if the setting has no channels).
+	 * 
+	 * @param tenantId tenant owning the settings
+	 * @param id id of settings to return
+	 * @return list of rows for matching settings, or an empty list if no settings match sent in id
+	 */
+	public List<FeedbackSettingsChannelRow> findRowsById(String tenantId, String id) {
+		return findRows(getEntityManager(), tenantId, ID + " = :" + ID, ID, id);
+	}
+
+	/**
+	 * Method returns a read only projection of settings matching any of sent in ids, with one row per feedback channel
+	 * (or one row for settings without channels). Callers are responsible for keeping the number of ids at a level
+	 * the database accepts in one IN-predicate.
+	 * 
+	 * @param tenantId tenant owning the settings
+	 * @param ids ids of settings to return
+	 * @return list of rows for matching settings, ordered by setting id
+	 */
+	public List<FeedbackSettingsChannelRow> findRowsByIds(String tenantId, List<String> ids) {
+		return findRowsByIds(getEntityManager(), tenantId, ids);
+	}
+
+	/**
+	 * Same as {@link #findRowsByIds(String, List)}, but executed by sent in entity manager (for example the session of one
+	 * shard).
+	 */
+	public List<FeedbackSettingsChannelRow> findRowsByIds(EntityManager entityManager, String tenantId, List<String> ids) {
+		return ids.isEmpty() ? emptyList() : findRows(entityManager, tenantId, ID + " in :" + ID, ID, ids);
+	}
+
+	/**
+	 * Method returns a read only projection of all settings (personal as well as organizational representative settings)
+	 * belonging to any of sent in persons, with one row per feedback channel (or one row for settings without channels).
+	 * 
+	 * @param tenantId tenant owning the settings
+	 * @param personIds ids of persons to return settings for
+	 * @return list of rows for matching settings, ordered by setting id
+	 */
+	public List<FeedbackSettingsChannelRow> findRowsByPersonIds(String tenantId, List<String> personIds) {
+		return findRowsByPersonIds(getEntityManager(), tenantId, personIds);
+	}
+
+	/**
+	 * Same as {@link #findRowsByPersonIds(String, List)}, but executed by sent in entity manager (for example the session
+	 * of one shard).
+	 */
+	public List<FeedbackSettingsChannelRow> findRowsByPersonIds(EntityManager entityManager, String tenantId, List<String> personIds) {
+		return personIds.isEmpty() ? emptyList() : findRows(entityManager, tenantId, PERSON_ID + " in :" + PERSON_ID, PERSON_ID, personIds);
+	}
+
+	/**
+	 * Method returns a read only projection of all settings having at least one feedback channel with sent in destination,
+	 * with one row per feedback channel of matching settings. Destinations are compared in normalized form, making it
+	 * possible for the database to use the index on normalized_destination and contact_method.
+	 * 
+	 * @param tenantId tenant owning the settings
+	 * @param destination destination to search for
+	 * @param contactMethod contact method to filter on (or null for no filtering)
+	 * @return list of rows for matching settings, ordered by setting id
+	 */
+	public List<FeedbackSettingsChannelRow> findRowsByDestination(String tenantId, String destination, ContactMethod contactMethod) {
+		return findRowsByDestination(getEntityManager(), tenantId, destination, contactMethod);
+	}
+
+	/**
+	 * Same as {@link #findRowsByDestination(String, String, ContactMethod)}, but executed by sent in entity manager (for
+	 * example the session of one shard).
+	 */
+	public List<FeedbackSettingsChannelRow> findRowsByDestination(EntityManager entityManager, String tenantId, String destination, ContactMethod contactMethod) {
+		String predicate = "d.normalizedDestination = :" + DESTINATION + (isNull(contactMethod) ? "" : " and d.contactMethod = :" + CONTACT_METHOD);
+
+		TypedQuery<FeedbackSettingsChannelRow> query = readOnly(entityManager.createQuery(SELECT_CHANNEL_ROWS
+			+ " join s.feedbackChannels c where s.tenantId = :" + TENANT_ID + " and s.id in (select m.id from FeedbackSettingsEntity m join m.feedbackChannels d where " + predicate + ") order by s.id",
+			FeedbackSettingsChannelRow.class))
+			.setParameter(TENANT_ID, tenantId)
+			.setParameter(DESTINATION, normalizeDestination(destination));
+		if (nonNull(contactMethod)) {
+			query.setParameter(CONTACT_METHOD, contactMethod.name());
+		}
+		return query.getResultList();
+	}
+
+	/**
+	 * Method returns a read only projection of the feedback channels belonging to settings matching sent in ids, loaded
+	 * with one statement regardless of the number of ids.
+	 * 
+	 * @param ids ids of settings to return feedback channels for
+	 * @return list of rows, one per feedback channel, ordered by setting id
+	 */
+	public List<FeedbackSettingsChannelRow> findFeedbackChannelRowsBySettingIds(List<String> ids) {
+		return findFeedbackChannelRowsBySettingIds(getEntityManager(), ids);
+	}
+
+	/**
+	 * Same as {@link #findFeedbackChannelRowsBySettingIds(List)}, but executed by sent in entity manager (for example the
+	 * session of one shard).
+	 */
+	public List<FeedbackSettingsChannelRow> findFeedbackChannelRowsBySettingIds(EntityManager entityManager, List<String> ids) {
+		if (ids.isEmpty()) {
+			return emptyList();
+		}
+		return readOnly(entityManager.createQuery(SELECT_CHANNEL_ROWS + " join s.feedbackChannels c where s.id in :id order by s.id", FeedbackSettingsChannelRow.class))
+			.setParameter(ID, ids)
+			.getResultList();
+	}
+
+	/**
+	 * Method streams all settings of sent in tenant joined with their feedback channels, ordered by setting id so that all
+	 * rows belonging to one setting are adjacent. Rows are read through a forward only cursor and are not attached to the
+	 * persistence context, hence the stream must be consumed (and closed) within an active transaction.
+	 *
+	 * @param tenantId tenant owning the settings
+	 * @param fetchSize number of rows to fetch from the database in each roundtrip
+	 * @return stream of rows, one per feedback channel (or one for settings without channels)
+	 */
+	public Stream<FeedbackSettingsChannelRow> streamAllWithFeedbackChannels(String tenantId, int fetchSize) {
+		return streamAllWithFeedbackChannels(getEntityManager(), tenantId, fetchSize);
+	}
+
+	/**
+	 * Same as {@link #streamAllWithFeedbackChannels(String, int)}, but executed by sent in entity manager (for example the
+	 * session of one shard). The stream must be consumed (and closed) before the entity manager is closed.
+	 */
+	public Stream<FeedbackSettingsChannelRow> streamAllWithFeedbackChannels(EntityManager entityManager, String tenantId, int fetchSize) {
+		return readOnly(entityManager.createQuery(SELECT_CHANNEL_ROWS + " left join s.feedbackChannels c where s.tenantId = :" + TENANT_ID + " order by s.id", FeedbackSettingsChannelRow.class))
+			.setParameter(TENANT_ID, tenantId)
+			.setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+			.getResultStream();
+	}
+
+	/**
+	 * Method returns a read only projection of all settings (personal as well as organizational representative settings)
+	 * belonging to any of sent in persons, without feedback channels. Used for verifying that many settings do not exist
+	 * with one statement instead of one statement per setting.
+	 * 
+	 * @param tenantId tenant owning the settings
+	 * @param personIds ids of persons to return settings for
+	 * @return list of settings belonging to sent in persons
+	 */
+	public List<FeedbackSettingsRow> findSettingsRowsByPersonIds(String tenantId, List<String> personIds) {
+		if (personIds.isEmpty()) {
+			return emptyList();
+		}
+		return find(TENANT_ID + " = ?1 and " + PERSON_ID + " in ?2", tenantId, personIds)
+			.withHint(QueryHints.HINT_READONLY, true)
+			.withHint(QueryHints.HINT_FLUSH_MODE, FlushMode.MANUAL)
+			.project(FeedbackSettingsRow.class)
+			.list();
+	}
+
+	/**
+	 * Method returns a read only projection of settings, optionally filtered on tenant and organizationId, ordered by id
+	 * and starting after sent in id. Executed by sent in entity manager, used when settings of all shards are paged
+	 * through.
+	 * 
+	 * @param entityManager entity manager to execute the query by
+	 * @param tenantId tenant to filter on (or null for settings of all tenants)
+	 * @param organizationId organizationId to filter on (or null for no filtering)
+	 * @param afterId id to start after (or null to start from the beginning)
+	 * @param maxResults maximum number of settings to return
+	 * @return list of settings ordered by id
+	 */
+	public List<FeedbackSettingsRow> findSettingsRowsByOrganizationIdAfterId(EntityManager entityManager, String tenantId, String organizationId, String afterId, int maxResults) {
+		List<String> predicates = new ArrayList<>();
+		if (nonNull(tenantId)) {
+			predicates.add("s." + TENANT_ID + " = :" + TENANT_ID);
+		}
 		if (isNotBlank(organizationId)) {
-			query.filter(FEEDBACK_SETTINGS_ORGANIZATION_ID_FILTER, Map.of("organizationIdFilter", organizationId));
+			predicates.add("s." + ORGANIZATION_ID + " = :" + ORGANIZATION_ID);
 		}
-		if (isNotBlank(personId)) {
-			query.filter(FEEDBACK_SETTINGS_PERSON_ID_FILTER, Map.of("personIdFilter", personId));
+		if (isNotEmpty(afterId)) {
+			predicates.add("s." + ID + " > :" + ID);
 		}
-		
-		return query;
+
+		TypedQuery<FeedbackSettingsRow> query = readOnly(entityManager.createQuery("select new " + FeedbackSettingsRow.class.getName()
+			+ "(s.id, s.personId, s.organizationId, s.created, s.modified, s.version) from FeedbackSettingsEntity s"
+			+ (predicates.isEmpty() ? "" : " where " + String.join(" and ", predicates))
+			+ " order by s.id", FeedbackSettingsRow.class))
+			.setMaxResults(maxResults);
+		if (nonNull(tenantId)) {
+			query.setParameter(TENANT_ID, tenantId);
+		}
+		if (isNotBlank(organizationId)) {
+			query.setParameter(ORGANIZATION_ID, organizationId);
+		}
+		if (isNotEmpty(afterId)) {
+			query.setParameter(ID, afterId);
+		}
+		return query.getResultList();
+	}
+
+	/**
+	 * Method counts settings of sent in tenant, optionally filtered on organizationId. Executed by sent in entity manager,
+	 * used when settings of all shards are counted.
+	 * 
+	 * @param entityManager entity manager to execute the query by
+	 * @param tenantId tenant owning the settings
+	 * @param organizationId organizationId to filter on (or null for no filtering)
+	 * @return number of matching settings
+	 */
+	public long countByOrganizationId(EntityManager entityManager, String tenantId, String organizationId) {
+		if (isNotBlank(organizationId)) {
+			return readOnly(entityManager.createQuery("select count(s) from FeedbackSettingsEntity s where s.tenantId = :" + TENANT_ID + " and s.organizationId = :" + ORGANIZATION_ID, Long.class))
+				.setParameter(TENANT_ID, tenantId)
+				.setParameter(ORGANIZATION_ID, organizationId)
+				.getSingleResult();
+		}
+		return readOnly(entityManager.createQuery("select count(s) from FeedbackSettingsEntity s where s.tenantId = :" + TENANT_ID, Long.class))
+			.setParameter(TENANT_ID, tenantId)
+			.getSingleResult();
+	}
+
+	/**
+	 * Method checks if settings matching sent in id exist, by the primary key only. Executed by sent in entity manager,
+	 * used for locating the shard holding the settings.
+	 * 
+	 * @param entityManager entity manager to execute the query by
+	 * @param id id of settings to check
+	 * @return true if settings matching sent in id exist
+	 */
+	public boolean existsById(EntityManager entityManager, String id) {
+		return !readOnly(entityManager.createQuery("select s.id from FeedbackSettingsEntity s where s.id = :" + ID, String.class))
+			.setParameter(ID, id)
+			.getResultList()
+			.isEmpty();
+	}
+
+	/**
+	 * Method checks if settings of sent in tenant and person exist. Executed by sent in entity manager, used for locating
+	 * the shard holding the settings of a person while settings are moved between shards.
+	 * 
+	 * @param entityManager entity manager to execute the query by
+	 * @param tenantId tenant owning the settings
+	 * @param personId personId of settings to check
+	 * @return true if settings of sent in person exist
+	 */
+	public boolean existsByPersonId(EntityManager entityManager, String tenantId, String personId) {
+		return !findIdsByPersonId(entityManager, tenantId, personId, 1).isEmpty();
+	}
+
+	/**
+	 * Method returns ids of all settings of sent in tenant and person. Executed by sent in entity manager, used when the
+	 * settings of a person are moved from one shard to another.
+	 * 
+	 * @param entityManager entity manager to execute the query by
+	 * @param tenantId tenant owning the settings
+	 * @param personId personId of settings to return ids of
+	 * @return ids of matching settings
+	 */
+	public List<String> findIdsByPersonId(EntityManager entityManager, String tenantId, String personId) {
+		return findIdsByPersonId(entityManager, tenantId, personId, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Method inserts sent in settings, including channels, with their id, timestamps and version kept as they are. Used
+	 * when settings are moved from one shard to another. Existing settings with the same id are only replaced if they have
+	 * a lower version, which makes it safe to repeat an interrupted move. The settings are flushed, so that a conflict with
+	 * other settings (such as other settings of the same owner) fails the call.
+	 * 
+	 * @param entity settings to insert
+	 */
+	public void replicate(FeedbackSettingsEntity entity) {
+		Session session = getEntityManager().unwrap(Session.class);
+		session.replicate(entity, ReplicationMode.LATEST_VERSION);
+		session.flush();
+	}
+
+	/**
+	 * Method deletes settings matching sent in id, including channels, if they still have sent in version. The settings
+	 * are locked when read, so that they can not be modified between the version check and the delete.
+	 * 
+	 * @param id id of settings to delete
+	 * @param version version that the settings must have
+	 * @return true if the settings were deleted, false if no settings with sent in id and version exist
+	 */
+	public boolean deleteByIdAndVersion(String id, Long version) {
+		return findByIdOptional(id, LockModeType.PESSIMISTIC_WRITE)
+			.filter(entity -> version.equals(entity.getVersion()))
+			.map(entity -> {
+				delete(entity);
+				return true;
+			})
+			.orElse(false);
 	}
-	
-	public boolean existsByPersonIdAndOrganizationId(String personId, String organizationId) {
+
+	/**
+	 * Method persists sent in settings and flushes them to the database, which makes inserts into each table to be sent
+	 * as JDBC batches (sized by quarkus.hibernate-orm.jdbc.statement-batch-size). The settings are detached afterwards,
+	 * keeping the persistence context small when many settings are persisted within the same transaction.
+	 * 
+	 * @param entities settings to persist
+	 */
+	public void persistAndDetach(List<FeedbackSettingsEntity> entities) {
+		persist(entities);
+		flush();
+		getEntityManager().clear();
+	}
+
+	public boolean existsByPersonIdAndOrganizationId(String tenantId, String personId, String organizationId) {
 		if (isNull(organizationId)) { 
-			return count("person_id = ?1 and organization_id is null", personId) > 0; // Query for matching personal settings
+			return count("tenantId = ?1 and personId = ?2 and organizationId is null", tenantId, personId) > 0; // Query for matching personal settings
 		}
-		return count("person_id = ?1 and organization_id = ?2", personId, organizationId) > 0; // Query for matching organization representative settings
+		return count("tenantId = ?1 and personId = ?2 and organizationId = ?3", tenantId, personId, organizationId) > 0; // Query for matching organization representative settings
 	}
+
+	private PanacheQuery<FeedbackSettingsEntity> findByPersonIdAndOrganizationIdAfterId(String tenantId, String personId, String organizationId, String afterId, Sort sort) {
+		final var searchQuery = toSearchQuery(tenantId, personId, organizationId, afterId);
+
+		return find(searchQuery.query(), sort, searchQuery.parameters())
+			.withHint(QueryHints.HINT_READONLY, true)
+			.withHint(QueryHints.HINT_FLUSH_MODE, FlushMode.MANUAL);
+	}
+
+	/**
+	 * Method returns the query, without ordering, and the named parameters of a search for settings of sent in tenant
+	 * matching sent in personId and organizationId, starting after sent in id.
+	 */
+	static SearchQuery toSearchQuery(String tenantId, String personId, String organizationId, String afterId) {
+		List<String> predicates = new ArrayList<>();
+		Parameters parameters = new Parameters();
+
+		predicates.add(TENANT_ID + " = :" + TENANT_ID);
+		parameters.and(TENANT_ID, tenantId);
+
+		if (isNotBlank(personId)) {
+			predicates.add(PERSON_ID + " = :" + PERSON_ID);
+			parameters.and(PERSON_ID, personId);
+		}
+		if (isNotBlank(organizationId)) {
+			predicates.add(ORGANIZATION_ID + " = :" + ORGANIZATION_ID);
+			parameters.and(ORGANIZATION_ID, organizationId);
+		}
+		if (isNotEmpty(afterId)) {
+			predicates.add(ID + " > :" + ID);
+			parameters.and(ID, afterId);
+		}
+
+		return new SearchQuery("from FeedbackSettingsEntity where " + String.join(" and ", predicates), parameters);
+	}
+
+	private PanacheQuery<FeedbackSettingsJsonRow> findJsonRows(String tenantId, String predicate, Object parameterValue) {
+		return find(TENANT_ID + " = ?1 and " + predicate, tenantId, parameterValue)
+			.withHint(QueryHints.HINT_READONLY, true)
+			.withHint(QueryHints.HINT_FLUSH_MODE, FlushMode.MANUAL)
+			.project(FeedbackSettingsJsonRow.class);
+	}
+
+	private List<FeedbackSettingsChannelRow> findRows(EntityManager entityManager, String tenantId, String predicate, String parameterName, Object parameterValue) {
+		return readOnly(entityManager.createQuery(SELECT_CHANNEL_ROWS + " left join s.feedbackChannels c where s." + TENANT_ID + " = :" + TENANT_ID + " and s." + predicate + " order by s.id", FeedbackSettingsChannelRow.class))
+			.setParameter(TENANT_ID, tenantId)
+			.setParameter(parameterName, parameterValue)
+			.getResultList();
+	}
+
+	private List<String> findIdsByPersonId(EntityManager entityManager, String tenantId, String personId, int maxResults) {
+		return readOnly(entityManager.createQuery("select s.id from FeedbackSettingsEntity s where s." + TENANT_ID + " = :" + TENANT_ID + " and s." + PERSON_ID + " = :" + PERSON_ID, String.class))
+			.setParameter(TENANT_ID, tenantId)
+			.setParameter(PERSON_ID, personId)
+			.setMaxResults(maxResults)
+			.getResultList();
+	}
+
+	/**
+	 * Marks sent in query as read only and disables automatic flush before it is executed, as projections never return
+	 * entities that needs dirty checking.
+	 */
+	private static <T> TypedQuery<T> readOnly(TypedQuery<T> query) {
+		return query
+			.setHint(QueryHints.HINT_READONLY, true)
+			.setHint(QueryHints.HINT_FLUSH_MODE, FlushMode.MANUAL);
+	}
+
+	record SearchQuery(String query, Parameters parameters) {}
 }
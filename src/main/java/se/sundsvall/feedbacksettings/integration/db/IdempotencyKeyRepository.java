@@ -0,0 +1,86 @@
+package se.sundsvall.feedbacksettings.integration.db;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.panache.common.Parameters;
+import se.sundsvall.feedbacksettings.integration.db.model.IdempotencyKeyEntity;
+
+@ApplicationScoped
+public class IdempotencyKeyRepository implements PanacheRepositoryBase<IdempotencyKeyEntity, String> {
+	private static final String IDEMPOTENCY_KEY = "idempotencyKey";
+	private static final String NOW = "now";
+
+	/**
+	 * Method returns the stored use of sent in idempotency key, unless it has expired.
+	 *
+	 * @param idempotencyKey idempotency key to return stored use for
+	 * @param now point in time to decide expiration from
+	 * @return optional containing stored use of the key if present and not expired
+	 */
+	public Optional<IdempotencyKeyEntity> findNonExpired(String idempotencyKey, OffsetDateTime now) {
+		return find(IDEMPOTENCY_KEY + " = :" + IDEMPOTENCY_KEY + " and expires > :" + NOW, Parameters.with(IDEMPOTENCY_KEY, idempotencyKey).and(NOW, now))
+			.singleResultOptional();
+	}
+
+	/**
+	 * Method stores sent in idempotency key as in progress, unless the key is already stored. Concurrent requests using
+	 * the same key are resolved by the primary key of the table, so exactly one of them succeeds without any of them
+	 * failing on the constraint.
+	 *
+	 * @param idempotencyKey idempotency key to store
+	 * @param requestHash hash of the request using the key
+	 * @param now point in time when the key is stored
+	 * @param expires point in time when the key is released if the request never completes
+	 * @return true if the key was stored, false if the key was already stored by another request
+	 */
+	public boolean insertIfAbsent(String idempotencyKey, String requestHash, OffsetDateTime now, OffsetDateTime expires) {
+		return getEntityManager().createNativeQuery("insert ignore into idempotency_keys (idempotency_key, request_hash, created, expires) values (:idempotencyKey, :requestHash, :now, :expires)")
+			.setParameter(IDEMPOTENCY_KEY, idempotencyKey)
+			.setParameter("requestHash", requestHash)
+			.setParameter(NOW, now)
+			.setParameter("expires", expires)
+			.executeUpdate() == 1;
+	}
+
+	/**
+	 * Method stores the response of the request using sent in idempotency key.
+	 *
+	 * @param entity stored use of the key, containing the response to store
+	 * @return number of updated rows
+	 */
+	public int complete(IdempotencyKeyEntity entity) {
+		return update("status = :status, location = :location, entityTag = :entityTag, body = :body, expires = :expires where " + IDEMPOTENCY_KEY + " = :" + IDEMPOTENCY_KEY,
+			Parameters.with("status", entity.getStatus())
+				.and("location", entity.getLocation())
+				.and("entityTag", entity.getEntityTag())
+				.and("body", entity.getBody())
+				.and("expires", entity.getExpires())
+				.and(IDEMPOTENCY_KEY, entity.getIdempotencyKey()));
+	}
+
+	/**
+	 * Method deletes the stored use of sent in idempotency key if it has expired, making the key available for a new
+	 * request.
+	 *
+	 * @param idempotencyKey idempotency key to delete expired use for
+	 * @param now point in time to decide expiration from
+	 * @return number of deleted rows
+	 */
+	public long deleteExpired(String idempotencyKey, OffsetDateTime now) {
+		return delete(IDEMPOTENCY_KEY + " = :" + IDEMPOTENCY_KEY + " and expires <= :" + NOW, Parameters.with(IDEMPOTENCY_KEY, idempotencyKey).and(NOW, now));
+	}
+
+	/**
+	 * Method deletes all expired uses of idempotency keys with one statement, using the index on expires.
+	 *
+	 * @param now point in time to decide expiration from
+	 * @return number of deleted rows
+	 */
+	public long deleteAllExpired(OffsetDateTime now) {
+		return delete("expires <= ?1", now);
+	}
+}
@@ -0,0 +1,53 @@
+package se.sundsvall.feedbacksettings.integration.db.id;
+
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Shard keys of persons, used for placing settings in shards. Ids of settings carry the shard key of the person owning
+ * them in their lowest 32 bits, marked by UUID version 8, so that the shard of settings can be derived from the id alone.
+ * The time ordered or random bits of the generated id are kept, apart from the replaced version and lowest 32 bits.
+ */
+public final class ShardKey {
+	private static final int VERSION_8 = 8;
+	private static final long VERSION_MASK = 0xF000L;
+	private static final long VERSION_8_BITS = 0x8000L;
+	private static final long KEY_MASK = 0xFFFFFFFFL;
+
+	private ShardKey() {}
+
+	/**
+	 * Method returns the shard key of sent in person.
+	 *
+	 * @param personId id of person
+	 * @return shard key, in range [0, 2^32)
+	 */
+	public static long of(String personId) {
+		UUID uuid = UUID.fromString(personId);
+		long bits = uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
+		return (bits ^ bits >>> 32) & KEY_MASK;
+	}
+
+	/**
+	 * Method returns the shard key carried by sent in id of settings.
+	 *
+	 * @param id id of settings
+	 * @return shard key of the person owning the settings, or empty for ids generated before ids carried shard keys
+	 */
+	public static OptionalLong ofId(String id) {
+		UUID uuid = UUID.fromString(id);
+		return uuid.version() == VERSION_8 ? OptionalLong.of(uuid.getLeastSignificantBits() & KEY_MASK) : OptionalLong.empty();
+	}
+
+	/**
+	 * Method returns sent in generated id with the shard key of sent in person in it.
+	 *
+	 * @param id generated id
+	 * @param personId id of person owning the settings that the id is generated for
+	 * @return id carrying the shard key of the person
+	 */
+	public static String withShardKeyOf(String id, String personId) {
+		UUID uuid = UUID.fromString(id);
+		return new UUID(uuid.getMostSignificantBits() & ~VERSION_MASK | VERSION_8_BITS, uuid.getLeastSignificantBits() & ~KEY_MASK | of(personId)).toString();
+	}
+}
@@ -0,0 +1,38 @@
+package se.sundsvall.feedbacksettings.integration.db.id;
+
+import static java.util.Objects.nonNull;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsEntity;
+
+/**
+ * Hibernate generator of ids in UUID string form, generated by the strategy configured in property
+ * feedbacksettings.id.strategy (time ordered UUIDs if not configured). Ids of settings carry the shard key of the person
+ * owning them, see {@link ShardKey}.
+ */
+public class UuidGenerator implements IdentifierGenerator {
+	public static final String STRATEGY_PROPERTY = "feedbacksettings.id.strategy";
+
+	private UuidStrategy strategy;
+
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+		strategy = ConfigProvider.getConfig().getOptionalValue(STRATEGY_PROPERTY, UuidStrategy.class).orElse(UuidStrategy.TIME_ORDERED);
+	}
+
+	@Override
+	public Serializable generate(SharedSessionContractImplementor session, Object object) {
+		if (object instanceof FeedbackSettingsEntity entity && nonNull(entity.getPersonId())) {
+			return ShardKey.withShardKeyOf(strategy.generate(), entity.getPersonId());
+		}
+		return strategy.generate();
+	}
+}
@@ -0,0 +1,54 @@
+package se.sundsvall.feedbacksettings.integration.db.id;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Strategies for generating ids, selected by property feedbacksettings.id.strategy.
+ */
+public enum UuidStrategy {
+
+	/**
+	 * Random (version 4) UUIDs. Inserts are scattered over the whole primary key index.
+	 */
+	RANDOM {
+		@Override
+		public String generate() {
+			return UUID.randomUUID().toString();
+		}
+	},
+
+	/**
+	 * Time ordered (version 7) UUIDs, starting with the number of milliseconds since epoch followed by a counter and
+	 * random bits. New ids are greater than earlier generated ids, so inserts are appended to the end of the primary key
+	 * index instead of splitting pages all over it.
+	 */
+	TIME_ORDERED {
+		@Override
+		public String generate() {
+			// The upper 48 bits of the timestamp and counter are milliseconds since epoch and the lower 12 bits are a counter,
+			// making ids generated within the same millisecond ordered as well. A counter overflow borrows the next millisecond.
+			long timestampAndCounter = LAST_TIMESTAMP_AND_COUNTER.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis() << COUNTER_BITS));
+
+			long mostSignificantBits = (timestampAndCounter >>> COUNTER_BITS) << 16 | VERSION_7 | timestampAndCounter & COUNTER_MASK;
+			long leastSignificantBits = RANDOM_NUMBER_GENERATOR.nextLong() & VARIANT_MASK | VARIANT_IETF;
+			return new UUID(mostSignificantBits, leastSignificantBits).toString();
+		}
+	};
+
+	private static final int COUNTER_BITS = 12;
+	private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+	private static final long VERSION_7 = 0x7000L;
+	private static final long VARIANT_MASK = 0x3FFFFFFFFFFFFFFFL;
+	private static final long VARIANT_IETF = 0x8000000000000000L;
+	private static final AtomicLong LAST_TIMESTAMP_AND_COUNTER = new AtomicLong();
+	private static final SecureRandom RANDOM_NUMBER_GENERATOR = new SecureRandom();
+
+	/**
+	 * Method returns a new id in UUID string form.
+	 *
+	 * @return generated id
+	 */
+	public abstract String generate();
+}
@@ -3,23 +3,32 @@ package se.sundsvall.feedbacksettings.integration.db.model;
 import static java.util.Objects.isNull;
 
 import java.io.Serializable;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.regex.Pattern;
 
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Embeddable;
 
 import se.sundsvall.feedbacksettings.ContactMethod;
+import se.sundsvall.feedbacksettings.integration.db.type.ContactMethodConverter;
 
 @Embeddable
 public class FeedbackChannelEmbeddable implements Serializable {
 	private static final long serialVersionUID = -5056106879518247872L;
+	private static final Pattern WHITESPACE = Pattern.compile("\\s"); // Same characters as \s in delta script 002
 
+	@Convert(converter = ContactMethodConverter.class)
 	@Column(name = "contact_method", nullable = false)
-	private String contactMethod;
+	private String contactMethod; // Stored as a one byte code
 
 	@Column(name = "destination", nullable = false)
 	private String destination;
 
+	@Column(name = "normalized_destination", nullable = false)
+	private String normalizedDestination; // Maintained by setDestination, only used for lookup by destination
+
 	@Column(name = "send_feedback", nullable = false)
 	private boolean sendFeedback;
 
@@ -33,13 +42,25 @@ public class FeedbackChannelEmbeddable implements Serializable {
 
 	public void setDestination(String destination) {
 		this.destination = destination;
+		this.normalizedDestination = normalizeDestination(destination);
 	}
 
 	public FeedbackChannelEmbeddable withDestination(String destination) {
-		this.destination = destination;
+		setDestination(destination);
 		return this;
 	}
 
+	/**
+	 * Returns sent in destination in the form it is stored and searched for in column normalized_destination, i.e. in
+	 * lower case (independent of the default locale) and without whitespace.
+	 * 
+	 * @param destination destination to normalize
+	 * @return normalized destination (or null if sent in destination is null)
+	 */
+	public static String normalizeDestination(String destination) {
+		return isNull(destination) ? null : WHITESPACE.matcher(destination).replaceAll("").toLowerCase(Locale.ROOT);
+	}
+
 	public ContactMethod getContactMethod() {
 		return isNull(contactMethod) ? null : ContactMethod.toEnum(contactMethod);
 	}
@@ -0,0 +1,66 @@
+package se.sundsvall.feedbacksettings.integration.db.model;
+
+import static java.util.Collections.emptyList;
+import static java.util.Objects.isNull;
+
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import se.sundsvall.feedbacksettings.ContactMethod;
+
+/**
+ * Conversion of feedback channels to and from the JSON array stored in column channels_json of table feedback_settings,
+ * e.g. [{"contactMethod":"SMS","destination":"0701234567","sendFeedback":true}].
+ */
+public final class FeedbackChannelsJson {
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+	private static final TypeReference<List<Channel>> CHANNELS_TYPE = new TypeReference<>() {};
+
+	private FeedbackChannelsJson() {}
+
+	/**
+	 * Method returns sent in channels as a JSON array.
+	 * 
+	 * @param feedbackChannels channels to convert
+	 * @return JSON array of sent in channels (or null if sent in list is null)
+	 */
+	public static String toJson(List<FeedbackChannelEmbeddable> feedbackChannels) {
+		if (isNull(feedbackChannels)) {
+			return null;
+		}
+		try {
+			return OBJECT_MAPPER.writeValueAsString(feedbackChannels.stream()
+				.map(channel -> new Channel(isNull(channel.getContactMethod()) ? null : channel.getContactMethod().name(), channel.getDestination(), channel.isSendFeedback()))
+				.toList());
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Method returns the channels in sent in JSON array.
+	 * 
+	 * @param json JSON array to convert
+	 * @return channels in sent in JSON array (or an empty list if sent in JSON is null)
+	 */
+	public static List<FeedbackChannelEmbeddable> fromJson(String json) {
+		if (isNull(json)) {
+			return emptyList();
+		}
+		try {
+			return OBJECT_MAPPER.readValue(json, CHANNELS_TYPE).stream()
+				.map(channel -> FeedbackChannelEmbeddable.create()
+					.withContactMethod(isNull(channel.contactMethod()) ? null : ContactMethod.toEnum(channel.contactMethod()))
+					.withDestination(channel.destination())
+					.withSendFeedback(channel.sendFeedback()))
+				.toList();
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private record Channel(String contactMethod, String destination, boolean sendFeedback) {}
+}
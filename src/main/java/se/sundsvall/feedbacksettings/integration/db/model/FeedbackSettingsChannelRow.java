@@ -0,0 +1,18 @@
+package se.sundsvall.feedbacksettings.integration.db.model;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Flat, read only projection of one feedback setting joined with one of its feedback channels. Settings without
+ * channels are represented by one row where all channel attributes are null.
+ */
+public record FeedbackSettingsChannelRow(
+	String id,
+	String personId,
+	String organizationId,
+	OffsetDateTime created,
+	OffsetDateTime modified,
+	Long version,
+	String contactMethod,
+	String destination,
+	Boolean sendFeedback) {}
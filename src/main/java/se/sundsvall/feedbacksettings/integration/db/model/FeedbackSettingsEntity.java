@@ -2,6 +2,7 @@ package se.sundsvall.feedbacksettings.integration.db.model;
 
 import static java.time.OffsetDateTime.now;
 import static java.time.temporal.ChronoUnit.MILLIS;
+import static se.sundsvall.feedbacksettings.integration.db.model.FeedbackChannelsJson.toJson;
 
 import java.io.Serializable;
 import java.time.OffsetDateTime;
@@ -17,57 +18,80 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.Index;
 import javax.persistence.JoinColumn;
+import javax.persistence.Lob;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
 
-import org.hibernate.annotations.Filter;
-import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.CollectionId;
 import org.hibernate.annotations.GenericGenerator;
-import org.hibernate.annotations.ParamDef;
+import org.hibernate.annotations.Type;
+import org.hibernate.annotations.TypeDef;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import se.sundsvall.feedbacksettings.integration.db.type.BinaryUuidStringType;
 
 @Entity
+@TypeDef(name = BinaryUuidStringType.NAME, typeClass = BinaryUuidStringType.class)
 @Table(name = "feedback_settings",
 	uniqueConstraints = {
-			@UniqueConstraint(name= "feedback_settings_person_id_organization_id_unique_constraint", columnNames = {"person_id", "organization_id"})},
+			@UniqueConstraint(name= "feedback_settings_tenant_owner_unique_constraint", columnNames = {"tenant_id", "person_id", "organization_key"})},
 	indexes = {
-			@Index(name = "feedback_settings_organization_id_index", columnList = "organization_id"),
-			@Index(name = "feedback_settings_person_id_index", columnList = "person_id")
+			@Index(name = "feedback_settings_tenant_id_organization_id_index", columnList = "tenant_id, organization_id"),
+			@Index(name = "feedback_settings_tenant_id_person_id_index", columnList = "tenant_id, person_id")
 })
-@FilterDef(name = FeedbackSettingsEntity.FEEDBACK_SETTINGS_ORGANIZATION_ID_FILTER, parameters = { @ParamDef(name = "organizationIdFilter", type = "string") })
-@FilterDef(name = FeedbackSettingsEntity.FEEDBACK_SETTINGS_PERSON_ID_FILTER, parameters = { @ParamDef(name = "personIdFilter", type = "string") })
-@Filter(name = FeedbackSettingsEntity.FEEDBACK_SETTINGS_ORGANIZATION_ID_FILTER, condition = "organization_id like :organizationIdFilter")
-@Filter(name = FeedbackSettingsEntity.FEEDBACK_SETTINGS_PERSON_ID_FILTER, condition = "person_id like :personIdFilter")
 public class FeedbackSettingsEntity extends PanacheEntityBase implements Serializable {
 
-	public static final String FEEDBACK_SETTINGS_ORGANIZATION_ID_FILTER = "feedbackSettingsOrganizationIdFilter";
-	public static final String FEEDBACK_SETTINGS_PERSON_ID_FILTER = "feedbackSettingsPersonIdFilter";
-	
 	private static final long serialVersionUID = 4363931508904928891L;
 
 	@Id
-	@GenericGenerator(name = "string_based_uuid", strategy = "org.hibernate.id.UUIDGenerator")	
+	@GenericGenerator(name = "string_based_uuid", strategy = "se.sundsvall.feedbacksettings.integration.db.id.UuidGenerator")	
 	@GeneratedValue(generator = "string_based_uuid")  	
-	@Column(name = "id")
+	@Type(type = BinaryUuidStringType.NAME)
+	@Column(name = "id", length = BinaryUuidStringType.LENGTH)
 	private String id;
 
-	@Column(name = "person_id", nullable = false)
+	// Tenant (for example a municipality) owning the settings. Leads all indexes, keeping the entries of each tenant together
+	@Column(name = "tenant_id", length = 64, nullable = false)
+	private String tenantId;
+
+	@Type(type = BinaryUuidStringType.NAME)
+	@Column(name = "person_id", length = BinaryUuidStringType.LENGTH, nullable = false)
 	private String personId;
 
-	@Column(name = "organization_id")
+	@Type(type = BinaryUuidStringType.NAME)
+	@Column(name = "organization_id", length = BinaryUuidStringType.LENGTH)
 	private String organizationId;
 
+	// Generated copy of organization_id, holding the nil UUID for personal settings. Unlike null values, equal keys
+	// collide in the unique constraint, allowing only one personal setting per person and tenant
+	@Type(type = BinaryUuidStringType.NAME)
+	@Column(name = "organization_key", insertable = false, updatable = false,
+		columnDefinition = "binary(16) as (coalesce(organization_id, X'00000000000000000000000000000000')) persistent")
+	private String organizationKey;
+
 	@ElementCollection
 	@CollectionTable(name = "feedback_channels", 
 		joinColumns = @JoinColumn(name = "setting_id"), 
 		foreignKey = @ForeignKey(name = "fk_feedback_settings_id"),
 		uniqueConstraints = {
-			@UniqueConstraint(name = "feedback_channels_unique_combinations_constraint", columnNames = {"setting_id", "contact_method", "destination"})}
+			@UniqueConstraint(name = "feedback_channels_unique_combinations_constraint", columnNames = {"setting_id", "contact_method", "destination"})},
+		indexes = {
+			@Index(name = "feedback_channels_normalized_destination_index", columnList = "normalized_destination, contact_method")}
 	)
+	// Each channel row has an own id, making it possible for Hibernate to insert, update and delete single channels
+	// instead of deleting and re-inserting all channels of the settings whenever one channel changes. The database table
+	// is clustered on (setting_id, id) with a unique key on id (see delta script 007), which can not be expressed here
+	@CollectionId(columns = @Column(name = "id", length = BinaryUuidStringType.LENGTH), type = @Type(type = BinaryUuidStringType.NAME), generator = "string_based_uuid")
 	private List<FeedbackChannelEmbeddable> feedbackChannels;
+
+	// Copy of the feedback channels as a JSON array, written together with the channels on every create and update,
+	// making it possible to read a complete setting from one row
+	@Lob
+	@Column(name = "channels_json")
+	private String channelsJson;
 	
 	@Column(name = "created", nullable = false)
 	private OffsetDateTime created;
@@ -75,6 +99,11 @@ public class FeedbackSettingsEntity extends PanacheEntityBase implements Seriali
 	@Column(name = "modified")
 	private OffsetDateTime modified;
 
+	// Incremented by every update, which is only written if the row still has the version that was read
+	@Version
+	@Column(name = "version", nullable = false)
+	private Long version;
+
 	public static FeedbackSettingsEntity create() {
 		return new FeedbackSettingsEntity();
 	}
@@ -92,6 +121,19 @@ public class FeedbackSettingsEntity extends PanacheEntityBase implements Seriali
 		return this;
 	}
 
+	public String getTenantId() {
+		return tenantId;
+	}
+
+	public void setTenantId(String tenantId) {
+		this.tenantId = tenantId;
+	}
+
+	public FeedbackSettingsEntity withTenantId(String tenantId) {
+		this.tenantId = tenantId;
+		return this;
+	}
+
 	public String getPersonId() {
 		return personId;
 	}
@@ -131,6 +173,19 @@ public class FeedbackSettingsEntity extends PanacheEntityBase implements Seriali
 		return this;
 	}
 
+	public String getChannelsJson() {
+		return channelsJson;
+	}
+
+	public void setChannelsJson(String channelsJson) {
+		this.channelsJson = channelsJson;
+	}
+
+	public FeedbackSettingsEntity withChannelsJson(String channelsJson) {
+		this.channelsJson = channelsJson;
+		return this;
+	}
+
 	public OffsetDateTime getCreated() {
 		return created;
 	}
@@ -157,19 +212,34 @@ public class FeedbackSettingsEntity extends PanacheEntityBase implements Seriali
 		return this;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public FeedbackSettingsEntity withVersion(Long version) {
+		this.version = version;
+		return this;
+	}
+
 	@PrePersist
 	void prePersist() {
 		created = now().truncatedTo(MILLIS);
+		channelsJson = toJson(feedbackChannels);
 	}
 
 	@PreUpdate
 	public void preUpdate() {
 		modified = now().truncatedTo(MILLIS);
+		channelsJson = toJson(feedbackChannels);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(created, feedbackChannels, id, modified, organizationId, personId);
+		return Objects.hash(channelsJson, created, feedbackChannels, id, modified, organizationId, personId, tenantId, version);
 	}
 
 	@Override
@@ -181,18 +251,19 @@ public class FeedbackSettingsEntity extends PanacheEntityBase implements Seriali
 		if (getClass() != obj.getClass())
 			return false;
 		FeedbackSettingsEntity other = (FeedbackSettingsEntity) obj;
-		return Objects.equals(created, other.created) && Objects.equals(feedbackChannels, other.feedbackChannels)
+		return Objects.equals(channelsJson, other.channelsJson) && Objects.equals(created, other.created) && Objects.equals(feedbackChannels, other.feedbackChannels)
 				&& id == other.id && Objects.equals(modified, other.modified)
-				&& Objects.equals(organizationId, other.organizationId) && Objects.equals(personId, other.personId);
+				&& Objects.equals(organizationId, other.organizationId) && Objects.equals(personId, other.personId)
+				&& Objects.equals(tenantId, other.tenantId) && Objects.equals(version, other.version);
 	}
 
 	@Override
 	public String toString() {
 		StringBuilder builder = new StringBuilder();
-		builder.append("FeedbackSettingsEntity [id=").append(id).append(", personId=").append(personId)
+		builder.append("FeedbackSettingsEntity [id=").append(id).append(", tenantId=").append(tenantId).append(", personId=").append(personId)
 				.append(", organizationId=").append(organizationId).append(", feedbackChannels=")
-				.append(feedbackChannels).append(", created=").append(created).append(", modified=").append(modified)
-				.append("]");
+				.append(feedbackChannels).append(", channelsJson=").append(channelsJson).append(", created=").append(created).append(", modified=").append(modified)
+				.append(", version=").append(version).append("]");
 		return builder.toString();
 	}
 }
@@ -0,0 +1,18 @@
+package se.sundsvall.feedbacksettings.integration.db.model;
+
+import java.time.OffsetDateTime;
+
+import io.quarkus.hibernate.orm.panache.common.ProjectedFieldName;
+
+/**
+ * Read only projection of a feedback setting where the feedback channels are read from the JSON copy in the settings
+ * row, i.e. the complete setting is read from one row.
+ */
+public record FeedbackSettingsJsonRow(
+	@ProjectedFieldName("id") String id,
+	@ProjectedFieldName("personId") String personId,
+	@ProjectedFieldName("organizationId") String organizationId,
+	@ProjectedFieldName("created") OffsetDateTime created,
+	@ProjectedFieldName("modified") OffsetDateTime modified,
+	@ProjectedFieldName("version") Long version,
+	@ProjectedFieldName("channelsJson") String channelsJson) {}
@@ -0,0 +1,16 @@
+package se.sundsvall.feedbacksettings.integration.db.model;
+
+import java.time.OffsetDateTime;
+
+import io.quarkus.hibernate.orm.panache.common.ProjectedFieldName;
+
+/**
+ * Read only projection of the settings part of a feedback setting (i.e. without feedback channels).
+ */
+public record FeedbackSettingsRow(
+	@ProjectedFieldName("id") String id,
+	@ProjectedFieldName("personId") String personId,
+	@ProjectedFieldName("organizationId") String organizationId,
+	@ProjectedFieldName("created") OffsetDateTime created,
+	@ProjectedFieldName("modified") OffsetDateTime modified,
+	@ProjectedFieldName("version") Long version) {}
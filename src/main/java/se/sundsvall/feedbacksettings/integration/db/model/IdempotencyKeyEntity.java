@@ -0,0 +1,197 @@
+package se.sundsvall.feedbacksettings.integration.db.model;
+
+import static java.time.OffsetDateTime.now;
+import static java.time.temporal.ChronoUnit.MILLIS;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.PrePersist;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "idempotency_keys",
+	indexes = {
+			@Index(name = "idempotency_keys_expires_index", columnList = "expires")
+})
+public class IdempotencyKeyEntity implements Serializable {
+
+	private static final long serialVersionUID = -2837615019624413370L;
+
+	// Key sent by the client, prefixed with the tenant of the request
+	@Id
+	@Column(name = "idempotency_key", length = 320)
+	private String idempotencyKey;
+
+	@Column(name = "request_hash", nullable = false)
+	private String requestHash;
+
+	// Status, location, entity tag and body are absent while the request using the key is in progress
+	@Column(name = "status")
+	private Integer status;
+
+	@Column(name = "location")
+	private String location;
+
+	@Column(name = "entity_tag")
+	private String entityTag;
+
+	@Lob
+	@Column(name = "body")
+	private String body;
+
+	@Column(name = "created", nullable = false)
+	private OffsetDateTime created;
+
+	@Column(name = "expires", nullable = false)
+	private OffsetDateTime expires;
+
+	public static IdempotencyKeyEntity create() {
+		return new IdempotencyKeyEntity();
+	}
+
+	public String getIdempotencyKey() {
+		return idempotencyKey;
+	}
+
+	public void setIdempotencyKey(String idempotencyKey) {
+		this.idempotencyKey = idempotencyKey;
+	}
+
+	public IdempotencyKeyEntity withIdempotencyKey(String idempotencyKey) {
+		this.idempotencyKey = idempotencyKey;
+		return this;
+	}
+
+	public String getRequestHash() {
+		return requestHash;
+	}
+
+	public void setRequestHash(String requestHash) {
+		this.requestHash = requestHash;
+	}
+
+	public IdempotencyKeyEntity withRequestHash(String requestHash) {
+		this.requestHash = requestHash;
+		return this;
+	}
+
+	public Integer getStatus() {
+		return status;
+	}
+
+	public void setStatus(Integer status) {
+		this.status = status;
+	}
+
+	public IdempotencyKeyEntity withStatus(Integer status) {
+		this.status = status;
+		return this;
+	}
+
+	public String getLocation() {
+		return location;
+	}
+
+	public void setLocation(String location) {
+		this.location = location;
+	}
+
+	public IdempotencyKeyEntity withLocation(String location) {
+		this.location = location;
+		return this;
+	}
+
+	public String getEntityTag() {
+		return entityTag;
+	}
+
+	public void setEntityTag(String entityTag) {
+		this.entityTag = entityTag;
+	}
+
+	public IdempotencyKeyEntity withEntityTag(String entityTag) {
+		this.entityTag = entityTag;
+		return this;
+	}
+
+	public String getBody() {
+		return body;
+	}
+
+	public void setBody(String body) {
+		this.body = body;
+	}
+
+	public IdempotencyKeyEntity withBody(String body) {
+		this.body = body;
+		return this;
+	}
+
+	public OffsetDateTime getCreated() {
+		return created;
+	}
+
+	public void setCreated(OffsetDateTime created) {
+		this.created = created;
+	}
+
+	public IdempotencyKeyEntity withCreated(OffsetDateTime created) {
+		this.created = created;
+		return this;
+	}
+
+	public OffsetDateTime getExpires() {
+		return expires;
+	}
+
+	public void setExpires(OffsetDateTime expires) {
+		this.expires = expires;
+	}
+
+	public IdempotencyKeyEntity withExpires(OffsetDateTime expires) {
+		this.expires = expires;
+		return this;
+	}
+
+	@PrePersist
+	void prePersist() {
+		created = now().truncatedTo(MILLIS);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(body, created, entityTag, expires, idempotencyKey, location, requestHash, status);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		IdempotencyKeyEntity other = (IdempotencyKeyEntity) obj;
+		return Objects.equals(body, other.body) && Objects.equals(created, other.created)
+				&& Objects.equals(entityTag, other.entityTag) && Objects.equals(expires, other.expires)
+				&& Objects.equals(idempotencyKey, other.idempotencyKey) && Objects.equals(location, other.location)
+				&& Objects.equals(requestHash, other.requestHash) && Objects.equals(status, other.status);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("IdempotencyKeyEntity [idempotencyKey=").append(idempotencyKey).append(", requestHash=")
+				.append(requestHash).append(", status=").append(status).append(", location=").append(location)
+				.append(", entityTag=").append(entityTag).append(", body=").append(body).append(", created=")
+				.append(created).append(", expires=").append(expires).append("]");
+		return builder.toString();
+	}
+}
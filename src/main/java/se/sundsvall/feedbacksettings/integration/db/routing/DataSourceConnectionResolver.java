@@ -0,0 +1,38 @@
+package se.sundsvall.feedbacksettings.integration.db.routing;
+
+import static se.sundsvall.feedbacksettings.integration.db.routing.DataSourceTenantResolver.PRIMARY;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource.DataSourceLiteral;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.hibernate.orm.runtime.customized.QuarkusConnectionProvider;
+import io.quarkus.hibernate.orm.runtime.tenant.TenantConnectionResolver;
+
+/**
+ * Provides connections for the datasources resolved by {@link DataSourceTenantResolver}, i.e. the default datasource
+ * for the primary of the first shard and the datasource with the same name as the resolved tenant otherwise ("replica"
+ * or "shard-N").
+ */
+@ApplicationScoped
+@PersistenceUnitExtension
+public class DataSourceConnectionResolver implements TenantConnectionResolver {
+
+	@Inject
+	AgroalDataSource primaryDataSource;
+
+	@Inject
+	@Any
+	Instance<AgroalDataSource> namedDataSources;
+
+	@Override
+	public ConnectionProvider resolve(String tenantId) {
+		return new QuarkusConnectionProvider(PRIMARY.equals(tenantId) ? primaryDataSource : namedDataSources.select(new DataSourceLiteral(tenantId)).get());
+	}
+}
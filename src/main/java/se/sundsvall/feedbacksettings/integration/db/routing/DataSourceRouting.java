@@ -0,0 +1,78 @@
+package se.sundsvall.feedbacksettings.integration.db.routing;
+
+import static se.sundsvall.feedbacksettings.integration.db.routing.DataSourceTenantResolver.PRIMARY;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Routing decision for the current request. All requests use the primary datasource of the first shard, unless the
+ * request has been routed to another shard or a read operation has asked for the replica before the first statement
+ * of the request was executed. Reads are only routed to the replica when a JDBC URL of the replica is configured. As
+ * the datasource is chosen when Hibernate opens the session of the request (or of each transaction), changing the
+ * routing after that has no effect on the open session.
+ */
+@RequestScoped
+public class DataSourceRouting {
+
+	@ConfigProperty(name = "quarkus.datasource.replica.jdbc.url")
+	Optional<String> replicaJdbcUrl;
+
+	@Inject
+	RecentWrites recentWrites;
+
+	private final Map<String, String> shardsOfIds = new HashMap<>();
+	private String shard = PRIMARY;
+	private boolean readFromReplica;
+
+	/**
+	 * Routes the current request to sent in shard.
+	 *
+	 * @param shard name of the datasource of the shard
+	 */
+	public void routeToShard(String shard) {
+		this.shard = shard;
+	}
+
+	/**
+	 * Routes reads of the current request to the replica, unless no replica is configured or any of sent in keys has
+	 * recently been written and hence might not yet have reached the replica. Only reads of the first shard are routed to
+	 * the replica.
+	 *
+	 * @param keys ids, personIds and/or organizationIds of the settings to read (null keys are ignored)
+	 */
+	public void readFromReplicaUnlessRecentlyWritten(String... keys) {
+		readFromReplica = replicaJdbcUrl.isPresent() && !recentWrites.containsAny(keys);
+	}
+
+	/**
+	 * Method returns the shard holding settings matching sent in id. The shard is located by sent in locator the first
+	 * time the id is asked for within the current request, so that operations reading the same settings more than once
+	 * (such as conditional requests) locate them only once.
+	 *
+	 * @param id id of settings
+	 * @param locator function locating the shard of an id
+	 * @return name of the datasource of the shard
+	 */
+	public String getShardOfId(String id, UnaryOperator<String> locator) {
+		return shardsOfIds.computeIfAbsent(id, locator);
+	}
+
+	public String getShard() {
+		return shard;
+	}
+
+	/**
+	 * @return true if reads of the current request are routed to the replica, which only the first shard has
+	 */
+	public boolean isReadFromReplica() {
+		return readFromReplica && PRIMARY.equals(shard);
+	}
+}
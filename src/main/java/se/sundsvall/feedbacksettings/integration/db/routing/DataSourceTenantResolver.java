@@ -0,0 +1,42 @@
+package se.sundsvall.feedbacksettings.integration.db.routing;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.transaction.Status;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import io.quarkus.datasource.common.runtime.DataSourceUtil;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.hibernate.orm.runtime.tenant.TenantResolver;
+
+/**
+ * Resolves which datasource Hibernate opens sessions against, using the database multitenancy support where each
+ * "tenant" is the name of a datasource. Sessions use the datasource of the shard that the current request is routed to.
+ * Sessions opened within a transaction never use the replica, so nothing is ever written to it.
+ */
+@ApplicationScoped
+@PersistenceUnitExtension
+public class DataSourceTenantResolver implements TenantResolver {
+	public static final String PRIMARY = DataSourceUtil.DEFAULT_DATASOURCE_NAME;
+	public static final String REPLICA = "replica";
+
+	@Inject
+	DataSourceRouting dataSourceRouting;
+
+	@Inject
+	TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+	@Override
+	public String getDefaultTenantId() {
+		return PRIMARY;
+	}
+
+	@Override
+	public String resolveTenantId() {
+		String shard = dataSourceRouting.getShard();
+		if (PRIMARY.equals(shard) && transactionSynchronizationRegistry.getTransactionStatus() == Status.STATUS_NO_TRANSACTION && dataSourceRouting.isReadFromReplica()) {
+			return REPLICA;
+		}
+		return shard;
+	}
+}
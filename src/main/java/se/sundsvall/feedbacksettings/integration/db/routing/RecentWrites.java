@@ -0,0 +1,66 @@
+package se.sundsvall.feedbacksettings.integration.db.routing;
+
+import static java.util.Objects.nonNull;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Register of keys (ids, personIds and organizationIds) of recently written settings. Reads of such keys are sent to
+ * the primary datasource until the configured window has passed, so that recently written settings are not read from
+ * the replica before it has caught up. Keys are compared regardless of case, as UUIDs are. The register is keyed by
+ * settings, not by caller, hence it is not a read-your-writes guarantee of each caller: any caller reading a registered
+ * key is sent to the primary datasource, while reads not filtered by a registered key (such as searches without personId
+ * and organizationId) are sent to the replica even right after a write of the same caller. The register is held per
+ * instance, hence it only covers reads handled by the same instance as the write.
+ */
+@ApplicationScoped
+public class RecentWrites {
+
+	@ConfigProperty(name = "feedbacksettings.datasource.read-your-writes-window")
+	Duration readYourWritesWindow;
+
+	private Cache<String, Boolean> writtenKeys;
+
+	@PostConstruct
+	void init() {
+		writtenKeys = Caffeine.newBuilder()
+			.expireAfterWrite(readYourWritesWindow)
+			.build();
+	}
+
+	/**
+	 * Registers sent in keys as written. Null keys are ignored.
+	 *
+	 * @param keys keys of written settings
+	 */
+	public void register(String... keys) {
+		Arrays.stream(keys)
+			.filter(Objects::nonNull)
+			.forEach(key -> writtenKeys.put(toCanonicalKey(key), Boolean.TRUE));
+	}
+
+	/**
+	 * @param keys keys to check (null keys are ignored)
+	 * @return true if any of sent in keys has been written within the configured window
+	 */
+	public boolean containsAny(String... keys) {
+		return Arrays.stream(keys)
+			.filter(Objects::nonNull)
+			.anyMatch(key -> nonNull(writtenKeys.getIfPresent(toCanonicalKey(key))));
+	}
+
+	private static String toCanonicalKey(String key) {
+		return key.toLowerCase(Locale.ROOT);
+	}
+}
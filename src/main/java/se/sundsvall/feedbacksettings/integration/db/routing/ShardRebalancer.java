@@ -0,0 +1,199 @@
+package se.sundsvall.feedbacksettings.integration.db.routing;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.control.ActivateRequestContext;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.persistence.PersistenceException;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+
+import io.quarkus.runtime.StartupEvent;
+import se.sundsvall.feedbacksettings.integration.db.FeedbackSettingsRepository;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsEntity;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsRow;
+
+/**
+ * Moves settings to the shard they belong to when the number of shards is changed. The number of shards is changed in
+ * three steps, so that every instance finds all settings during the whole change:
+ * <ol>
+ * <li>All instances are started with feedbacksettings.sharding.migration-shard-count set to the new number of shards,
+ * which makes them look up settings in the shards of both numbers of shards, while still creating settings in the shards
+ * of the old number (feedbacksettings.sharding.shard-count).</li>
+ * <li>All instances are started with the numbers swapped, creating settings in the shards of the new number. When no
+ * instance of the first step remains, one instance is started with feedbacksettings.sharding.rebalance-enabled set to
+ * true, which makes it move all misplaced settings at startup.</li>
+ * <li>When the move is done, all instances are started without feedbacksettings.sharding.migration-shard-count.</li>
+ * </ol>
+ */
+@ApplicationScoped
+public class ShardRebalancer {
+	private static final Logger LOGGER = getLogger(ShardRebalancer.class);
+	private static final int MAX_MOVE_ATTEMPTS = 5;
+
+	@ConfigProperty(name = "feedbacksettings.sharding.shard-count")
+	int shardCount;
+
+	@ConfigProperty(name = "feedbacksettings.sharding.migration-shard-count")
+	int migrationShardCount;
+
+	@ConfigProperty(name = "feedbacksettings.sharding.rebalance-enabled")
+	boolean rebalanceEnabled;
+
+	@ConfigProperty(name = "feedbacksettings.batch.chunk-size")
+	int chunkSize;
+
+	@Inject
+	ShardRouter shardRouter;
+
+	@Inject
+	FeedbackSettingsRepository feedbackSettingsRepository;
+
+	void onStart(@Observes StartupEvent event) {
+		if (rebalanceEnabled && shardRouter.isMigrating()) {
+			LOGGER.info("Rebalancing settings from {} to {} shards", migrationShardCount, shardCount);
+			LOGGER.info("Rebalancing done, {} settings moved", rebalance());
+		}
+	}
+
+	/**
+	 * Method scans all shards, in chunks ordered by id, and moves the settings of every person whose settings do not
+	 * belong to the shard they are stored in. All settings of a person (within a tenant) are inserted in their new shard
+	 * before any of them is deleted from their old shard, so that lookups preferring the new shard find all settings of
+	 * the person in either shard. Inserts and deletes are made in separate transactions, so an interrupted rebalancing can
+	 * be resumed by running it again. Settings modified while being moved are copied again before they are deleted from
+	 * their old shard.
+	 *
+	 * @return number of moved settings
+	 */
+	@ActivateRequestContext
+	public int rebalance() {
+		int moved = 0;
+		for (String shard : shardRouter.getShards()) {
+			Set<String> handledIds = new HashSet<>();
+			String afterId = null;
+			List<FeedbackSettingsRow> rows;
+			do {
+				String startId = afterId;
+				rows = shardRouter.inShard(shard, entityManager -> feedbackSettingsRepository.findSettingsRowsByOrganizationIdAfterId(entityManager, null, null, startId, chunkSize));
+				for (FeedbackSettingsRow row : rows) {
+					String targetShard = ShardRouter.shardOf(row.personId(), shardCount);
+					if (!targetShard.equals(shard) && !handledIds.contains(row.id())) {
+						moved += movePerson(row.id(), shard, targetShard, handledIds);
+					}
+					afterId = row.id();
+				}
+			} while (rows.size() == chunkSize);
+		}
+		return moved;
+	}
+
+	/**
+	 * Method moves all settings of the tenant and person owning settings matching sent in id, from sent in source shard
+	 * to sent in target shard. All settings are copied before any of them is deleted from the source shard. Ids of the
+	 * settings are added to sent in set of handled ids, so that the scan does not move them again.
+	 *
+	 * @return number of moved settings
+	 */
+	private int movePerson(String id, String sourceShard, String targetShard, Set<String> handledIds) {
+		List<String> ids = shardRouter.inShard(sourceShard, entityManager -> Optional.ofNullable(entityManager.find(FeedbackSettingsEntity.class, id))
+			.map(entity -> feedbackSettingsRepository.findIdsByPersonId(entityManager, entity.getTenantId(), entity.getPersonId()))
+			.orElse(List.of()));
+		handledIds.addAll(ids);
+
+		Map<String, FeedbackSettingsEntity> copies = new LinkedHashMap<>();
+		ids.forEach(settingsId -> copy(settingsId, sourceShard, targetShard, null).ifPresent(copy -> copies.put(settingsId, copy)));
+
+		int moved = 0;
+		for (Map.Entry<String, FeedbackSettingsEntity> copy : copies.entrySet()) {
+			if (move(copy.getKey(), copy.getValue(), sourceShard, targetShard)) {
+				moved++;
+			}
+		}
+		return moved;
+	}
+
+	/**
+	 * Method deletes settings matching sent in id from sent in source shard, after they have been copied to sent in target
+	 * shard. The settings are only deleted from the source shard if they still have the version that was copied,
+	 * otherwise they are copied again.
+	 *
+	 * @return true if the settings were moved
+	 */
+	private boolean move(String id, FeedbackSettingsEntity firstCopy, String sourceShard, String targetShard) {
+		FeedbackSettingsEntity copy = firstCopy;
+		for (int attempt = 0; attempt < MAX_MOVE_ATTEMPTS; attempt++) {
+			Long copiedVersion = copy.getVersion();
+			if (shardRouter.inTransaction(sourceShard, () -> feedbackSettingsRepository.deleteByIdAndVersion(id, copiedVersion))) {
+				return true;
+			}
+
+			Optional<FeedbackSettingsEntity> nextCopy = copy(id, sourceShard, targetShard, copy);
+			if (nextCopy.isEmpty()) {
+				return false;
+			}
+			copy = nextCopy.get();
+		}
+
+		LOGGER.warn("Settings {} were modified during every attempt to move them and are left in shard {}", id, sourceShard);
+		return false;
+	}
+
+	/**
+	 * Method copies settings matching sent in id from sent in source shard to sent in target shard. Settings that
+	 * conflict with other settings in the target shard are not copied. If the settings no longer exist in the source
+	 * shard, a previous copy is deleted from the target shard as well.
+	 *
+	 * @return copied settings, or empty if the settings were not copied
+	 */
+	private Optional<FeedbackSettingsEntity> copy(String id, String sourceShard, String targetShard, FeedbackSettingsEntity previousCopy) {
+		FeedbackSettingsEntity copy = shardRouter.inTransaction(sourceShard, () -> feedbackSettingsRepository.findByIdOptional(id)
+			.map(ShardRebalancer::copyOf)
+			.orElse(null));
+		if (isNull(copy)) {
+			// Deleted from the source shard after an earlier attempt copied them, hence the copy is deleted as well
+			if (nonNull(previousCopy)) {
+				Long copiedVersion = previousCopy.getVersion();
+				shardRouter.inTransaction(targetShard, () -> feedbackSettingsRepository.deleteByIdAndVersion(id, copiedVersion));
+			}
+			return Optional.empty();
+		}
+
+		try {
+			shardRouter.inTransaction(targetShard, () -> feedbackSettingsRepository.replicate(copy));
+		} catch (PersistenceException e) {
+			LOGGER.warn("Settings {} conflict with settings in shard {} and are left in shard {}", id, targetShard, sourceShard, e);
+			return Optional.empty();
+		}
+		return Optional.of(copy);
+	}
+
+	/**
+	 * Copies sent in entity into a new entity that is not bound to the session it was read by.
+	 */
+	private static FeedbackSettingsEntity copyOf(FeedbackSettingsEntity entity) {
+		return FeedbackSettingsEntity.create()
+			.withId(entity.getId())
+			.withTenantId(entity.getTenantId())
+			.withPersonId(entity.getPersonId())
+			.withOrganizationId(entity.getOrganizationId())
+			.withFeedbackChannels(new ArrayList<>(entity.getFeedbackChannels()))
+			.withChannelsJson(entity.getChannelsJson())
+			.withCreated(entity.getCreated())
+			.withModified(entity.getModified())
+			.withVersion(entity.getVersion());
+	}
+}
@@ -0,0 +1,333 @@
+package se.sundsvall.feedbacksettings.integration.db.routing;
+
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static se.sundsvall.feedbacksettings.integration.db.routing.DataSourceTenantResolver.PRIMARY;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import javax.ws.rs.core.Response.Status;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.eclipse.microprofile.context.ThreadContext;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import se.sundsvall.feedbacksettings.api.exception.ServiceException;
+import se.sundsvall.feedbacksettings.integration.db.FeedbackSettingsRepository;
+import se.sundsvall.feedbacksettings.integration.db.id.ShardKey;
+
+/**
+ * Routes settings to shards by the shard key of the person owning them, so that all settings of a person (personal as
+ * well as organizational representative settings) are stored in the same shard. Ids of settings carry the same shard
+ * key, hence settings are routed by id without asking the shards. The number of shards is configured by property
+ * feedbacksettings.sharding.shard-count, where the first shard is the default datasource and shard N (from 1) is the
+ * datasource named "shard-N". Operations that are not bound to a person are fanned out to all shards in parallel, on a
+ * pool of threads bounded by property feedbacksettings.sharding.fan-out-max-threads. Work that does not fit in the queue
+ * of the pool is rejected with status 503.
+ * <p>
+ * While settings are moved to another number of shards, property feedbacksettings.sharding.migration-shard-count holds
+ * the other number of shards. Settings are then looked up in the shard of both numbers of shards, in parallel, and
+ * settings found in the shard of feedbacksettings.sharding.shard-count are preferred. New settings are created in the
+ * shard of feedbacksettings.sharding.shard-count, and all shards of both numbers of shards are included when fanning out.
+ */
+@ApplicationScoped
+public class ShardRouter {
+	static final String SHARD_PREFIX = "shard-";
+	static final String FAN_OUT_SATURATED = "Too many requests are waiting for the shards";
+
+	@ConfigProperty(name = "feedbacksettings.sharding.shard-count")
+	int shardCount;
+
+	@ConfigProperty(name = "feedbacksettings.sharding.migration-shard-count")
+	int migrationShardCount;
+
+	@ConfigProperty(name = "feedbacksettings.sharding.fan-out-max-threads")
+	int fanOutMaxThreads;
+
+	@ConfigProperty(name = "feedbacksettings.sharding.fan-out-max-queued")
+	int fanOutMaxQueued;
+
+	@Inject
+	SessionFactory sessionFactory;
+
+	@Inject
+	DataSourceRouting dataSourceRouting;
+
+	@Inject
+	FeedbackSettingsRepository feedbackSettingsRepository;
+
+	private ManagedExecutor fanOutExecutor;
+
+	@PostConstruct
+	void init() {
+		// No context is propagated, as the work opens sessions of its own and must never join a transaction of the caller
+		fanOutExecutor = ManagedExecutor.builder()
+			.maxAsync(fanOutMaxThreads)
+			.maxQueued(fanOutMaxQueued)
+			.propagated(ThreadContext.NONE)
+			.cleared(ThreadContext.ALL_REMAINING)
+			.build();
+	}
+
+	@PreDestroy
+	void shutdown() {
+		fanOutExecutor.shutdown();
+	}
+
+	public boolean isSharded() {
+		return shardCount > 1 || migrationShardCount > 1;
+	}
+
+	/**
+	 * @return true if settings are being moved between two numbers of shards
+	 */
+	public boolean isMigrating() {
+		return migrationShardCount > 0 && migrationShardCount != shardCount;
+	}
+
+	/**
+	 * @return names of the datasources of all configured shards, including shards of an ongoing migration
+	 */
+	public List<String> getShards() {
+		return getShards(Math.max(shardCount, migrationShardCount));
+	}
+
+	/**
+	 * @param numberOfShards number of shards
+	 * @return names of the datasources of sent in number of shards
+	 */
+	public static List<String> getShards(int numberOfShards) {
+		return IntStream.range(0, numberOfShards)
+			.mapToObj(ShardRouter::toShard)
+			.toList();
+	}
+
+	/**
+	 * Method returns the shard holding settings of sent in tenant and person. While settings are moved between shards, the
+	 * shards of both numbers of shards are asked for settings of the person if the shards differ.
+	 *
+	 * @param tenantId tenant owning the settings
+	 * @param personId id of person
+	 * @return name of the datasource of the shard
+	 */
+	public String shardOf(String tenantId, String personId) {
+		return locate(ShardKey.of(personId), entityManager -> feedbackSettingsRepository.existsByPersonId(entityManager, tenantId, personId));
+	}
+
+	/**
+	 * Method returns the shard that settings of sent in person belongs to when settings are spread over sent in number of
+	 * shards. Uses jump consistent hashing, which makes only the settings that belong to added shards move when the
+	 * number of shards is increased.
+	 *
+	 * @param personId id of person
+	 * @param numberOfShards number of shards
+	 * @return name of the datasource of the shard
+	 */
+	public static String shardOf(String personId, int numberOfShards) {
+		return toShard(jumpConsistentHash(ShardKey.of(personId), numberOfShards));
+	}
+
+	/**
+	 * Routes the current request to the shard holding settings of sent in tenant and person.
+	 *
+	 * @param tenantId tenant owning the settings
+	 * @param personId id of person
+	 */
+	public void routeToShardOf(String tenantId, String personId) {
+		if (isSharded()) {
+			dataSourceRouting.routeToShard(shardOf(tenantId, personId));
+		}
+	}
+
+	/**
+	 * Routes the current request to the shard holding settings matching sent in id. The shard is derived from the shard
+	 * key carried by the id. Ids generated before ids carried shard keys are looked up in all shards in parallel, and the
+	 * request is routed to the first shard if such an id is not found. The shard is located once per request.
+	 *
+	 * @param id id of settings
+	 */
+	public void routeToShardOfId(String id) {
+		if (isSharded()) {
+			dataSourceRouting.routeToShard(dataSourceRouting.getShardOfId(id, this::locateId));
+		}
+	}
+
+	private String locateId(String id) {
+		OptionalLong shardKey = ShardKey.ofId(id);
+		if (shardKey.isPresent()) {
+			return locate(shardKey.getAsLong(), entityManager -> feedbackSettingsRepository.existsById(entityManager, id));
+		}
+
+		return fanOutByShard(entityManager -> feedbackSettingsRepository.existsById(entityManager, id)).entrySet().stream()
+			.filter(Map.Entry::getValue)
+			.map(Map.Entry::getKey)
+			.findFirst()
+			.orElse(PRIMARY);
+	}
+
+	/**
+	 * Method returns the shard of sent in shard key. While settings are moved between shards and the shard key belongs to
+	 * different shards in the two numbers of shards, both shards are asked if they hold the settings. The shard of the
+	 * configured number of shards is returned, unless only the shard of the migration number of shards holds them.
+	 */
+	private String locate(long shardKey, Function<EntityManager, Boolean> exists) {
+		String shard = toShard(jumpConsistentHash(shardKey, shardCount));
+		if (!isMigrating()) {
+			return shard;
+		}
+
+		String migrationShard = toShard(jumpConsistentHash(shardKey, migrationShardCount));
+		if (shard.equals(migrationShard)) {
+			return shard;
+		}
+		Map<String, Boolean> found = fanOutByShard(List.of(shard, migrationShard), (candidate, entityManager) -> exists.apply(entityManager));
+		return found.get(shard) || !found.get(migrationShard) ? shard : migrationShard;
+	}
+
+	/**
+	 * Method executes sent in read only work in a session of its own against sent in shard. The work is executed by
+	 * another thread, so the session is never enlisted in any transaction of the caller.
+	 *
+	 * @param shard name of the datasource of the shard
+	 * @param work work to execute
+	 * @return result of the work
+	 */
+	public <T> T inShard(String shard, Function<EntityManager, T> work) {
+		return join(inShardAsync(shard, work));
+	}
+
+	/**
+	 * Method executes sent in read only work against all shards in parallel.
+	 *
+	 * @param work work to execute
+	 * @return results per shard, in shard order
+	 */
+	public <T> Map<String, T> fanOutByShard(Function<EntityManager, T> work) {
+		return fanOutByShard(getShards(), (shard, entityManager) -> work.apply(entityManager));
+	}
+
+	/**
+	 * Method executes sent in read only work against sent in shards in parallel, where the work is given the name of the
+	 * shard it is executed against.
+	 *
+	 * @param shards names of the datasources of the shards
+	 * @param work work to execute
+	 * @return results per shard, in the order of sent in shards
+	 */
+	public <T> Map<String, T> fanOutByShard(Collection<String> shards, BiFunction<String, EntityManager, T> work) {
+		Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+		shards.forEach(shard -> futures.put(shard, inShardAsync(shard, entityManager -> work.apply(shard, entityManager))));
+
+		Map<String, T> results = new LinkedHashMap<>();
+		futures.forEach((shard, future) -> results.put(shard, join(future)));
+		return results;
+	}
+
+	/**
+	 * Method executes sent in read only work against all shards in parallel and concatenates the results.
+	 *
+	 * @param work work to execute
+	 * @return results of all shards, in shard order
+	 */
+	public <T> List<T> fanOut(Function<EntityManager, List<T>> work) {
+		return fanOutByShard(work).values().stream()
+			.flatMap(List::stream)
+			.toList();
+	}
+
+	/**
+	 * Method executes sent in work in a new transaction against sent in shard, used when one request writes to more than
+	 * one shard. Each shard is committed separately, hence writes to several shards are not atomic. The routing of the
+	 * request is restored when the work is done, so that later work of the request is not sent to the shard.
+	 *
+	 * @param shard name of the datasource of the shard
+	 * @param work work to execute
+	 * @return result of the work
+	 */
+	@Transactional(Transactional.TxType.REQUIRES_NEW)
+	public <T> T inTransaction(String shard, Supplier<T> work) {
+		String routedShard = dataSourceRouting.getShard();
+		dataSourceRouting.routeToShard(shard);
+		try {
+			return work.get();
+		} finally {
+			dataSourceRouting.routeToShard(routedShard);
+		}
+	}
+
+	/**
+	 * Same as {@link #inTransaction(String, Supplier)}, but for work without result.
+	 *
+	 * @param shard name of the datasource of the shard
+	 * @param work work to execute
+	 */
+	@Transactional(Transactional.TxType.REQUIRES_NEW)
+	public void inTransaction(String shard, Runnable work) {
+		inTransaction(shard, () -> {
+			work.run();
+			return null;
+		});
+	}
+
+	private <T> CompletableFuture<T> inShardAsync(String shard, Function<EntityManager, T> work) {
+		try {
+			return supplyAsync(() -> {
+				try (Session session = sessionFactory.withOptions().tenantIdentifier(shard).openSession()) {
+					session.setDefaultReadOnly(true);
+					session.setHibernateFlushMode(FlushMode.MANUAL);
+					return work.apply(session);
+				}
+			}, fanOutExecutor);
+		} catch (RejectedExecutionException e) {
+			throw ServiceException.create(FAN_OUT_SATURATED, Status.SERVICE_UNAVAILABLE, Status.SERVICE_UNAVAILABLE).asRuntimeException();
+		}
+	}
+
+	private static <T> T join(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw e;
+		}
+	}
+
+	private static String toShard(int index) {
+		return index == 0 ? PRIMARY : SHARD_PREFIX + index;
+	}
+
+	/**
+	 * Jump consistent hash by Lamping and Veach, mapping sent in key to a bucket in range [0, numberOfBuckets).
+	 */
+	static int jumpConsistentHash(long key, int numberOfBuckets) {
+		long bucket = -1;
+		long next = 0;
+		while (next < numberOfBuckets) {
+			bucket = next;
+			key = key * 2862933555777941757L + 1;
+			next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+		}
+		return (int) bucket;
+	}
+}
@@ -0,0 +1,114 @@
+package se.sundsvall.feedbacksettings.integration.db.type;
+
+import static java.util.Objects.isNull;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import org.hibernate.type.AbstractSingleColumnStandardBasicType;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.AbstractTypeDescriptor;
+import org.hibernate.type.descriptor.sql.BinaryTypeDescriptor;
+
+/**
+ * Hibernate type for UUIDs that are kept as strings in the application but stored as 16 byte binary values in the
+ * database, i.e. in columns of type BINARY(16). Compared to storing the 36 character string form, this more than halves
+ * the size of primary keys and of every index containing the columns. As the bytes are stored in the order they appear
+ * in the string form, binary values are ordered in the same way as the (lower case) strings.
+ */
+public class BinaryUuidStringType extends AbstractSingleColumnStandardBasicType<String> {
+	public static final String NAME = "binary-uuid-string";
+	public static final int LENGTH = 16;
+
+	private static final long serialVersionUID = 6380512837512095628L;
+
+	public BinaryUuidStringType() {
+		super(BinaryTypeDescriptor.INSTANCE, BinaryUuidStringTypeDescriptor.INSTANCE);
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	/**
+	 * Method returns the 16 byte binary form of sent in UUID string.
+	 *
+	 * @param uuid string representation of an UUID
+	 * @return binary form of sent in UUID (or null if sent in UUID is null)
+	 * @throws IllegalArgumentException if sent in string is not a valid UUID
+	 */
+	public static byte[] toBytes(String uuid) {
+		if (isNull(uuid)) {
+			return null;
+		}
+		UUID value = UUID.fromString(uuid);
+		return ByteBuffer.allocate(LENGTH)
+			.putLong(value.getMostSignificantBits())
+			.putLong(value.getLeastSignificantBits())
+			.array();
+	}
+
+	/**
+	 * Method returns the string representation of sent in 16 byte binary UUID.
+	 *
+	 * @param bytes binary form of an UUID
+	 * @return string representation of sent in UUID in lower case (or null if sent in bytes are null)
+	 */
+	public static String toUuidString(byte[] bytes) {
+		if (isNull(bytes)) {
+			return null;
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		return new UUID(buffer.getLong(), buffer.getLong()).toString();
+	}
+
+	static class BinaryUuidStringTypeDescriptor extends AbstractTypeDescriptor<String> {
+		static final BinaryUuidStringTypeDescriptor INSTANCE = new BinaryUuidStringTypeDescriptor();
+
+		private static final long serialVersionUID = -1452273620457254806L;
+
+		BinaryUuidStringTypeDescriptor() {
+			super(String.class);
+		}
+
+		@Override
+		public String toString(String value) {
+			return value;
+		}
+
+		@Override
+		public String fromString(String string) {
+			return string;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <X> X unwrap(String value, Class<X> type, WrapperOptions options) {
+			if (isNull(value)) {
+				return null;
+			}
+			if (byte[].class.isAssignableFrom(type)) {
+				return (X) toBytes(value);
+			}
+			if (String.class.isAssignableFrom(type)) {
+				return (X) value;
+			}
+			throw unknownUnwrap(type);
+		}
+
+		@Override
+		public <X> String wrap(X value, WrapperOptions options) {
+			if (isNull(value)) {
+				return null;
+			}
+			if (value instanceof byte[] bytes) {
+				return toUuidString(bytes);
+			}
+			if (value instanceof String string) {
+				return string;
+			}
+			throw unknownWrap(value.getClass());
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package se.sundsvall.feedbacksettings.integration.db.type;
+
+import static java.util.Objects.isNull;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+import se.sundsvall.feedbacksettings.ContactMethod;
+
+/**
+ * Converter storing contact methods as one byte codes (column type TINYINT) instead of their names. Codes are fixed per
+ * contact method, hence new contact methods must be given new codes and existing codes must never be changed.
+ */
+@Converter
+public class ContactMethodConverter implements AttributeConverter<String, Byte> {
+	static final byte SMS_CODE = 1;
+	static final byte EMAIL_CODE = 2;
+
+	@Override
+	public Byte convertToDatabaseColumn(String contactMethod) {
+		if (isNull(contactMethod)) {
+			return null;
+		}
+		return switch (ContactMethod.toEnum(contactMethod)) {
+			case SMS -> SMS_CODE;
+			case EMAIL -> EMAIL_CODE;
+		};
+	}
+
+	@Override
+	public String convertToEntityAttribute(Byte code) {
+		if (isNull(code)) {
+			return null;
+		}
+		return switch (code) {
+			case SMS_CODE -> ContactMethod.SMS.name();
+			case EMAIL_CODE -> ContactMethod.EMAIL.name();
+			default -> throw new IllegalArgumentException("Unknown contact method code: " + code);
+		};
+	}
+}
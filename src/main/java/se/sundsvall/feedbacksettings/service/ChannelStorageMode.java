@@ -0,0 +1,19 @@
+package se.sundsvall.feedbacksettings.service;
+
+/**
+ * Sources of feedback channels when reading settings by id and when looking up settings, selected by property
+ * feedbacksettings.channels.storage-mode. Channels are always written to both sources, so the mode can be switched
+ * without migrating any data.
+ */
+public enum ChannelStorageMode {
+
+	/**
+	 * Channels are read from table feedback_channels, joined with the settings.
+	 */
+	TABLE,
+
+	/**
+	 * Channels are read from the JSON copy in column channels_json of the settings, without joining feedback_channels.
+	 */
+	JSON
+}
@@ -1,101 +1,783 @@
 package se.sundsvall.feedbacksettings.service;
 
+import static java.util.Collections.emptyList;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static se.sundsvall.feedbacksettings.service.ServiceConstants.INVALID_CURSOR;
 import static se.sundsvall.feedbacksettings.service.ServiceConstants.SETTINGS_ALREADY_EXISTS_FOR_ORGANIZATION_REPRESENTATIVE;
 import static se.sundsvall.feedbacksettings.service.ServiceConstants.SETTINGS_ALREADY_EXISTS_FOR_PERSONID;
+import static se.sundsvall.feedbacksettings.service.ServiceConstants.SETTINGS_MODIFIED_CONCURRENTLY;
 import static se.sundsvall.feedbacksettings.service.ServiceConstants.SETTINGS_NOT_FOUND_FOR_ID;
+import static se.sundsvall.feedbacksettings.service.ServiceConstants.SETTINGS_VERSION_MISMATCH;
+import static se.sundsvall.feedbacksettings.service.mapper.FeedbackSettingsMapper.addFeedbackChannels;
+import static se.sundsvall.feedbacksettings.service.mapper.FeedbackSettingsMapper.groupFeedbackSettings;
 import static se.sundsvall.feedbacksettings.service.mapper.FeedbackSettingsMapper.mergeFeedbackSettings;
+import static se.sundsvall.feedbacksettings.service.mapper.FeedbackSettingsMapper.toFeedbackChannel;
+import static se.sundsvall.feedbacksettings.service.mapper.FeedbackSettingsMapper.toFeedbackChannelEmbeddables;
 import static se.sundsvall.feedbacksettings.service.mapper.FeedbackSettingsMapper.toFeedbackSettings;
 import static se.sundsvall.feedbacksettings.service.mapper.FeedbackSettingsMapper.toFeedbackSettingsEntity;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.persistence.OptimisticLockException;
 import javax.transaction.Transactional;
 import javax.ws.rs.core.Response.Status;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
-import io.quarkus.panache.common.Page;
+import io.quarkus.narayana.jta.runtime.TransactionConfiguration;
+import se.sundsvall.feedbacksettings.ContactMethod;
 import se.sundsvall.feedbacksettings.api.exception.ServiceException;
+import se.sundsvall.feedbacksettings.api.model.BatchCreateRequest;
+import se.sundsvall.feedbacksettings.api.model.BatchCreateResult;
+import se.sundsvall.feedbacksettings.api.model.BatchItemResult;
 import se.sundsvall.feedbacksettings.api.model.CreateFeedbackSettingsRequest;
 import se.sundsvall.feedbacksettings.api.model.FeedbackSettings;
+import se.sundsvall.feedbacksettings.api.model.FeedbackSettingsOwner;
+import se.sundsvall.feedbacksettings.api.model.LookupRequest;
+import se.sundsvall.feedbacksettings.api.model.LookupResult;
 import se.sundsvall.feedbacksettings.api.model.MetaData;
+import se.sundsvall.feedbacksettings.api.model.OwnerMatch;
+import se.sundsvall.feedbacksettings.api.model.RequestedFeedbackChannel;
 import se.sundsvall.feedbacksettings.api.model.SearchResult;
 import se.sundsvall.feedbacksettings.api.model.UpdateFeedbackSettingsRequest;
 import se.sundsvall.feedbacksettings.integration.db.FeedbackSettingsRepository;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsChannelRow;
 import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsEntity;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsRow;
+import se.sundsvall.feedbacksettings.integration.db.routing.DataSourceRouting;
+import se.sundsvall.feedbacksettings.integration.db.routing.RecentWrites;
+import se.sundsvall.feedbacksettings.integration.db.routing.ShardRouter;
+import se.sundsvall.feedbacksettings.service.cache.FeedbackSettingsCache;
+import se.sundsvall.feedbacksettings.service.mapper.FeedbackSettingsMapper;
+import se.sundsvall.feedbacksettings.service.tenant.TenantContext;
 
 @ApplicationScoped
 public class FeedbackSettingsService {
     @Inject
     FeedbackSettingsRepository feedbackSettingsRepository;
 
+	@Inject
+	FeedbackSettingsCache feedbackSettingsCache;
+
+	@Inject
+	ObjectMapper objectMapper;
+
+	@Inject
+	DataSourceRouting dataSourceRouting;
+
+	@Inject
+	RecentWrites recentWrites;
+
+	@Inject
+	ShardRouter shardRouter;
+
+	@Inject
+	TenantContext tenantContext;
+
+	@ConfigProperty(name = "feedbacksettings.export.fetch-size")
+	int exportFetchSize;
+
+	@ConfigProperty(name = "feedbacksettings.lookup.chunk-size")
+	int lookupChunkSize;
+
+	@ConfigProperty(name = "feedbacksettings.batch.chunk-size")
+	int batchChunkSize;
+
+	@ConfigProperty(name = "feedbacksettings.channels.storage-mode")
+	ChannelStorageMode channelStorageMode;
+
 	@Transactional
 	public FeedbackSettings createFeedbackSettings(CreateFeedbackSettingsRequest feedbackSettings) throws ServiceException {
-		verifyNonExistingSettings(feedbackSettings.getPersonId(), feedbackSettings.getOrganizationId());
+		String tenantId = tenantContext.getTenantId();
+		shardRouter.routeToShardOf(tenantId, feedbackSettings.getPersonId());
+		verifyNonExistingSettings(tenantId, feedbackSettings.getPersonId(), feedbackSettings.getOrganizationId());
 
-		FeedbackSettingsEntity entity = toFeedbackSettingsEntity(feedbackSettings);
+		FeedbackSettingsEntity entity = toFeedbackSettingsEntity(feedbackSettings).withTenantId(tenantId);
 		feedbackSettingsRepository.persist(entity);
+		invalidate(tenantId, entity.getId(), entity.getPersonId(), entity.getOrganizationId());
 		
 		return toFeedbackSettings(entity);
 	}
 
+	/**
+	 * Method creates all settings in sent in request that do not conflict with existing settings or with settings earlier
+	 * in the same request. Existing settings are read with one statement per chunk of persons and new settings are
+	 * inserted in chunks of configured size, each chunk written as batched inserts. When sharded, the settings of each
+	 * shard are created in a transaction of their own, hence a failure in one shard does not roll back other shards.
+	 * 
+	 * @param request request containing settings to create
+	 * @return result containing one item per setting in the request, in the same order as in the request
+	 */
 	@Transactional
-	public FeedbackSettings updateFeedbackSettings(String id, UpdateFeedbackSettingsRequest feedbackSettings) throws ServiceException {
-		FeedbackSettingsEntity entity = feedbackSettingsRepository.findByIdOptional(id)
-				.orElseThrow(() -> ServiceException.create(String.format(SETTINGS_NOT_FOUND_FOR_ID, id), Status.NOT_FOUND, Status.NOT_FOUND));
+	public BatchCreateResult createFeedbackSettings(BatchCreateRequest request) {
+		String tenantId = tenantContext.getTenantId();
+		List<CreateFeedbackSettingsRequest> requestedSettings = request.getFeedbackSettings();
+		BatchItemResult[] results = new BatchItemResult[requestedSettings.size()];
+		List<Integer> indexes = IntStream.range(0, requestedSettings.size()).boxed().toList();
+
+		if (shardRouter.isSharded()) {
+			indexes.stream()
+					.collect(groupingBy(index -> shardRouter.shardOf(tenantId, requestedSettings.get(index).getPersonId()), LinkedHashMap::new, toList()))
+					.forEach((shard, shardIndexes) -> shardRouter.inTransaction(shard, () -> createFeedbackSettings(tenantId, requestedSettings, shardIndexes, results)));
+		} else {
+			createFeedbackSettings(tenantId, requestedSettings, indexes, results);
+		}
+
+		int created = (int) Stream.of(results).filter(result -> result.getStatus() == Status.CREATED.getStatusCode()).count();
+		return BatchCreateResult.create()
+				.withCreated(created)
+				.withRejected(results.length - created)
+				.withResults(List.of(results));
+	}
+
+	/**
+	 * Method merges sent in changes into existing settings. No locks are taken when reading the settings, instead the
+	 * update is only written if the settings still have the version that was read.
+	 * 
+	 * @param id id of settings to update
+	 * @param expectedVersion version that the settings must have (or null to update regardless of version)
+	 * @param feedbackSettings changes to merge into the settings
+	 * @return updated settings
+	 * @throws ServiceException if no settings match sent in id (404), if the settings do not have the expected version
+	 * (412) or if the settings were modified by another request while being updated (412 if a version was expected,
+	 * otherwise 409)
+	 */
+	@Transactional
+	public FeedbackSettings updateFeedbackSettings(String id, Long expectedVersion, UpdateFeedbackSettingsRequest feedbackSettings) throws ServiceException {
+		String tenantId = tenantContext.getTenantId();
+		shardRouter.routeToShardOfId(id);
+		FeedbackSettingsEntity entity = getFeedbackSettingsEntity(tenantId, id);
+		verifyVersion(entity, expectedVersion);
 
 		//Merge and persist incoming changes to existing entity 
 		mergeFeedbackSettings(entity, feedbackSettings);
-		feedbackSettingsRepository.persistAndFlush(entity);
+		try {
+			feedbackSettingsRepository.persistAndFlush(entity);
+		} catch (OptimisticLockException e) {
+			throw concurrentModification(id, expectedVersion);
+		}
+		// Cached entries are keyed by the stored ids, which may differ in case from sent in id
+		invalidate(tenantId, entity.getId(), entity.getPersonId(), entity.getOrganizationId());
 
 		return toFeedbackSettings(entity);
 	}
 
+	/**
+	 * Method creates settings for sent in owner, or replaces the channels of existing settings for the owner. Settings
+	 * are created or marked as modified with one atomic statement, so concurrent or retried calls for the same owner
+	 * never collide. The version of the settings is incremented once, when the channels are flushed.
+	 * 
+	 * @param personId personId of settings to create or replace
+	 * @param organizationId organizationId of settings to create or replace (or null for personal settings)
+	 * @param feedbackSettings channels that the settings shall have after the call
+	 * @return created or replaced settings, and whether they were created by the call
+	 */
+	@Transactional
+	public UpsertResult upsertFeedbackSettings(String personId, String organizationId, UpdateFeedbackSettingsRequest feedbackSettings) {
+		String tenantId = tenantContext.getTenantId();
+		shardRouter.routeToShardOf(tenantId, personId);
+		String createdId = feedbackSettingsRepository.upsertByPersonIdAndOrganizationId(tenantId, personId, organizationId);
+
+		// The settings exist after the upsert statement, as it is executed in the same transaction
+		FeedbackSettingsEntity entity = feedbackSettingsRepository.findByPersonIdAndOrganizationIdWithFeedbackChannels(tenantId, personId, organizationId)
+				.orElseThrow();
+		List<RequestedFeedbackChannel> channels = Optional.ofNullable(feedbackSettings.getChannels()).orElse(emptyList());
+
+		// Settings created by the upsert statement above have the id generated for them, existing settings keep their id
+		boolean created = entity.getId().equals(createdId);
+		if (created) {
+			entity.setFeedbackChannels(toFeedbackChannelEmbeddables(channels));
+		} else {
+			mergeFeedbackSettings(entity, UpdateFeedbackSettingsRequest.create().withChannels(channels));
+			entity.preUpdate();
+		}
+		// Flush to return the settings with the version they are written with
+		feedbackSettingsRepository.flush();
+		invalidate(tenantId, entity.getId(), entity.getPersonId(), entity.getOrganizationId());
+
+		return new UpsertResult(toFeedbackSettings(entity), created);
+	}
+
 	public FeedbackSettings getFeedbackSettingsById(String id) throws ServiceException {
-		FeedbackSettingsEntity entity = feedbackSettingsRepository.findByIdOptional(id)
+		String tenantId = tenantContext.getTenantId();
+		FeedbackSettings cachedSettings = feedbackSettingsCache.getById(tenantId, id);
+		if (nonNull(cachedSettings)) {
+			return cachedSettings;
+		}
+
+		long generation = feedbackSettingsCache.getGeneration(tenantId);
+		shardRouter.routeToShardOfId(id);
+		dataSourceRouting.readFromReplicaUnlessRecentlyWritten(id);
+
+		// Read only projection straight into the response model, as no entity needs to be managed when only reading
+		FeedbackSettings settings = findFeedbackSettingsById(tenantId, id)
 				.orElseThrow(() -> ServiceException.create(String.format(SETTINGS_NOT_FOUND_FOR_ID, id), Status.NOT_FOUND, Status.NOT_FOUND));
 
-		return toFeedbackSettings(entity);
+		// The replica may lag behind the primary, hence settings read from it are returned but not cached
+		return dataSourceRouting.isReadFromReplica() ? settings : feedbackSettingsCache.put(tenantId, generation, settings);
 	}
 
-	public SearchResult getFeedbackSettings(String personId, String organizationId, int page, int limit) {
-		PanacheQuery<FeedbackSettingsEntity> entities = feedbackSettingsRepository
-				.findByPersonIdAndOrganizationId(personId, organizationId)
-				.page(Page.ofSize(limit));
-		
-		// If page larger than last page is requested, a empty list is returned otherwise the current page
-		List<FeedbackSettings> settings = entities.pageCount() < page ? Collections.emptyList() 
-				: toFeedbackSettings(entities.page(page-1, limit).list()); // Paging with PanacheQuery starts with 0, API paging starts with 1 - hence the subtraction of 1
-		
+	/**
+	 * Method returns settings matching sent in id, for deciding if clients already have the current version of the
+	 * settings. Settings not found in cache are read without their feedback channels, hence only id, owner, timestamps
+	 * and version of the returned settings are to be relied on.
+	 * 
+	 * @param id id of settings to return
+	 * @return settings matching sent in id
+	 * @throws ServiceException if no settings match sent in id
+	 */
+	public FeedbackSettings getFeedbackSettingsVersionById(String id) throws ServiceException {
+		String tenantId = tenantContext.getTenantId();
+		FeedbackSettings cachedSettings = feedbackSettingsCache.getById(tenantId, id);
+		if (nonNull(cachedSettings)) {
+			return cachedSettings;
+		}
+
+		shardRouter.routeToShardOfId(id);
+		dataSourceRouting.readFromReplicaUnlessRecentlyWritten(id);
+		return feedbackSettingsRepository.findSettingsRowById(tenantId, id)
+				.map(FeedbackSettingsMapper::toFeedbackSettings)
+				.orElseThrow(() -> ServiceException.create(String.format(SETTINGS_NOT_FOUND_FOR_ID, id), Status.NOT_FOUND, Status.NOT_FOUND));
+	}
+
+	/**
+	 * Method returns settings matching sent in parameters using offset paging.
+	 * 
+	 * @param personId personId to filter on (or null for no filtering)
+	 * @param organizationId organizationId to filter on (or null for no filtering)
+	 * @param page page to return (starting with 1)
+	 * @param limit maximum number of settings per page
+	 * @param includeTotals if true, total amount of hits and pages are calculated by one count query. If false, no count
+	 * query is executed and metadata instead signals if more hits exist after current page. Searches without personId
+	 * are sent to all shards when sharded, and the hits of all shards are merged in id order.
+	 * @return search result for requested page
+	 */
+	public SearchResult getFeedbackSettings(String personId, String organizationId, int page, int limit, boolean includeTotals) {
+		String tenantId = tenantContext.getTenantId();
+		MetaData metaData = MetaData.create()
+				.withPage(page)
+				.withLimit(limit);
+
+		// A combination of personId and organizationId matches at most one setting, which can be served from cache
+		if (isNotBlank(personId) && isNotBlank(organizationId) && page == 1) {
+			FeedbackSettings cachedSettings = feedbackSettingsCache.getByOwner(tenantId, personId, organizationId);
+			if (nonNull(cachedSettings)) {
+				metaData.withCount(1);
+				return SearchResult.create()
+						.withMetaData(includeTotals ? metaData.withTotalRecords(1L).withTotalPages(1) : metaData.withHasMore(false))
+						.withFeedbackSettings(List.of(cachedSettings));
+			}
+		}
+
+		long generation = feedbackSettingsCache.getGeneration(tenantId);
+		if (isNotBlank(personId)) {
+			shardRouter.routeToShardOf(tenantId, personId);
+		} else if (shardRouter.isSharded()) {
+			return getFeedbackSettingsFromAllShards(tenantId, organizationId, metaData, includeTotals);
+		}
+
+		dataSourceRouting.readFromReplicaUnlessRecentlyWritten(personId, organizationId);
+		PanacheQuery<FeedbackSettingsEntity> query = feedbackSettingsRepository.findByPersonIdAndOrganizationId(tenantId, personId, organizationId);
+		List<FeedbackSettingsRow> rows;
+
+		if (includeTotals) {
+			long totalRecords = query.count();
+			int totalPages = totalRecords == 0 ? 1 : (int) ((totalRecords + limit - 1) / limit); // An empty result is presented as one empty page
+			metaData.withTotalRecords(totalRecords).withTotalPages(totalPages);
+
+			// If there are no hits or page larger than last page is requested, a empty list is returned otherwise the current page
+			rows = totalRecords == 0 || totalPages < page ? Collections.emptyList() 
+					: query.project(FeedbackSettingsRow.class).page(page - 1, limit).list(); // Paging with PanacheQuery starts with 0, API paging starts with 1 - hence the subtraction of 1
+		} else {
+			// Fetch one more element than requested to determine if there are more hits after current page. Offsets beyond
+			// the range of int are past the end of any result, hence an empty page is returned for them.
+			long firstIndex = (page - 1L) * limit;
+			rows = firstIndex + limit >= Integer.MAX_VALUE ? Collections.emptyList()
+					: query.project(FeedbackSettingsRow.class).range((int) firstIndex, (int) firstIndex + limit).list();
+
+			boolean hasMore = rows.size() > limit;
+			metaData.withHasMore(hasMore);
+			rows = hasMore ? rows.subList(0, limit) : rows;
+		}
+
+		List<FeedbackSettings> settings = toFeedbackSettingsWithChannels(rows);
+		if (isNotBlank(personId) && isNotBlank(organizationId) && settings.size() == 1 && !dataSourceRouting.isReadFromReplica()) {
+			feedbackSettingsCache.put(tenantId, generation, settings.get(0));
+		}
+
+		return SearchResult.create()
+				.withMetaData(metaData.withCount(settings.size()))
+				.withFeedbackSettings(settings); 
+	}
+
+	/**
+	 * Method returns settings matching sent in parameters using keyset paging, i.e. positioning by the id of the last
+	 * element on previous page instead of by offset.
+	 * 
+	 * @param personId personId to filter on (or null for no filtering)
+	 * @param organizationId organizationId to filter on (or null for no filtering)
+	 * @param after cursor received as next in previous response (or empty to start from the beginning)
+	 * @param limit maximum number of settings to return
+	 * @return search result where metadata contains cursor for next page if more settings exist
+	 * @throws ServiceException if sent in cursor is not valid
+	 */
+	public SearchResult getFeedbackSettingsByCursor(String personId, String organizationId, String after, int limit) throws ServiceException {
+		String tenantId = tenantContext.getTenantId();
+		String afterId = decodeCursor(after);
+		boolean allShards = isBlank(personId) && shardRouter.isSharded();
+		if (isNotBlank(personId)) {
+			shardRouter.routeToShardOf(tenantId, personId);
+		}
+
+		// Fetch one more element than requested to determine if there is a next page
+		List<FeedbackSettingsRow> rows = allShards ? findSettingsRowsInAllShards(tenantId, organizationId, afterId, limit + 1)
+				: feedbackSettingsRepository
+						.findByPersonIdAndOrganizationIdAfterId(tenantId, personId, organizationId, afterId)
+						.project(FeedbackSettingsRow.class)
+						.range(0, limit)
+						.list();
+
+		boolean hasMore = rows.size() > limit;
+		rows = hasMore ? rows.subList(0, limit) : rows;
+		List<FeedbackSettings> settings = allShards ? toFeedbackSettingsWithChannelsFromAllShards(rows) : toFeedbackSettingsWithChannels(rows);
+
 		return SearchResult.create()
 				.withMetaData(MetaData.create()
-						.withPage(page)
-						.withTotalPages(entities.pageCount())
-						.withTotalRecords(entities.count())
 						.withCount(settings.size())
-						.withLimit(limit))
-				.withFeedbackSettings(settings); 
+						.withLimit(limit)
+						.withNext(hasMore ? encodeCursor(settings.get(settings.size() - 1).getId()) : null))
+				.withFeedbackSettings(settings);
+	}
+
+	/**
+	 * Method returns settings having at least one channel with sent in destination (for example to find all settings
+	 * affected by a bounced message). A destination is shared by a handful of settings at most, hence all matches are
+	 * read with one statement and paging is applied to the read settings.
+	 * 
+	 * @param destination destination to search for, compared case insensitive and without whitespace
+	 * @param contactMethod contact method to filter on (or null for no filtering)
+	 * @param page page to return (starting with 1)
+	 * @param limit maximum number of settings per page
+	 * @param includeTotals if true, metadata contains total amount of hits and pages. If false, metadata instead signals
+	 * if more hits exist after current page.
+	 * @return search result for requested page
+	 */
+	public SearchResult getFeedbackSettingsByDestination(String destination, ContactMethod contactMethod, int page, int limit, boolean includeTotals) {
+		String tenantId = tenantContext.getTenantId();
+		List<FeedbackSettings> matches = shardRouter.isSharded()
+				? groupFeedbackSettings(shardRouter.fanOut(entityManager -> feedbackSettingsRepository.findRowsByDestination(entityManager, tenantId, destination, contactMethod))).stream()
+						.sorted(comparing(FeedbackSettings::getId))
+						.toList()
+				: groupFeedbackSettings(feedbackSettingsRepository.findRowsByDestination(tenantId, destination, contactMethod));
+
+		int firstIndex = (int) Math.min((page - 1L) * limit, matches.size());
+		int lastIndex = (int) Math.min((long) firstIndex + limit, matches.size());
+		List<FeedbackSettings> settings = matches.subList(firstIndex, lastIndex);
+
+		MetaData metaData = MetaData.create()
+				.withPage(page)
+				.withLimit(limit)
+				.withCount(settings.size());
+		if (includeTotals) {
+			int totalPages = matches.isEmpty() ? 1 : (int) ((matches.size() + limit - 1L) / limit); // An empty result is presented as one empty page
+			metaData.withTotalRecords((long) matches.size()).withTotalPages(totalPages);
+		} else {
+			metaData.withHasMore(lastIndex < matches.size());
+		}
+
+		return SearchResult.create()
+				.withMetaData(metaData)
+				.withFeedbackSettings(settings);
+	}
+
+	/**
+	 * Method returns settings matching the ids and owners in sent in request. Ids and persons are resolved in chunks of
+	 * configured size, so the number of statements grows with the number of chunks instead of with the number of inputs.
+	 * Inputs are matched regardless of the case of their UUIDs, and are returned in the form they were sent in.
+	 * 
+	 * @param request request containing ids and/or owners to look up settings for
+	 * @return result containing matches keyed by input, and the inputs that did not match any settings
+	 */
+	public LookupResult lookupFeedbackSettings(LookupRequest request) {
+		String tenantId = tenantContext.getTenantId();
+		List<String> ids = Optional.ofNullable(request.getIds()).orElse(emptyList()).stream().distinct().toList();
+		List<FeedbackSettingsOwner> owners = Optional.ofNullable(request.getOwners()).orElse(emptyList()).stream().distinct().toList();
+
+		Map<String, FeedbackSettings> settingsById = new HashMap<>();
+		partition(ids.stream().map(FeedbackSettingsService::toCanonicalUuid).distinct().toList(), lookupChunkSize)
+				.forEach(chunk -> findFeedbackSettingsByIds(tenantId, chunk)
+						.forEach(settings -> settingsById.put(settings.getId(), settings)));
+
+		Map<FeedbackSettingsOwner, FeedbackSettings> settingsByOwner = new HashMap<>();
+		partition(owners.stream().map(owner -> toCanonicalUuid(owner.getPersonId())).distinct().toList(), lookupChunkSize)
+				.forEach(chunk -> findFeedbackSettingsByPersonIds(tenantId, chunk)
+						.forEach(settings -> settingsByOwner.put(FeedbackSettingsOwner.create()
+								.withPersonId(settings.getPersonId())
+								.withOrganizationId(settings.getOrganizationId()), settings)));
+
+		Map<String, FeedbackSettings> matchesById = new LinkedHashMap<>();
+		List<String> unmatchedIds = new ArrayList<>();
+		ids.forEach(id -> Optional.ofNullable(settingsById.get(toCanonicalUuid(id)))
+				.ifPresentOrElse(settings -> matchesById.put(id, settings), () -> unmatchedIds.add(id)));
+
+		List<OwnerMatch> matchesByOwner = new ArrayList<>();
+		List<FeedbackSettingsOwner> unmatchedOwners = new ArrayList<>();
+		owners.forEach(owner -> Optional.ofNullable(settingsByOwner.get(toCanonicalOwner(owner)))
+				.ifPresentOrElse(settings -> matchesByOwner.add(OwnerMatch.create().withOwner(owner).withFeedbackSettings(settings)), () -> unmatchedOwners.add(owner)));
+
+		return LookupResult.create()
+				.withMatchesById(matchesById)
+				.withMatchesByOwner(matchesByOwner)
+				.withUnmatchedIds(unmatchedIds)
+				.withUnmatchedOwners(unmatchedOwners);
+	}
+
+	/**
+	 * Method writes all settings of the tenant, including channels, to sent in stream as newline delimited JSON (one setting per line).
+	 * Rows are read from a forward only cursor and each setting is written as soon as all of its channels have been read,
+	 * so memory consumption is independent of the number of exported settings. When sharded, the shards are exported one
+	 * after another. The export runs in a transaction with a timeout of its own, as exporting all settings of a tenant
+	 * can take longer than the default transaction timeout.
+	 * 
+	 * @param outputStream stream to write settings to
+	 * @throws IOException if settings could not be written to the stream
+	 */
+	@Transactional
+	@TransactionConfiguration(timeoutFromConfigProperty = "feedbacksettings.export.transaction-timeout-seconds")
+	public void exportFeedbackSettings(OutputStream outputStream) throws IOException {
+		String tenantId = tenantContext.getTenantId();
+		ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+			generator.setRootValueSeparator(null);
+
+			if (!shardRouter.isSharded()) {
+				try (Stream<FeedbackSettingsChannelRow> rows = feedbackSettingsRepository.streamAllWithFeedbackChannels(tenantId, exportFetchSize)) {
+					writeLines(writer, generator, rows);
+				}
+				return;
+			}
+
+			for (String shard : shardRouter.getShards()) {
+				shardRouter.inShard(shard, entityManager -> {
+					try (Stream<FeedbackSettingsChannelRow> rows = feedbackSettingsRepository.streamAllWithFeedbackChannels(entityManager, tenantId, exportFetchSize)) {
+						writeLines(writer, generator, rows);
+						return null;
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
 	}
 
+	/**
+	 * Method deletes existing settings. As when updating, the delete is only written if the settings still have the
+	 * version that was read.
+	 * 
+	 * @param id id of settings to delete
+	 * @param expectedVersion version that the settings must have (or null to delete regardless of version)
+	 * @throws ServiceException if no settings match sent in id (404), if the settings do not have the expected version
+	 * (412) or if the settings were modified by another request while being deleted (412 if a version was expected,
+	 * otherwise 409)
+	 */
 	@Transactional
-	public void deleteFeedbackSettings(String id) throws ServiceException {
+	public void deleteFeedbackSettings(String id, Long expectedVersion) throws ServiceException {
+		String tenantId = tenantContext.getTenantId();
+		shardRouter.routeToShardOfId(id);
 		// Do a fetch to validate a setting for sent in id exists
-		getFeedbackSettingsById(id);
+		FeedbackSettingsEntity entity = getFeedbackSettingsEntity(tenantId, id);
+		verifyVersion(entity, expectedVersion);
+
+		// The fetched entity is removed, so that the delete statement is conditioned on the version it was fetched with
+		try {
+			feedbackSettingsRepository.delete(entity);
+			feedbackSettingsRepository.flush();
+		} catch (OptimisticLockException e) {
+			throw concurrentModification(id, expectedVersion);
+		}
+		invalidate(tenantId, entity.getId(), entity.getPersonId(), entity.getOrganizationId());
+	}
+
+	/**
+	 * Invalidates cached entries for sent in settings, and registers them as recently written so that they are read from
+	 * the primary datasource until the replica has caught up.
+	 */
+	private void invalidate(String tenantId, String id, String personId, String organizationId) {
+		feedbackSettingsCache.invalidate(tenantId, id, personId, organizationId);
+		recentWrites.register(id, personId, organizationId);
+	}
+
+	private Optional<FeedbackSettings> findFeedbackSettingsById(String tenantId, String id) {
+		if (channelStorageMode == ChannelStorageMode.JSON) {
+			return feedbackSettingsRepository.findJsonRowById(tenantId, id).map(FeedbackSettingsMapper::toFeedbackSettings);
+		}
+		return groupFeedbackSettings(feedbackSettingsRepository.findRowsById(tenantId, id)).stream().findAny();
+	}
+
+	private List<FeedbackSettings> findFeedbackSettingsByIds(String tenantId, List<String> ids) {
+		if (shardRouter.isSharded()) {
+			return groupFeedbackSettings(shardRouter.fanOut(entityManager -> feedbackSettingsRepository.findRowsByIds(entityManager, tenantId, ids)));
+		}
+		if (channelStorageMode == ChannelStorageMode.JSON) {
+			return feedbackSettingsRepository.findJsonRowsByIds(tenantId, ids).stream().map(FeedbackSettingsMapper::toFeedbackSettings).toList();
+		}
+		return groupFeedbackSettings(feedbackSettingsRepository.findRowsByIds(tenantId, ids));
+	}
 
-		feedbackSettingsRepository.deleteById(id);
+	private List<FeedbackSettings> findFeedbackSettingsByPersonIds(String tenantId, List<String> personIds) {
+		if (shardRouter.isSharded()) {
+			// Each shard is only asked for the persons belonging to it
+			Map<String, List<String>> personIdsByShard = personIds.stream().collect(groupingBy(personId -> shardRouter.shardOf(tenantId, personId), LinkedHashMap::new, toList()));
+			return groupFeedbackSettings(shardRouter.fanOutByShard(personIdsByShard.keySet(), (shard, entityManager) -> feedbackSettingsRepository.findRowsByPersonIds(entityManager, tenantId, personIdsByShard.get(shard)))
+					.values().stream()
+					.flatMap(List::stream)
+					.toList());
+		}
+		if (channelStorageMode == ChannelStorageMode.JSON) {
+			return feedbackSettingsRepository.findJsonRowsByPersonIds(tenantId, personIds).stream().map(FeedbackSettingsMapper::toFeedbackSettings).toList();
+		}
+		return groupFeedbackSettings(feedbackSettingsRepository.findRowsByPersonIds(tenantId, personIds));
+	}
+
+	/**
+	 * Method maps sent in rows to settings and adds their channels, which are read with one statement for all settings.
+	 */
+	private List<FeedbackSettings> toFeedbackSettingsWithChannels(List<FeedbackSettingsRow> rows) {
+		List<FeedbackSettings> settings = rows.stream()
+				.map(FeedbackSettingsMapper::toFeedbackSettings)
+				.toList();
+
+		return addFeedbackChannels(settings, feedbackSettingsRepository.findFeedbackChannelRowsBySettingIds(settings.stream()
+				.map(FeedbackSettings::getId)
+				.toList()));
+	}
+
+	/**
+	 * Method creates the settings at sent in indexes of the request, in the shard that the current transaction is routed
+	 * to, and adds a result for each of them to the position of the setting in the request.
+	 */
+	private void createFeedbackSettings(String tenantId, List<CreateFeedbackSettingsRequest> requestedSettings, List<Integer> indexes, BatchItemResult[] results) {
+		Set<FeedbackSettingsOwner> owners = new HashSet<>();
+		partition(indexes.stream().map(index -> requestedSettings.get(index).getPersonId()).distinct().toList(), lookupChunkSize)
+				.forEach(chunk -> feedbackSettingsRepository.findSettingsRowsByPersonIds(tenantId, chunk)
+						.forEach(row -> owners.add(FeedbackSettingsOwner.create().withPersonId(row.personId()).withOrganizationId(row.organizationId()))));
+
+		Map<Integer, FeedbackSettingsEntity> entities = new LinkedHashMap<>();
+		for (int index : indexes) {
+			CreateFeedbackSettingsRequest requestedSetting = requestedSettings.get(index);
+			FeedbackSettingsOwner owner = FeedbackSettingsOwner.create()
+					.withPersonId(requestedSetting.getPersonId())
+					.withOrganizationId(requestedSetting.getOrganizationId());
+
+			if (!owners.add(owner)) {
+				results[index] = BatchItemResult.create()
+						.withIndex(index)
+						.withStatus(Status.CONFLICT.getStatusCode())
+						.withMessage(isNull(owner.getOrganizationId()) ?
+								String.format(SETTINGS_ALREADY_EXISTS_FOR_PERSONID, owner.getPersonId()) :
+								String.format(SETTINGS_ALREADY_EXISTS_FOR_ORGANIZATION_REPRESENTATIVE, owner.getPersonId(), owner.getOrganizationId()));
+				continue;
+			}
+
+			entities.put(index, toFeedbackSettingsEntity(requestedSetting).withTenantId(tenantId));
+			if (entities.size() == batchChunkSize) {
+				persistAndAddResults(tenantId, entities, results);
+			}
+		}
+		persistAndAddResults(tenantId, entities, results);
+	}
+
+	/**
+	 * Method returns the requested page of settings matching sent in organizationId from all shards. Each shard returns
+	 * its hits up to the end of the requested page (plus one to determine if more hits exist), ordered by id, and the
+	 * requested page is sliced from the merged hits.
+	 */
+	private SearchResult getFeedbackSettingsFromAllShards(String tenantId, String organizationId, MetaData metaData, boolean includeTotals) {
+		long firstIndex = (metaData.getPage() - 1L) * metaData.getLimit();
+		List<FeedbackSettingsRow> hits = firstIndex + metaData.getLimit() >= Integer.MAX_VALUE ? Collections.emptyList() // Offsets beyond the range of int are past the end of any result
+				: findSettingsRowsInAllShards(tenantId, organizationId, null, (int) firstIndex + metaData.getLimit() + 1);
+		List<FeedbackSettingsRow> rows = hits.subList((int) Math.min(firstIndex, hits.size()), (int) Math.min(firstIndex + metaData.getLimit(), hits.size()));
+
+		if (includeTotals) {
+			long totalRecords = shardRouter.fanOutByShard(entityManager -> feedbackSettingsRepository.countByOrganizationId(entityManager, tenantId, organizationId)).values().stream()
+					.mapToLong(Long::longValue)
+					.sum();
+			int totalPages = totalRecords == 0 ? 1 : (int) ((totalRecords + metaData.getLimit() - 1) / metaData.getLimit()); // An empty result is presented as one empty page
+			metaData.withTotalRecords(totalRecords).withTotalPages(totalPages);
+		} else {
+			metaData.withHasMore(hits.size() > firstIndex + metaData.getLimit());
+		}
+
+		List<FeedbackSettings> settings = toFeedbackSettingsWithChannelsFromAllShards(rows);
+		return SearchResult.create()
+				.withMetaData(metaData.withCount(settings.size()))
+				.withFeedbackSettings(settings);
+	}
+
+	/**
+	 * Method returns at most sent in number of settings from all shards, ordered by id and starting after sent in id.
+	 */
+	private List<FeedbackSettingsRow> findSettingsRowsInAllShards(String tenantId, String organizationId, String afterId, int maxResults) {
+		return shardRouter.fanOut(entityManager -> feedbackSettingsRepository.findSettingsRowsByOrganizationIdAfterId(entityManager, tenantId, organizationId, afterId, maxResults)).stream()
+				.sorted(comparing(FeedbackSettingsRow::id))
+				.limit(maxResults)
+				.toList();
+	}
+
+	/**
+	 * Same as {@link #toFeedbackSettingsWithChannels(List)}, but for rows read from any shard. As ids are unique over all
+	 * shards, all shards are asked for the channels of all settings in parallel.
+	 */
+	private List<FeedbackSettings> toFeedbackSettingsWithChannelsFromAllShards(List<FeedbackSettingsRow> rows) {
+		List<FeedbackSettings> settings = rows.stream()
+				.map(FeedbackSettingsMapper::toFeedbackSettings)
+				.toList();
+		List<String> ids = settings.stream()
+				.map(FeedbackSettings::getId)
+				.toList();
+
+		return addFeedbackChannels(settings, shardRouter.fanOut(entityManager -> feedbackSettingsRepository.findFeedbackChannelRowsBySettingIds(entityManager, ids)));
+	}
+
+	/**
+	 * Method persists sent in entities as one chunk, adds a result for each of them to the position of the entity in the
+	 * request and finally clears sent in map to make it ready for the next chunk.
+	 */
+	private void persistAndAddResults(String tenantId, Map<Integer, FeedbackSettingsEntity> entities, BatchItemResult[] results) {
+		if (entities.isEmpty()) {
+			return;
+		}
+
+		feedbackSettingsRepository.persistAndDetach(List.copyOf(entities.values()));
+		entities.forEach((index, entity) -> {
+			invalidate(tenantId, entity.getId(), entity.getPersonId(), entity.getOrganizationId());
+			results[index] = BatchItemResult.create()
+					.withIndex(index)
+					.withStatus(Status.CREATED.getStatusCode())
+					.withFeedbackSettings(toFeedbackSettings(entity));
+		});
+		entities.clear();
+	}
+
+	private static <T> List<List<T>> partition(List<T> list, int size) {
+		return IntStream.range(0, (list.size() + size - 1) / size)
+				.mapToObj(index -> list.subList(index * size, Math.min(list.size(), (index + 1) * size)))
+				.toList();
+	}
+
+	/**
+	 * Method writes sent in rows, ordered by id, as one line per setting.
+	 */
+	private static void writeLines(ObjectWriter writer, JsonGenerator generator, Stream<FeedbackSettingsChannelRow> rows) throws IOException {
+		FeedbackSettings current = null;
+		Iterator<FeedbackSettingsChannelRow> iterator = rows.iterator();
+		while (iterator.hasNext()) {
+			FeedbackSettingsChannelRow row = iterator.next();
+			if (isNull(current) || !current.getId().equals(row.id())) {
+				writeLine(writer, generator, current);
+				current = toFeedbackSettings(row);
+			}
+			Optional.ofNullable(toFeedbackChannel(row)).ifPresent(current.getChannels()::add);
+		}
+		writeLine(writer, generator, current);
+	}
+
+	private static void writeLine(ObjectWriter writer, JsonGenerator generator, FeedbackSettings feedbackSettings) throws IOException {
+		if (nonNull(feedbackSettings)) {
+			writer.writeValue(generator, feedbackSettings);
+			generator.writeRaw('\n');
+		}
+	}
+
+	/**
+	 * Method returns sent in UUID in the form that ids are read from the database with (lower case), or null if sent in
+	 * value is null.
+	 */
+	private static String toCanonicalUuid(String uuid) {
+		return isNull(uuid) ? null : UUID.fromString(uuid).toString();
+	}
+
+	private static FeedbackSettingsOwner toCanonicalOwner(FeedbackSettingsOwner owner) {
+		return FeedbackSettingsOwner.create()
+				.withPersonId(toCanonicalUuid(owner.getPersonId()))
+				.withOrganizationId(toCanonicalUuid(owner.getOrganizationId()));
+	}
+
+	private static String encodeCursor(String id) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(UTF_8));
+	}
+
+	private static String decodeCursor(String cursor) throws ServiceException {
+		if (isNull(cursor) || cursor.isEmpty()) {
+			return null;
+		}
+		try {
+			// Cursors are compared with binary ids, hence anything but an id is rejected before reaching the database
+			return UUID.fromString(new String(Base64.getUrlDecoder().decode(cursor), UTF_8)).toString();
+		} catch (IllegalArgumentException e) {
+			throw ServiceException.create(String.format(INVALID_CURSOR, cursor), Status.BAD_REQUEST, Status.BAD_REQUEST);
+		}
+	}
+
+	private static void verifyVersion(FeedbackSettingsEntity entity, Long expectedVersion) throws ServiceException {
+		if (nonNull(expectedVersion) && !expectedVersion.equals(entity.getVersion())) {
+			throw ServiceException.create(String.format(SETTINGS_VERSION_MISMATCH, entity.getId(), entity.getVersion(), expectedVersion), Status.PRECONDITION_FAILED, Status.PRECONDITION_FAILED);
+		}
+	}
+
+	private static ServiceException concurrentModification(String id, Long expectedVersion) {
+		Status status = nonNull(expectedVersion) ? Status.PRECONDITION_FAILED : Status.CONFLICT;
+		return ServiceException.create(String.format(SETTINGS_MODIFIED_CONCURRENTLY, id), status, status);
+	}
+
+	private FeedbackSettingsEntity getFeedbackSettingsEntity(String tenantId, String id) throws ServiceException {
+		return feedbackSettingsRepository.findByIdWithFeedbackChannels(tenantId, id)
+				.orElseThrow(() -> ServiceException.create(String.format(SETTINGS_NOT_FOUND_FOR_ID, id), Status.NOT_FOUND, Status.NOT_FOUND));
 	}
 
 	/**
-	 * Method checks for existing settings for combination of sent in personId and organizationId
+	 * Method checks for existing settings for combination of sent in tenantId, personId and organizationId
+	 * @param tenantId tenantId
 	 * @param personId personId
 	 * @param organizationId organizationId
 	 * @throws ServiceException if an existing match for the sent in parameters is found in the database
 	 */
-	private void verifyNonExistingSettings(String personId, String organizationId) throws ServiceException {
-		if (feedbackSettingsRepository.existsByPersonIdAndOrganizationId(personId, organizationId)) {
+	private void verifyNonExistingSettings(String tenantId, String personId, String organizationId) throws ServiceException {
+		if (feedbackSettingsRepository.existsByPersonIdAndOrganizationId(tenantId, personId, organizationId)) {
 			throw ServiceException.create(
 					isNull(organizationId) ? 
 							String.format(SETTINGS_ALREADY_EXISTS_FOR_PERSONID, personId) :
@@ -7,4 +7,7 @@ public class ServiceConstants {
 	static final String SETTINGS_NOT_FOUND_FOR_ID = "No settings matching id '%s' were found";
 	static final String SETTINGS_ALREADY_EXISTS_FOR_PERSONID = "Settings already exist for personId '%s'";
 	static final String SETTINGS_ALREADY_EXISTS_FOR_ORGANIZATION_REPRESENTATIVE = "Settings already exist for personId '%s' representing organizationId '%s'";
+	static final String INVALID_CURSOR = "Cursor '%s' is not valid";
+	static final String SETTINGS_VERSION_MISMATCH = "Settings matching id '%s' have version '%s', which does not match requested version '%s'";
+	static final String SETTINGS_MODIFIED_CONCURRENTLY = "Settings matching id '%s' were modified by another request";
 }
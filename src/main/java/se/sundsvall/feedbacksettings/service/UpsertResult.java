@@ -0,0 +1,13 @@
+package se.sundsvall.feedbacksettings.service;
+
+import se.sundsvall.feedbacksettings.api.model.FeedbackSettings;
+
+/**
+ * Result of creating or replacing the settings of an owner.
+ *
+ * @param feedbackSettings settings as they are after the call.
+ * @param created          true if the settings were created by the call, false if existing settings were replaced.
+ */
+public record UpsertResult(
+	FeedbackSettings feedbackSettings,
+	boolean created) {}
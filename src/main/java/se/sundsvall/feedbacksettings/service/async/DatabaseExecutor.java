@@ -0,0 +1,99 @@
+package se.sundsvall.feedbacksettings.service.async;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.ws.rs.core.Response.Status;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.eclipse.microprofile.context.ThreadContext;
+
+import io.smallrye.mutiny.Uni;
+import se.sundsvall.feedbacksettings.api.exception.ServiceException;
+
+/**
+ * Runs blocking database work of asynchronous resource methods on the threads of the execution mode configured by
+ * property feedbacksettings.database-executor.mode, so that requests waiting for the database do not hold request
+ * worker threads. Request scoped beans and the request of the resource method are propagated to the threads,
+ * transactions are not. In mode POOL, work that does not fit in the queue is rejected with status 503.
+ */
+@ApplicationScoped
+public class DatabaseExecutor {
+	static final String EXECUTOR_SATURATED = "Too many requests are waiting for the database";
+
+	@ConfigProperty(name = "feedbacksettings.database-executor.mode")
+	ExecutionMode mode;
+
+	@ConfigProperty(name = "feedbacksettings.database-executor.max-threads")
+	int maxThreads;
+
+	@ConfigProperty(name = "feedbacksettings.database-executor.max-queued")
+	int maxQueued;
+
+	private ExecutorService executorService;
+	private Executor executor;
+
+	@PostConstruct
+	void init() {
+		switch (mode) {
+			case POOL -> {
+				ManagedExecutor managedExecutor = ManagedExecutor.builder()
+					.maxAsync(maxThreads)
+					.maxQueued(maxQueued)
+					.propagated(ThreadContext.ALL_REMAINING)
+					.cleared(ThreadContext.TRANSACTION)
+					.build();
+				executorService = managedExecutor;
+				executor = managedExecutor;
+			}
+			case WORKER -> executor = null;
+		}
+	}
+
+	@PreDestroy
+	void shutdown() {
+		if (nonNull(executorService)) {
+			executorService.shutdown();
+		}
+	}
+
+	/**
+	 * Method returns a lazy Uni emitting the result of sent in work, which is executed on a thread of the configured
+	 * execution mode when the Uni is subscribed to. A ServiceException thrown by the work fails the Uni with a ServiceRuntimeException.
+	 *
+	 * @param work blocking database work
+	 * @return Uni emitting the result of the work
+	 */
+	public <T> Uni<T> submit(DatabaseWork<T> work) {
+		Uni<T> uni = Uni.createFrom().item(() -> {
+			try {
+				return work.execute();
+			} catch (ServiceException e) {
+				throw e.asRuntimeException();
+			}
+		});
+
+		if (isNull(executor)) {
+			return uni;
+		}
+		return uni.runSubscriptionOn(executor)
+			.onFailure(RejectedExecutionException.class)
+			.transform(e -> ServiceException.create(EXECUTOR_SATURATED, Status.SERVICE_UNAVAILABLE, Status.SERVICE_UNAVAILABLE).asRuntimeException());
+	}
+
+	/**
+	 * Blocking database work, that may fail with a ServiceException.
+	 */
+	@FunctionalInterface
+	public interface DatabaseWork<T> {
+		T execute() throws ServiceException;
+	}
+}
@@ -0,0 +1,20 @@
+package se.sundsvall.feedbacksettings.service.async;
+
+/**
+ * Threads running the database work of the endpoints, selected by property feedbacksettings.database-executor.mode.
+ * All modes serve the same endpoints, so the mode can be switched to compare them under the same load.
+ */
+public enum ExecutionMode {
+
+	/**
+	 * Work is run on the request worker thread, so that the number of requests in progress is bounded by the size of the
+	 * worker pool.
+	 */
+	WORKER,
+
+	/**
+	 * Work is run on a pool of platform threads bounded by property feedbacksettings.database-executor.max-threads, with
+	 * at most feedbacksettings.database-executor.max-queued requests waiting for a thread.
+	 */
+	POOL
+}
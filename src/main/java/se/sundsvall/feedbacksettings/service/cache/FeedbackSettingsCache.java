@@ -0,0 +1,161 @@
+package se.sundsvall.feedbacksettings.service.cache;
+
+import static java.util.Objects.nonNull;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import se.sundsvall.feedbacksettings.api.model.FeedbackSettings;
+
+/**
+ * Bounded in-process cache of mapped feedback settings, keyed both by id and by owner (personId and organizationId).
+ * Each tenant has caches of its own, bounded by the configured maximum size, so that a tenant with many settings can not
+ * evict the entries of other tenants. Entries are evicted when the configured maximum size is reached or when the
+ * configured time to live has passed. Settings read from the database are only put in the cache if no entries of the
+ * tenant have been invalidated since the read started, so that a read racing with a write can not re-populate the
+ * cache with the settings as they were before the write.
+ */
+@ApplicationScoped
+public class FeedbackSettingsCache {
+
+	@ConfigProperty(name = "feedbacksettings.cache.maximum-size")
+	long maximumSize;
+
+	@ConfigProperty(name = "feedbacksettings.cache.expire-after-write")
+	Duration expireAfterWrite;
+
+	@Inject
+	TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+	private final Map<String, TenantCache> tenantCaches = new ConcurrentHashMap<>();
+
+	public FeedbackSettings getById(String tenantId, String id) {
+		return tenantCache(tenantId).settingsById().getIfPresent(id);
+	}
+
+	public FeedbackSettings getByOwner(String tenantId, String personId, String organizationId) {
+		return tenantCache(tenantId).settingsByOwner().getIfPresent(new OwnerKey(personId, organizationId));
+	}
+
+	/**
+	 * Method returns the invalidation generation of sent in tenant, to be read before reading settings from the database
+	 * and then sent in when putting the read settings in the cache.
+	 *
+	 * @param tenantId tenant owning the settings to read
+	 * @return current invalidation generation of the tenant
+	 */
+	public long getGeneration(String tenantId) {
+		return tenantCache(tenantId).generation().get();
+	}
+
+	/**
+	 * Puts sent in settings in the cache of sent in tenant, unless entries of the tenant have been invalidated after sent
+	 * in generation was read, in which case the settings might already be outdated.
+	 *
+	 * @param tenantId         tenant owning the settings
+	 * @param generation       invalidation generation read before the settings were read
+	 * @param feedbackSettings settings to cache (null is ignored)
+	 * @return sent in settings
+	 */
+	public FeedbackSettings put(String tenantId, long generation, FeedbackSettings feedbackSettings) {
+		TenantCache tenantCache = tenantCache(tenantId);
+		if (nonNull(feedbackSettings) && tenantCache.generation().get() == generation) {
+			tenantCache.settingsById().put(feedbackSettings.getId(), feedbackSettings);
+			tenantCache.settingsByOwner().put(new OwnerKey(feedbackSettings.getPersonId(), feedbackSettings.getOrganizationId()), feedbackSettings);
+
+			// An invalidation between the check and the put might have evicted before the put, hence evict the put entries
+			if (tenantCache.generation().get() != generation) {
+				evict(tenantCache, feedbackSettings.getId(), feedbackSettings.getPersonId(), feedbackSettings.getOrganizationId());
+			}
+		}
+		return feedbackSettings;
+	}
+
+	/**
+	 * Invalidates entries of sent in tenant matching sent in id and owner. If a transaction is active, the entries are
+	 * invalidated both immediately and when the transaction completes, preventing concurrent readers from re-populating
+	 * the cache with data that is about to be replaced.
+	 *
+	 * @param tenantId       tenant owning the affected settings
+	 * @param id             id of the affected settings (or null if not yet assigned)
+	 * @param personId       personId of the affected settings
+	 * @param organizationId organizationId of the affected settings
+	 */
+	public void invalidate(String tenantId, String id, String personId, String organizationId) {
+		TenantCache tenantCache = tenantCache(tenantId);
+		evict(tenantCache, id, personId, organizationId);
+
+		if (isTransactionActive()) {
+			transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+				@Override
+				public void beforeCompletion() {
+					// Nothing to do before completion
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					evict(tenantCache, id, personId, organizationId);
+				}
+			});
+		}
+	}
+
+	public void invalidateAll() {
+		tenantCaches.values().forEach(tenantCache -> {
+			tenantCache.generation().incrementAndGet();
+			tenantCache.settingsById().invalidateAll();
+			tenantCache.settingsByOwner().invalidateAll();
+		});
+	}
+
+	/**
+	 * @return aggregated hit, miss and eviction counters for all lookups made against the caches of all tenants
+	 */
+	public CacheStats getStatistics() {
+		return tenantCaches.values().stream()
+			.map(tenantCache -> tenantCache.settingsById().stats().plus(tenantCache.settingsByOwner().stats()))
+			.reduce(CacheStats.empty(), CacheStats::plus);
+	}
+
+	private TenantCache tenantCache(String tenantId) {
+		return tenantCaches.computeIfAbsent(tenantId, key -> new TenantCache(newCache(), newCache(), new AtomicLong()));
+	}
+
+	private <K> Cache<K, FeedbackSettings> newCache() {
+		return Caffeine.newBuilder()
+			.maximumSize(maximumSize)
+			.expireAfterWrite(expireAfterWrite)
+			.recordStats()
+			.build();
+	}
+
+	private static void evict(TenantCache tenantCache, String id, String personId, String organizationId) {
+		tenantCache.generation().incrementAndGet();
+		if (nonNull(id)) {
+			tenantCache.settingsById().invalidate(id);
+		}
+		tenantCache.settingsByOwner().invalidate(new OwnerKey(personId, organizationId));
+	}
+
+	private boolean isTransactionActive() {
+		return nonNull(transactionSynchronizationRegistry) && transactionSynchronizationRegistry.getTransactionStatus() == Status.STATUS_ACTIVE;
+	}
+
+	private record OwnerKey(String personId, String organizationId) {}
+
+	private record TenantCache(Cache<String, FeedbackSettings> settingsById, Cache<OwnerKey, FeedbackSettings> settingsByOwner, AtomicLong generation) {}
+}
@@ -0,0 +1,148 @@
+package se.sundsvall.feedbacksettings.service.idempotency;
+
+import static java.time.temporal.ChronoUnit.MILLIS;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+import javax.ws.rs.core.Response.Status;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.quarkus.scheduler.Scheduled;
+import se.sundsvall.feedbacksettings.api.exception.ServiceException;
+import se.sundsvall.feedbacksettings.integration.db.IdempotencyKeyRepository;
+import se.sundsvall.feedbacksettings.integration.db.model.IdempotencyKeyEntity;
+
+/**
+ * Store of responses to requests sent with an idempotency key. Responses are stored in the database for the configured
+ * time to live, and completed responses are also kept in a bounded in-process cache in front of the database so that
+ * retries are answered without reading the database.
+ */
+@ApplicationScoped
+public class IdempotencyStore {
+	static final String IDEMPOTENCY_KEY_IN_PROGRESS = "A request with idempotency key '%s' is already in progress";
+	static final String IDEMPOTENCY_KEY_REUSED = "Idempotency key '%s' has already been used for a different request";
+
+	@ConfigProperty(name = "feedbacksettings.idempotency.time-to-live")
+	Duration timeToLive;
+
+	@ConfigProperty(name = "feedbacksettings.idempotency.in-progress-timeout")
+	Duration inProgressTimeout;
+
+	@ConfigProperty(name = "feedbacksettings.idempotency.cache.maximum-size")
+	long maximumSize;
+
+	@Inject
+	IdempotencyKeyRepository idempotencyKeyRepository;
+
+	private Cache<String, IdempotentResponse> responses;
+
+	@PostConstruct
+	void init() {
+		responses = Caffeine.newBuilder()
+			.maximumSize(maximumSize)
+			.expireAfterWrite(timeToLive)
+			.build();
+	}
+
+	/**
+	 * Method returns the stored response for sent in idempotency key, or claims the key for the request if no response
+	 * is stored. A claimed key must be passed to either {@link #complete(String, String, IdempotentResponse)} or
+	 * {@link #release(String, String)} when the request has been handled. Keys are stored prefixed with sent in tenant,
+	 * so the same key may be used by different tenants.
+	 *
+	 * @param tenantId tenant of the request
+	 * @param idempotencyKey idempotency key sent with the request
+	 * @param requestHash hash of the request
+	 * @return stored response to replay, or null if the key was claimed for the request
+	 * @throws ServiceException if the key is used by a request still in progress (409) or has been used for a different
+	 * request (400)
+	 */
+	@Transactional
+	public IdempotentResponse findOrClaim(String tenantId, String idempotencyKey, String requestHash) throws ServiceException {
+		String storedKey = toStoredKey(tenantId, idempotencyKey);
+		IdempotentResponse cachedResponse = responses.getIfPresent(storedKey);
+		if (nonNull(cachedResponse)) {
+			return verifyRequestHash(idempotencyKey, requestHash, cachedResponse);
+		}
+
+		OffsetDateTime now = OffsetDateTime.now().truncatedTo(MILLIS);
+		IdempotencyKeyEntity entity = idempotencyKeyRepository.findNonExpired(storedKey, now).orElse(null);
+		if (nonNull(entity)) {
+			if (isNull(entity.getStatus())) {
+				throw ServiceException.create(String.format(IDEMPOTENCY_KEY_IN_PROGRESS, idempotencyKey), Status.CONFLICT, Status.CONFLICT);
+			}
+			IdempotentResponse storedResponse = new IdempotentResponse(entity.getRequestHash(), entity.getStatus(), entity.getLocation(), entity.getEntityTag(), entity.getBody());
+			responses.put(storedKey, storedResponse);
+			return verifyRequestHash(idempotencyKey, requestHash, storedResponse);
+		}
+
+		idempotencyKeyRepository.deleteExpired(storedKey, now);
+		if (!idempotencyKeyRepository.insertIfAbsent(storedKey, requestHash, now, now.plus(inProgressTimeout))) {
+			// Claimed by a concurrent request after the read above
+			throw ServiceException.create(String.format(IDEMPOTENCY_KEY_IN_PROGRESS, idempotencyKey), Status.CONFLICT, Status.CONFLICT);
+		}
+		return null;
+	}
+
+	/**
+	 * Method stores sent in response for a claimed idempotency key, to be replayed for retries of the request.
+	 *
+	 * @param tenantId tenant of the request
+	 * @param idempotencyKey claimed idempotency key
+	 * @param response response to store
+	 */
+	@Transactional
+	public void complete(String tenantId, String idempotencyKey, IdempotentResponse response) {
+		String storedKey = toStoredKey(tenantId, idempotencyKey);
+		idempotencyKeyRepository.complete(IdempotencyKeyEntity.create()
+			.withIdempotencyKey(storedKey)
+			.withStatus(response.status())
+			.withLocation(response.location())
+			.withEntityTag(response.entityTag())
+			.withBody(response.body())
+			.withExpires(OffsetDateTime.now().truncatedTo(MILLIS).plus(timeToLive)));
+		responses.put(storedKey, response);
+	}
+
+	/**
+	 * Method releases a claimed idempotency key without storing a response, making it possible to retry the request.
+	 *
+	 * @param tenantId tenant of the request
+	 * @param idempotencyKey claimed idempotency key
+	 */
+	@Transactional
+	public void release(String tenantId, String idempotencyKey) {
+		idempotencyKeyRepository.deleteById(toStoredKey(tenantId, idempotencyKey));
+	}
+
+	/**
+	 * Method deletes all expired idempotency keys from the database.
+	 */
+	@Transactional
+	@Scheduled(every = "{feedbacksettings.idempotency.purge-interval}", delayed = "{feedbacksettings.idempotency.purge-interval}")
+	public void purgeExpired() {
+		idempotencyKeyRepository.deleteAllExpired(OffsetDateTime.now().truncatedTo(MILLIS));
+	}
+
+	private static String toStoredKey(String tenantId, String idempotencyKey) {
+		return tenantId + ":" + idempotencyKey;
+	}
+
+	private static IdempotentResponse verifyRequestHash(String idempotencyKey, String requestHash, IdempotentResponse response) throws ServiceException {
+		if (!response.requestHash().equals(requestHash)) {
+			throw ServiceException.create(String.format(IDEMPOTENCY_KEY_REUSED, idempotencyKey), Status.BAD_REQUEST, Status.BAD_REQUEST);
+		}
+		return response;
+	}
+}
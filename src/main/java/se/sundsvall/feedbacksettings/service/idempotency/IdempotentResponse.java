@@ -0,0 +1,11 @@
+package se.sundsvall.feedbacksettings.service.idempotency;
+
+/**
+ * Response stored for a request using an idempotency key, together with the hash of that request.
+ */
+public record IdempotentResponse(
+	String requestHash,
+	int status,
+	String location,
+	String entityTag,
+	String body) {}
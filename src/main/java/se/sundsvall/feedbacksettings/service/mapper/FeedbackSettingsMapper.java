@@ -1,23 +1,35 @@
 package se.sundsvall.feedbacksettings.service.mapper;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.newSetFromMap;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
-import static se.sundsvall.feedbacksettings.service.util.MappingUtils.getAddedFeedbackChannels;
-import static se.sundsvall.feedbacksettings.service.util.MappingUtils.getRemovedFeedbackChannels;
+import static java.util.stream.Collectors.toMap;
+import static se.sundsvall.feedbacksettings.service.util.MappingUtils.diffFeedbackChannels;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
+import se.sundsvall.feedbacksettings.ContactMethod;
 import se.sundsvall.feedbacksettings.api.model.CreateFeedbackSettingsRequest;
 import se.sundsvall.feedbacksettings.api.model.FeedbackChannel;
 import se.sundsvall.feedbacksettings.api.model.FeedbackSettings;
 import se.sundsvall.feedbacksettings.api.model.RequestedFeedbackChannel;
 import se.sundsvall.feedbacksettings.api.model.UpdateFeedbackSettingsRequest;
 import se.sundsvall.feedbacksettings.integration.db.model.FeedbackChannelEmbeddable;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackChannelsJson;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsChannelRow;
 import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsEntity;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsJsonRow;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsRow;
+import se.sundsvall.feedbacksettings.service.util.FeedbackChannelDiff;
 
 public class FeedbackSettingsMapper {
 	private FeedbackSettingsMapper() {}
@@ -31,7 +43,7 @@ public class FeedbackSettingsMapper {
 				.withFeedbackChannels(toFeedbackChannelEmbeddables(feedbackSettings.getChannels()));
 	}
 	
-	private static List<FeedbackChannelEmbeddable> toFeedbackChannelEmbeddables(List<RequestedFeedbackChannel> feedbackChannels) {
+	public static List<FeedbackChannelEmbeddable> toFeedbackChannelEmbeddables(List<RequestedFeedbackChannel> feedbackChannels) {
 		
 		return Optional.ofNullable(feedbackChannels).orElse(emptyList()).stream()
 				.filter(Objects::nonNull)
@@ -51,7 +63,8 @@ public class FeedbackSettingsMapper {
 				.withOrganizationId(entity.getOrganizationId())
 				.withChannels(toFeedbackChannels(entity.getFeedbackChannels()))
 				.withCreated(entity.getCreated())
-				.withModified(entity.getModified());
+				.withModified(entity.getModified())
+				.withVersion(entity.getVersion());
 	}
 	
 	private static List<FeedbackChannel> toFeedbackChannels(List<FeedbackChannelEmbeddable> feedbackChannelEmbeddables) {
@@ -70,20 +83,119 @@ public class FeedbackSettingsMapper {
 				.toList();
 	}
 	
+	/**
+	 * Maps the settings part of sent in row to settings with a mutable list of channels, to which the channel of current
+	 * and following rows for the same setting can be added.
+	 */
+	public static FeedbackSettings toFeedbackSettings(FeedbackSettingsChannelRow row) {
+		if (isNull(row)) return null;
+
+		return FeedbackSettings.create()
+				.withId(row.id())
+				.withPersonId(row.personId())
+				.withOrganizationId(row.organizationId())
+				.withChannels(new ArrayList<>())
+				.withCreated(row.created())
+				.withModified(row.modified())
+				.withVersion(row.version());
+	}
+
+	public static FeedbackChannel toFeedbackChannel(FeedbackSettingsChannelRow row) {
+		if (isNull(row) || isNull(row.contactMethod())) return null;
+
+		return FeedbackChannel.create()
+				.withContactMethod(ContactMethod.toEnum(row.contactMethod()))
+				.withDestination(row.destination())
+				.withSendFeedback(Boolean.TRUE.equals(row.sendFeedback()));
+	}
+	
+	/**
+	 * Maps sent in row to settings with a mutable, empty list of channels to which channels can be added by
+	 * {@link #addFeedbackChannels(List, List)}.
+	 */
+	public static FeedbackSettings toFeedbackSettings(FeedbackSettingsRow row) {
+		if (isNull(row)) return null;
+
+		return FeedbackSettings.create()
+				.withId(row.id())
+				.withPersonId(row.personId())
+				.withOrganizationId(row.organizationId())
+				.withChannels(new ArrayList<>())
+				.withCreated(row.created())
+				.withModified(row.modified())
+				.withVersion(row.version());
+	}
+
+	/**
+	 * Maps sent in row, including the channels in its JSON copy of the feedback channels, to settings.
+	 */
+	public static FeedbackSettings toFeedbackSettings(FeedbackSettingsJsonRow row) {
+		if (isNull(row)) return null;
+
+		return FeedbackSettings.create()
+				.withId(row.id())
+				.withPersonId(row.personId())
+				.withOrganizationId(row.organizationId())
+				.withChannels(toFeedbackChannels(FeedbackChannelsJson.fromJson(row.channelsJson())))
+				.withCreated(row.created())
+				.withModified(row.modified())
+				.withVersion(row.version());
+	}
+
+	/**
+	 * Adds the channel of each sent in row to the settings with the same id as the row.
+	 */
+	public static List<FeedbackSettings> addFeedbackChannels(List<FeedbackSettings> settings, List<FeedbackSettingsChannelRow> rows) {
+		Map<String, FeedbackSettings> settingsById = settings.stream()
+				.collect(toMap(FeedbackSettings::getId, Function.identity()));
+
+		rows.forEach(row -> Optional.ofNullable(settingsById.get(row.id()))
+				.ifPresent(matchingSettings -> Optional.ofNullable(toFeedbackChannel(row)).ifPresent(matchingSettings.getChannels()::add)));
+
+		return settings;
+	}
+
+	/**
+	 * Groups sent in rows into settings, where rows with the same id are merged into one setting with one channel per row.
+	 * Order of settings follows the order in which each id first occurs among the rows.
+	 */
+	public static List<FeedbackSettings> groupFeedbackSettings(List<FeedbackSettingsChannelRow> rows) {
+		Map<String, FeedbackSettings> settingsById = new LinkedHashMap<>();
+
+		Optional.ofNullable(rows).orElse(emptyList()).forEach(row -> {
+			FeedbackSettings settings = settingsById.computeIfAbsent(row.id(), id -> toFeedbackSettings(row));
+			Optional.ofNullable(toFeedbackChannel(row)).ifPresent(settings.getChannels()::add);
+		});
+
+		return new ArrayList<>(settingsById.values());
+	}
+
 	public static void mergeFeedbackSettings(FeedbackSettingsEntity entity, UpdateFeedbackSettingsRequest feedbackSettings) {
 		if (nonNull(feedbackSettings) && nonNull(feedbackSettings.getChannels())) {
 			List<FeedbackChannelEmbeddable> requestedChannelEntities = toFeedbackChannelEmbeddables(feedbackSettings.getChannels());
 			
-			// Save current channels before modificaton
-			List<FeedbackChannelEmbeddable> oldChannelEntities = new ArrayList<>(entity.getFeedbackChannels());
-			
-			entity.getFeedbackChannels().addAll(getAddedFeedbackChannels(entity, requestedChannelEntities));
-			entity.getFeedbackChannels().removeAll(getRemovedFeedbackChannels(entity, requestedChannelEntities));
+			FeedbackChannelDiff diff = diffFeedbackChannels(entity.getFeedbackChannels(), requestedChannelEntities);
 			
-			// Compare old and new and if they differ, call preUpdate as Hibernate has an open bug regarding @preUpdate doesn't get triggered when collection is updated
-			if (!oldChannelEntities.equals(entity.getFeedbackChannels())) {
+			// Call preUpdate if channels differ, as Hibernate has an open bug regarding @preUpdate doesn't get triggered when collection is updated
+			if (!diff.isEmpty()) {
 				entity.preUpdate();
 			}
+			
+			// Channels where only sendFeedback differs are updated in place, as that is written as an update of one row
+			// instead of as a delete and an insert
+			diff.changed().forEach(changedChannel -> changedChannel.existing().setSendFeedback(changedChannel.requested().isSendFeedback()));
+			
+			// Removed channels are matched by identity, as duplicates of a kept channel are equal to the kept channel. They are
+			// removed by index, as removing through an iterator would not keep the row ids of the remaining channels in place.
+			Set<FeedbackChannelEmbeddable> removedChannels = newSetFromMap(new IdentityHashMap<>());
+			removedChannels.addAll(diff.removed());
+			List<FeedbackChannelEmbeddable> channels = entity.getFeedbackChannels();
+			for (int index = channels.size() - 1; index >= 0; index--) {
+				if (removedChannels.contains(channels.get(index))) {
+					channels.remove(index);
+				}
+			}
+			entity.getFeedbackChannels().addAll(diff.added());
 		}
 	}
 }
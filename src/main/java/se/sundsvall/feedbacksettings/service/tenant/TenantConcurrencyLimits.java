@@ -0,0 +1,56 @@
+package se.sundsvall.feedbacksettings.service.tenant;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Limits the number of requests each tenant may have in progress at the same time, so that one tenant with a burst of
+ * requests can not occupy all worker threads and database connections of the service.
+ */
+@ApplicationScoped
+public class TenantConcurrencyLimits {
+
+	@ConfigProperty(name = "feedbacksettings.tenant.max-concurrent-requests")
+	int maxConcurrentRequests;
+
+	private final Map<String, Semaphore> permitsByTenant = new ConcurrentHashMap<>();
+
+	/**
+	 * Acquires a permit for sent in tenant without waiting. A successfully acquired permit must be released by
+	 * {@link #release(String)} when the request has been handled.
+	 *
+	 * @param tenantId tenant to acquire permit for
+	 * @return true if a permit was acquired, false if the tenant already has the maximum number of requests in progress
+	 */
+	public boolean tryAcquire(String tenantId) {
+		return permits(tenantId).tryAcquire();
+	}
+
+	/**
+	 * Releases a permit earlier acquired for sent in tenant.
+	 *
+	 * @param tenantId tenant to release permit for
+	 */
+	public void release(String tenantId) {
+		permits(tenantId).release();
+	}
+
+	/**
+	 * Returns the number of permits currently available for sent in tenant.
+	 *
+	 * @param tenantId tenant to return available permits for
+	 * @return number of requests the tenant may start before reaching its limit
+	 */
+	public int availablePermits(String tenantId) {
+		return permits(tenantId).availablePermits();
+	}
+
+	private Semaphore permits(String tenantId) {
+		return permitsByTenant.computeIfAbsent(tenantId, key -> new Semaphore(maxConcurrentRequests));
+	}
+}
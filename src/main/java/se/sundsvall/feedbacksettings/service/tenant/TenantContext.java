@@ -0,0 +1,29 @@
+package se.sundsvall.feedbacksettings.service.tenant;
+
+import static java.util.Objects.nonNull;
+
+import javax.enterprise.context.RequestScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Tenant (for example a municipality) of the current request, resolved by {@link se.sundsvall.feedbacksettings.api.filter.TenantFilter}
+ * before the resource method is invoked. All settings read or written by the request belong to this tenant. Work not
+ * started by a request (or started before the tenant was resolved) belongs to the default tenant.
+ */
+@RequestScoped
+public class TenantContext {
+
+	@ConfigProperty(name = "feedbacksettings.tenant.default-id")
+	String defaultTenantId;
+
+	private String tenantId;
+
+	public String getTenantId() {
+		return nonNull(tenantId) ? tenantId : defaultTenantId;
+	}
+
+	public void setTenantId(String tenantId) {
+		this.tenantId = tenantId;
+	}
+}
@@ -0,0 +1,27 @@
+package se.sundsvall.feedbacksettings.service.util;
+
+import java.util.List;
+
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackChannelEmbeddable;
+
+/**
+ * Difference between the existing and the requested feedback channels of one feedback setting.
+ *
+ * @param added   requested channels that do not exist among the existing channels.
+ * @param removed existing channels that are not requested.
+ * @param changed existing channels that are requested with another value for sendFeedback.
+ */
+public record FeedbackChannelDiff(
+	List<FeedbackChannelEmbeddable> added,
+	List<FeedbackChannelEmbeddable> removed,
+	List<ChangedChannel> changed) {
+
+	/**
+	 * An existing channel together with the requested channel that changes it.
+	 */
+	public record ChangedChannel(FeedbackChannelEmbeddable existing, FeedbackChannelEmbeddable requested) {}
+
+	public boolean isEmpty() {
+		return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+	}
+}
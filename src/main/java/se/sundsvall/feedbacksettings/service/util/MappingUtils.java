@@ -2,12 +2,20 @@ package se.sundsvall.feedbacksettings.service.util;
 
 import static java.util.Collections.emptyList;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static java.util.Optional.ofNullable;
-import static org.apache.commons.lang3.StringUtils.equalsIgnoreCase;
+import static java.util.stream.Collectors.toCollection;
+import static se.sundsvall.feedbacksettings.integration.db.model.FeedbackChannelEmbeddable.normalizeDestination;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import se.sundsvall.feedbacksettings.ContactMethod;
 import se.sundsvall.feedbacksettings.integration.db.model.FeedbackChannelEmbeddable;
 import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsEntity;
 
@@ -35,8 +43,9 @@ public class MappingUtils {
 		if (isNull(newFeedbackChannels)) {
 			return emptyList();
 		}
+		final var newChannelKeys = toChannelKeys(newFeedbackChannels);
 		return ofNullable(oldSettingsEntity.getFeedbackChannels()).orElse(emptyList()).stream()
-			.filter(oldEntity -> !existsInList(oldEntity, newFeedbackChannels))
+			.filter(oldEntity -> !newChannelKeys.contains(ChannelKey.of(oldEntity)))
 			.toList();
 	}
 
@@ -63,16 +72,78 @@ public class MappingUtils {
 		if (isNull(newFeedbackChannels)) {
 			return emptyList();
 		}
+		final var oldChannelKeys = toChannelKeys(oldSettingsEntity.getFeedbackChannels());
 		return newFeedbackChannels.stream()
-			.filter(newEntity -> !existsInList(newEntity, oldSettingsEntity.getFeedbackChannels()))
+			.filter(newEntity -> !oldChannelKeys.contains(ChannelKey.of(newEntity)))
 			.toList();
 	}
 
-	private static boolean existsInList(FeedbackChannelEmbeddable objectToCheck, List<FeedbackChannelEmbeddable> list) {
-		return ofNullable(list).orElse(emptyList()).stream()
-			.anyMatch(entity -> 
-					equalsIgnoreCase(entity.getDestination(), objectToCheck.getDestination()) &&
-					entity.getContactMethod() == objectToCheck.getContactMethod() && 
-					entity.isSendFeedback() == objectToCheck.isSendFeedback());
+	/**
+	 * Compares existingFeedbackChannels with requestedFeedbackChannels and returns the added, removed and changed channels.
+	 * Channels are matched on contact method and normalized destination, a matched channel with another value for
+	 * sendFeedback is returned as changed. Each list is traversed once, matching is done by hash lookups. A list that is
+	 * null is treated as an empty list.
+	 * 
+	 * E.g.
+	 * 
+	 * existingFeedbackChannels contains: <ELEMENT-1>, <ELEMENT-2>, <ELEMENT-3 (sendFeedback true)>
+	 * requestedFeedbackChannels contains: <ELEMENT-1>, <ELEMENT-3 (sendFeedback false)>, <ELEMENT-4>
+	 * 
+	 * Result: This method will return added [<ELEMENT-4>], removed [<ELEMENT-2>] and changed [<ELEMENT-3>]
+	 * 
+	 * @param existingFeedbackChannels
+	 * @param requestedFeedbackChannels
+	 * @return Returns the difference between existingFeedbackChannels and requestedFeedbackChannels.
+	 */
+	public static FeedbackChannelDiff diffFeedbackChannels(List<FeedbackChannelEmbeddable> existingFeedbackChannels, List<FeedbackChannelEmbeddable> requestedFeedbackChannels) {
+		final var existing = ofNullable(existingFeedbackChannels).orElse(emptyList());
+		final var requested = ofNullable(requestedFeedbackChannels).orElse(emptyList());
+
+		final Map<ChannelKey, FeedbackChannelEmbeddable> unmatchedByKey = new LinkedHashMap<>(existing.size() * 2);
+		final List<FeedbackChannelEmbeddable> removed = new ArrayList<>();
+		existing.forEach(channel -> {
+			// Duplicates of an already existing channel are removed
+			if (nonNull(unmatchedByKey.putIfAbsent(ChannelKey.of(channel), channel))) {
+				removed.add(channel);
+			}
+		});
+
+		final List<FeedbackChannelEmbeddable> added = new ArrayList<>();
+		final List<FeedbackChannelDiff.ChangedChannel> changed = new ArrayList<>();
+		requested.forEach(channel -> {
+			final var key = ChannelKey.of(channel);
+			if (nonNull(unmatchedByKey.remove(key))) {
+				return;
+			}
+			final var existingChannel = unmatchedByKey.remove(key.withToggledSendFeedback());
+			if (nonNull(existingChannel)) {
+				changed.add(new FeedbackChannelDiff.ChangedChannel(existingChannel, channel));
+			} else {
+				added.add(channel);
+			}
+		});
+		removed.addAll(unmatchedByKey.values());
+
+		return new FeedbackChannelDiff(added, removed, changed);
+	}
+
+	private static Set<ChannelKey> toChannelKeys(List<FeedbackChannelEmbeddable> channels) {
+		return channels.stream()
+			.map(ChannelKey::of)
+			.collect(toCollection(HashSet::new));
+	}
+
+	/**
+	 * Canonical key of a feedback channel, two channels with equal keys are considered to be the same channel.
+	 */
+	private record ChannelKey(String normalizedDestination, ContactMethod contactMethod, boolean sendFeedback) {
+
+		private static ChannelKey of(FeedbackChannelEmbeddable channel) {
+			return new ChannelKey(normalizeDestination(channel.getDestination()), channel.getContactMethod(), channel.isSendFeedback());
+		}
+
+		private ChannelKey withToggledSendFeedback() {
+			return new ChannelKey(normalizedDestination, contactMethod, !sendFeedback);
+		}
 	}
 }
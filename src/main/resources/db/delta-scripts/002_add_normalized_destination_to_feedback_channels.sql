@@ -0,0 +1,13 @@
+-- Addition of normalized destination and index used for lookup of settings by destination
+    alter table feedback_channels 
+       add column normalized_destination varchar(255);
+
+    update feedback_channels 
+       set normalized_destination = lower(regexp_replace(destination, '\\s', ''));
+
+    alter table feedback_channels 
+       modify normalized_destination varchar(255) not null;
+create index feedback_channels_normalized_destination_index on feedback_channels (normalized_destination, contact_method);
+
+-- Necessary line in order to document the change. 
+insert into schema_history (schema_version,comment,applied) VALUES ('002','Added normalized destination to feedback channels', NOW());
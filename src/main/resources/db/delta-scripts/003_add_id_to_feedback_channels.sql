@@ -0,0 +1,15 @@
+-- Addition of id to feedback channels, making it possible to update and delete single channels
+    alter table feedback_channels 
+       add column id varchar(255);
+
+    update feedback_channels 
+       set id = uuid();
+
+    alter table feedback_channels 
+       modify id varchar(255) not null;
+
+    alter table feedback_channels 
+       add primary key (id);
+
+-- Necessary line in order to document the change. 
+insert into schema_history (schema_version,comment,applied) VALUES ('003','Added id to feedback channels', NOW());
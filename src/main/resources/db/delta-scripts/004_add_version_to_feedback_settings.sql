@@ -0,0 +1,6 @@
+-- Addition of version to feedback settings, used for optimistic locking of updates and deletes
+    alter table feedback_settings 
+       add column version bigint not null default 0;
+
+-- Necessary line in order to document the change. 
+insert into schema_history (schema_version,comment,applied) VALUES ('004','Added version to feedback settings', NOW());
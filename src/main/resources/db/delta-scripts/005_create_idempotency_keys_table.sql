@@ -0,0 +1,16 @@
+-- Creation of table for responses to requests sent with an idempotency key
+    create table idempotency_keys (
+       idempotency_key varchar(255) not null,
+        body longtext,
+        created datetime(6) not null,
+        entity_tag varchar(255),
+        expires datetime(6) not null,
+        location varchar(255),
+        request_hash varchar(255) not null,
+        status integer,
+        primary key (idempotency_key)
+    ) engine=InnoDB;
+create index idempotency_keys_expires_index on idempotency_keys (expires);
+
+-- Necessary line in order to document the change. 
+insert into schema_history (schema_version,comment,applied) VALUES ('005','Created idempotency keys table', NOW());
@@ -0,0 +1,178 @@
+-- Conversion of ids from 36 character strings to 16 byte binary UUIDs, shrinking primary keys and every index on ids.
+-- The conversion is made online, without locking the tables for writes while they are rebuilt, in four steps that are
+-- run in order with the mariadb client (which handles the delimiter statements):
+--   1. Expand and backfill, while the previous version of the service is in use.
+--   2. Rebuild of keys and indexes on the binary columns, while the previous version of the service is in use.
+--   3. Switch of columns, when the instances of the previous version are replaced by instances of this version.
+--   4. Contract, when no instance of the previous version remains.
+
+-- Step 1: Binary columns are added and kept in sync with the string columns by triggers, so that rows written while
+-- the conversion is in progress get their binary ids as well. Existing rows are then filled in batches of 1000 rows
+-- in primary key order, each batch committed by itself so that no batch holds locks on more than 1000 rows.
+    alter table feedback_settings
+       add column binary_id binary(16),
+       add column binary_person_id binary(16),
+       add column binary_organization_id binary(16),
+       algorithm=instant;
+
+    alter table feedback_channels
+       add column binary_id binary(16),
+       add column binary_setting_id binary(16),
+       algorithm=instant;
+
+create trigger feedback_settings_binary_ids_on_insert before insert on feedback_settings for each row
+   set new.binary_id = unhex(replace(new.id, '-', '')),
+       new.binary_person_id = unhex(replace(new.person_id, '-', '')),
+       new.binary_organization_id = unhex(replace(new.organization_id, '-', ''));
+
+create trigger feedback_settings_binary_ids_on_update before update on feedback_settings for each row
+   set new.binary_id = unhex(replace(new.id, '-', '')),
+       new.binary_person_id = unhex(replace(new.person_id, '-', '')),
+       new.binary_organization_id = unhex(replace(new.organization_id, '-', ''));
+
+create trigger feedback_channels_binary_ids_on_insert before insert on feedback_channels for each row
+   set new.binary_id = unhex(replace(new.id, '-', '')),
+       new.binary_setting_id = unhex(replace(new.setting_id, '-', ''));
+
+create trigger feedback_channels_binary_ids_on_update before update on feedback_channels for each row
+   set new.binary_id = unhex(replace(new.id, '-', '')),
+       new.binary_setting_id = unhex(replace(new.setting_id, '-', ''));
+
+delimiter //
+begin not atomic
+   declare last_id varchar(255) default '';
+   declare next_id varchar(255);
+   repeat
+      set next_id = (select max(id) from (select id from feedback_settings where id > last_id order by id limit 1000) batch);
+      if next_id is not null then
+         update feedback_settings
+            set binary_id = unhex(replace(id, '-', '')),
+                binary_person_id = unhex(replace(person_id, '-', '')),
+                binary_organization_id = unhex(replace(organization_id, '-', ''))
+          where id > last_id and id <= next_id;
+         set last_id = next_id;
+      end if;
+   until next_id is null end repeat;
+end//
+
+begin not atomic
+   declare last_id varchar(255) default '';
+   declare next_id varchar(255);
+   repeat
+      set next_id = (select max(id) from (select id from feedback_channels where id > last_id order by id limit 1000) batch);
+      if next_id is not null then
+         update feedback_channels
+            set binary_id = unhex(replace(id, '-', '')),
+                binary_setting_id = unhex(replace(setting_id, '-', ''))
+          where id > last_id and id <= next_id;
+         set last_id = next_id;
+      end if;
+   until next_id is null end repeat;
+end//
+delimiter ;
+
+-- Step 2: The primary keys are moved to the binary columns and the indexes of the binary columns are built, with the
+-- tables open for reads and writes while they are rebuilt. The string columns are made nullable, as this version of
+-- the service does not write them, and keep unique keys for the lookups of the previous version. The foreign key is
+-- added again in step 4, when it can reference the binary primary key.
+    alter table feedback_channels
+       drop foreign key fk_feedback_settings_id;
+
+    alter table feedback_channels
+       modify binary_id binary(16) not null,
+       modify binary_setting_id binary(16) not null,
+       drop primary key,
+       add primary key (binary_id),
+       modify id varchar(255),
+       modify setting_id varchar(255),
+       add constraint feedback_channels_string_id_unique_constraint unique (id),
+       add constraint feedback_channels_binary_unique_combinations_constraint unique (binary_setting_id, contact_method, destination),
+       algorithm=inplace, lock=none;
+
+    alter table feedback_settings
+       modify binary_id binary(16) not null,
+       modify binary_person_id binary(16) not null,
+       drop primary key,
+       add primary key (binary_id),
+       modify id varchar(255),
+       modify person_id varchar(255),
+       add constraint feedback_settings_string_id_unique_constraint unique (id),
+       add constraint feedback_settings_binary_owner_unique_constraint unique (binary_person_id, binary_organization_id),
+       add index feedback_settings_binary_organization_id_index (binary_organization_id),
+       add index feedback_settings_binary_person_id_index (binary_person_id),
+       algorithm=inplace, lock=none;
+
+-- Step 3: The binary columns and their indexes take the names of the string columns. The tables are locked while the
+-- triggers are dropped and the columns are renamed, so that no row is written in between. Renaming only changes the
+-- metadata of the tables, hence the lock is held for a moment.
+lock tables feedback_settings write, feedback_channels write;
+
+drop trigger feedback_settings_binary_ids_on_insert;
+drop trigger feedback_settings_binary_ids_on_update;
+drop trigger feedback_channels_binary_ids_on_insert;
+drop trigger feedback_channels_binary_ids_on_update;
+
+    alter table feedback_channels
+       rename column id to string_id,
+       rename column setting_id to string_setting_id,
+       rename index feedback_channels_unique_combinations_constraint to feedback_channels_string_unique_combinations_constraint,
+       algorithm=instant;
+
+    alter table feedback_channels
+       rename column binary_id to id,
+       rename column binary_setting_id to setting_id,
+       rename index feedback_channels_binary_unique_combinations_constraint to feedback_channels_unique_combinations_constraint,
+       algorithm=instant;
+
+    alter table feedback_settings
+       rename column id to string_id,
+       rename column person_id to string_person_id,
+       rename column organization_id to string_organization_id,
+       rename index feedback_settings_person_id_organization_id_unique_constraint to feedback_settings_string_owner_unique_constraint,
+       rename index feedback_settings_organization_id_index to feedback_settings_string_organization_id_index,
+       rename index feedback_settings_person_id_index to feedback_settings_string_person_id_index,
+       algorithm=instant;
+
+    alter table feedback_settings
+       rename column binary_id to id,
+       rename column binary_person_id to person_id,
+       rename column binary_organization_id to organization_id,
+       rename index feedback_settings_binary_owner_unique_constraint to feedback_settings_person_id_organization_id_unique_constraint,
+       rename index feedback_settings_binary_organization_id_index to feedback_settings_organization_id_index,
+       rename index feedback_settings_binary_person_id_index to feedback_settings_person_id_index,
+       algorithm=instant;
+
+unlock tables;
+
+-- Step 4: The string columns are dropped, with the tables open for reads and writes while they are rebuilt. Foreign key
+-- checks are turned off while the foreign key is added, so that it is added without copying the table. Every channel
+-- was written with the id of an existing setting, which the triggers and the backfill converted the same way.
+    alter table feedback_channels
+       drop index feedback_channels_string_id_unique_constraint,
+       drop index feedback_channels_string_unique_combinations_constraint,
+       drop column string_id,
+       drop column string_setting_id,
+       algorithm=inplace, lock=none;
+
+    alter table feedback_settings
+       drop index feedback_settings_string_id_unique_constraint,
+       drop index feedback_settings_string_owner_unique_constraint,
+       drop index feedback_settings_string_organization_id_index,
+       drop index feedback_settings_string_person_id_index,
+       drop column string_id,
+       drop column string_person_id,
+       drop column string_organization_id,
+       algorithm=inplace, lock=none;
+
+set foreign_key_checks = 0;
+
+    alter table feedback_channels
+       add constraint fk_feedback_settings_id
+       foreign key (setting_id)
+       references feedback_settings (id),
+       algorithm=inplace, lock=none;
+
+set foreign_key_checks = 1;
+
+-- Necessary line in order to document the change.
+insert into schema_history (schema_version,comment,applied) VALUES ('006','Stored ids as binary UUIDs', NOW());
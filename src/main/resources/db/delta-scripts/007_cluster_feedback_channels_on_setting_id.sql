@@ -0,0 +1,32 @@
+-- Storage of contact method as a one byte code, and clustering of feedback channels on setting_id so that all channels
+-- of a setting are read with one range scan of the primary key. As secondary indexes contain the primary key, the index
+-- on normalized_destination and contact_method also covers the setting_id needed when looking up settings by
+-- destination. The unique key on id keeps updates and deletes of single channels by id as cheap as before.
+    alter table feedback_channels 
+       add column contact_method_code tinyint,
+       algorithm=instant;
+
+    update feedback_channels 
+       set contact_method_code = case contact_method when 'SMS' then 1 when 'EMAIL' then 2 end;
+
+    alter table feedback_channels 
+       drop foreign key fk_feedback_settings_id;
+
+    alter table feedback_channels 
+       drop index feedback_channels_unique_combinations_constraint,
+       drop index feedback_channels_normalized_destination_index,
+       drop column contact_method,
+       change column contact_method_code contact_method tinyint not null,
+       drop primary key,
+       add primary key (setting_id, id),
+       add constraint feedback_channels_id_unique_constraint unique (id),
+       add constraint feedback_channels_unique_combinations_constraint unique (setting_id, contact_method, destination);
+create index feedback_channels_normalized_destination_index on feedback_channels (normalized_destination, contact_method);
+
+    alter table feedback_channels 
+       add constraint fk_feedback_settings_id 
+       foreign key (setting_id) 
+       references feedback_settings (id);
+
+-- Necessary line in order to document the change. 
+insert into schema_history (schema_version,comment,applied) VALUES ('007','Clustered feedback channels on setting id', NOW());
@@ -0,0 +1,18 @@
+-- Denormalized JSON copy of the feedback channels of each setting, making it possible to read a setting including its
+-- channels by one primary key lookup. The column is added without rebuilding the table and is then filled from the
+-- feedback_channels table. Settings without channels are left with null, which is read as no channels.
+    alter table feedback_settings 
+       add column channels_json longtext,
+       algorithm=instant;
+
+    update feedback_settings s 
+       set channels_json = (
+          select json_arrayagg(json_object(
+                   'contactMethod', case c.contact_method when 1 then 'SMS' when 2 then 'EMAIL' end,
+                   'destination', c.destination,
+                   'sendFeedback', json_extract(if(c.send_feedback, 'true', 'false'), '$')))
+            from feedback_channels c 
+           where c.setting_id = s.id);
+
+-- Necessary line in order to document the change. 
+insert into schema_history (schema_version,comment,applied) VALUES ('008','Added JSON copy of feedback channels to feedback settings', NOW());
@@ -0,0 +1,23 @@
+-- Tenant (for example a municipality) owning each setting. Existing settings are given the default tenant. The tenant
+-- leads the unique constraint and all secondary indexes, so the entries of each tenant are kept together in the indexes.
+-- Settings are isolated between tenants by the service filtering every query on tenant_id, not by the schema.
+-- Idempotency keys are widened to hold the tenant as prefix.
+    alter table feedback_settings 
+       add column tenant_id varchar(64) not null default 'default';
+
+    alter table feedback_settings 
+       alter column tenant_id drop default;
+
+    alter table feedback_settings 
+       drop index feedback_settings_person_id_organization_id_unique_constraint,
+       drop index feedback_settings_organization_id_index,
+       drop index feedback_settings_person_id_index,
+       add constraint feedback_settings_tenant_owner_unique_constraint unique (tenant_id, person_id, organization_id);
+create index feedback_settings_tenant_id_organization_id_index on feedback_settings (tenant_id, organization_id);
+create index feedback_settings_tenant_id_person_id_index on feedback_settings (tenant_id, person_id);
+
+    alter table idempotency_keys 
+       modify idempotency_key varchar(320) not null;
+
+-- Necessary line in order to document the change. 
+insert into schema_history (schema_version,comment,applied) VALUES ('009','Added tenant to feedback settings', NOW());
@@ -0,0 +1,24 @@
+-- The unique constraint on the owner of each setting did not prevent duplicate personal settings, as null values of
+-- organization_id never collide in a unique constraint. The constraint is moved to a generated column holding the
+-- nil UUID for personal settings, making it possible to create or update settings of both kinds with one atomic
+-- statement. Duplicate personal settings are removed first, keeping the first created setting of each person.
+    delete c 
+      from feedback_channels c 
+      join feedback_settings s on s.id = c.setting_id 
+      join feedback_settings k on k.tenant_id = s.tenant_id and k.person_id = s.person_id 
+       and k.organization_id is null and s.organization_id is null and (k.created, k.id) < (s.created, s.id);
+
+    delete s 
+      from feedback_settings s 
+      join feedback_settings k on k.tenant_id = s.tenant_id and k.person_id = s.person_id 
+       and k.organization_id is null and s.organization_id is null and (k.created, k.id) < (s.created, s.id);
+
+    alter table feedback_settings 
+       add column organization_key binary(16) as (coalesce(organization_id, X'00000000000000000000000000000000')) persistent;
+
+    alter table feedback_settings 
+       drop index feedback_settings_tenant_owner_unique_constraint,
+       add constraint feedback_settings_tenant_owner_unique_constraint unique (tenant_id, person_id, organization_key);
+
+-- Necessary line in order to document the change. 
+insert into schema_history (schema_version,comment,applied) VALUES ('010','Made unique constraint on owner of feedback settings null safe', NOW());
@@ -0,0 +1,121 @@
+package se.sundsvall.feedbacksettings.api;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Load harness measuring throughput and latency percentiles of reads by id against a running instance of the service,
+ * with a fixed number of concurrent connections each sending a new request as soon as the previous one is answered.
+ * Not executed as part of the test suite. To compare execution modes, run it once against the service started with
+ * each value of FEEDBACKSETTINGS_DATABASE_EXECUTOR_MODE (WORKER and POOL):
+ *
+ * mvn test-compile
+ * java -cp target/test-classes se.sundsvall.feedbacksettings.api.FeedbackSettingsLoadHarness [baseUrl] [connections] [seconds]
+ *
+ * The defaults are http://localhost:9090, 2000 connections and 60 seconds. The operating system limit of open files
+ * must allow the number of connections.
+ */
+public class FeedbackSettingsLoadHarness {
+
+	private static final int NUMBER_OF_SETTINGS = 1000;
+	private static final int WARMUP_SECONDS = 10;
+	private static final String SETTINGS_BODY = """
+		{"personId":"%s","channels":[{"contactMethod":"EMAIL","destination":"load.test@host.org","sendFeedback":true}]}""";
+
+	// HTTP/1.1 makes each concurrent request use a connection of its own, instead of streams multiplexed on one connection
+	private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(30)).build();
+	private final AtomicLong errors = new AtomicLong();
+	private final String baseUrl;
+	private final List<String> ids = new ArrayList<>();
+	private ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+	private volatile long stopAt;
+
+	FeedbackSettingsLoadHarness(String baseUrl) {
+		this.baseUrl = baseUrl;
+	}
+
+	public static void main(String[] args) {
+		final var baseUrl = args.length > 0 ? args[0] : "http://localhost:9090";
+		final var connections = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		final var seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+
+		final var harness = new FeedbackSettingsLoadHarness(baseUrl);
+		harness.createSettings();
+		harness.run(connections, WARMUP_SECONDS);
+		harness.report(connections, harness.run(connections, seconds));
+	}
+
+	private void createSettings() {
+		IntStream.range(0, NUMBER_OF_SETTINGS).forEach(i -> {
+			final var request = HttpRequest.newBuilder(URI.create(baseUrl + "/settings"))
+				.header("Content-Type", "application/json")
+				.POST(BodyPublishers.ofString(String.format(SETTINGS_BODY, UUID.randomUUID()), UTF_8))
+				.build();
+			final var location = client.sendAsync(request, BodyHandlers.discarding()).join().headers().firstValue("Location")
+				.orElseThrow(() -> new IllegalStateException("Settings could not be created"));
+			ids.add(location.substring(location.lastIndexOf('/') + 1));
+		});
+	}
+
+	/**
+	 * Method runs sent in number of connections for sent in number of seconds and returns the elapsed time in nanoseconds.
+	 */
+	private long run(int connections, int seconds) {
+		latencies = new ConcurrentLinkedQueue<>();
+		errors.set(0);
+		final var start = System.nanoTime();
+		stopAt = start + Duration.ofSeconds(seconds).toNanos();
+		CompletableFuture.allOf(IntStream.range(0, connections)
+			.mapToObj(i -> sendUntilStopped())
+			.toArray(CompletableFuture[]::new)).join();
+		return System.nanoTime() - start;
+	}
+
+	private CompletableFuture<Void> sendUntilStopped() {
+		if (System.nanoTime() >= stopAt) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		final var id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+		final var request = HttpRequest.newBuilder(URI.create(baseUrl + "/settings/" + id)).GET().build();
+		final var sent = System.nanoTime();
+		return client.sendAsync(request, BodyHandlers.discarding())
+			.handle((response, throwable) -> {
+				latencies.add(System.nanoTime() - sent);
+				if (throwable != null || response.statusCode() != 200) {
+					errors.incrementAndGet();
+				}
+				return null;
+			})
+			.thenCompose(ignored -> sendUntilStopped());
+	}
+
+	private void report(int connections, long elapsedNanos) {
+		final var sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+		System.out.printf("Connections: %d, requests: %d, errors: %d%n", connections, sorted.length, errors.get());
+		System.out.printf("Throughput: %.0f requests/s%n", sorted.length / (elapsedNanos / 1e9));
+		System.out.printf("Latency p50: %.1f ms, p99: %.1f ms, max: %.1f ms%n", percentile(sorted, 50), percentile(sorted, 99), percentile(sorted, 100));
+	}
+
+	private static double percentile(long[] sorted, int percentile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		final var index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+		return sorted[Math.max(index, 0)] / 1e6;
+	}
+}
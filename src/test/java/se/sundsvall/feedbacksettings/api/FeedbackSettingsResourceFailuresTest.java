@@ -1,14 +1,19 @@
 package se.sundsvall.feedbacksettings.api;
 
 import static io.restassured.RestAssured.given;
+import static javax.ws.rs.core.HttpHeaders.IF_MATCH;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static javax.ws.rs.core.Response.Status.PRECONDITION_FAILED;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static se.sundsvall.feedbacksettings.api.filter.IdempotencyFilter.IDEMPOTENCY_KEY;
+import static se.sundsvall.feedbacksettings.api.filter.TenantFilter.TENANT_ID;
 
 import java.util.List;
 import java.util.UUID;
@@ -27,7 +32,11 @@ import se.sundsvall.feedbacksettings.ContactMethod;
 import se.sundsvall.feedbacksettings.api.exception.ServiceException;
 import se.sundsvall.feedbacksettings.api.exception.model.ServiceErrorResponse;
 import se.sundsvall.feedbacksettings.api.exception.model.TechnicalDetails;
+import se.sundsvall.feedbacksettings.api.model.BatchCreateRequest;
 import se.sundsvall.feedbacksettings.api.model.CreateFeedbackSettingsRequest;
+import se.sundsvall.feedbacksettings.api.model.FeedbackSettings;
+import se.sundsvall.feedbacksettings.api.model.FeedbackSettingsOwner;
+import se.sundsvall.feedbacksettings.api.model.LookupRequest;
 import se.sundsvall.feedbacksettings.api.model.RequestedFeedbackChannel;
 import se.sundsvall.feedbacksettings.api.model.UpdateFeedbackSettingsRequest;
 import se.sundsvall.feedbacksettings.service.FeedbackSettingsService;
@@ -285,6 +294,61 @@ class FeedbackSettingsResourceFailuresTest {
 		verify(feedbackSettingsServiceMock).createFeedbackSettings(body);
 	}
 
+	@Test
+	void postWithIdempotencyKeyUsedForDifferentRequest() throws Exception {
+		final var idempotencyKey = UUID.randomUUID().toString();
+		final var body = generateCreateRequest(PERSON_ID, null, ContactMethod.SMS, MOBILE_NBR, SEND_FEEDBACK);
+		final var otherBody = generateCreateRequest(PERSON_ID, null, ContactMethod.SMS, "0701234568", SEND_FEEDBACK);
+
+		when(feedbackSettingsServiceMock.createFeedbackSettings(body)).thenReturn(FeedbackSettings.create().withId(ID));
+
+		given()
+			.contentType(APPLICATION_JSON)
+			.header(IDEMPOTENCY_KEY, idempotencyKey)
+			.body(body)
+			.when()
+			.post("/settings")
+			.then().assertThat()
+			.statusCode(Status.CREATED.getStatusCode());
+
+		final var response = given()
+				.contentType(APPLICATION_JSON)
+				.header(IDEMPOTENCY_KEY, idempotencyKey)
+				.body(otherBody)
+				.when()
+				.post("/settings")
+				.then().assertThat()
+				.statusCode(BAD_REQUEST.getStatusCode())
+				.contentType(APPLICATION_JSON)
+				.extract().as(ServiceErrorResponse.class);
+
+		assertThat(response.getHttpCode()).isEqualTo(BAD_REQUEST.getStatusCode());
+		assertThat(response.getMessage()).isEqualTo("Idempotency key '" + idempotencyKey + "' has already been used for a different request");
+
+		verify(feedbackSettingsServiceMock, times(1)).createFeedbackSettings(body);
+	}
+
+	@Test
+	void postWithTooLongIdempotencyKey() throws Exception {
+		final var body = generateCreateRequest(PERSON_ID, null, ContactMethod.SMS, MOBILE_NBR, SEND_FEEDBACK);
+
+		final var response = given()
+				.contentType(APPLICATION_JSON)
+				.header(IDEMPOTENCY_KEY, "k".repeat(256))
+				.body(body)
+				.when()
+				.post("/settings")
+				.then().assertThat()
+				.statusCode(BAD_REQUEST.getStatusCode())
+				.contentType(APPLICATION_JSON)
+				.extract().as(ServiceErrorResponse.class);
+
+		assertThat(response.getHttpCode()).isEqualTo(BAD_REQUEST.getStatusCode());
+		assertThat(response.getMessage()).isEqualTo("Idempotency key must not be longer than 255 characters");
+
+		verifyNoInteractions(feedbackSettingsServiceMock);
+	}
+
 	// PATCH failure tests
 	@Test
 	void patchMissingBody() {
@@ -504,7 +568,7 @@ class FeedbackSettingsResourceFailuresTest {
 	void patchForNonExistingEntity() throws Exception {
 		final var body = generateUpdateRequest(ContactMethod.SMS, MOBILE_NBR, SEND_FEEDBACK);
 		
-		when(feedbackSettingsServiceMock.updateFeedbackSettings(ID, body)).thenThrow(ServiceException.create(Status.NOT_FOUND.getReasonPhrase(), Status.NOT_FOUND));
+		when(feedbackSettingsServiceMock.updateFeedbackSettings(ID, null, body)).thenThrow(ServiceException.create(Status.NOT_FOUND.getReasonPhrase(), Status.NOT_FOUND));
 
 		final var response = given()
 				.contentType(APPLICATION_JSON)
@@ -526,9 +590,78 @@ class FeedbackSettingsResourceFailuresTest {
 				.withDetails(List.of(
 						"Request: /settings/" + ID)));
 		
-		verify(feedbackSettingsServiceMock).updateFeedbackSettings(ID, body);
+		verify(feedbackSettingsServiceMock).updateFeedbackSettings(ID, null, body);
 	}
 	
+	@ParameterizedTest
+	@ValueSource(strings = { "W/\"1\"", "\"1\", \"2\"", "\"not-a-version\"", "1", "\"1\"", "\"1-0000000000000000\"" })
+	void patchWithNonMatchingIfMatch(String ifMatch) throws Exception {
+		final var body = generateUpdateRequest(ContactMethod.SMS, MOBILE_NBR, SEND_FEEDBACK);
+
+		final var response = given()
+				.contentType(APPLICATION_JSON)
+                .pathParam("id", ID)
+                .header(IF_MATCH, ifMatch)
+                .body(body)
+                .when()
+                .patch("/settings/{id}")
+                .then().assertThat()
+                .statusCode(PRECONDITION_FAILED.getStatusCode())
+				.contentType(APPLICATION_JSON)
+                .extract().as(ServiceErrorResponse.class);
+
+		assertThat(response.getHttpCode()).isEqualTo(PRECONDITION_FAILED.getStatusCode());
+		assertThat(response.getMessage()).isEqualTo("If-Match header '" + ifMatch + "' does not match the entity tag of the settings");
+
+		verifyNoInteractions(feedbackSettingsServiceMock);
+	}
+
+	@Test
+	void patchWithIfMatchOfOtherSettings() throws Exception {
+		final var body = generateUpdateRequest(ContactMethod.SMS, MOBILE_NBR, SEND_FEEDBACK);
+		final var ifMatch = "\"" + FeedbackSettingsResource.toEntityTag(UUID.randomUUID().toString(), 1L).getValue() + "\"";
+
+		final var response = given()
+				.contentType(APPLICATION_JSON)
+                .pathParam("id", ID)
+                .header(IF_MATCH, ifMatch)
+                .body(body)
+                .when()
+                .patch("/settings/{id}")
+                .then().assertThat()
+                .statusCode(PRECONDITION_FAILED.getStatusCode())
+				.contentType(APPLICATION_JSON)
+                .extract().as(ServiceErrorResponse.class);
+
+		assertThat(response.getMessage()).isEqualTo("If-Match header '" + ifMatch + "' does not match the entity tag of the settings");
+
+		verifyNoInteractions(feedbackSettingsServiceMock);
+	}
+
+	@Test
+	void patchForModifiedEntity() throws Exception {
+		final var body = generateUpdateRequest(ContactMethod.SMS, MOBILE_NBR, SEND_FEEDBACK);
+
+		when(feedbackSettingsServiceMock.updateFeedbackSettings(ID, 1L, body)).thenThrow(ServiceException.create("Modified", Status.PRECONDITION_FAILED, Status.PRECONDITION_FAILED));
+
+		final var response = given()
+				.contentType(APPLICATION_JSON)
+                .pathParam("id", ID)
+                .header(IF_MATCH, "\"" + FeedbackSettingsResource.toEntityTag(ID, 1L).getValue() + "\"")
+                .body(body)
+                .when()
+                .patch("/settings/{id}")
+                .then().assertThat()
+                .statusCode(PRECONDITION_FAILED.getStatusCode())
+				.contentType(APPLICATION_JSON)
+                .extract().as(ServiceErrorResponse.class);
+
+		assertThat(response.getHttpCode()).isEqualTo(PRECONDITION_FAILED.getStatusCode());
+		assertThat(response.getMessage()).isEqualTo("Modified");
+
+		verify(feedbackSettingsServiceMock).updateFeedbackSettings(ID, 1L, body);
+	}
+
 	// DELETE failure tests
 	@Test
 	void deleteWithNonValidUUID() throws Exception {
@@ -558,7 +691,7 @@ class FeedbackSettingsResourceFailuresTest {
 
 	@Test
 	void deleteForNonExistingEntity() throws Exception {
-		doThrow(ServiceException.create(Status.NOT_FOUND.getReasonPhrase(), Status.NOT_FOUND)).when(feedbackSettingsServiceMock).deleteFeedbackSettings(ID);
+		doThrow(ServiceException.create(Status.NOT_FOUND.getReasonPhrase(), Status.NOT_FOUND)).when(feedbackSettingsServiceMock).deleteFeedbackSettings(ID, null);
 
 		final var response = given()
 				.contentType(APPLICATION_JSON)
@@ -579,10 +712,47 @@ class FeedbackSettingsResourceFailuresTest {
 				.withDetails(List.of(
 						"Request: /settings/" + ID)));
 		
-		verify(feedbackSettingsServiceMock).deleteFeedbackSettings(ID);
+		verify(feedbackSettingsServiceMock).deleteFeedbackSettings(ID, null);
+	}
+
+	@Test
+	void deleteWithNonMatchingIfMatch() throws Exception {
+		final var response = given()
+				.contentType(APPLICATION_JSON)
+                .pathParam("id", ID)
+                .header(IF_MATCH, "W/\"1\"")
+                .when()
+                .delete("/settings/{id}")
+                .then().assertThat()
+                .statusCode(PRECONDITION_FAILED.getStatusCode())
+				.contentType(APPLICATION_JSON)
+                .extract().as(ServiceErrorResponse.class);
+
+		assertThat(response.getHttpCode()).isEqualTo(PRECONDITION_FAILED.getStatusCode());
+
+		verifyNoInteractions(feedbackSettingsServiceMock);
 	}
 
 	// GET failure tests
+	@Test
+	void getByIdForUnknownTenant() throws Exception {
+		final var response = given()
+				.contentType(APPLICATION_JSON)
+				.header(TENANT_ID, "unknown")
+				.pathParam("id", ID)
+				.when()
+				.get("/settings/{id}")
+				.then().assertThat()
+				.statusCode(BAD_REQUEST.getStatusCode())
+				.contentType(APPLICATION_JSON)
+				.extract().as(ServiceErrorResponse.class);
+
+		assertThat(response.getHttpCode()).isEqualTo(BAD_REQUEST.getStatusCode());
+		assertThat(response.getMessage()).isEqualTo("Unknown tenant 'unknown'");
+
+		verifyNoInteractions(feedbackSettingsServiceMock);
+	}
+
 	@Test
 	void getByIdForNonValidUUID() throws Exception {
 		final var response = given()
@@ -708,6 +878,130 @@ class FeedbackSettingsResourceFailuresTest {
 		verifyNoInteractions(feedbackSettingsServiceMock);	
 	}
 
+	@Test
+	void getByQueryWithPageSizeAboveMax() {
+		final var response = given()
+				.contentType(MediaType.APPLICATION_JSON)
+				.queryParam("personId", PERSON_ID)
+				.queryParam("limit", FeedbackSettingsResource.MAX_LIMIT + 1)
+                .when()
+                .get("/settings")
+                .then().assertThat()
+                .statusCode(BAD_REQUEST.getStatusCode())
+				.contentType(APPLICATION_JSON)
+                .extract().as(ServiceErrorResponse.class);
+
+		assertThat(response.getTechnicalDetails()).isEqualTo(TechnicalDetails.create()
+				.withRootCode(BAD_REQUEST.getStatusCode())
+				.withRootCause("Constraint violation")
+				.withServiceId(applicationName)
+				.withDetails(List.of(
+						"limit: must be less than or equal to " + FeedbackSettingsResource.MAX_LIMIT, 
+						"Request: /settings")));
+		
+		verifyNoInteractions(feedbackSettingsServiceMock);	
+	}
+
+	// PUT failure tests
+	@Test
+	void putByOwnerWithoutPersonId() {
+		final var response = given()
+				.contentType(APPLICATION_JSON)
+				.queryParam("organizationId", "not-valid")
+				.body(generateUpdateRequest(ContactMethod.SMS, MOBILE_NBR, SEND_FEEDBACK))
+				.when()
+				.put("/settings/by-owner")
+				.then().assertThat()
+				.statusCode(BAD_REQUEST.getStatusCode())
+				.contentType(APPLICATION_JSON)
+				.extract().as(ServiceErrorResponse.class);
+
+		assertThat(response.getTechnicalDetails()).isEqualTo(TechnicalDetails.create()
+				.withRootCode(BAD_REQUEST.getStatusCode())
+				.withRootCause("Constraint violation")
+				.withServiceId(applicationName)
+				.withDetails(List.of(
+						"organizationId: must be a valid UUID",
+						"personId: must not be null",
+						"Request: /settings/by-owner")));
+
+		verifyNoInteractions(feedbackSettingsServiceMock);
+	}
+
+	// BATCH failure tests
+	@Test
+	void postBatchWithInvalidSettings() {
+		final var response = given()
+				.contentType(APPLICATION_JSON)
+				.body(BatchCreateRequest.create().withFeedbackSettings(List.of(CreateFeedbackSettingsRequest.create().withPersonId("not-valid"))))
+				.when()
+				.post("/settings/batch")
+				.then().assertThat()
+				.statusCode(BAD_REQUEST.getStatusCode())
+				.contentType(APPLICATION_JSON)
+				.extract().as(ServiceErrorResponse.class);
+
+		assertThat(response.getTechnicalDetails()).isEqualTo(TechnicalDetails.create()
+				.withRootCode(BAD_REQUEST.getStatusCode())
+				.withRootCause("Constraint violation")
+				.withServiceId(applicationName)
+				.withDetails(List.of(
+						"body.feedbackSettings[0].personId: must be a valid UUID",
+						"Request: /settings/batch")));
+
+		verifyNoInteractions(feedbackSettingsServiceMock);
+	}
+
+	@Test
+	void postBatchWithoutSettings() {
+		final var response = given()
+				.contentType(APPLICATION_JSON)
+				.body(BatchCreateRequest.create())
+				.when()
+				.post("/settings/batch")
+				.then().assertThat()
+				.statusCode(BAD_REQUEST.getStatusCode())
+				.contentType(APPLICATION_JSON)
+				.extract().as(ServiceErrorResponse.class);
+
+		assertThat(response.getTechnicalDetails()).isEqualTo(TechnicalDetails.create()
+				.withRootCode(BAD_REQUEST.getStatusCode())
+				.withRootCause("Constraint violation")
+				.withServiceId(applicationName)
+				.withDetails(List.of(
+						"body.feedbackSettings: must not be empty",
+						"Request: /settings/batch")));
+
+		verifyNoInteractions(feedbackSettingsServiceMock);
+	}
+
+	// LOOKUP failure tests
+	@Test
+	void lookupWithNonValidUUIDs() {
+		final var response = given()
+				.contentType(APPLICATION_JSON)
+				.body(LookupRequest.create()
+					.withIds(List.of("not-valid"))
+					.withOwners(List.of(FeedbackSettingsOwner.create().withPersonId(PERSON_ID).withOrganizationId("not-valid"))))
+				.when()
+				.post("/settings/lookup")
+				.then().assertThat()
+				.statusCode(BAD_REQUEST.getStatusCode())
+				.contentType(APPLICATION_JSON)
+				.extract().as(ServiceErrorResponse.class);
+
+		assertThat(response.getTechnicalDetails()).isEqualTo(TechnicalDetails.create()
+				.withRootCode(BAD_REQUEST.getStatusCode())
+				.withRootCause("Constraint violation")
+				.withServiceId(applicationName)
+				.withDetails(List.of(
+						"body.ids[0].<list element>: must be a valid UUID",
+						"body.owners[0].organizationId: must be a valid UUID",
+						"Request: /settings/lookup")));
+
+		verifyNoInteractions(feedbackSettingsServiceMock);
+	}
+
 	private CreateFeedbackSettingsRequest generateCreateRequest(String personId, String organizationId, ContactMethod contactMethod, String destination, Boolean sendFeedback) {
 		return CreateFeedbackSettingsRequest.create()
 				.withPersonId(personId)
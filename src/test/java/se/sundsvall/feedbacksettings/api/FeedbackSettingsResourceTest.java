@@ -1,16 +1,42 @@
 package se.sundsvall.feedbacksettings.api;
 
 import static io.restassured.RestAssured.given;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.ws.rs.core.HttpHeaders.ETAG;
+import static javax.ws.rs.core.HttpHeaders.IF_MATCH;
+import static javax.ws.rs.core.HttpHeaders.IF_MODIFIED_SINCE;
+import static javax.ws.rs.core.HttpHeaders.IF_NONE_MATCH;
+import static javax.ws.rs.core.HttpHeaders.LAST_MODIFIED;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.Response.Status.CREATED;
+import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static javax.ws.rs.core.Response.Status.NOT_MODIFIED;
 import static javax.ws.rs.core.Response.Status.NO_CONTENT;
 import static javax.ws.rs.core.Response.Status.OK;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static se.sundsvall.feedbacksettings.api.filter.IdempotencyFilter.IDEMPOTENCY_KEY;
+import static se.sundsvall.feedbacksettings.api.filter.IdempotencyFilter.IDEMPOTENT_REPLAYED;
+import static se.sundsvall.feedbacksettings.api.filter.TenantFilter.TENANT_ID;
 
+import java.io.OutputStream;
+import java.net.Socket;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.core.MediaType;
 
@@ -18,13 +44,24 @@ import org.junit.jupiter.api.Test;
 
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.mockito.InjectMock;
+import io.quarkus.test.junit.mockito.InjectSpy;
+import io.restassured.RestAssured;
 import se.sundsvall.feedbacksettings.ContactMethod;
+import se.sundsvall.feedbacksettings.api.exception.ServiceException;
+import se.sundsvall.feedbacksettings.api.model.BatchCreateRequest;
+import se.sundsvall.feedbacksettings.api.model.BatchCreateResult;
 import se.sundsvall.feedbacksettings.api.model.CreateFeedbackSettingsRequest;
 import se.sundsvall.feedbacksettings.api.model.RequestedFeedbackChannel;
 import se.sundsvall.feedbacksettings.api.model.FeedbackSettings;
+import se.sundsvall.feedbacksettings.api.model.FeedbackSettingsOwner;
+import se.sundsvall.feedbacksettings.api.model.LookupRequest;
+import se.sundsvall.feedbacksettings.api.model.LookupResult;
+import se.sundsvall.feedbacksettings.api.model.MetaData;
 import se.sundsvall.feedbacksettings.api.model.SearchResult;
 import se.sundsvall.feedbacksettings.api.model.UpdateFeedbackSettingsRequest;
 import se.sundsvall.feedbacksettings.service.FeedbackSettingsService;
+import se.sundsvall.feedbacksettings.service.UpsertResult;
+import se.sundsvall.feedbacksettings.service.tenant.TenantConcurrencyLimits;
 
 @QuarkusTest
 class FeedbackSettingsResourceTest {
@@ -35,9 +72,14 @@ class FeedbackSettingsResourceTest {
 	private static final String ORGANIZATION_ID = UUID.randomUUID().toString();
 	private static final Boolean SEND_FEEDBACK = Boolean.TRUE;
 	private static final String ID = UUID.randomUUID().toString();
+	private static final OffsetDateTime CREATED_AT = OffsetDateTime.of(2022, 1, 10, 10, 0, 0, 0, ZoneOffset.UTC);
+	private static final OffsetDateTime MODIFIED_AT = OffsetDateTime.of(2022, 2, 14, 8, 30, 15, 0, ZoneOffset.UTC);
 	
 	@InjectMock
 	FeedbackSettingsService feedbackSettingsServiceMock;
+
+	@InjectSpy
+	TenantConcurrencyLimits tenantConcurrencyLimitsSpy;
 	
 	@Test
 	void testPostForPerson() throws Exception {
@@ -91,6 +133,104 @@ class FeedbackSettingsResourceTest {
 		verify(feedbackSettingsServiceMock).createFeedbackSettings(request);
 	}
 	
+	@Test
+	void testPostBatch() throws Exception {
+		BatchCreateRequest request = BatchCreateRequest.create().withFeedbackSettings(List.of(CreateFeedbackSettingsRequest.create()
+				.withPersonId(PERSON_ID)
+				.withOrganizationId(ORGANIZATION_ID)));
+		when(feedbackSettingsServiceMock.createFeedbackSettings(request)).thenReturn(BatchCreateResult.create().withCreated(1).withRejected(0));
+
+		final var response = given()
+				.contentType(APPLICATION_JSON)
+				.body(request)
+				.when()
+				.post("/settings/batch")
+				.then().assertThat()
+				.statusCode(OK.getStatusCode())
+				.contentType(APPLICATION_JSON)
+				.extract().as(BatchCreateResult.class);
+
+		assertThat(response.getCreated()).isEqualTo(1);
+		verify(feedbackSettingsServiceMock).createFeedbackSettings(request);
+	}
+
+	@Test
+	void testPostWithIdempotencyKey() throws Exception {
+		final var idempotencyKey = UUID.randomUUID().toString();
+		CreateFeedbackSettingsRequest request = CreateFeedbackSettingsRequest.create()
+				.withPersonId(PERSON_ID)
+				.withChannels(List.of(RequestedFeedbackChannel.create()
+						.withContactMethod(ContactMethod.EMAIL)
+						.withDestination(EMAIL_ADDRESS)
+						.withSendFeedback(SEND_FEEDBACK)));
+
+		when(feedbackSettingsServiceMock.createFeedbackSettings(request)).thenReturn(FeedbackSettings.create().withId(ID).withPersonId(PERSON_ID).withVersion(0L));
+
+		final var response = given()
+			.contentType(APPLICATION_JSON)
+			.header(IDEMPOTENCY_KEY, idempotencyKey)
+			.body(request)
+			.when()
+			.post("/settings")
+			.then().assertThat()
+			.statusCode(CREATED.getStatusCode())
+			.header("location", "http://localhost:8081/settings/" + ID)
+			.header(IDEMPOTENT_REPLAYED, nullValue())
+			.extract().as(FeedbackSettings.class);
+
+		// Retry is answered with the stored response, without the service being called again
+		final var replayedResponse = given()
+			.contentType(APPLICATION_JSON)
+			.header(IDEMPOTENCY_KEY, idempotencyKey)
+			.body(request)
+			.when()
+			.post("/settings")
+			.then().assertThat()
+			.statusCode(CREATED.getStatusCode())
+			.contentType(APPLICATION_JSON)
+			.header("location", "http://localhost:8081/settings/" + ID)
+			.header(ETAG, entityTag(ID, 0L))
+			.header(IDEMPOTENT_REPLAYED, "true")
+			.extract().as(FeedbackSettings.class);
+
+		assertThat(replayedResponse).usingRecursiveComparison().isEqualTo(response);
+		verify(feedbackSettingsServiceMock, times(1)).createFeedbackSettings(request);
+	}
+
+	@Test
+	void testPatchWithIdempotencyKeyAfterFailure() throws Exception {
+		final var idempotencyKey = UUID.randomUUID().toString();
+		UpdateFeedbackSettingsRequest request = UpdateFeedbackSettingsRequest.create();
+
+		when(feedbackSettingsServiceMock.updateFeedbackSettings(ID, null, request))
+			.thenThrow(ServiceException.create("Not found", NOT_FOUND, NOT_FOUND))
+			.thenReturn(FeedbackSettings.create().withId(ID));
+
+		given()
+			.contentType(APPLICATION_JSON)
+			.pathParam("id", ID)
+			.header(IDEMPOTENCY_KEY, idempotencyKey)
+			.body(request)
+			.when()
+			.patch("/settings/{id}")
+			.then().assertThat()
+			.statusCode(NOT_FOUND.getStatusCode());
+
+		// Failed requests are not stored, making it possible to retry them with the same key
+		given()
+			.contentType(APPLICATION_JSON)
+			.pathParam("id", ID)
+			.header(IDEMPOTENCY_KEY, idempotencyKey)
+			.body(request)
+			.when()
+			.patch("/settings/{id}")
+			.then().assertThat()
+			.statusCode(OK.getStatusCode())
+			.header(IDEMPOTENT_REPLAYED, nullValue());
+
+		verify(feedbackSettingsServiceMock, times(2)).updateFeedbackSettings(ID, null, request);
+	}
+
 	@Test
 	void testPatch() throws Exception {
 		UpdateFeedbackSettingsRequest request = UpdateFeedbackSettingsRequest.create()
@@ -99,7 +239,7 @@ class FeedbackSettingsResourceTest {
 						.withDestination(MOBILE_NBR)
 						.withSendFeedback(SEND_FEEDBACK)));
 
-		when(feedbackSettingsServiceMock.updateFeedbackSettings(ID, request)).thenReturn(FeedbackSettings.create().withId(String.valueOf(ID)));
+		when(feedbackSettingsServiceMock.updateFeedbackSettings(ID, null, request)).thenReturn(FeedbackSettings.create().withId(String.valueOf(ID)));
 
 		final var response = given()
 				.contentType(APPLICATION_JSON)
@@ -113,14 +253,53 @@ class FeedbackSettingsResourceTest {
                 .extract().as(FeedbackSettings.class);
 
 		assertThat(response).isNotNull();
-		verify(feedbackSettingsServiceMock).updateFeedbackSettings(ID, request);
+		verify(feedbackSettingsServiceMock).updateFeedbackSettings(ID, null, request);
+	}
+
+	@Test
+	void testPatchWithIfMatch() throws Exception {
+		UpdateFeedbackSettingsRequest request = UpdateFeedbackSettingsRequest.create();
+
+		when(feedbackSettingsServiceMock.updateFeedbackSettings(ID, 4L, request)).thenReturn(FeedbackSettings.create().withId(String.valueOf(ID)).withVersion(5L));
+
+		given()
+			.contentType(APPLICATION_JSON)
+			.pathParam("id", ID)
+			.header(IF_MATCH, entityTag(ID, 4L))
+			.body(request)
+            .when()
+            .patch("/settings/{id}")
+            .then().assertThat()
+            .statusCode(OK.getStatusCode())
+            .header(ETAG, entityTag(ID, 5L));
+
+		verify(feedbackSettingsServiceMock).updateFeedbackSettings(ID, 4L, request);
+	}
+
+	@Test
+	void testPatchWithIfMatchForAnyVersion() throws Exception {
+		UpdateFeedbackSettingsRequest request = UpdateFeedbackSettingsRequest.create();
+
+		when(feedbackSettingsServiceMock.updateFeedbackSettings(ID, null, request)).thenReturn(FeedbackSettings.create().withId(String.valueOf(ID)));
+
+		given()
+			.contentType(APPLICATION_JSON)
+			.pathParam("id", ID)
+			.header(IF_MATCH, "*")
+			.body(request)
+            .when()
+            .patch("/settings/{id}")
+            .then().assertThat()
+            .statusCode(OK.getStatusCode());
+
+		verify(feedbackSettingsServiceMock).updateFeedbackSettings(ID, null, request);
 	}
 
 	@Test
 	void testPatchWithEmptyBody() throws Exception { // To verify that parameters can be null 
 		UpdateFeedbackSettingsRequest request = UpdateFeedbackSettingsRequest.create();
 
-		when(feedbackSettingsServiceMock.updateFeedbackSettings(ID, request)).thenReturn(FeedbackSettings.create().withId(String.valueOf(ID)));
+		when(feedbackSettingsServiceMock.updateFeedbackSettings(ID, null, request)).thenReturn(FeedbackSettings.create().withId(String.valueOf(ID)));
 
 		final var response = given()
 				.contentType(APPLICATION_JSON)
@@ -134,9 +313,53 @@ class FeedbackSettingsResourceTest {
                 .extract().as(FeedbackSettings.class);
 
 		assertThat(response).isNotNull();
-		verify(feedbackSettingsServiceMock).updateFeedbackSettings(ID, request);
+		verify(feedbackSettingsServiceMock).updateFeedbackSettings(ID, null, request);
 	}
 	
+	@Test
+	void testPutByOwnerForNewSettings() {
+		UpdateFeedbackSettingsRequest request = UpdateFeedbackSettingsRequest.create().withChannels(List.of(RequestedFeedbackChannel.create()
+				.withContactMethod(ContactMethod.SMS)
+				.withDestination(MOBILE_NBR)
+				.withSendFeedback(SEND_FEEDBACK)));
+		when(feedbackSettingsServiceMock.upsertFeedbackSettings(PERSON_ID, ORGANIZATION_ID, request)).thenReturn(new UpsertResult(FeedbackSettings.create().withId(ID), true));
+
+		final var response = given()
+				.contentType(APPLICATION_JSON)
+				.queryParam("personId", PERSON_ID)
+				.queryParam("organizationId", ORGANIZATION_ID)
+				.body(request)
+				.when()
+				.put("/settings/by-owner")
+				.then().assertThat()
+				.statusCode(CREATED.getStatusCode())
+				.header("location", "http://localhost:8081/settings/" + ID)
+				.extract().as(FeedbackSettings.class);
+
+		assertThat(response.getId()).isEqualTo(ID);
+		verify(feedbackSettingsServiceMock).upsertFeedbackSettings(PERSON_ID, ORGANIZATION_ID, request);
+	}
+
+	@Test
+	void testPutByOwnerForExistingSettings() {
+		UpdateFeedbackSettingsRequest request = UpdateFeedbackSettingsRequest.create();
+		when(feedbackSettingsServiceMock.upsertFeedbackSettings(PERSON_ID, null, request)).thenReturn(new UpsertResult(FeedbackSettings.create().withId(ID).withModified(OffsetDateTime.now()), false));
+
+		final var response = given()
+				.contentType(APPLICATION_JSON)
+				.queryParam("personId", PERSON_ID)
+				.body(request)
+				.when()
+				.put("/settings/by-owner")
+				.then().assertThat()
+				.statusCode(OK.getStatusCode())
+				.contentType(APPLICATION_JSON)
+				.extract().as(FeedbackSettings.class);
+
+		assertThat(response.getId()).isEqualTo(ID);
+		verify(feedbackSettingsServiceMock).upsertFeedbackSettings(PERSON_ID, null, request);
+	}
+
 	@Test
 	void testDelete() throws Exception {
 		given()
@@ -147,12 +370,26 @@ class FeedbackSettingsResourceTest {
             .then().assertThat()
             .statusCode(NO_CONTENT.getStatusCode());
 
-		verify(feedbackSettingsServiceMock).deleteFeedbackSettings(ID);
+		verify(feedbackSettingsServiceMock).deleteFeedbackSettings(ID, null);
+	}
+	
+	@Test
+	void testDeleteWithIfMatch() throws Exception {
+		given()
+			.contentType(APPLICATION_JSON)
+			.pathParam("id", ID)
+			.header(IF_MATCH, entityTag(ID, 2L))
+            .when()
+            .delete("/settings/{id}")
+            .then().assertThat()
+            .statusCode(NO_CONTENT.getStatusCode());
+
+		verify(feedbackSettingsServiceMock).deleteFeedbackSettings(ID, 2L);
 	}
 	
 	@Test
 	void testGetById() throws Exception {
-		when(feedbackSettingsServiceMock.getFeedbackSettingsById(ID)).thenReturn(FeedbackSettings.create().withId(String.valueOf(ID)));
+		when(feedbackSettingsServiceMock.getFeedbackSettingsById(ID)).thenReturn(FeedbackSettings.create().withId(String.valueOf(ID)).withVersion(3L));
 
 		final var response = given()
 				.contentType(APPLICATION_JSON)
@@ -162,15 +399,94 @@ class FeedbackSettingsResourceTest {
                 .then().assertThat()
                 .statusCode(OK.getStatusCode())
 				.contentType(APPLICATION_JSON)
+				.header(ETAG, entityTag(ID, 3L))
                 .extract().as(FeedbackSettings.class);
 
 		assertThat(response).isNotNull();
 		verify(feedbackSettingsServiceMock).getFeedbackSettingsById(ID);
 	}
 
+	@Test
+	void testGetByIdWithTenant() throws Exception {
+		when(feedbackSettingsServiceMock.getFeedbackSettingsById(ID)).thenReturn(FeedbackSettings.create().withId(String.valueOf(ID)).withVersion(3L));
+
+		given()
+			.contentType(APPLICATION_JSON)
+			.header(TENANT_ID, "default")
+			.pathParam("id", ID)
+			.when()
+			.get("/settings/{id}")
+			.then().assertThat()
+			.statusCode(OK.getStatusCode());
+
+		verify(feedbackSettingsServiceMock).getFeedbackSettingsById(ID);
+	}
+
+	@Test
+	void testGetByIdWithMatchingIfNoneMatch() throws Exception {
+		when(feedbackSettingsServiceMock.getFeedbackSettingsVersionById(ID)).thenReturn(FeedbackSettings.create().withId(ID).withCreated(CREATED_AT).withVersion(3L));
+
+		final var response = given()
+				.pathParam("id", ID)
+				.header(IF_NONE_MATCH, entityTag(ID, 3L))
+				.when()
+				.get("/settings/{id}")
+				.then().assertThat()
+				.statusCode(NOT_MODIFIED.getStatusCode())
+				.header(ETAG, entityTag(ID, 3L))
+				.header(LAST_MODIFIED, DateTimeFormatter.RFC_1123_DATE_TIME.format(CREATED_AT))
+				.extract().asString();
+
+		assertThat(response).isEmpty();
+		verify(feedbackSettingsServiceMock).getFeedbackSettingsVersionById(ID);
+		verify(feedbackSettingsServiceMock, never()).getFeedbackSettingsById(ID);
+	}
+
+	@Test
+	void testGetByIdWithNonMatchingIfNoneMatch() throws Exception {
+		final var settings = FeedbackSettings.create().withId(ID).withCreated(CREATED_AT).withModified(MODIFIED_AT).withVersion(4L);
+		when(feedbackSettingsServiceMock.getFeedbackSettingsVersionById(ID)).thenReturn(settings);
+		when(feedbackSettingsServiceMock.getFeedbackSettingsById(ID)).thenReturn(settings);
+
+		// A non matching entity tag takes precedence over a matching modification date
+		final var response = given()
+				.pathParam("id", ID)
+				.header(IF_NONE_MATCH, entityTag(ID, 3L))
+				.header(IF_MODIFIED_SINCE, DateTimeFormatter.RFC_1123_DATE_TIME.format(MODIFIED_AT))
+				.when()
+				.get("/settings/{id}")
+				.then().assertThat()
+				.statusCode(OK.getStatusCode())
+				.contentType(APPLICATION_JSON)
+				.header(ETAG, entityTag(ID, 4L))
+				.header(LAST_MODIFIED, DateTimeFormatter.RFC_1123_DATE_TIME.format(MODIFIED_AT))
+				.extract().as(FeedbackSettings.class);
+
+		assertThat(response.getId()).isEqualTo(ID);
+		verify(feedbackSettingsServiceMock).getFeedbackSettingsVersionById(ID);
+		verify(feedbackSettingsServiceMock).getFeedbackSettingsById(ID);
+	}
+
+	@Test
+	void testGetByIdWithIfModifiedSince() throws Exception {
+		when(feedbackSettingsServiceMock.getFeedbackSettingsVersionById(ID)).thenReturn(FeedbackSettings.create().withId(ID).withCreated(CREATED_AT).withModified(MODIFIED_AT).withVersion(4L));
+
+		given()
+			.pathParam("id", ID)
+			.header(IF_MODIFIED_SINCE, DateTimeFormatter.RFC_1123_DATE_TIME.format(MODIFIED_AT))
+			.when()
+			.get("/settings/{id}")
+			.then().assertThat()
+			.statusCode(NOT_MODIFIED.getStatusCode())
+			.header(ETAG, entityTag(ID, 4L));
+
+		verify(feedbackSettingsServiceMock).getFeedbackSettingsVersionById(ID);
+		verify(feedbackSettingsServiceMock, never()).getFeedbackSettingsById(ID);
+	}
+
 	@Test
 	void testGetByQueryWithDefaultPageSettings() {
-		when(feedbackSettingsServiceMock.getFeedbackSettings(PERSON_ID, null, 1, 20)).thenReturn(SearchResult.create());
+		when(feedbackSettingsServiceMock.getFeedbackSettings(PERSON_ID, null, 1, 20, true)).thenReturn(SearchResult.create());
 
 		final var response = given()
 				.contentType(MediaType.APPLICATION_JSON)
@@ -183,12 +499,50 @@ class FeedbackSettingsResourceTest {
                 .extract().as(SearchResult.class);
 
 		assertThat(response).isNotNull();
-		verify(feedbackSettingsServiceMock).getFeedbackSettings(PERSON_ID, null, 1, 20);
+		verify(feedbackSettingsServiceMock).getFeedbackSettings(PERSON_ID, null, 1, 20, true);
 	}
 	
+	@Test
+	void testGetByQueryWithIfNoneMatch() {
+		final var result = SearchResult.create()
+			.withMetaData(MetaData.create().withPage(1).withLimit(20).withCount(1).withTotalRecords(1L).withTotalPages(1))
+			.withFeedbackSettings(List.of(FeedbackSettings.create().withId(ID).withPersonId(PERSON_ID).withVersion(3L)));
+		when(feedbackSettingsServiceMock.getFeedbackSettings(PERSON_ID, null, 1, 20, true)).thenReturn(result);
+
+		final var entityTag = given()
+				.queryParam("personId", PERSON_ID)
+				.when()
+				.get("/settings")
+				.then().assertThat()
+				.statusCode(OK.getStatusCode())
+				.extract().header(ETAG);
+
+		given()
+			.queryParam("personId", PERSON_ID)
+			.header(IF_NONE_MATCH, entityTag)
+			.when()
+			.get("/settings")
+			.then().assertThat()
+			.statusCode(NOT_MODIFIED.getStatusCode())
+			.header(ETAG, entityTag);
+
+		// A new version of the settings gives a new entity tag
+		result.getFeedbackSettings().get(0).setVersion(4L);
+		final var newEntityTag = given()
+				.queryParam("personId", PERSON_ID)
+				.header(IF_NONE_MATCH, entityTag)
+				.when()
+				.get("/settings")
+				.then().assertThat()
+				.statusCode(OK.getStatusCode())
+				.extract().header(ETAG);
+
+		assertThat(newEntityTag).isNotEqualTo(entityTag);
+	}
+
 	@Test
 	void testGetByQueryWithSpecificPageSettings() {
-		when(feedbackSettingsServiceMock.getFeedbackSettings(PERSON_ID, ORGANIZATION_ID, 1, 10)).thenReturn(SearchResult.create());
+		when(feedbackSettingsServiceMock.getFeedbackSettings(PERSON_ID, ORGANIZATION_ID, 1, 10, true)).thenReturn(SearchResult.create());
 
 		final var response = given()
 				.contentType(MediaType.APPLICATION_JSON)
@@ -204,6 +558,161 @@ class FeedbackSettingsResourceTest {
                 .extract().as(SearchResult.class);
 
 		assertThat(response).isNotNull();
-		verify(feedbackSettingsServiceMock).getFeedbackSettings(PERSON_ID, ORGANIZATION_ID, 1, 10);
+		verify(feedbackSettingsServiceMock).getFeedbackSettings(PERSON_ID, ORGANIZATION_ID, 1, 10, true);
+	}
+
+	@Test
+	void testGetByQueryWithoutTotals() {
+		when(feedbackSettingsServiceMock.getFeedbackSettings(PERSON_ID, null, 2, 10, false)).thenReturn(SearchResult.create());
+
+		final var response = given()
+				.contentType(MediaType.APPLICATION_JSON)
+				.queryParam("personId", PERSON_ID)
+				.queryParam("page", 2)
+				.queryParam("limit", 10)
+				.queryParam("includeTotals", false)
+                .when()
+                .get("/settings")
+                .then().assertThat()
+                .statusCode(OK.getStatusCode())
+				.contentType(APPLICATION_JSON)
+                .extract().as(SearchResult.class);
+
+		assertThat(response).isNotNull();
+		verify(feedbackSettingsServiceMock).getFeedbackSettings(PERSON_ID, null, 2, 10, false);
+	}
+
+	@Test
+	void testGetByQueryWithCursor() throws Exception {
+		when(feedbackSettingsServiceMock.getFeedbackSettingsByCursor(PERSON_ID, null, "cursor", 10)).thenReturn(SearchResult.create());
+
+		final var response = given()
+				.contentType(MediaType.APPLICATION_JSON)
+				.queryParam("personId", PERSON_ID)
+				.queryParam("page", 5)
+				.queryParam("limit", 10)
+				.queryParam("after", "cursor")
+                .when()
+                .get("/settings")
+                .then().assertThat()
+                .statusCode(OK.getStatusCode())
+				.contentType(APPLICATION_JSON)
+                .extract().as(SearchResult.class);
+
+		assertThat(response).isNotNull();
+		verify(feedbackSettingsServiceMock).getFeedbackSettingsByCursor(PERSON_ID, null, "cursor", 10);
+	}
+
+	@Test
+	void testGetByQueryWithDestination() {
+		when(feedbackSettingsServiceMock.getFeedbackSettingsByDestination(MOBILE_NBR, ContactMethod.SMS, 1, 20, true)).thenReturn(SearchResult.create());
+
+		final var response = given()
+				.contentType(MediaType.APPLICATION_JSON)
+				.queryParam("personId", PERSON_ID)
+				.queryParam("destination", MOBILE_NBR)
+				.queryParam("contactMethod", ContactMethod.SMS)
+                .when()
+                .get("/settings")
+                .then().assertThat()
+                .statusCode(OK.getStatusCode())
+				.contentType(APPLICATION_JSON)
+                .extract().as(SearchResult.class);
+
+		assertThat(response).isNotNull();
+		verify(feedbackSettingsServiceMock).getFeedbackSettingsByDestination(MOBILE_NBR, ContactMethod.SMS, 1, 20, true);
+	}
+
+	@Test
+	void testExport() throws Exception {
+		doAnswer(invocation -> {
+			invocation.getArgument(0, OutputStream.class).write("{\"id\":\"1\"}\n{\"id\":\"2\"}\n".getBytes(UTF_8));
+			return null;
+		}).when(feedbackSettingsServiceMock).exportFeedbackSettings(any());
+
+		final var response = given()
+				.when()
+				.get("/settings/export")
+				.then().assertThat()
+				.statusCode(OK.getStatusCode())
+				.contentType("application/x-ndjson")
+				.extract().asString();
+
+		assertThat(response.lines()).containsExactly("{\"id\":\"1\"}", "{\"id\":\"2\"}");
+
+		// The permit of the tenant is released once, after the settings have been written
+		final var inOrder = inOrder(feedbackSettingsServiceMock, tenantConcurrencyLimitsSpy);
+		inOrder.verify(tenantConcurrencyLimitsSpy).tryAcquire("default");
+		inOrder.verify(feedbackSettingsServiceMock).exportFeedbackSettings(any());
+		inOrder.verify(tenantConcurrencyLimitsSpy, timeout(5000)).release("default");
+		verifyNoMoreInteractions(tenantConcurrencyLimitsSpy);
+	}
+
+	@Test
+	void testExportWithHead() throws Exception {
+		final var availablePermits = tenantConcurrencyLimitsSpy.availablePermits("default");
+
+		given()
+				.when()
+				.head("/settings/export")
+				.then().assertThat()
+				.statusCode(OK.getStatusCode());
+
+		// The export is never written, the permit of the tenant is still released
+		verify(tenantConcurrencyLimitsSpy, timeout(5000)).release("default");
+		verify(feedbackSettingsServiceMock, never()).exportFeedbackSettings(any());
+		assertThat(tenantConcurrencyLimitsSpy.availablePermits("default")).isEqualTo(availablePermits);
+	}
+
+	@Test
+	void testExportAbortedByClient() throws Exception {
+		final var availablePermits = tenantConcurrencyLimitsSpy.availablePermits("default");
+		final var disconnected = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			final var outputStream = invocation.getArgument(0, OutputStream.class);
+			outputStream.write("{\"id\":\"1\"}\n".getBytes(UTF_8));
+			outputStream.flush();
+			disconnected.await(5, TimeUnit.SECONDS);
+			// Writing to the closed connection fails, aborting the export
+			while (true) {
+				outputStream.write("{\"id\":\"2\"}\n".getBytes(UTF_8));
+				outputStream.flush();
+			}
+		}).when(feedbackSettingsServiceMock).exportFeedbackSettings(any());
+
+		try (final var socket = new Socket("localhost", RestAssured.port)) {
+			socket.getOutputStream().write("GET /settings/export HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(UTF_8));
+			socket.getOutputStream().flush();
+			assertThat(socket.getInputStream().read()).isNotNegative();
+		}
+		disconnected.countDown();
+
+		verify(tenantConcurrencyLimitsSpy, timeout(5000)).release("default");
+		assertThat(tenantConcurrencyLimitsSpy.availablePermits("default")).isEqualTo(availablePermits);
+	}
+
+	@Test
+	void testLookup() throws Exception {
+		LookupRequest request = LookupRequest.create()
+				.withIds(List.of(ID))
+				.withOwners(List.of(FeedbackSettingsOwner.create().withPersonId(PERSON_ID).withOrganizationId(ORGANIZATION_ID)));
+		when(feedbackSettingsServiceMock.lookupFeedbackSettings(request)).thenReturn(LookupResult.create().withUnmatchedIds(List.of(ID)));
+
+		final var response = given()
+				.contentType(APPLICATION_JSON)
+				.body(request)
+				.when()
+				.post("/settings/lookup")
+				.then().assertThat()
+				.statusCode(OK.getStatusCode())
+				.contentType(APPLICATION_JSON)
+				.extract().as(LookupResult.class);
+
+		assertThat(response.getUnmatchedIds()).containsExactly(ID);
+		verify(feedbackSettingsServiceMock).lookupFeedbackSettings(request);
+	}
+
+	private static String entityTag(String id, long version) {
+		return "\"" + FeedbackSettingsResource.toEntityTag(id, version).getValue() + "\"";
 	}
 }
@@ -0,0 +1,43 @@
+package se.sundsvall.feedbacksettings.api.model;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BatchCreateRequestTest {
+
+	private static final List<CreateFeedbackSettingsRequest> FEEDBACK_SETTINGS = List.of(CreateFeedbackSettingsRequest.create());
+	
+	@Test
+	void testBean() {
+		assertThat(BatchCreateRequest.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void testCreatePattern() {
+		BatchCreateRequest bean = BatchCreateRequest.create()
+				.withFeedbackSettings(FEEDBACK_SETTINGS);
+		
+		assertThat(bean.getFeedbackSettings()).isEqualTo(FEEDBACK_SETTINGS);
+	}
+	
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(BatchCreateRequest.create()).hasAllNullFieldsOrProperties();
+		assertThat(new BatchCreateRequest()).hasAllNullFieldsOrProperties();
+	}
+}
@@ -0,0 +1,49 @@
+package se.sundsvall.feedbacksettings.api.model;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BatchCreateResultTest {
+
+	private static final Integer CREATED = 1;
+	private static final Integer REJECTED = 2;
+	private static final List<BatchItemResult> RESULTS = List.of(BatchItemResult.create());
+	
+	@Test
+	void testBean() {
+		assertThat(BatchCreateResult.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void testCreatePattern() {
+		BatchCreateResult bean = BatchCreateResult.create()
+				.withCreated(CREATED)
+				.withRejected(REJECTED)
+				.withResults(RESULTS);
+		
+		assertThat(bean.getCreated()).isEqualTo(CREATED);
+		assertThat(bean.getRejected()).isEqualTo(REJECTED);
+		assertThat(bean.getResults()).isEqualTo(RESULTS);
+	}
+	
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(BatchCreateResult.create()).hasAllNullFieldsOrProperties();
+		assertThat(new BatchCreateResult()).hasAllNullFieldsOrProperties();
+	}
+}
@@ -0,0 +1,50 @@
+package se.sundsvall.feedbacksettings.api.model;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class BatchItemResultTest {
+
+	private static final Integer INDEX = 1;
+	private static final Integer STATUS = 201;
+	private static final String MESSAGE = "message";
+	private static final FeedbackSettings FEEDBACK_SETTINGS = FeedbackSettings.create();
+	
+	@Test
+	void testBean() {
+		assertThat(BatchItemResult.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void testCreatePattern() {
+		BatchItemResult bean = BatchItemResult.create()
+				.withIndex(INDEX)
+				.withStatus(STATUS)
+				.withMessage(MESSAGE)
+				.withFeedbackSettings(FEEDBACK_SETTINGS);
+		
+		assertThat(bean.getIndex()).isEqualTo(INDEX);
+		assertThat(bean.getStatus()).isEqualTo(STATUS);
+		assertThat(bean.getMessage()).isEqualTo(MESSAGE);
+		assertThat(bean.getFeedbackSettings()).isEqualTo(FEEDBACK_SETTINGS);
+	}
+	
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(BatchItemResult.create()).hasAllNullFieldsOrProperties();
+		assertThat(new BatchItemResult()).hasAllNullFieldsOrProperties();
+	}
+}
@@ -0,0 +1,44 @@
+package se.sundsvall.feedbacksettings.api.model;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class FeedbackSettingsOwnerTest {
+
+	private static final String PERSON_ID = "personId";
+	private static final String ORGANIZATION_ID = "organizationId";
+	
+	@Test
+	void testBean() {
+		assertThat(FeedbackSettingsOwner.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void testCreatePattern() {
+		FeedbackSettingsOwner bean = FeedbackSettingsOwner.create()
+				.withPersonId(PERSON_ID)
+				.withOrganizationId(ORGANIZATION_ID);
+		
+		assertThat(bean.getPersonId()).isEqualTo(PERSON_ID);
+		assertThat(bean.getOrganizationId()).isEqualTo(ORGANIZATION_ID);
+	}
+	
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(FeedbackSettingsOwner.create()).hasAllNullFieldsOrProperties();
+		assertThat(new FeedbackSettingsOwner()).hasAllNullFieldsOrProperties();
+	}
+}
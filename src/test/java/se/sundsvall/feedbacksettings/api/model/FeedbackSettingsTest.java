@@ -25,6 +25,7 @@ class FeedbackSettingsTest {
 	private static final String PERSON_ID = "personId";
 	private static final OffsetDateTime CREATED = OffsetDateTime.now().minusDays(1);
 	private static final OffsetDateTime MODIFIED = OffsetDateTime.now();
+	private static final Long VERSION = 1L;
 
 	@BeforeAll
 	static void setup() {
@@ -49,7 +50,8 @@ class FeedbackSettingsTest {
 				.withOrganizationId(ORGANIZATION_ID)
 				.withPersonId(PERSON_ID)
 				.withCreated(CREATED)
-				.withModified(MODIFIED);
+				.withModified(MODIFIED)
+				.withVersion(VERSION);
 		
 		assertThat(settings.getChannels()).isEqualTo(CHANNELS);
 		assertThat(settings.getId()).isEqualTo(ID);
@@ -57,6 +59,7 @@ class FeedbackSettingsTest {
 		assertThat(settings.getPersonId()).isEqualTo(PERSON_ID);
 		assertThat(settings.getCreated()).isEqualTo(CREATED);
 		assertThat(settings.getModified()).isEqualTo(MODIFIED);
+		assertThat(settings.getVersion()).isEqualTo(VERSION);
 	}
 
 	@Test
@@ -0,0 +1,46 @@
+package se.sundsvall.feedbacksettings.api.model;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class LookupRequestTest {
+
+	private static final List<String> IDS = List.of("id");
+	private static final List<FeedbackSettingsOwner> OWNERS = List.of(FeedbackSettingsOwner.create());
+	
+	@Test
+	void testBean() {
+		assertThat(LookupRequest.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void testCreatePattern() {
+		LookupRequest bean = LookupRequest.create()
+				.withIds(IDS)
+				.withOwners(OWNERS);
+		
+		assertThat(bean.getIds()).isEqualTo(IDS);
+		assertThat(bean.getOwners()).isEqualTo(OWNERS);
+	}
+	
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(LookupRequest.create()).hasAllNullFieldsOrProperties();
+		assertThat(new LookupRequest()).hasAllNullFieldsOrProperties();
+	}
+}
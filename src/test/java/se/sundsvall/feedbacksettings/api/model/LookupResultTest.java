@@ -0,0 +1,53 @@
+package se.sundsvall.feedbacksettings.api.model;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class LookupResultTest {
+
+	private static final Map<String, FeedbackSettings> MATCHES_BY_ID = Map.of("id", FeedbackSettings.create());
+	private static final List<OwnerMatch> MATCHES_BY_OWNER = List.of(OwnerMatch.create());
+	private static final List<String> UNMATCHED_IDS = List.of("unmatchedId");
+	private static final List<FeedbackSettingsOwner> UNMATCHED_OWNERS = List.of(FeedbackSettingsOwner.create());
+	
+	@Test
+	void testBean() {
+		assertThat(LookupResult.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void testCreatePattern() {
+		LookupResult bean = LookupResult.create()
+				.withMatchesById(MATCHES_BY_ID)
+				.withMatchesByOwner(MATCHES_BY_OWNER)
+				.withUnmatchedIds(UNMATCHED_IDS)
+				.withUnmatchedOwners(UNMATCHED_OWNERS);
+		
+		assertThat(bean.getMatchesById()).isEqualTo(MATCHES_BY_ID);
+		assertThat(bean.getMatchesByOwner()).isEqualTo(MATCHES_BY_OWNER);
+		assertThat(bean.getUnmatchedIds()).isEqualTo(UNMATCHED_IDS);
+		assertThat(bean.getUnmatchedOwners()).isEqualTo(UNMATCHED_OWNERS);
+	}
+	
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(LookupResult.create()).hasAllNullFieldsOrProperties();
+		assertThat(new LookupResult()).hasAllNullFieldsOrProperties();
+	}
+}
@@ -14,9 +14,11 @@ import org.junit.jupiter.api.Test;
 class MetaDataTest {
 	private static final int COUNT = 101;
 	private static final int LIMIT = 202;
-	private static final int PAGE = 303;
-	private static final int TOTAL_PAGES = 404;
-	private static final long TOTAL_RECORDS = 505;
+	private static final Integer PAGE = 303;
+	private static final Integer TOTAL_PAGES = 404;
+	private static final Long TOTAL_RECORDS = 505L;
+	private static final String NEXT = "next";
+	private static final Boolean HAS_MORE = true;
 	
 	@Test
 	void testBean() {
@@ -35,13 +37,17 @@ class MetaDataTest {
 				.withLimit(LIMIT)
 				.withPage(PAGE)
 				.withTotalPages(TOTAL_PAGES)
-				.withTotalRecords(TOTAL_RECORDS);
+				.withTotalRecords(TOTAL_RECORDS)
+				.withNext(NEXT)
+				.withHasMore(HAS_MORE);
 
 		assertThat(meta.getCount()).isEqualTo(COUNT);
 		assertThat(meta.getLimit()).isEqualTo(LIMIT);
 		assertThat(meta.getPage()).isEqualTo(PAGE);
 		assertThat(meta.getTotalPages()).isEqualTo(TOTAL_PAGES);
 		assertThat(meta.getTotalRecords()).isEqualTo(TOTAL_RECORDS);
+		assertThat(meta.getNext()).isEqualTo(NEXT);
+		assertThat(meta.getHasMore()).isEqualTo(HAS_MORE);
 	}
 
 	@Test
@@ -49,15 +55,19 @@ class MetaDataTest {
 		assertThat(MetaData.create())
 			.hasFieldOrPropertyWithValue("count", 0)
 			.hasFieldOrPropertyWithValue("limit", 0)
-			.hasFieldOrPropertyWithValue("page", 0)
-			.hasFieldOrPropertyWithValue("totalRecords", 0L)
-			.hasFieldOrPropertyWithValue("totalPages", 0);
+			.hasFieldOrPropertyWithValue("page", null)
+			.hasFieldOrPropertyWithValue("totalRecords", null)
+			.hasFieldOrPropertyWithValue("totalPages", null)
+			.hasFieldOrPropertyWithValue("hasMore", null)
+			.hasFieldOrPropertyWithValue("next", null);
 
 		assertThat(new MetaData())
 			.hasFieldOrPropertyWithValue("count", 0)
 			.hasFieldOrPropertyWithValue("limit", 0)
-			.hasFieldOrPropertyWithValue("page", 0)
-			.hasFieldOrPropertyWithValue("totalRecords", 0L)
-			.hasFieldOrPropertyWithValue("totalPages", 0);
+			.hasFieldOrPropertyWithValue("page", null)
+			.hasFieldOrPropertyWithValue("totalRecords", null)
+			.hasFieldOrPropertyWithValue("totalPages", null)
+			.hasFieldOrPropertyWithValue("hasMore", null)
+			.hasFieldOrPropertyWithValue("next", null);
 	}
 }
@@ -0,0 +1,44 @@
+package se.sundsvall.feedbacksettings.api.model;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class OwnerMatchTest {
+
+	private static final FeedbackSettingsOwner OWNER = FeedbackSettingsOwner.create();
+	private static final FeedbackSettings FEEDBACK_SETTINGS = FeedbackSettings.create();
+	
+	@Test
+	void testBean() {
+		assertThat(OwnerMatch.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void testCreatePattern() {
+		OwnerMatch bean = OwnerMatch.create()
+				.withOwner(OWNER)
+				.withFeedbackSettings(FEEDBACK_SETTINGS);
+		
+		assertThat(bean.getOwner()).isEqualTo(OWNER);
+		assertThat(bean.getFeedbackSettings()).isEqualTo(FEEDBACK_SETTINGS);
+	}
+	
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(OwnerMatch.create()).hasAllNullFieldsOrProperties();
+		assertThat(new OwnerMatch()).hasAllNullFieldsOrProperties();
+	}
+}
@@ -14,6 +14,7 @@ import org.junit.jupiter.api.Test;
 
 import io.quarkus.test.junit.QuarkusTest;
 import net.javacrumbs.jsonunit.core.Option;
+import se.sundsvall.feedbacksettings.api.model.BatchCreateResult;
 import se.sundsvall.feedbacksettings.api.model.FeedbackSettings;
 import se.sundsvall.feedbacksettings.integration.db.FeedbackSettingsRepository;
 
@@ -30,7 +31,7 @@ class CreateFeedbackSettingsTest extends AbstractAppTest {
 	private static final String HEADER_LOCATION = "location";
 	
 	// Regexp matching 'http[s]://[any string larger than 1 char]/settings/[valid UUID format]'
-	private static final String UUID_REGEXP = "https?:\\/\\/\\S+\\/settings\\/[0-9a-f]{8}-[0-9a-f]{4}-[0-5][0-9a-f]{3}-[089ab][0-9a-f]{3}-[0-9a-f]{12}";
+	private static final String UUID_REGEXP = "https?:\\/\\/\\S+\\/settings\\/[0-9a-f]{8}-[0-9a-f]{4}-[0-8][0-9a-f]{3}-[089ab][0-9a-f]{3}-[0-9a-f]{12}";
 
 	@Inject
 	FeedbackSettingsRepository repository;
@@ -125,4 +126,54 @@ class CreateFeedbackSettingsTest extends AbstractAppTest {
 			.withExpectedResponse(RESPONSE_FILE)
 			.sendRequestAndVerifyResponse();
 	}
+
+	@Test
+	@Transactional
+	void test5_createBatch() throws Exception { //NOSONAR
+		BatchCreateResult response = null;
+
+		try {
+			response = setupCall()
+				.withServicePath(PATH.concat("/batch"))
+				.withHttpMethod(HttpMethod.POST)
+				.withRequest(REQUEST_FILE)
+				.withExpectedResponseStatus(Status.OK)
+				.withExpectedResponse(RESPONSE_FILE)
+				.sendRequestAndVerifyResponse()
+				.andReturnBody(BatchCreateResult.class);
+
+			assertThat(repository.findByIdOptional(response.getResults().get(0).getFeedbackSettings().getId())).isPresent();
+		} finally {
+			//Clean up after test
+			if (nonNull(response)) {
+				repository.deleteById(response.getResults().get(0).getFeedbackSettings().getId());
+			}
+		}
+	}
+
+	@Test
+	@Transactional
+	void test6_upsertRepresentativeSetting() throws Exception { //NOSONAR
+		FeedbackSettings response = null;
+
+		try {
+			response = setupCall()
+				.withServicePath(PATH.concat("/by-owner?personId=49a974ea-9137-419b-bcb9-ad74c81a1d6b&organizationId=15aee472-46ab-4f03-9605-68bd64ebc84b"))
+				.withHttpMethod(HttpMethod.PUT)
+				.withRequest(REQUEST_FILE)
+				.withOptions(List.of(Option.IGNORING_ARRAY_ORDER))
+				.withExpectedResponseStatus(Status.CREATED)
+				.withExpectedResponseHeader(HEADER_LOCATION, List.of(UUID_REGEXP))
+				.withExpectedResponse(RESPONSE_FILE)
+				.sendRequestAndVerifyResponse()
+				.andReturnBody(FeedbackSettings.class);
+
+			assertThat(repository.findByIdOptional(response.getId())).isPresent();
+		} finally {
+			//Clean up after test
+			if (nonNull(response)) {
+				repository.deleteById(response.getId());
+			}
+		}
+	}
 }
@@ -1,6 +1,7 @@
 package se.sundsvall.feedbacksettings.apptest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.feedbacksettings.api.filter.TenantFilter.TENANT_ID;
 
 import javax.inject.Inject;
 import javax.transaction.Transactional;
@@ -21,9 +22,10 @@ import se.sundsvall.feedbacksettings.integration.db.FeedbackSettingsRepository;
 class DeleteFeedbackSettingsTest extends AbstractAppTest {
 	private static final String PATH = "/settings/";
 	private static final String RESPONSE_FILE = "response.json";
+	private static final String OTHER_TENANT_ID = "other";
 
-	private static final String RESET_SETTINGS = "INSERT INTO feedbacksettings.feedback_settings(id, person_id, created) VALUES ('9a24743c-5c19-4774-954e-a3ad67a734e1', '49a974ea-9137-419b-bcb9-ad74c81a1d1f', '2022-01-10 10:00:00.000');";
-	private static final String RESET_CHANNELS = "INSERT INTO feedbacksettings.feedback_channels(setting_id, contact_method, destination, send_feedback) VALUES ('9a24743c-5c19-4774-954e-a3ad67a734e1', 'SMS', '0706100001', true);";
+	private static final String RESET_SETTINGS = "INSERT INTO feedbacksettings.feedback_settings(id, tenant_id, person_id, created, channels_json) VALUES (X'9a24743c5c194774954ea3ad67a734e1', 'default', X'49a974ea9137419bbcb9ad74c81a1d1f', '2022-01-10 10:00:00.000', '[{\"contactMethod\":\"SMS\",\"destination\":\"0706100001\",\"sendFeedback\":true}]');";
+	private static final String RESET_CHANNELS = "INSERT INTO feedbacksettings.feedback_channels(id, setting_id, contact_method, destination, normalized_destination, send_feedback) VALUES (X'c0000000000000000000000000000001', X'9a24743c5c194774954ea3ad67a734e1', 1, '0706100001', '0706100001', true);";
 
 	@Inject
 	FeedbackSettingsRepository repository;
@@ -60,4 +62,19 @@ class DeleteFeedbackSettingsTest extends AbstractAppTest {
 			.withExpectedResponse(RESPONSE_FILE)
 			.sendRequestAndVerifyResponse();
 	}
+
+	@Test
+	void test3_deleteByIdOfOtherTenant() throws Exception { //NOSONAR
+		final var id = "9a24743c-5c19-4774-954e-a3ad67a734e2";
+
+		setupCall()
+			.withServicePath(PATH.concat(id))
+			.withHttpMethod(HttpMethod.DELETE)
+			.withHeader(TENANT_ID, OTHER_TENANT_ID)
+			.withExpectedResponseStatus(Status.NOT_FOUND)
+			.withExpectedResponse(RESPONSE_FILE)
+			.sendRequestAndVerifyResponse();
+
+		assertThat(repository.findByIdOptional(id)).isPresent();
+	}
 }
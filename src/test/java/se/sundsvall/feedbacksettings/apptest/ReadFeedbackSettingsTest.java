@@ -1,8 +1,11 @@
 package se.sundsvall.feedbacksettings.apptest;
 
+import static se.sundsvall.feedbacksettings.api.filter.TenantFilter.TENANT_ID;
+
 import java.util.List;
 
 import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response.Status;
 
 import org.junit.jupiter.api.Test;
@@ -18,7 +21,9 @@ import net.javacrumbs.jsonunit.core.Option;
 @QuarkusTest
 class ReadFeedbackSettingsTest extends AbstractAppTest {
 	private static final String PATH = "/settings";
+	private static final String REQUEST_FILE = "request.json";
 	private static final String RESPONSE_FILE = "response.json";
+	private static final String OTHER_TENANT_ID = "other";
 	
 	@Test
 	void test1_readById() throws Exception { //NOSONAR
@@ -116,4 +121,82 @@ class ReadFeedbackSettingsTest extends AbstractAppTest {
 			.withExpectedResponse(RESPONSE_FILE)
 			.sendRequestAndVerifyResponse();
 	}
+
+	@Test
+	void test8_queryWithCursorForFirstPage() throws Exception { //NOSONAR
+		setupCall()
+			.withServicePath(PATH
+					.concat("?after=")
+					.concat("&limit=3"))
+			.withHttpMethod(HttpMethod.GET)
+			.withOptions(List.of(Option.IGNORING_ARRAY_ORDER))
+			.withExpectedResponseStatus(Status.OK)
+			.withExpectedResponse(RESPONSE_FILE)
+			.sendRequestAndVerifyResponse();
+	}
+
+	@Test
+	void test9_queryWithCursorForLastPage() throws Exception { //NOSONAR
+		setupCall()
+			.withServicePath(PATH
+					.concat("?after=OWEyNDc0M2MtNWMxOS00Nzc0LTk1NGUtYTNhZDY3YTczNGUz")
+					.concat("&limit=3"))
+			.withHttpMethod(HttpMethod.GET)
+			.withOptions(List.of(Option.IGNORING_ARRAY_ORDER))
+			.withExpectedResponseStatus(Status.OK)
+			.withExpectedResponse(RESPONSE_FILE)
+			.sendRequestAndVerifyResponse();
+	}
+
+	@Test
+	void test10_lookupByIdsAndOwners() throws Exception { //NOSONAR
+		setupCall()
+			.withServicePath(PATH.concat("/lookup"))
+			.withHttpMethod(HttpMethod.POST)
+			.withRequest(REQUEST_FILE)
+			.withOptions(List.of(Option.IGNORING_ARRAY_ORDER))
+			.withExpectedResponseStatus(Status.OK)
+			.withExpectedResponse(RESPONSE_FILE)
+			.sendRequestAndVerifyResponse();
+	}
+
+	@Test
+	void test11_queryByDestination() throws Exception { //NOSONAR
+		setupCall()
+			.withServicePath(PATH
+					.concat("?destination=Representative.1@Company.com")
+					.concat("&contactMethod=EMAIL"))
+			.withHttpMethod(HttpMethod.GET)
+			.withOptions(List.of(Option.IGNORING_ARRAY_ORDER))
+			.withExpectedResponseStatus(Status.OK)
+			.withExpectedResponse(RESPONSE_FILE)
+			.sendRequestAndVerifyResponse();
+	}
+
+	@Test
+	void test12_readByIdWithMatchingIfNoneMatch() throws Exception { //NOSONAR
+		final var id = "9a24743c-5c19-4774-954e-a3ad67a734e4";
+
+		setupCall()
+			.withServicePath(PATH.concat("/").concat(id))
+			.withHttpMethod(HttpMethod.GET)
+			.withHeader(HttpHeaders.IF_NONE_MATCH, "\"0-4e9aa2eb582a1085\"")
+			.withExpectedResponseStatus(Status.NOT_MODIFIED)
+			.withExpectedResponseHeader(HttpHeaders.ETAG, List.of("\"0-4e9aa2eb582a1085\""))
+			.withExpectedResponseBodyIsNullOrEmpty()
+			.sendRequestAndVerifyResponse();
+	}
+
+	@Test
+	void test13_readByIdOfOtherTenant() throws Exception { //NOSONAR
+		final var id = "9a24743c-5c19-4774-954e-a3ad67a734e2";
+
+		setupCall()
+			.withServicePath(PATH.concat("/").concat(id))
+			.withHttpMethod(HttpMethod.GET)
+			.withHeader(TENANT_ID, OTHER_TENANT_ID)
+			.withExpectedResponseStatus(Status.NOT_FOUND)
+			.withExpectedResponse(RESPONSE_FILE)
+			.sendRequestAndVerifyResponse();
+	}
 }
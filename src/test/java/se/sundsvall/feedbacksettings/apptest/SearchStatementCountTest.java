@@ -0,0 +1,76 @@
+package se.sundsvall.feedbacksettings.apptest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.inject.Inject;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.Response.Status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import se.sundsvall.feedbacksettings.api.model.SearchResult;
+
+/**
+ * Application tests verifying the number of queries executed for a search request.
+ * 
+ * @see src/test/resources/db/testdata.sql for data setup.
+ */
+@QuarkusTest
+class SearchStatementCountTest extends AbstractAppTest {
+	private static final String PATH = "/settings";
+
+	@Inject
+	SessionFactory sessionFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setup() {
+		statistics = sessionFactory.getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void test1_searchWithTotals() throws Exception { //NOSONAR
+		setupCall()
+			.withServicePath(PATH.concat("?limit=2"))
+			.withHttpMethod(HttpMethod.GET)
+			.withExpectedResponseStatus(Status.OK)
+			.sendRequestAndVerifyResponse();
+
+		// One count, one select and one select of feedback channels
+		assertThat(statistics.getQueryExecutionCount()).isEqualTo(3);
+	}
+
+	@Test
+	void test2_searchWithTotalsForPageLargerThanLastPage() throws Exception { //NOSONAR
+		setupCall()
+			.withServicePath(PATH.concat("?limit=2&page=10"))
+			.withHttpMethod(HttpMethod.GET)
+			.withExpectedResponseStatus(Status.OK)
+			.sendRequestAndVerifyResponse();
+
+		// Only count, as the count reveals that there is nothing to select
+		assertThat(statistics.getQueryExecutionCount()).isEqualTo(1);
+	}
+
+	@Test
+	void test3_searchWithoutTotals() throws Exception { //NOSONAR
+		final var response = setupCall()
+			.withServicePath(PATH.concat("?limit=2&includeTotals=false"))
+			.withHttpMethod(HttpMethod.GET)
+			.withExpectedResponseStatus(Status.OK)
+			.sendRequestAndVerifyResponse()
+			.andReturnBody(SearchResult.class);
+
+		// One select and one select of feedback channels
+		assertThat(statistics.getQueryExecutionCount()).isEqualTo(2);
+		assertThat(response.getMetaData().getHasMore()).isTrue();
+		assertThat(response.getMetaData().getTotalRecords()).isNull();
+		assertThat(response.getFeedbackSettings()).hasSize(2);
+	}
+}
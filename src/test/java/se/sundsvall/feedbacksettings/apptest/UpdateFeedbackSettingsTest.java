@@ -2,6 +2,7 @@ package se.sundsvall.feedbacksettings.apptest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.within;
+import static se.sundsvall.feedbacksettings.api.filter.TenantFilter.TENANT_ID;
 
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
@@ -9,6 +10,7 @@ import java.util.List;
 
 import javax.inject.Inject;
 import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response.Status;
 
 import org.junit.jupiter.api.Test;
@@ -27,6 +29,7 @@ class UpdateFeedbackSettingsTest extends AbstractAppTest {
 	private static final String PATH = "/settings/";
 	private static final String REQUEST_FILE = "request.json";
 	private static final String RESPONSE_FILE = "response.json";
+	private static final String OTHER_TENANT_ID = "other";
 
 	@Inject
 	FeedbackSettingsRepository repository;
@@ -93,4 +96,36 @@ class UpdateFeedbackSettingsTest extends AbstractAppTest {
 		
 		assertThat(repository.findById(id).getModified()).isCloseTo(OffsetDateTime.now(), within(2,  ChronoUnit.SECONDS));
 	}
+
+	@Test
+	void test5_updateWithNonMatchingIfMatch() throws Exception { //NOSONAR
+		final var id = "9a24743c-5c19-4774-954e-a3ad67a734e3";
+
+		setupCall()
+			.withServicePath(PATH.concat(id))
+			.withHttpMethod(HttpMethod.PATCH)
+			.withHeader(HttpHeaders.IF_MATCH, "\"99-b60b6a43f1399de7\"")
+			.withRequest(REQUEST_FILE)
+			.withExpectedResponseStatus(Status.PRECONDITION_FAILED)
+			.withExpectedResponse(RESPONSE_FILE)
+			.sendRequestAndVerifyResponse();
+
+		assertThat(repository.findById(id).getModified()).isNull();
+	}
+
+	@Test
+	void test6_updateByIdOfOtherTenant() throws Exception { //NOSONAR
+		final var id = "9a24743c-5c19-4774-954e-a3ad67a734e3";
+
+		setupCall()
+			.withServicePath(PATH.concat(id))
+			.withHttpMethod(HttpMethod.PATCH)
+			.withHeader(TENANT_ID, OTHER_TENANT_ID)
+			.withRequest(REQUEST_FILE)
+			.withExpectedResponseStatus(Status.NOT_FOUND)
+			.withExpectedResponse(RESPONSE_FILE)
+			.sendRequestAndVerifyResponse();
+
+		assertThat(repository.findById(id).getModified()).isNull();
+	}
 }
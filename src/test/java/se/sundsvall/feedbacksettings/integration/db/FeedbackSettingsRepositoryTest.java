@@ -1,18 +1,45 @@
 package se.sundsvall.feedbacksettings.integration.db;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 import static org.assertj.core.groups.Tuple.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceException;
 
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.hql.spi.QueryTranslator;
+import org.hibernate.query.NativeQuery;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
 
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.test.TestTransaction;
 import io.quarkus.test.junit.QuarkusTest;
+import se.sundsvall.feedbacksettings.ContactMethod;
+import se.sundsvall.feedbacksettings.integration.db.id.ShardKey;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackChannelEmbeddable;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackChannelsJson;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsChannelRow;
 import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsEntity;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsJsonRow;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsRow;
 
 /**
  * Feedback repository tests.
@@ -23,30 +50,40 @@ import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsEntity
 @TestTransaction
 class FeedbackSettingsRepositoryTest {
 
+	private static final String TENANT_ID = "default";
+	private static final String OTHER_TENANT_ID = "other";
 	private static final String EXISTING_PRIVATE_PERSON_ID = "49a974ea-9137-419b-bcb9-ad74c81a1d2f";
 	private static final String EXISTING_ORGANIZATION_REPRESENTATIVE_PERSON_ID = "49a974ea-9137-419b-bcb9-ad74c81a1d4f";
 	private static final String EXISTING_ORGANIZATION_ID = "15aee472-46ab-4f03-9605-68bd64ebc84a";
-	private static final String NON_EXISTING_PERSON_ID = "49a974ea-9137-419b-bcb9-ad74c81d9f5a7";
+	private static final String NON_EXISTING_PERSON_ID = "49a974ea-9137-419b-bcb9-ad74c81d9f5a";
+	private static final String NON_EXISTING_ID = "9a24743c-5c19-4774-954e-a3ad67a734ff";
 	private static final String NON_EXISTING_ORGANIZATION_ID = "3be40bbc-de14-4a30-be9a-f16774d443b3";
 	
+	private static final String PERSON_ID_INDEX = "feedback_settings_tenant_id_person_id_index";
+	private static final String ORGANIZATION_ID_INDEX = "feedback_settings_tenant_id_organization_id_index";
+	private static final String PERSON_ID_ORGANIZATION_ID_INDEX = "feedback_settings_tenant_owner_unique_constraint";
+
 	@Inject
 	FeedbackSettingsRepository feedbackRepository;
 
+	@Inject
+	EntityManager entityManager;
+
 	@Test
 	void customerSettingsExists() {
-		assertThat(feedbackRepository.existsByPersonIdAndOrganizationId(EXISTING_PRIVATE_PERSON_ID, null)).isTrue();
-		assertThat(feedbackRepository.existsByPersonIdAndOrganizationId(NON_EXISTING_PERSON_ID, null)).isFalse();
+		assertThat(feedbackRepository.existsByPersonIdAndOrganizationId(TENANT_ID, EXISTING_PRIVATE_PERSON_ID, null)).isTrue();
+		assertThat(feedbackRepository.existsByPersonIdAndOrganizationId(TENANT_ID, NON_EXISTING_PERSON_ID, null)).isFalse();
 	}
 
 	@Test
 	void organizationRepresentativeSettingsExists() {
-		assertThat(feedbackRepository.existsByPersonIdAndOrganizationId(EXISTING_ORGANIZATION_REPRESENTATIVE_PERSON_ID, EXISTING_ORGANIZATION_ID)).isTrue();
-		assertThat(feedbackRepository.existsByPersonIdAndOrganizationId(EXISTING_PRIVATE_PERSON_ID, EXISTING_ORGANIZATION_ID)).isFalse();
+		assertThat(feedbackRepository.existsByPersonIdAndOrganizationId(TENANT_ID, EXISTING_ORGANIZATION_REPRESENTATIVE_PERSON_ID, EXISTING_ORGANIZATION_ID)).isTrue();
+		assertThat(feedbackRepository.existsByPersonIdAndOrganizationId(TENANT_ID, EXISTING_PRIVATE_PERSON_ID, EXISTING_ORGANIZATION_ID)).isFalse();
 	}
 
 	@Test
 	void findByPersonIdAndOrganizationIdWithNoFilters() {
-		PanacheQuery<FeedbackSettingsEntity> query = feedbackRepository.findByPersonIdAndOrganizationId(null, null);
+		PanacheQuery<FeedbackSettingsEntity> query = feedbackRepository.findByPersonIdAndOrganizationId(TENANT_ID, null, null);
 		List<FeedbackSettingsEntity> entities = query.list();
 
 		assertThat(query.count()).isEqualTo(5);
@@ -59,11 +96,13 @@ class FeedbackSettingsRepositoryTest {
 					tuple("49a974ea-9137-419b-bcb9-ad74c81a1d3f", null),
 					tuple("49a974ea-9137-419b-bcb9-ad74c81a1d3f", "15aee472-46ab-4f03-9605-68bd64ebc84a"),
 					tuple("49a974ea-9137-419b-bcb9-ad74c81a1d4f", "15aee472-46ab-4f03-9605-68bd64ebc84a"));
+		// Ordered by id, as when the settings of all shards are merged
+		assertThat(entities).extracting(FeedbackSettingsEntity::getId).isSorted();
 	}
 
 	@Test
 	void findByPersonId() {
-		PanacheQuery<FeedbackSettingsEntity> query = feedbackRepository.findByPersonIdAndOrganizationId(EXISTING_PRIVATE_PERSON_ID, null);
+		PanacheQuery<FeedbackSettingsEntity> query = feedbackRepository.findByPersonIdAndOrganizationId(TENANT_ID, EXISTING_PRIVATE_PERSON_ID, null);
 		List<FeedbackSettingsEntity> entities = query.list();
 		
 		assertThat(query.count()).isEqualTo(1);
@@ -76,7 +115,7 @@ class FeedbackSettingsRepositoryTest {
 
 	@Test
 	void findByOrganizationId() {
-		PanacheQuery<FeedbackSettingsEntity> query = feedbackRepository.findByPersonIdAndOrganizationId(null, EXISTING_ORGANIZATION_ID);
+		PanacheQuery<FeedbackSettingsEntity> query = feedbackRepository.findByPersonIdAndOrganizationId(TENANT_ID, null, EXISTING_ORGANIZATION_ID);
 		List<FeedbackSettingsEntity> entities = query.list();
 
 		assertThat(query.count()).isEqualTo(2);
@@ -90,7 +129,7 @@ class FeedbackSettingsRepositoryTest {
 
 	@Test
 	void findByPersonIdAndOrganizationIdWithAllFilters() {
-		PanacheQuery<FeedbackSettingsEntity> query = feedbackRepository.findByPersonIdAndOrganizationId(EXISTING_ORGANIZATION_REPRESENTATIVE_PERSON_ID, EXISTING_ORGANIZATION_ID);
+		PanacheQuery<FeedbackSettingsEntity> query = feedbackRepository.findByPersonIdAndOrganizationId(TENANT_ID, EXISTING_ORGANIZATION_REPRESENTATIVE_PERSON_ID, EXISTING_ORGANIZATION_ID);
 
 		List<FeedbackSettingsEntity> entities = query.list();
 		
@@ -104,14 +143,482 @@ class FeedbackSettingsRepositoryTest {
 
 	@Test
 	void findByCombinationThatResultsInNoMatches() {
-		PanacheQuery<FeedbackSettingsEntity> query = feedbackRepository.findByPersonIdAndOrganizationId(EXISTING_PRIVATE_PERSON_ID, EXISTING_ORGANIZATION_ID);
+		PanacheQuery<FeedbackSettingsEntity> query = feedbackRepository.findByPersonIdAndOrganizationId(TENANT_ID, EXISTING_PRIVATE_PERSON_ID, EXISTING_ORGANIZATION_ID);
 		
 		assertThat(query.count()).isZero();
 		assertThat(query.list()).isEmpty();
 
-		query = feedbackRepository.findByPersonIdAndOrganizationId(EXISTING_ORGANIZATION_REPRESENTATIVE_PERSON_ID, NON_EXISTING_ORGANIZATION_ID);
+		query = feedbackRepository.findByPersonIdAndOrganizationId(TENANT_ID, EXISTING_ORGANIZATION_REPRESENTATIVE_PERSON_ID, NON_EXISTING_ORGANIZATION_ID);
 
 		assertThat(query.count()).isZero();
 		assertThat(query.list()).isEmpty();
 }
+
+	@Test
+	void findByPersonIdAndOrganizationIdAfterId() {
+		List<FeedbackSettingsEntity> firstPage = feedbackRepository.findByPersonIdAndOrganizationIdAfterId(TENANT_ID, null, null, null).range(0, 1).list();
+		
+		assertThat(firstPage)
+			.extracting(FeedbackSettingsEntity::getId)
+			.containsExactly("9a24743c-5c19-4774-954e-a3ad67a734e1", "9a24743c-5c19-4774-954e-a3ad67a734e2");
+
+		List<FeedbackSettingsEntity> nextPage = feedbackRepository.findByPersonIdAndOrganizationIdAfterId(TENANT_ID, null, null, "9a24743c-5c19-4774-954e-a3ad67a734e2").list();
+
+		assertThat(nextPage)
+			.extracting(FeedbackSettingsEntity::getId)
+			.containsExactly("9a24743c-5c19-4774-954e-a3ad67a734e3", "9a24743c-5c19-4774-954e-a3ad67a734e4", "9a24743c-5c19-4774-954e-a3ad67a734e5");
+
+		List<FeedbackSettingsEntity> filteredPage = feedbackRepository.findByPersonIdAndOrganizationIdAfterId(TENANT_ID, null, EXISTING_ORGANIZATION_ID, "9a24743c-5c19-4774-954e-a3ad67a734e4").list();
+
+		assertThat(filteredPage)
+			.extracting(FeedbackSettingsEntity::getId)
+			.containsExactly("9a24743c-5c19-4774-954e-a3ad67a734e5");
+	}
+
+	@Test
+	void findByPersonIdWithWildcardCharacters() {
+		// Ids are stored in binary form, hence values that are not UUIDs can never match and are rejected
+		assertThatIllegalArgumentException().isThrownBy(() -> feedbackRepository.findByPersonIdAndOrganizationId(TENANT_ID, "49a974ea-9137-419b-bcb9-ad74c81a1d%", null).count());
+		assertThatIllegalArgumentException().isThrownBy(() -> feedbackRepository.findByPersonIdAndOrganizationId(TENANT_ID, "49a974ea-9137-419b-bcb9-ad74c81a1d_f", null).count());
+		assertThatIllegalArgumentException().isThrownBy(() -> feedbackRepository.findByPersonIdAndOrganizationId(TENANT_ID, null, "%").count());
+	}
+
+	@Test
+	void findByIdWithFeedbackChannels() {
+		final var entity = feedbackRepository.findByIdWithFeedbackChannels(TENANT_ID, "9a24743c-5c19-4774-954e-a3ad67a734e3");
+
+		assertThat(entity).isPresent();
+		assertThat(Hibernate.isInitialized(entity.get().getFeedbackChannels())).isTrue();
+		assertThat(entity.get().getFeedbackChannels())
+			.extracting(FeedbackChannelEmbeddable::getDestination)
+			.containsExactlyInAnyOrder("0706100003", "0736100003", "person.3@company.com");
+		assertThat(feedbackRepository.findByIdWithFeedbackChannels(TENANT_ID, NON_EXISTING_ID)).isEmpty();
+	}
+
+	@Test
+	void findByPersonIdAndOrganizationIdWithFeedbackChannels() {
+		assertThat(feedbackRepository.findByPersonIdAndOrganizationIdWithFeedbackChannels(TENANT_ID, "49a974ea-9137-419b-bcb9-ad74c81a1d3f", null))
+			.hasValueSatisfying(entity -> {
+				assertThat(entity.getId()).isEqualTo("9a24743c-5c19-4774-954e-a3ad67a734e3");
+				assertThat(entity.getFeedbackChannels()).hasSize(3);
+			});
+		assertThat(feedbackRepository.findByPersonIdAndOrganizationIdWithFeedbackChannels(TENANT_ID, "49a974ea-9137-419b-bcb9-ad74c81a1d3f", EXISTING_ORGANIZATION_ID))
+			.hasValueSatisfying(entity -> {
+				assertThat(entity.getId()).isEqualTo("9a24743c-5c19-4774-954e-a3ad67a734e4");
+				assertThat(entity.getFeedbackChannels()).hasSize(2);
+			});
+		assertThat(feedbackRepository.findByPersonIdAndOrganizationIdWithFeedbackChannels(TENANT_ID, NON_EXISTING_PERSON_ID, null)).isEmpty();
+	}
+
+	@Test
+	void upsertByPersonIdAndOrganizationIdForNewOwner() {
+		final var createdId = feedbackRepository.upsertByPersonIdAndOrganizationId(TENANT_ID, NON_EXISTING_PERSON_ID, NON_EXISTING_ORGANIZATION_ID);
+
+		assertThat(feedbackRepository.findByPersonIdAndOrganizationIdWithFeedbackChannels(TENANT_ID, NON_EXISTING_PERSON_ID, NON_EXISTING_ORGANIZATION_ID))
+			.hasValueSatisfying(entity -> {
+				assertThat(entity.getId()).isEqualTo(createdId);
+				assertThat(entity.getCreated()).isNotNull();
+				assertThat(entity.getModified()).isNull();
+				assertThat(entity.getFeedbackChannels()).isEmpty();
+			});
+	}
+
+	@Test
+	void upsertByPersonIdAndOrganizationIdForExistingOwner() {
+		final var createdId = feedbackRepository.upsertByPersonIdAndOrganizationId(TENANT_ID, "49a974ea-9137-419b-bcb9-ad74c81a1d3f", EXISTING_ORGANIZATION_ID);
+
+		assertThat(feedbackRepository.find("personId", "49a974ea-9137-419b-bcb9-ad74c81a1d3f").count()).isEqualTo(2);
+		assertThat(feedbackRepository.findByPersonIdAndOrganizationIdWithFeedbackChannels(TENANT_ID, "49a974ea-9137-419b-bcb9-ad74c81a1d3f", EXISTING_ORGANIZATION_ID))
+			.hasValueSatisfying(entity -> {
+				assertThat(entity.getId()).isEqualTo("9a24743c-5c19-4774-954e-a3ad67a734e4").isNotEqualTo(createdId);
+				assertThat(entity.getModified()).isNotNull();
+				assertThat(entity.getFeedbackChannels()).hasSize(2);
+			});
+	}
+
+	@Test
+	void upsertByPersonIdForNewPersonalSettings() {
+		feedbackRepository.upsertByPersonIdAndOrganizationId(TENANT_ID, NON_EXISTING_PERSON_ID, null);
+		feedbackRepository.upsertByPersonIdAndOrganizationId(TENANT_ID, NON_EXISTING_PERSON_ID, null);
+
+		// Personal settings collide in the unique constraint, although their organizationId is null
+		assertThat(feedbackRepository.find("personId", NON_EXISTING_PERSON_ID).count()).isEqualTo(1);
+		assertThat(feedbackRepository.findByPersonIdAndOrganizationIdWithFeedbackChannels(TENANT_ID, NON_EXISTING_PERSON_ID, null))
+			.hasValueSatisfying(entity -> {
+				assertThat(entity.getOrganizationId()).isNull();
+				assertThat(entity.getModified()).isNotNull();
+				// The version is incremented when the changes of the caller are flushed, not by the statement
+				assertThat(entity.getVersion()).isZero();
+			});
+	}
+
+	@Test
+	void upsertByPersonIdForExistingPersonalSettings() {
+		feedbackRepository.upsertByPersonIdAndOrganizationId(TENANT_ID, EXISTING_PRIVATE_PERSON_ID, null);
+
+		assertThat(feedbackRepository.findByPersonIdAndOrganizationIdWithFeedbackChannels(TENANT_ID, EXISTING_PRIVATE_PERSON_ID, null))
+			.hasValueSatisfying(entity -> assertThat(entity.getModified()).isNotNull());
+	}
+
+	@Test
+	void upsertByPersonIdAndOrganizationIdForOtherTenant() {
+		feedbackRepository.upsertByPersonIdAndOrganizationId(OTHER_TENANT_ID, "49a974ea-9137-419b-bcb9-ad74c81a1d3f", EXISTING_ORGANIZATION_ID);
+
+		assertThat(feedbackRepository.findByPersonIdAndOrganizationIdWithFeedbackChannels(OTHER_TENANT_ID, "49a974ea-9137-419b-bcb9-ad74c81a1d3f", EXISTING_ORGANIZATION_ID))
+			.hasValueSatisfying(entity -> {
+				assertThat(entity.getId()).isNotEqualTo("9a24743c-5c19-4774-954e-a3ad67a734e4");
+				assertThat(entity.getTenantId()).isEqualTo(OTHER_TENANT_ID);
+				assertThat(entity.getFeedbackChannels()).isEmpty();
+			});
+		assertThat(feedbackRepository.findByPersonIdAndOrganizationIdWithFeedbackChannels(TENANT_ID, "49a974ea-9137-419b-bcb9-ad74c81a1d3f", EXISTING_ORGANIZATION_ID))
+			.hasValueSatisfying(entity -> assertThat(entity.getModified()).isNull());
+	}
+
+	@Test
+	void settingsOfOtherTenantAreNotFound() {
+		final var id = "9a24743c-5c19-4774-954e-a3ad67a734e4";
+
+		assertThat(feedbackRepository.existsByPersonIdAndOrganizationId(OTHER_TENANT_ID, EXISTING_PRIVATE_PERSON_ID, null)).isFalse();
+		assertThat(feedbackRepository.findByPersonIdAndOrganizationId(OTHER_TENANT_ID, null, null).count()).isZero();
+		assertThat(feedbackRepository.findByIdWithFeedbackChannels(OTHER_TENANT_ID, id)).isEmpty();
+		assertThat(feedbackRepository.findSettingsRowById(OTHER_TENANT_ID, id)).isEmpty();
+		assertThat(feedbackRepository.findJsonRowById(OTHER_TENANT_ID, id)).isEmpty();
+		assertThat(feedbackRepository.findRowsById(OTHER_TENANT_ID, id)).isEmpty();
+		assertThat(feedbackRepository.findRowsByIds(OTHER_TENANT_ID, List.of(id))).isEmpty();
+		assertThat(feedbackRepository.findRowsByPersonIds(OTHER_TENANT_ID, List.of(EXISTING_PRIVATE_PERSON_ID))).isEmpty();
+		assertThat(feedbackRepository.findRowsByDestination(OTHER_TENANT_ID, "0706100003", null)).isEmpty();
+		assertThat(feedbackRepository.findSettingsRowsByPersonIds(OTHER_TENANT_ID, List.of(EXISTING_PRIVATE_PERSON_ID))).isEmpty();
+		assertThat(feedbackRepository.countByOrganizationId(entityManager, OTHER_TENANT_ID, null)).isZero();
+		try (Stream<FeedbackSettingsChannelRow> rows = feedbackRepository.streamAllWithFeedbackChannels(OTHER_TENANT_ID, 2)) {
+			assertThat(rows).isEmpty();
+		}
+	}
+
+	@Test
+	void findRowsById() {
+		assertThat(feedbackRepository.findRowsById(TENANT_ID, "9a24743c-5c19-4774-954e-a3ad67a734e4"))
+			.extracting(FeedbackSettingsChannelRow::id, FeedbackSettingsChannelRow::organizationId, FeedbackSettingsChannelRow::contactMethod, FeedbackSettingsChannelRow::destination)
+			.containsExactlyInAnyOrder(
+					tuple("9a24743c-5c19-4774-954e-a3ad67a734e4", EXISTING_ORGANIZATION_ID, "SMS", "0706100004"),
+					tuple("9a24743c-5c19-4774-954e-a3ad67a734e4", EXISTING_ORGANIZATION_ID, "EMAIL", "representative.1@company.com"));
+		assertThat(feedbackRepository.findRowsById(TENANT_ID, NON_EXISTING_ID)).isEmpty();
+	}
+
+	@Test
+	void findRowsByIds() {
+		assertThat(feedbackRepository.findRowsByIds(TENANT_ID, List.of("9a24743c-5c19-4774-954e-a3ad67a734e4", "9a24743c-5c19-4774-954e-a3ad67a734e3", NON_EXISTING_ID)))
+			.extracting(FeedbackSettingsChannelRow::id)
+			.containsExactly(
+					"9a24743c-5c19-4774-954e-a3ad67a734e3",
+					"9a24743c-5c19-4774-954e-a3ad67a734e3",
+					"9a24743c-5c19-4774-954e-a3ad67a734e3",
+					"9a24743c-5c19-4774-954e-a3ad67a734e4",
+					"9a24743c-5c19-4774-954e-a3ad67a734e4");
+		assertThat(feedbackRepository.findRowsByIds(TENANT_ID, emptyList())).isEmpty();
+	}
+
+	@Test
+	void findRowsByPersonIds() {
+		assertThat(feedbackRepository.findRowsByPersonIds(TENANT_ID, List.of("49a974ea-9137-419b-bcb9-ad74c81a1d3f", NON_EXISTING_PERSON_ID)))
+			.extracting(FeedbackSettingsChannelRow::id, FeedbackSettingsChannelRow::organizationId)
+			.containsExactly(
+					tuple("9a24743c-5c19-4774-954e-a3ad67a734e3", null),
+					tuple("9a24743c-5c19-4774-954e-a3ad67a734e3", null),
+					tuple("9a24743c-5c19-4774-954e-a3ad67a734e3", null),
+					tuple("9a24743c-5c19-4774-954e-a3ad67a734e4", EXISTING_ORGANIZATION_ID),
+					tuple("9a24743c-5c19-4774-954e-a3ad67a734e4", EXISTING_ORGANIZATION_ID));
+		assertThat(feedbackRepository.findRowsByPersonIds(TENANT_ID, emptyList())).isEmpty();
+	}
+
+	@Test
+	void findRowsByDestination() {
+		assertThat(feedbackRepository.findRowsByDestination(TENANT_ID, " Representative.1@COMPANY.com", ContactMethod.EMAIL))
+			.extracting(FeedbackSettingsChannelRow::id, FeedbackSettingsChannelRow::destination)
+			.containsExactlyInAnyOrder(
+					tuple("9a24743c-5c19-4774-954e-a3ad67a734e4", "0706100004"),
+					tuple("9a24743c-5c19-4774-954e-a3ad67a734e4", "representative.1@company.com"));
+		assertThat(feedbackRepository.findRowsByDestination(TENANT_ID, "0706100003", null))
+			.extracting(FeedbackSettingsChannelRow::id)
+			.containsOnly("9a24743c-5c19-4774-954e-a3ad67a734e3")
+			.hasSize(3);
+		assertThat(feedbackRepository.findRowsByDestination(TENANT_ID, "0706100003", ContactMethod.EMAIL)).isEmpty();
+	}
+
+	@Test
+	void findSettingsRowById() {
+		assertThat(feedbackRepository.findSettingsRowById(TENANT_ID, "9a24743c-5c19-4774-954e-a3ad67a734e4"))
+			.hasValueSatisfying(row -> {
+				assertThat(row.id()).isEqualTo("9a24743c-5c19-4774-954e-a3ad67a734e4");
+				assertThat(row.organizationId()).isEqualTo(EXISTING_ORGANIZATION_ID);
+				assertThat(row.created()).isNotNull();
+				assertThat(row.version()).isZero();
+			});
+		assertThat(feedbackRepository.findSettingsRowById(TENANT_ID, NON_EXISTING_ID)).isEmpty();
+	}
+
+	@Test
+	void findJsonRowById() {
+		assertThat(feedbackRepository.findJsonRowById(TENANT_ID, "9a24743c-5c19-4774-954e-a3ad67a734e4"))
+			.hasValueSatisfying(row -> {
+				assertThat(row.id()).isEqualTo("9a24743c-5c19-4774-954e-a3ad67a734e4");
+				assertThat(row.organizationId()).isEqualTo(EXISTING_ORGANIZATION_ID);
+				assertThat(FeedbackChannelsJson.fromJson(row.channelsJson()))
+					.extracting(FeedbackChannelEmbeddable::getContactMethod, FeedbackChannelEmbeddable::getDestination, FeedbackChannelEmbeddable::isSendFeedback)
+					.containsExactly(
+						tuple(ContactMethod.SMS, "0706100004", true),
+						tuple(ContactMethod.EMAIL, "representative.1@company.com", false));
+			});
+		assertThat(feedbackRepository.findJsonRowById(TENANT_ID, NON_EXISTING_ID)).isEmpty();
+	}
+
+	@Test
+	void findJsonRowsByIdsAndPersonIds() {
+		assertThat(feedbackRepository.findJsonRowsByIds(TENANT_ID, List.of("9a24743c-5c19-4774-954e-a3ad67a734e4", "9a24743c-5c19-4774-954e-a3ad67a734e3", NON_EXISTING_ID)))
+			.extracting(FeedbackSettingsJsonRow::id)
+			.containsExactlyInAnyOrder("9a24743c-5c19-4774-954e-a3ad67a734e3", "9a24743c-5c19-4774-954e-a3ad67a734e4");
+		assertThat(feedbackRepository.findJsonRowsByPersonIds(TENANT_ID, List.of("49a974ea-9137-419b-bcb9-ad74c81a1d3f", NON_EXISTING_PERSON_ID)))
+			.extracting(FeedbackSettingsJsonRow::id, FeedbackSettingsJsonRow::organizationId)
+			.containsExactlyInAnyOrder(
+				tuple("9a24743c-5c19-4774-954e-a3ad67a734e3", null),
+				tuple("9a24743c-5c19-4774-954e-a3ad67a734e4", EXISTING_ORGANIZATION_ID));
+		assertThat(feedbackRepository.findJsonRowsByIds(TENANT_ID, emptyList())).isEmpty();
+		assertThat(feedbackRepository.findJsonRowsByPersonIds(TENANT_ID, emptyList())).isEmpty();
+	}
+
+	@Test
+	void channelsJsonFollowsChangedFeedbackChannels() {
+		final var entity = feedbackRepository.findById("9a24743c-5c19-4774-954e-a3ad67a734e1");
+		entity.getFeedbackChannels().add(FeedbackChannelEmbeddable.create().withContactMethod(ContactMethod.EMAIL).withDestination("person.1@company.com").withSendFeedback(false));
+		feedbackRepository.flush();
+		entityManager.clear();
+
+		assertThat(FeedbackChannelsJson.fromJson(feedbackRepository.findJsonRowById(TENANT_ID, entity.getId()).orElseThrow().channelsJson()))
+			.extracting(FeedbackChannelEmbeddable::getContactMethod, FeedbackChannelEmbeddable::getDestination)
+			.containsExactly(
+				tuple(ContactMethod.SMS, "0706100001"),
+				tuple(ContactMethod.EMAIL, "person.1@company.com"));
+	}
+
+	@Test
+	void findSettingsRowsByPersonIds() {
+		assertThat(feedbackRepository.findSettingsRowsByPersonIds(TENANT_ID, List.of("49a974ea-9137-419b-bcb9-ad74c81a1d3f", NON_EXISTING_PERSON_ID)))
+			.extracting(FeedbackSettingsRow::personId, FeedbackSettingsRow::organizationId)
+			.containsExactlyInAnyOrder(
+					tuple("49a974ea-9137-419b-bcb9-ad74c81a1d3f", null),
+					tuple("49a974ea-9137-419b-bcb9-ad74c81a1d3f", EXISTING_ORGANIZATION_ID));
+		assertThat(feedbackRepository.findSettingsRowsByPersonIds(TENANT_ID, emptyList())).isEmpty();
+	}
+
+	@Test
+	void findSettingsRowsByOrganizationIdAfterId() {
+		assertThat(feedbackRepository.findSettingsRowsByOrganizationIdAfterId(entityManager, TENANT_ID, null, "9a24743c-5c19-4774-954e-a3ad67a734e2", 2))
+			.extracting(FeedbackSettingsRow::id)
+			.containsExactly("9a24743c-5c19-4774-954e-a3ad67a734e3", "9a24743c-5c19-4774-954e-a3ad67a734e4");
+		assertThat(feedbackRepository.findSettingsRowsByOrganizationIdAfterId(entityManager, TENANT_ID, EXISTING_ORGANIZATION_ID, null, 10))
+			.extracting(FeedbackSettingsRow::id)
+			.containsExactly("9a24743c-5c19-4774-954e-a3ad67a734e4", "9a24743c-5c19-4774-954e-a3ad67a734e5");
+		assertThat(feedbackRepository.findSettingsRowsByOrganizationIdAfterId(entityManager, TENANT_ID, EXISTING_ORGANIZATION_ID, "9a24743c-5c19-4774-954e-a3ad67a734e5", 10)).isEmpty();
+		assertThat(feedbackRepository.findSettingsRowsByOrganizationIdAfterId(entityManager, OTHER_TENANT_ID, null, null, 10)).isEmpty();
+		assertThat(feedbackRepository.findSettingsRowsByOrganizationIdAfterId(entityManager, null, null, null, 10)).hasSize(5);
+	}
+
+	@Test
+	void countByOrganizationId() {
+		assertThat(feedbackRepository.countByOrganizationId(entityManager, TENANT_ID, null)).isEqualTo(5);
+		assertThat(feedbackRepository.countByOrganizationId(entityManager, TENANT_ID, EXISTING_ORGANIZATION_ID)).isEqualTo(2);
+		assertThat(feedbackRepository.countByOrganizationId(entityManager, TENANT_ID, NON_EXISTING_ORGANIZATION_ID)).isZero();
+	}
+
+	@Test
+	void existsById() {
+		assertThat(feedbackRepository.existsById(entityManager, "9a24743c-5c19-4774-954e-a3ad67a734e1")).isTrue();
+		assertThat(feedbackRepository.existsById(entityManager, NON_EXISTING_ID)).isFalse();
+	}
+
+	@Test
+	void replicate() {
+		final var created = OffsetDateTime.parse("2022-01-01T12:00:00+01:00");
+		final var entity = FeedbackSettingsEntity.create()
+			.withId(NON_EXISTING_ID)
+			.withTenantId(TENANT_ID)
+			.withPersonId(NON_EXISTING_PERSON_ID)
+			.withFeedbackChannels(new ArrayList<>(List.of(FeedbackChannelEmbeddable.create().withContactMethod(ContactMethod.SMS).withDestination("0701234567").withSendFeedback(true))))
+			.withCreated(created)
+			.withVersion(3L);
+
+		feedbackRepository.replicate(entity);
+		feedbackRepository.flush();
+		entityManager.clear();
+
+		assertThat(feedbackRepository.findRowsById(TENANT_ID, NON_EXISTING_ID))
+			.extracting(FeedbackSettingsChannelRow::personId, FeedbackSettingsChannelRow::destination, FeedbackSettingsChannelRow::version)
+			.containsExactly(tuple(NON_EXISTING_PERSON_ID, "0701234567", 3L));
+	}
+
+	@Test
+	void replicateOverExistingSettings() {
+		feedbackRepository.replicate(createReplica("0701234567", 3L));
+		entityManager.clear();
+
+		// Settings with a lower version are ignored, settings with a higher version replace the existing
+		feedbackRepository.replicate(createReplica("0701111111", 2L));
+		entityManager.clear();
+		assertThat(feedbackRepository.findRowsById(TENANT_ID, NON_EXISTING_ID))
+			.extracting(FeedbackSettingsChannelRow::destination, FeedbackSettingsChannelRow::version)
+			.containsExactly(tuple("0701234567", 3L));
+
+		feedbackRepository.replicate(createReplica("0702222222", 4L));
+		entityManager.clear();
+		assertThat(feedbackRepository.findRowsById(TENANT_ID, NON_EXISTING_ID))
+			.extracting(FeedbackSettingsChannelRow::destination, FeedbackSettingsChannelRow::version)
+			.containsExactly(tuple("0702222222", 4L));
+	}
+
+	@Test
+	void replicateConflictingWithOtherSettingsOfOwner() {
+		final var entity = createReplica("0701234567", 0L).withPersonId(EXISTING_PRIVATE_PERSON_ID);
+
+		assertThrows(PersistenceException.class, () -> feedbackRepository.replicate(entity));
+	}
+
+	@Test
+	void deleteByIdAndVersion() {
+		feedbackRepository.replicate(createReplica("0709999999", 3L));
+		entityManager.clear();
+
+		assertThat(feedbackRepository.deleteByIdAndVersion(NON_EXISTING_ID, 2L)).isFalse();
+		assertThat(feedbackRepository.findRowsById(TENANT_ID, NON_EXISTING_ID)).hasSize(1);
+
+		assertThat(feedbackRepository.deleteByIdAndVersion(NON_EXISTING_ID, 3L)).isTrue();
+		feedbackRepository.flush();
+		assertThat(feedbackRepository.findRowsById(TENANT_ID, NON_EXISTING_ID)).isEmpty();
+		assertThat(((Number) entityManager.createNativeQuery("select count(*) from feedback_channels where destination = '0709999999'").getSingleResult()).longValue())
+			.isZero();
+	}
+
+	@Test
+	void deleteOfModifiedEntity() {
+		feedbackRepository.replicate(createReplica("0709999999", 3L));
+		entityManager.clear();
+		final var entity = feedbackRepository.findByIdWithFeedbackChannels(TENANT_ID, NON_EXISTING_ID).orElseThrow();
+
+		// Settings are modified by another transaction after they were fetched
+		entityManager.createQuery("update FeedbackSettingsEntity set version = version + 1 where id = :id").setParameter("id", NON_EXISTING_ID).executeUpdate();
+
+		feedbackRepository.delete(entity);
+		assertThrows(OptimisticLockException.class, () -> feedbackRepository.flush());
+	}
+
+	@Test
+	void persistAndDetach() {
+		final var entities = List.of(
+				FeedbackSettingsEntity.create().withTenantId(TENANT_ID).withPersonId("49a974ea-9137-419b-bcb9-ad74c81a1e1f")
+					.withFeedbackChannels(List.of(FeedbackChannelEmbeddable.create().withContactMethod(ContactMethod.SMS).withDestination("0701234567").withSendFeedback(true))),
+				FeedbackSettingsEntity.create().withTenantId(TENANT_ID).withPersonId("49a974ea-9137-419b-bcb9-ad74c81a1e2f"));
+
+		feedbackRepository.persistAndDetach(entities);
+
+		assertThat(entities).allSatisfy(entity -> {
+			// Time ordered ids carrying the shard key of the person
+			assertThat(UUID.fromString(entity.getId()).version()).isEqualTo(8);
+			assertThat(ShardKey.ofId(entity.getId())).hasValue(ShardKey.of(entity.getPersonId()));
+			assertThat(feedbackRepository.getEntityManager().contains(entity)).isFalse();
+		});
+		assertThat(feedbackRepository.findRowsById(TENANT_ID, entities.get(0).getId()))
+			.extracting(FeedbackSettingsChannelRow::personId, FeedbackSettingsChannelRow::destination)
+			.containsExactly(tuple("49a974ea-9137-419b-bcb9-ad74c81a1e1f", "0701234567"));
+	}
+
+	@Test
+	void findFeedbackChannelRowsBySettingIds() {
+		assertThat(feedbackRepository.findFeedbackChannelRowsBySettingIds(List.of("9a24743c-5c19-4774-954e-a3ad67a734e3", "9a24743c-5c19-4774-954e-a3ad67a734e4")))
+			.extracting(FeedbackSettingsChannelRow::id, FeedbackSettingsChannelRow::destination)
+			.containsExactlyInAnyOrder(
+					tuple("9a24743c-5c19-4774-954e-a3ad67a734e3", "0706100003"),
+					tuple("9a24743c-5c19-4774-954e-a3ad67a734e3", "0736100003"),
+					tuple("9a24743c-5c19-4774-954e-a3ad67a734e3", "person.3@company.com"),
+					tuple("9a24743c-5c19-4774-954e-a3ad67a734e4", "0706100004"),
+					tuple("9a24743c-5c19-4774-954e-a3ad67a734e4", "representative.1@company.com"));
+		assertThat(feedbackRepository.findFeedbackChannelRowsBySettingIds(emptyList())).isEmpty();
+	}
+
+	@Test
+	void projectFeedbackSettingsRows() {
+		List<FeedbackSettingsRow> rows = feedbackRepository.findByPersonIdAndOrganizationIdAfterId(TENANT_ID, null, EXISTING_ORGANIZATION_ID, null)
+			.project(FeedbackSettingsRow.class)
+			.list();
+
+		assertThat(rows)
+			.extracting(FeedbackSettingsRow::id, FeedbackSettingsRow::organizationId)
+			.containsExactly(
+					tuple("9a24743c-5c19-4774-954e-a3ad67a734e4", EXISTING_ORGANIZATION_ID),
+					tuple("9a24743c-5c19-4774-954e-a3ad67a734e5", EXISTING_ORGANIZATION_ID));
+	}
+
+	@Test
+	void streamAllWithFeedbackChannels() {
+		try (Stream<FeedbackSettingsChannelRow> rows = feedbackRepository.streamAllWithFeedbackChannels(TENANT_ID, 2)) {
+			assertThat(rows.toList())
+				.hasSize(11)
+				.extracting(FeedbackSettingsChannelRow::id)
+				.isSorted()
+				.containsOnly("9a24743c-5c19-4774-954e-a3ad67a734e1", "9a24743c-5c19-4774-954e-a3ad67a734e2", "9a24743c-5c19-4774-954e-a3ad67a734e3",
+					"9a24743c-5c19-4774-954e-a3ad67a734e4", "9a24743c-5c19-4774-954e-a3ad67a734e5");
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("filterCombinations")
+	void filterCombinationUsesIndex(String personId, String organizationId, List<String> expectedIndexes) {
+		final var searchQuery = FeedbackSettingsRepository.toSearchQuery(TENANT_ID, personId, organizationId, null);
+		final var translator = entityManager.unwrap(Session.class).getSessionFactory().unwrap(SessionFactoryImplementor.class)
+			.getQueryPlanCache()
+			.getHQLQueryPlan(searchQuery.query() + " order by id", false, emptyMap())
+			.getTranslators()[0];
+
+		final var plan = explain(translator, searchQuery.parameters().map());
+
+		assertThat(plan).as("Execution plan for statement: %s", translator.getSQLString()).containsAnyElementsOf(expectedIndexes);
+	}
+
+	private static Stream<Arguments> filterCombinations() {
+		return Stream.of(
+			Arguments.of(EXISTING_PRIVATE_PERSON_ID, null, List.of(PERSON_ID_INDEX, PERSON_ID_ORGANIZATION_ID_INDEX)),
+			Arguments.of(null, EXISTING_ORGANIZATION_ID, List.of(ORGANIZATION_ID_INDEX)),
+			Arguments.of(EXISTING_ORGANIZATION_REPRESENTATIVE_PERSON_ID, EXISTING_ORGANIZATION_ID, List.of(PERSON_ID_INDEX, ORGANIZATION_ID_INDEX, PERSON_ID_ORGANIZATION_ID_INDEX)));
+	}
+
+	/**
+	 * Returns the names of the indexes used by the database when executing the statement that sent in translator renders
+	 * from a query, with sent in named parameters bound where the translator placed them and converted by the types the
+	 * query expects. MariaDB presents the plan as a table where the used index is found in column 'key', H2 presents it as
+	 * a statement decorated with the used index.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<String> explain(QueryTranslator translator, Map<String, Object> parameters) {
+		final var query = entityManager.createNativeQuery("explain " + translator.getSQLString()).unwrap(NativeQuery.class);
+		parameters.forEach((name, value) -> {
+			final var parameter = translator.getParameterTranslations().getNamedParameterInformation(name);
+			for (int location : parameter.getSourceLocations()) {
+				query.setParameter(location + 1, value, parameter.getExpectedType());
+			}
+		});
+		final List<Object> rows = query.getResultList();
+
+		return rows.stream()
+			.map(row -> row instanceof Object[] columns ? String.valueOf(columns[5]) : String.valueOf(row))
+			.map(String::toLowerCase)
+			.flatMap(plan -> Stream.of(PERSON_ID_INDEX, ORGANIZATION_ID_INDEX, PERSON_ID_ORGANIZATION_ID_INDEX).filter(plan::contains))
+			.toList();
+	}
+
+	private static FeedbackSettingsEntity createReplica(String destination, Long version) {
+		return FeedbackSettingsEntity.create()
+			.withId(NON_EXISTING_ID)
+			.withTenantId(TENANT_ID)
+			.withPersonId(NON_EXISTING_PERSON_ID)
+			.withFeedbackChannels(new ArrayList<>(List.of(FeedbackChannelEmbeddable.create().withContactMethod(ContactMethod.SMS).withDestination(destination).withSendFeedback(true))))
+			.withCreated(OffsetDateTime.parse("2022-01-01T12:00:00+01:00"))
+			.withVersion(version);
+	}
 }
@@ -0,0 +1,95 @@
+package se.sundsvall.feedbacksettings.integration.db;
+
+import static java.time.temporal.ChronoUnit.MILLIS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import se.sundsvall.feedbacksettings.integration.db.model.IdempotencyKeyEntity;
+
+/**
+ * Idempotency key repository tests.
+ */
+@QuarkusTest
+@TestTransaction
+class IdempotencyKeyRepositoryTest {
+
+	private static final String IDEMPOTENCY_KEY = "repository-test-key";
+	private static final String REQUEST_HASH = "requestHash";
+	private static final OffsetDateTime NOW = OffsetDateTime.now().truncatedTo(MILLIS);
+
+	@Inject
+	IdempotencyKeyRepository idempotencyKeyRepository;
+
+	@Inject
+	EntityManager entityManager;
+
+	@Test
+	void insertIfAbsent() {
+		assertThat(idempotencyKeyRepository.insertIfAbsent(IDEMPOTENCY_KEY, REQUEST_HASH, NOW, NOW.plusMinutes(1))).isTrue();
+		assertThat(idempotencyKeyRepository.insertIfAbsent(IDEMPOTENCY_KEY, "otherRequestHash", NOW, NOW.plusMinutes(1))).isFalse();
+
+		assertThat(idempotencyKeyRepository.findNonExpired(IDEMPOTENCY_KEY, NOW)).hasValueSatisfying(entity -> {
+			assertThat(entity.getRequestHash()).isEqualTo(REQUEST_HASH);
+			assertThat(entity.getStatus()).isNull();
+			assertThat(entity.getCreated()).isNotNull();
+		});
+	}
+
+	@Test
+	void complete() {
+		idempotencyKeyRepository.insertIfAbsent(IDEMPOTENCY_KEY, REQUEST_HASH, NOW, NOW.plusMinutes(1));
+
+		assertThat(idempotencyKeyRepository.complete(IdempotencyKeyEntity.create()
+			.withIdempotencyKey(IDEMPOTENCY_KEY)
+			.withStatus(201)
+			.withLocation("http://localhost/settings/id")
+			.withEntityTag("\"0\"")
+			.withBody("{\"id\":\"id\"}")
+			.withExpires(NOW.plusDays(1)))).isOne();
+		entityManager.clear();
+
+		assertThat(idempotencyKeyRepository.findNonExpired(IDEMPOTENCY_KEY, NOW.plusHours(1))).hasValueSatisfying(entity -> {
+			assertThat(entity.getRequestHash()).isEqualTo(REQUEST_HASH);
+			assertThat(entity.getStatus()).isEqualTo(201);
+			assertThat(entity.getLocation()).isEqualTo("http://localhost/settings/id");
+			assertThat(entity.getEntityTag()).isEqualTo("\"0\"");
+			assertThat(entity.getBody()).isEqualTo("{\"id\":\"id\"}");
+		});
+	}
+
+	@Test
+	void findNonExpired() {
+		idempotencyKeyRepository.insertIfAbsent(IDEMPOTENCY_KEY, REQUEST_HASH, NOW, NOW.plusMinutes(1));
+
+		assertThat(idempotencyKeyRepository.findNonExpired(IDEMPOTENCY_KEY, NOW)).isPresent();
+		assertThat(idempotencyKeyRepository.findNonExpired(IDEMPOTENCY_KEY, NOW.plusMinutes(1))).isEmpty();
+		assertThat(idempotencyKeyRepository.findNonExpired("non-existing-key", NOW)).isEmpty();
+	}
+
+	@Test
+	void deleteExpired() {
+		idempotencyKeyRepository.insertIfAbsent(IDEMPOTENCY_KEY, REQUEST_HASH, NOW, NOW.plusMinutes(1));
+
+		assertThat(idempotencyKeyRepository.deleteExpired(IDEMPOTENCY_KEY, NOW)).isZero();
+		assertThat(idempotencyKeyRepository.deleteExpired(IDEMPOTENCY_KEY, NOW.plusMinutes(1))).isOne();
+		assertThat(idempotencyKeyRepository.findById(IDEMPOTENCY_KEY)).isNull();
+	}
+
+	@Test
+	void deleteAllExpired() {
+		idempotencyKeyRepository.insertIfAbsent(IDEMPOTENCY_KEY, REQUEST_HASH, NOW, NOW.plusMinutes(1));
+		idempotencyKeyRepository.insertIfAbsent("other-repository-test-key", REQUEST_HASH, NOW, NOW.plusMinutes(2));
+
+		assertThat(idempotencyKeyRepository.deleteAllExpired(NOW.plusMinutes(1))).isOne();
+		assertThat(idempotencyKeyRepository.findById(IDEMPOTENCY_KEY)).isNull();
+		assertThat(idempotencyKeyRepository.findById("other-repository-test-key")).isNotNull();
+	}
+}
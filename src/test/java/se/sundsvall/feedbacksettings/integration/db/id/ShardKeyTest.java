@@ -0,0 +1,36 @@
+package se.sundsvall.feedbacksettings.integration.db.id;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class ShardKeyTest {
+
+	private static final String PERSON_ID = "49a974ea-9137-419b-bcb9-ad74c81a1d2f";
+
+	@Test
+	void withShardKeyOf() {
+		final var generatedId = UuidStrategy.TIME_ORDERED.generate();
+		final var id = ShardKey.withShardKeyOf(generatedId, PERSON_ID);
+		final var uuid = UUID.fromString(id);
+
+		assertThat(uuid.version()).isEqualTo(8);
+		assertThat(uuid.variant()).isEqualTo(2);
+		assertThat(ShardKey.ofId(id)).hasValue(ShardKey.of(PERSON_ID));
+		// The time ordered part of the generated id is kept
+		assertThat(uuid.getMostSignificantBits() >>> 16).isEqualTo(UUID.fromString(generatedId).getMostSignificantBits() >>> 16);
+	}
+
+	@Test
+	void ofIdWithoutShardKey() {
+		assertThat(ShardKey.ofId(UuidStrategy.RANDOM.generate())).isEmpty();
+		assertThat(ShardKey.ofId(UuidStrategy.TIME_ORDERED.generate())).isEmpty();
+	}
+
+	@Test
+	void ofIsStable() {
+		assertThat(ShardKey.of(PERSON_ID)).isEqualTo(ShardKey.of(PERSON_ID.toUpperCase())).isBetween(0L, 0xFFFFFFFFL);
+	}
+}
@@ -0,0 +1,48 @@
+package se.sundsvall.feedbacksettings.integration.db.id;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Properties;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsEntity;
+
+class UuidGeneratorTest {
+
+	@AfterEach
+	void cleanup() {
+		System.clearProperty(UuidGenerator.STRATEGY_PROPERTY);
+	}
+
+	@Test
+	void generateWithConfiguredStrategy() {
+		System.setProperty(UuidGenerator.STRATEGY_PROPERTY, UuidStrategy.RANDOM.name());
+		final var generator = new UuidGenerator();
+		generator.configure(null, new Properties(), null);
+
+		assertThat(UUID.fromString((String) generator.generate(null, null)).version()).isEqualTo(4);
+	}
+
+	@Test
+	void generateWithDefaultStrategy() {
+		final var generator = new UuidGenerator();
+		generator.configure(null, new Properties(), null);
+
+		assertThat(UUID.fromString((String) generator.generate(null, null)).version()).isEqualTo(7);
+	}
+
+	@Test
+	void generateForSettings() {
+		final var personId = "49a974ea-9137-419b-bcb9-ad74c81a1d2f";
+		final var generator = new UuidGenerator();
+		generator.configure(null, new Properties(), null);
+
+		final var id = (String) generator.generate(null, FeedbackSettingsEntity.create().withPersonId(personId));
+
+		assertThat(UUID.fromString(id).version()).isEqualTo(8);
+		assertThat(ShardKey.ofId(id)).hasValue(ShardKey.of(personId));
+	}
+}
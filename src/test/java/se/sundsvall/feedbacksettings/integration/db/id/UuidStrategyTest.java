@@ -0,0 +1,53 @@
+package se.sundsvall.feedbacksettings.integration.db.id;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class UuidStrategyTest {
+
+	private static final int NUMBER_OF_IDS = 10000;
+
+	@Test
+	void random() {
+		final var uuid = UUID.fromString(UuidStrategy.RANDOM.generate());
+
+		assertThat(uuid.version()).isEqualTo(4);
+		assertThat(uuid.variant()).isEqualTo(2);
+	}
+
+	@Test
+	void timeOrdered() {
+		final var before = System.currentTimeMillis();
+		final var uuid = UUID.fromString(UuidStrategy.TIME_ORDERED.generate());
+
+		assertThat(uuid.version()).isEqualTo(7);
+		assertThat(uuid.variant()).isEqualTo(2);
+		assertThat(uuid.getMostSignificantBits() >>> 16).isCloseTo(before, within(1000L));
+	}
+
+	@Test
+	void timeOrderedIdsAreUniqueAndAscending() {
+		final var ids = IntStream.range(0, NUMBER_OF_IDS)
+			.mapToObj(i -> UuidStrategy.TIME_ORDERED.generate())
+			.toList();
+
+		assertThat(ids)
+			.doesNotHaveDuplicates()
+			.isSorted();
+	}
+
+	@Test
+	void timeOrderedIdsAreUniqueWhenGeneratedConcurrently() {
+		final var ids = IntStream.range(0, NUMBER_OF_IDS)
+			.parallel()
+			.mapToObj(i -> UuidStrategy.TIME_ORDERED.generate())
+			.toList();
+
+		assertThat(ids).doesNotHaveDuplicates();
+	}
+}
@@ -37,9 +37,18 @@ class FeedbackChannelEmbeddableTest {
 		
 		assertThat(bean.getContactMethod()).isEqualTo(CONTACT_METHOD);
 		assertThat(bean.getDestination()).isEqualTo(DESTINATION);
+		assertThat(bean).hasFieldOrPropertyWithValue("normalizedDestination", DESTINATION);
 		assertThat(bean.isSendFeedback()).isEqualTo(SEND_FEEDBACK);
 	}
 
+	@Test
+	void testNormalizedDestination() {
+		assertThat(FeedbackChannelEmbeddable.create().withDestination(" Some.Body@Host.ORG ")).hasFieldOrPropertyWithValue("normalizedDestination", "some.body@host.org");
+		assertThat(FeedbackChannelEmbeddable.create().withDestination("070 123 45 67")).hasFieldOrPropertyWithValue("normalizedDestination", "0701234567");
+		assertThat(FeedbackChannelEmbeddable.create().withDestination("\tSome.Body@Host.ORG\r\n")).hasFieldOrPropertyWithValue("normalizedDestination", "some.body@host.org");
+		assertThat(FeedbackChannelEmbeddable.normalizeDestination(null)).isNull();
+	}
+
 	@Test
 	void testNullValues() {
 		assertThat(FeedbackChannelEmbeddable.create().withContactMethod(null).getContactMethod()).isNull();
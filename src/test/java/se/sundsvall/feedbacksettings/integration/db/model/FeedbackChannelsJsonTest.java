@@ -0,0 +1,44 @@
+package se.sundsvall.feedbacksettings.integration.db.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static se.sundsvall.feedbacksettings.integration.db.model.FeedbackChannelsJson.fromJson;
+import static se.sundsvall.feedbacksettings.integration.db.model.FeedbackChannelsJson.toJson;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import se.sundsvall.feedbacksettings.ContactMethod;
+
+class FeedbackChannelsJsonTest {
+
+	private static final List<FeedbackChannelEmbeddable> CHANNELS = List.of(
+		FeedbackChannelEmbeddable.create().withContactMethod(ContactMethod.SMS).withDestination("0701234567").withSendFeedback(true),
+		FeedbackChannelEmbeddable.create().withContactMethod(ContactMethod.EMAIL).withDestination("first.last@company.com").withSendFeedback(false));
+	private static final String JSON = "[{\"contactMethod\":\"SMS\",\"destination\":\"0701234567\",\"sendFeedback\":true},"
+		+ "{\"contactMethod\":\"EMAIL\",\"destination\":\"first.last@company.com\",\"sendFeedback\":false}]";
+
+	@Test
+	void toJsonAndBack() {
+		assertThat(toJson(CHANNELS)).isEqualTo(JSON);
+		assertThat(fromJson(JSON)).isEqualTo(CHANNELS);
+	}
+
+	@Test
+	void toJsonAndBackForEmptyChannels() {
+		assertThat(toJson(List.of())).isEqualTo("[]");
+		assertThat(fromJson("[]")).isEmpty();
+	}
+
+	@Test
+	void toJsonAndBackForNull() {
+		assertThat(toJson(null)).isNull();
+		assertThat(fromJson(null)).isEmpty();
+	}
+
+	@Test
+	void fromInvalidJson() {
+		assertThatIllegalStateException().isThrownBy(() -> fromJson("{"));
+	}
+}
@@ -5,49 +5,65 @@ import static org.assertj.core.api.Assertions.within;
 
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
+import se.sundsvall.feedbacksettings.ContactMethod;
+
 class FeedbackSettingsEntityTest {
 
 	private static final String ID = "id";
+	private static final String TENANT_ID = "tenantId";
 	private static final String PERSON_ID = "personId";
 	private static final String ORGANIZATION_ID = "organizationId";
 	private static final List<FeedbackChannelEmbeddable> FEEDBACK_CHANNELS = List.of(FeedbackChannelEmbeddable.create());
 	private static final OffsetDateTime CREATED = OffsetDateTime.now().minusDays(5);
 	private static final OffsetDateTime MODIFIED = OffsetDateTime.now();
+	private static final Long VERSION = 1L;
+	private static final String CHANNELS_JSON = "[]";
 	
 	@Test
 	void testSettersAndGetters() {
 		FeedbackSettingsEntity entity = FeedbackSettingsEntity.create();
 		
 		assertThat(entity.getId()).isNull();
+		assertThat(entity.getTenantId()).isNull();
 		assertThat(entity.getPersonId()).isNull();
 		assertThat(entity.getOrganizationId()).isNull();
 		assertThat(entity.getFeedbackChannels()).isNull();
+		assertThat(entity.getChannelsJson()).isNull();
 		assertThat(entity.getCreated()).isNull();
 		assertThat(entity.getModified()).isNull();
+		assertThat(entity.getVersion()).isNull();
 
 		entity.setId(ID);
+		entity.setTenantId(TENANT_ID);
 		entity.setOrganizationId(ORGANIZATION_ID);
 		entity.setPersonId(PERSON_ID);
 		entity.setFeedbackChannels(FEEDBACK_CHANNELS);
+		entity.setChannelsJson(CHANNELS_JSON);
 		entity.setCreated(CREATED);
 		entity.setModified(MODIFIED);
+		entity.setVersion(VERSION);
 		
 		assertThat(entity.getId()).isEqualTo(ID);
+		assertThat(entity.getTenantId()).isEqualTo(TENANT_ID);
 		assertThat(entity.getPersonId()).isEqualTo(PERSON_ID);
 		assertThat(entity.getOrganizationId()).isEqualTo(ORGANIZATION_ID);
 		assertThat(entity.getFeedbackChannels()).isEqualTo(FEEDBACK_CHANNELS);
+		assertThat(entity.getChannelsJson()).isEqualTo(CHANNELS_JSON);
 		assertThat(entity.getCreated()).isEqualTo(CREATED);
 		assertThat(entity.getModified()).isEqualTo(MODIFIED);
+		assertThat(entity.getVersion()).isEqualTo(VERSION);
 	}
 	
 	@Test
 	void testEquals() {
 		FeedbackSettingsEntity entityOne = FeedbackSettingsEntity.create()
 				.withId(ID)
+				.withTenantId(TENANT_ID)
 				.withPersonId(PERSON_ID)
 				.withOrganizationId(ORGANIZATION_ID)
 				.withFeedbackChannels(FEEDBACK_CHANNELS)
@@ -56,6 +72,7 @@ class FeedbackSettingsEntityTest {
 		
 		FeedbackSettingsEntity entityWithSameValuesAsOne = FeedbackSettingsEntity.create()
 				.withId(ID)
+				.withTenantId(TENANT_ID)
 				.withPersonId(PERSON_ID)
 				.withOrganizationId(ORGANIZATION_ID)
 				.withFeedbackChannels(FEEDBACK_CHANNELS)
@@ -64,6 +81,7 @@ class FeedbackSettingsEntityTest {
 
 		FeedbackSettingsEntity entityTwo = FeedbackSettingsEntity.create()
 				.withId(ID)
+				.withTenantId(TENANT_ID)
 				.withPersonId(PERSON_ID)
 				.withOrganizationId(ORGANIZATION_ID)
 				.withFeedbackChannels(FEEDBACK_CHANNELS)
@@ -82,6 +100,7 @@ class FeedbackSettingsEntityTest {
 	void testHashCode() {
 		FeedbackSettingsEntity entityOne = FeedbackSettingsEntity.create()
 				.withId(ID)
+				.withTenantId(TENANT_ID)
 				.withPersonId(PERSON_ID)
 				.withOrganizationId(ORGANIZATION_ID)
 				.withFeedbackChannels(FEEDBACK_CHANNELS)
@@ -90,6 +109,7 @@ class FeedbackSettingsEntityTest {
 		
 		FeedbackSettingsEntity entityWithSameValuesAsOne = FeedbackSettingsEntity.create()
 				.withId(ID)
+				.withTenantId(TENANT_ID)
 				.withPersonId(PERSON_ID)
 				.withOrganizationId(ORGANIZATION_ID)
 				.withFeedbackChannels(FEEDBACK_CHANNELS)
@@ -98,6 +118,7 @@ class FeedbackSettingsEntityTest {
 
 		FeedbackSettingsEntity entityTwo = FeedbackSettingsEntity.create()
 				.withId(ID)
+				.withTenantId(TENANT_ID)
 				.withPersonId(PERSON_ID)
 				.withOrganizationId(ORGANIZATION_ID)
 				.withFeedbackChannels(FEEDBACK_CHANNELS)
@@ -116,6 +137,7 @@ class FeedbackSettingsEntityTest {
 	void testToString() {
 		FeedbackSettingsEntity entityOne = FeedbackSettingsEntity.create()
 				.withId(ID)
+				.withTenantId(TENANT_ID)
 				.withPersonId(PERSON_ID)
 				.withOrganizationId(ORGANIZATION_ID)
 				.withFeedbackChannels(FEEDBACK_CHANNELS)
@@ -124,6 +146,7 @@ class FeedbackSettingsEntityTest {
 		
 		FeedbackSettingsEntity entityWithSameValuesAsOne = FeedbackSettingsEntity.create()
 				.withId(ID)
+				.withTenantId(TENANT_ID)
 				.withPersonId(PERSON_ID)
 				.withOrganizationId(ORGANIZATION_ID)
 				.withFeedbackChannels(FEEDBACK_CHANNELS)
@@ -132,6 +155,7 @@ class FeedbackSettingsEntityTest {
 
 		FeedbackSettingsEntity entityTwo = FeedbackSettingsEntity.create()
 				.withId(ID)
+				.withTenantId(TENANT_ID)
 				.withPersonId(PERSON_ID)
 				.withOrganizationId(ORGANIZATION_ID)
 				.withFeedbackChannels(FEEDBACK_CHANNELS)
@@ -150,16 +174,20 @@ class FeedbackSettingsEntityTest {
 	void testCreatePattern() {
 		FeedbackSettingsEntity entity = FeedbackSettingsEntity.create()
 				.withId(ID)
+				.withTenantId(TENANT_ID)
 				.withPersonId(PERSON_ID)
 				.withOrganizationId(ORGANIZATION_ID)
 				.withFeedbackChannels(FEEDBACK_CHANNELS)
+				.withChannelsJson(CHANNELS_JSON)
 				.withCreated(OffsetDateTime.now())
 				.withModified(OffsetDateTime.now());
 
 		assertThat(entity.getId()).isEqualTo(ID);
+		assertThat(entity.getTenantId()).isEqualTo(TENANT_ID);
 		assertThat(entity.getPersonId()).isEqualTo(PERSON_ID);
 		assertThat(entity.getOrganizationId()).isEqualTo(ORGANIZATION_ID);
 		assertThat(entity.getFeedbackChannels()).isEqualTo(FEEDBACK_CHANNELS);
+		assertThat(entity.getChannelsJson()).isEqualTo(CHANNELS_JSON);
 		assertThat(entity.getCreated()).isCloseTo(OffsetDateTime.now(), within(1, ChronoUnit.SECONDS));
 		assertThat(entity.getModified()).isCloseTo(OffsetDateTime.now(), within(1, ChronoUnit.SECONDS));
 	}
@@ -182,6 +210,20 @@ class FeedbackSettingsEntityTest {
 		assertThat(entity.getModified()).isCloseTo(OffsetDateTime.now(), within(2, ChronoUnit.SECONDS));
 	}
 
+	@Test
+	void testPrePersistAndPreUpdateWriteChannelsJson() {
+		FeedbackSettingsEntity entity = FeedbackSettingsEntity.create()
+				.withFeedbackChannels(new ArrayList<>(List.of(FeedbackChannelEmbeddable.create().withContactMethod(ContactMethod.SMS).withDestination("0701234567").withSendFeedback(true))));
+		entity.prePersist();
+
+		assertThat(entity.getChannelsJson()).isEqualTo("[{\"contactMethod\":\"SMS\",\"destination\":\"0701234567\",\"sendFeedback\":true}]");
+
+		entity.getFeedbackChannels().clear();
+		entity.preUpdate();
+
+		assertThat(entity.getChannelsJson()).isEqualTo("[]");
+	}
+
 	@Test
 	void testNoDirtOnCreatedBean() {
 		assertThat(new FeedbackSettingsEntity()).hasAllNullFieldsOrProperties();
@@ -0,0 +1,84 @@
+package se.sundsvall.feedbacksettings.integration.db.model;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static com.google.code.beanmatchers.BeanMatchers.registerValueGenerator;
+import static java.time.OffsetDateTime.now;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class IdempotencyKeyEntityTest {
+
+	private static final String IDEMPOTENCY_KEY = "idempotencyKey";
+	private static final String REQUEST_HASH = "requestHash";
+	private static final Integer STATUS = 201;
+	private static final String LOCATION = "location";
+	private static final String ENTITY_TAG = "\"0\"";
+	private static final String BODY = "{}";
+	private static final OffsetDateTime CREATED = OffsetDateTime.now().minusDays(1);
+	private static final OffsetDateTime EXPIRES = OffsetDateTime.now();
+
+	@BeforeAll
+	static void setup() {
+		registerValueGenerator(() -> now().plusDays(new Random().nextInt()), OffsetDateTime.class);
+	}
+
+	@Test
+	void testBean() {
+		assertThat(IdempotencyKeyEntity.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void testCreatePattern() {
+		IdempotencyKeyEntity entity = IdempotencyKeyEntity.create()
+				.withIdempotencyKey(IDEMPOTENCY_KEY)
+				.withRequestHash(REQUEST_HASH)
+				.withStatus(STATUS)
+				.withLocation(LOCATION)
+				.withEntityTag(ENTITY_TAG)
+				.withBody(BODY)
+				.withCreated(CREATED)
+				.withExpires(EXPIRES);
+
+		assertThat(entity.getIdempotencyKey()).isEqualTo(IDEMPOTENCY_KEY);
+		assertThat(entity.getRequestHash()).isEqualTo(REQUEST_HASH);
+		assertThat(entity.getStatus()).isEqualTo(STATUS);
+		assertThat(entity.getLocation()).isEqualTo(LOCATION);
+		assertThat(entity.getEntityTag()).isEqualTo(ENTITY_TAG);
+		assertThat(entity.getBody()).isEqualTo(BODY);
+		assertThat(entity.getCreated()).isEqualTo(CREATED);
+		assertThat(entity.getExpires()).isEqualTo(EXPIRES);
+	}
+
+	@Test
+	void testPrePersist() {
+		IdempotencyKeyEntity entity = IdempotencyKeyEntity.create();
+		entity.prePersist();
+
+		assertThat(entity).hasAllNullFieldsOrPropertiesExcept("created");
+		assertThat(entity.getCreated()).isCloseTo(OffsetDateTime.now(), within(2, ChronoUnit.SECONDS));
+	}
+
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(new IdempotencyKeyEntity()).hasAllNullFieldsOrProperties();
+		assertThat(IdempotencyKeyEntity.create()).hasAllNullFieldsOrProperties();
+	}
+}
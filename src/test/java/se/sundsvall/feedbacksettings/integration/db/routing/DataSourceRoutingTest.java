@@ -0,0 +1,62 @@
+package se.sundsvall.feedbacksettings.integration.db.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DataSourceRoutingTest {
+
+	private static final String ID = "81471222-5798-11e9-ae24-57fa13b361e1";
+
+	private DataSourceRouting dataSourceRouting;
+
+	@BeforeEach
+	void setup() {
+		final var recentWrites = new RecentWrites();
+		recentWrites.readYourWritesWindow = Duration.ofMinutes(1);
+		recentWrites.init();
+
+		dataSourceRouting = new DataSourceRouting();
+		dataSourceRouting.recentWrites = recentWrites;
+		dataSourceRouting.replicaJdbcUrl = Optional.of("jdbc:mariadb://replica/dbfeedbacksettings");
+	}
+
+	@Test
+	void readFromReplica() {
+		dataSourceRouting.readFromReplicaUnlessRecentlyWritten(ID);
+
+		assertThat(dataSourceRouting.isReadFromReplica()).isTrue();
+	}
+
+	@Test
+	void readFromReplicaWhenRecentlyWrittenInOtherCase() {
+		dataSourceRouting.recentWrites.register(ID);
+
+		dataSourceRouting.readFromReplicaUnlessRecentlyWritten(ID.toUpperCase());
+
+		assertThat(dataSourceRouting.isReadFromReplica()).isFalse();
+	}
+
+	@Test
+	void readFromReplicaWhenNoReplicaConfigured() {
+		dataSourceRouting.replicaJdbcUrl = Optional.empty();
+
+		dataSourceRouting.readFromReplicaUnlessRecentlyWritten(ID);
+
+		assertThat(dataSourceRouting.isReadFromReplica()).isFalse();
+	}
+
+	@Test
+	void getShardOfIdLocatesOncePerRequest() {
+		final var locations = new AtomicInteger();
+
+		assertThat(dataSourceRouting.getShardOfId(ID, id -> "shard-" + locations.incrementAndGet())).isEqualTo("shard-1");
+		assertThat(dataSourceRouting.getShardOfId(ID, id -> "shard-" + locations.incrementAndGet())).isEqualTo("shard-1");
+		assertThat(locations).hasValue(1);
+	}
+}
@@ -0,0 +1,65 @@
+package se.sundsvall.feedbacksettings.integration.db.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static se.sundsvall.feedbacksettings.integration.db.routing.DataSourceTenantResolver.PRIMARY;
+import static se.sundsvall.feedbacksettings.integration.db.routing.DataSourceTenantResolver.REPLICA;
+
+import javax.transaction.Status;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DataSourceTenantResolverTest {
+
+	@Mock
+	private DataSourceRouting routingMock;
+
+	@Mock
+	private TransactionSynchronizationRegistry registryMock;
+
+	@InjectMocks
+	private DataSourceTenantResolver resolver;
+
+	@Test
+	void getDefaultTenantId() {
+		assertThat(resolver.getDefaultTenantId()).isEqualTo(PRIMARY);
+	}
+
+	@Test
+	void resolveReplicaForReadOutsideTransaction() {
+		when(routingMock.getShard()).thenReturn(PRIMARY);
+		when(registryMock.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+		when(routingMock.isReadFromReplica()).thenReturn(true);
+
+		assertThat(resolver.resolveTenantId()).isEqualTo(REPLICA);
+	}
+
+	@Test
+	void resolvePrimaryWhenNotRoutedToReplica() {
+		when(routingMock.getShard()).thenReturn(PRIMARY);
+		when(registryMock.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+
+		assertThat(resolver.resolveTenantId()).isEqualTo(PRIMARY);
+	}
+
+	@Test
+	void resolvePrimaryWithinTransaction() {
+		when(routingMock.getShard()).thenReturn(PRIMARY);
+		when(registryMock.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+
+		assertThat(resolver.resolveTenantId()).isEqualTo(PRIMARY);
+	}
+
+	@Test
+	void resolveShardEvenWhenRoutedToReplica() {
+		when(routingMock.getShard()).thenReturn("shard-1");
+
+		assertThat(resolver.resolveTenantId()).isEqualTo("shard-1");
+	}
+}
@@ -0,0 +1,51 @@
+package se.sundsvall.feedbacksettings.integration.db.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RecentWritesTest {
+
+	private static final String ID = "id";
+	private static final String PERSON_ID = "personId";
+
+	private RecentWrites recentWrites;
+
+	@BeforeEach
+	void setup() {
+		recentWrites = new RecentWrites();
+		recentWrites.readYourWritesWindow = Duration.ofMinutes(1);
+		recentWrites.init();
+	}
+
+	@Test
+	void registerAndContainsAny() {
+		recentWrites.register(ID, PERSON_ID, null);
+
+		assertThat(recentWrites.containsAny(ID)).isTrue();
+		assertThat(recentWrites.containsAny("other", PERSON_ID)).isTrue();
+		assertThat(recentWrites.containsAny("other", null)).isFalse();
+		assertThat(recentWrites.containsAny()).isFalse();
+	}
+
+	@Test
+	void containsAnyRegardlessOfCase() {
+		recentWrites.register("81471222-5798-11E9-AE24-57FA13B361E1");
+
+		assertThat(recentWrites.containsAny("81471222-5798-11e9-ae24-57fa13b361e1")).isTrue();
+		assertThat(recentWrites.containsAny("81471222-5798-11E9-AE24-57FA13B361E1")).isTrue();
+	}
+
+	@Test
+	void containsAnyAfterWindow() {
+		recentWrites.readYourWritesWindow = Duration.ZERO;
+		recentWrites.init();
+
+		recentWrites.register(ID);
+
+		assertThat(recentWrites.containsAny(ID)).isFalse();
+	}
+}
@@ -0,0 +1,236 @@
+package se.sundsvall.feedbacksettings.integration.db.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static se.sundsvall.feedbacksettings.integration.db.routing.DataSourceTenantResolver.PRIMARY;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import se.sundsvall.feedbacksettings.api.exception.ServiceRuntimeException;
+import se.sundsvall.feedbacksettings.integration.db.FeedbackSettingsRepository;
+import se.sundsvall.feedbacksettings.integration.db.id.ShardKey;
+import se.sundsvall.feedbacksettings.integration.db.id.UuidStrategy;
+
+@ExtendWith(MockitoExtension.class)
+class ShardRouterTest {
+
+	private static final int NUMBER_OF_KEYS = 10000;
+	private static final String TENANT_ID = "tenantId";
+	// Belongs to the first shard of one shard and to shard-1 of two shards
+	private static final String PERSON_ID = "49a974ea-9137-419b-bcb9-ad74c81a1d2f";
+
+	@Mock
+	private DataSourceRouting routingMock;
+
+	@Mock(answer = Answers.RETURNS_DEEP_STUBS)
+	private SessionFactory sessionFactoryMock;
+
+	@Mock
+	private FeedbackSettingsRepository repositoryMock;
+
+	@Mock
+	private Session primarySessionMock;
+
+	@Mock
+	private Session shard1SessionMock;
+
+	@InjectMocks
+	private ShardRouter router;
+
+	@Test
+	void getShards() {
+		assertThat(ShardRouter.getShards(3)).containsExactly(PRIMARY, "shard-1", "shard-2");
+	}
+
+	@Test
+	void shardOfIsStable() {
+		assertThat(ShardRouter.shardOf(PERSON_ID, 4)).isEqualTo(ShardRouter.shardOf(PERSON_ID, 4));
+		assertThat(ShardRouter.shardOf(PERSON_ID, 1)).isEqualTo(PRIMARY);
+		assertThat(ShardRouter.shardOf(PERSON_ID, 2)).isEqualTo("shard-1");
+	}
+
+	@Test
+	void jumpConsistentHashSpreadsKeysOverAllBuckets() {
+		final var counts = new int[4];
+		IntStream.range(0, NUMBER_OF_KEYS).forEach(i -> counts[ShardRouter.jumpConsistentHash(UUID.randomUUID().getLeastSignificantBits(), 4)]++);
+
+		assertThat(IntStream.of(counts)).allSatisfy(count -> assertThat(count).isBetween(NUMBER_OF_KEYS / 4 - 500, NUMBER_OF_KEYS / 4 + 500));
+	}
+
+	@Test
+	void jumpConsistentHashOnlyMovesKeysToAddedBuckets() {
+		IntStream.range(0, NUMBER_OF_KEYS).mapToLong(i -> UUID.randomUUID().getMostSignificantBits()).forEach(key -> {
+			final var before = ShardRouter.jumpConsistentHash(key, 4);
+			final var after = ShardRouter.jumpConsistentHash(key, 5);
+
+			assertThat(after).isIn(before, 4);
+		});
+	}
+
+	@Test
+	void routeToShardOfWhenNotSharded() {
+		router.shardCount = 1;
+		router.routeToShardOf(TENANT_ID, PERSON_ID);
+		router.routeToShardOfId(PERSON_ID);
+
+		verifyNoInteractions(routingMock, repositoryMock);
+	}
+
+	@Test
+	void routeToShardOfWhenSharded() {
+		router.shardCount = 4;
+		router.routeToShardOf(TENANT_ID, PERSON_ID);
+
+		verify(routingMock).routeToShard(ShardRouter.shardOf(PERSON_ID, 4));
+		verifyNoInteractions(repositoryMock);
+	}
+
+	@Test
+	void routeToShardOfIdDerivesShardFromId() {
+		final var id = ShardKey.withShardKeyOf(UuidStrategy.TIME_ORDERED.generate(), PERSON_ID);
+		router.shardCount = 4;
+		mockShardOfId(id);
+
+		router.routeToShardOfId(id);
+
+		verify(routingMock).routeToShard(ShardRouter.shardOf(PERSON_ID, 4));
+		verifyNoInteractions(repositoryMock);
+	}
+
+	@Test
+	void routeToShardOfIdLooksUpIdsWithoutShardKey() {
+		final var id = UuidStrategy.RANDOM.generate();
+		router.shardCount = 2;
+		initFanOut();
+		mockShardOfId(id);
+		mockSessions();
+		when(repositoryMock.existsById(primarySessionMock, id)).thenReturn(false);
+		when(repositoryMock.existsById(shard1SessionMock, id)).thenReturn(true);
+
+		router.routeToShardOfId(id);
+		router.shutdown();
+
+		verify(routingMock).routeToShard("shard-1");
+	}
+
+	@Test
+	void shardOfWhileMigratingPrefersShardOfShardCount() {
+		router.shardCount = 2;
+		router.migrationShardCount = 1;
+		initFanOut();
+		mockSessions();
+		when(repositoryMock.existsByPersonId(primarySessionMock, TENANT_ID, PERSON_ID)).thenReturn(true);
+		when(repositoryMock.existsByPersonId(shard1SessionMock, TENANT_ID, PERSON_ID)).thenReturn(true);
+
+		assertThat(router.shardOf(TENANT_ID, PERSON_ID)).isEqualTo("shard-1");
+		router.shutdown();
+	}
+
+	@Test
+	void shardOfWhileMigratingFindsSettingsNotYetMoved() {
+		router.shardCount = 2;
+		router.migrationShardCount = 1;
+		initFanOut();
+		mockSessions();
+		when(repositoryMock.existsByPersonId(primarySessionMock, TENANT_ID, PERSON_ID)).thenReturn(true);
+		when(repositoryMock.existsByPersonId(shard1SessionMock, TENANT_ID, PERSON_ID)).thenReturn(false);
+
+		assertThat(router.shardOf(TENANT_ID, PERSON_ID)).isEqualTo(PRIMARY);
+		router.shutdown();
+	}
+
+	@Test
+	void shardOfWhileMigratingCreatesInShardOfShardCount() {
+		router.shardCount = 2;
+		router.migrationShardCount = 1;
+		initFanOut();
+		mockSessions();
+
+		assertThat(router.shardOf(TENANT_ID, PERSON_ID)).isEqualTo("shard-1");
+		router.shutdown();
+	}
+
+	@Test
+	void getShardsWhileMigrating() {
+		router.shardCount = 2;
+		router.migrationShardCount = 3;
+
+		assertThat(router.isSharded()).isTrue();
+		assertThat(router.isMigrating()).isTrue();
+		assertThat(router.getShards()).containsExactly(PRIMARY, "shard-1", "shard-2");
+	}
+
+	@Test
+	void inTransactionRestoresRouting() {
+		when(routingMock.getShard()).thenReturn(PRIMARY);
+
+		assertThat(router.inTransaction("shard-1", () -> "result")).isEqualTo("result");
+
+		final var inOrder = inOrder(routingMock);
+		inOrder.verify(routingMock).routeToShard("shard-1");
+		inOrder.verify(routingMock).routeToShard(PRIMARY);
+	}
+
+	@Test
+	void fanOutWhenSaturated() throws InterruptedException {
+		router.fanOutMaxThreads = 1;
+		router.fanOutMaxQueued = 1;
+		router.init();
+		final var started = new CountDownLatch(1);
+		final var release = new CountDownLatch(1);
+
+		// The first shard occupies the only thread, the second shard the only queue slot and the third shard is rejected
+		final var exception = assertThrows(ServiceRuntimeException.class, () -> router.fanOutByShard(List.of(PRIMARY, "shard-1", "shard-2"), (shard, entityManager) -> {
+			started.countDown();
+			try {
+				return release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}));
+		release.countDown();
+		router.shutdown();
+
+		assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(exception.getTypedCause().getStatus()).isEqualTo(Status.SERVICE_UNAVAILABLE);
+		assertThat(exception.getMessage()).isEqualTo(ShardRouter.FAN_OUT_SATURATED);
+	}
+
+	private void initFanOut() {
+		router.fanOutMaxThreads = 2;
+		router.fanOutMaxQueued = 2;
+		router.init();
+	}
+
+	private void mockShardOfId(String id) {
+		when(routingMock.getShardOfId(eq(id), any())).thenAnswer(invocation -> invocation.<UnaryOperator<String>>getArgument(1).apply(id));
+	}
+
+	private void mockSessions() {
+		when(sessionFactoryMock.withOptions().tenantIdentifier(PRIMARY).openSession()).thenReturn(primarySessionMock);
+		when(sessionFactoryMock.withOptions().tenantIdentifier("shard-1").openSession()).thenReturn(shard1SessionMock);
+	}
+}
@@ -0,0 +1,76 @@
+package se.sundsvall.feedbacksettings.integration.db.type;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static se.sundsvall.feedbacksettings.integration.db.type.BinaryUuidStringType.toBytes;
+import static se.sundsvall.feedbacksettings.integration.db.type.BinaryUuidStringType.toUuidString;
+
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import org.hibernate.HibernateException;
+import org.junit.jupiter.api.Test;
+
+import se.sundsvall.feedbacksettings.integration.db.type.BinaryUuidStringType.BinaryUuidStringTypeDescriptor;
+
+class BinaryUuidStringTypeTest {
+
+	private static final String UUID_STRING = "9a24743c-5c19-4774-954e-a3ad67a734e1";
+	private static final byte[] UUID_BYTES = HexFormat.of().parseHex("9a24743c5c194774954ea3ad67a734e1");
+
+	@Test
+	void toBytesAndBack() {
+		assertThat(toBytes(UUID_STRING)).isEqualTo(UUID_BYTES);
+		assertThat(toUuidString(UUID_BYTES)).isEqualTo(UUID_STRING);
+		assertThat(toUuidString(toBytes(UUID_STRING.toUpperCase()))).isEqualTo(UUID_STRING);
+	}
+
+	@Test
+	void toBytesAndBackForNull() {
+		assertThat(toBytes(null)).isNull();
+		assertThat(toUuidString(null)).isNull();
+	}
+
+	@Test
+	void toBytesForInvalidUuid() {
+		assertThatIllegalArgumentException().isThrownBy(() -> toBytes("not-an-uuid"));
+	}
+
+	@Test
+	void binaryOrderMatchesStringOrder() {
+		final var first = UUID.randomUUID().toString();
+		final var second = UUID.randomUUID().toString();
+
+		assertThat(Integer.signum(Arrays.compareUnsigned(toBytes(first), toBytes(second)))).isEqualTo(Integer.signum(first.compareTo(second)));
+	}
+
+	@Test
+	void typeDescriptor() {
+		final var descriptor = BinaryUuidStringTypeDescriptor.INSTANCE;
+
+		assertThat(descriptor.unwrap(UUID_STRING, byte[].class, null)).isEqualTo(UUID_BYTES);
+		assertThat(descriptor.unwrap(UUID_STRING, String.class, null)).isEqualTo(UUID_STRING);
+		assertThat(descriptor.unwrap(null, byte[].class, null)).isNull();
+		assertThat(descriptor.wrap(UUID_BYTES, null)).isEqualTo(UUID_STRING);
+		assertThat(descriptor.wrap(UUID_STRING, null)).isEqualTo(UUID_STRING);
+		assertThat(descriptor.wrap(null, null)).isNull();
+		assertThat(descriptor.toString(UUID_STRING)).isEqualTo(UUID_STRING);
+		assertThat(descriptor.fromString(UUID_STRING)).isEqualTo(UUID_STRING);
+	}
+
+	@Test
+	void typeDescriptorForUnknownType() {
+		final var descriptor = BinaryUuidStringTypeDescriptor.INSTANCE;
+
+		assertThat(catchThrowable(() -> descriptor.unwrap(UUID_STRING, Long.class, null))).isInstanceOf(HibernateException.class);
+		assertThat(catchThrowable(() -> descriptor.wrap(1L, null))).isInstanceOf(HibernateException.class);
+	}
+
+	@Test
+	void type() {
+		assertThat(new BinaryUuidStringType().getName()).isEqualTo(BinaryUuidStringType.NAME);
+		assertThat(new BinaryUuidStringType().getReturnedClass()).isEqualTo(String.class);
+	}
+}
@@ -0,0 +1,37 @@
+package se.sundsvall.feedbacksettings.integration.db.type;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import se.sundsvall.feedbacksettings.ContactMethod;
+
+class ContactMethodConverterTest {
+
+	private final ContactMethodConverter converter = new ContactMethodConverter();
+
+	@Test
+	void convertToDatabaseColumn() {
+		assertThat(converter.convertToDatabaseColumn("SMS")).isEqualTo((byte) 1);
+		assertThat(converter.convertToDatabaseColumn("EMAIL")).isEqualTo((byte) 2);
+		assertThat(converter.convertToDatabaseColumn(null)).isNull();
+	}
+
+	@Test
+	void convertToEntityAttribute() {
+		assertThat(converter.convertToEntityAttribute((byte) 1)).isEqualTo("SMS");
+		assertThat(converter.convertToEntityAttribute((byte) 2)).isEqualTo("EMAIL");
+		assertThat(converter.convertToEntityAttribute(null)).isNull();
+		assertThatIllegalArgumentException().isThrownBy(() -> converter.convertToEntityAttribute((byte) 0))
+			.withMessage("Unknown contact method code: 0");
+	}
+
+	@ParameterizedTest
+	@EnumSource(ContactMethod.class)
+	void everyContactMethodHasCode(ContactMethod contactMethod) {
+		assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(contactMethod.name()))).isEqualTo(contactMethod.name());
+	}
+}
@@ -0,0 +1,300 @@
+package se.sundsvall.feedbacksettings.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.UserTransaction;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import se.sundsvall.feedbacksettings.ContactMethod;
+import se.sundsvall.feedbacksettings.api.exception.ServiceException;
+import se.sundsvall.feedbacksettings.api.model.BatchCreateRequest;
+import se.sundsvall.feedbacksettings.api.model.CreateFeedbackSettingsRequest;
+import se.sundsvall.feedbacksettings.api.model.RequestedFeedbackChannel;
+import se.sundsvall.feedbacksettings.api.model.SearchResult;
+import se.sundsvall.feedbacksettings.api.model.UpdateFeedbackSettingsRequest;
+import se.sundsvall.feedbacksettings.integration.db.FeedbackSettingsRepository;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackChannelEmbeddable;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsChannelRow;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsEntity;
+import se.sundsvall.feedbacksettings.integration.db.routing.DataSourceRouting;
+import se.sundsvall.feedbacksettings.service.cache.FeedbackSettingsCache;
+
+/**
+ * Tests verifying that the number of statements needed to read and create settings does not grow with the number of
+ * settings and that reads are served without loading managed entities. Tests run within a transaction that is rolled
+ * back, apart from searches that verify the statements of reads routed to the replica, which is only used outside of
+ * transactions.
+ *
+ * @see src/test/resources/db/testdata.sql for data setup.
+ */
+@QuarkusTest
+class FeedbackSettingsServiceStatementCountTest {
+
+	private static final int NUMBER_OF_ADDITIONAL_SETTINGS = 600;
+	private static final int NUMBER_OF_SETTINGS = NUMBER_OF_ADDITIONAL_SETTINGS + 5;
+	private static final int NUMBER_OF_CREATED_SETTINGS = 30;
+	private static final String TENANT_ID = "default";
+	private static final String PERSONAL_SETTINGS_ID = "9a24743c-5c19-4774-954e-a3ad67a734e3";
+	private static final String UPSERT_PERSON_ID = "49a974ea-9137-419b-bcb9-ad74c81a1d9f";
+	private static final String UPSERT_ORGANIZATION_ID = "15aee472-46ab-4f03-9605-68bd64ebc89a";
+
+	@Inject
+	FeedbackSettingsService feedbackSettingsService;
+
+	@Inject
+	FeedbackSettingsRepository feedbackSettingsRepository;
+
+	@Inject
+	FeedbackSettingsCache feedbackSettingsCache;
+
+	@Inject
+	EntityManager entityManager;
+
+	@Inject
+	SessionFactory sessionFactory;
+
+	@Inject
+	UserTransaction userTransaction;
+
+	@Inject
+	DataSourceRouting dataSourceRouting;
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 20, 500 })
+	@TestTransaction
+	void searchStatementCountIsConstant(int limit) {
+		final var statistics = clearedStatisticsAfterAddingSettings();
+
+		SearchResult result = feedbackSettingsService.getFeedbackSettings(null, null, 1, limit, true);
+
+		// One count, one select for settings and one select for the feedback channels of all settings on the page
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+		// Settings are projected straight into the response model, no managed entities are created
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(statistics.getCollectionLoadCount()).isZero();
+		assertThat(result.getFeedbackSettings()).hasSize(Math.min(limit, NUMBER_OF_SETTINGS));
+		assertThat(result.getFeedbackSettings()).allSatisfy(settings -> assertThat(settings.getChannels()).isNotEmpty());
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 20, 500 })
+	@TestTransaction
+	void searchWithoutTotalsStatementCountIsConstant(int limit) {
+		final var statistics = clearedStatisticsAfterAddingSettings();
+
+		SearchResult result = feedbackSettingsService.getFeedbackSettings(null, null, 1, limit, false);
+
+		// One select for settings and one select for the feedback channels of all settings on the page
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(result.getFeedbackSettings()).hasSize(Math.min(limit, NUMBER_OF_SETTINGS));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 500 })
+	void searchFromReplicaStatementCountIsConstant(int limit) throws Exception {
+		userTransaction.begin();
+		addSettings();
+		userTransaction.commit();
+
+		try {
+			final var statistics = clearedStatistics();
+
+			SearchResult result = feedbackSettingsService.getFeedbackSettings(null, null, 1, limit, true);
+
+			// Outside of a transaction the search is read from the replica, with the same statements as from the primary
+			assertThat(dataSourceRouting.isReadFromReplica()).isTrue();
+			assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+			assertThat(statistics.getEntityLoadCount()).isZero();
+			assertThat(result.getFeedbackSettings()).hasSize(Math.min(limit, NUMBER_OF_SETTINGS));
+			assertThat(result.getMetaData().getTotalRecords()).isGreaterThanOrEqualTo(NUMBER_OF_SETTINGS);
+		} finally {
+			userTransaction.begin();
+			feedbackSettingsRepository.list("tenantId = ?1 and personId in ?2", TENANT_ID, additionalPersonIds()).forEach(feedbackSettingsRepository::delete);
+			userTransaction.commit();
+		}
+	}
+
+	@Test
+	@TestTransaction
+	void getByIdStatementCount() throws ServiceException {
+		final var statistics = clearedStatisticsAfterAddingSettings();
+		feedbackSettingsCache.invalidateAll();
+
+		final var settings = feedbackSettingsService.getFeedbackSettingsById("9a24743c-5c19-4774-954e-a3ad67a734e3");
+
+		// Settings and feedback channels are read in the same statement
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(settings.getChannels()).hasSize(3);
+	}
+
+	@Test
+	@TestTransaction
+	void getVersionByIdStatementCount() throws ServiceException {
+		final var statistics = clearedStatistics();
+		feedbackSettingsCache.invalidateAll();
+
+		final var settings = feedbackSettingsService.getFeedbackSettingsVersionById(PERSONAL_SETTINGS_ID);
+
+		// Settings are read without joining their feedback channels
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(statistics.getCollectionLoadCount()).isZero();
+		assertThat(settings.getVersion()).isNotNull();
+	}
+
+	@Test
+	@TestTransaction
+	void batchCreateStatementCount() {
+		final var statistics = clearedStatisticsAfterAddingSettings();
+
+		final var result = feedbackSettingsService.createFeedbackSettings(BatchCreateRequest.create()
+			.withFeedbackSettings(IntStream.range(0, NUMBER_OF_CREATED_SETTINGS)
+				.mapToObj(i -> CreateFeedbackSettingsRequest.create()
+					.withPersonId(String.format("b0000000-0000-0000-0000-%012d", i))
+					.withChannels(List.of(RequestedFeedbackChannel.create().withContactMethod(ContactMethod.SMS).withDestination("07061000" + i).withSendFeedback(true))))
+				.toList()));
+
+		// One select for existing settings, then one batched insert into each table as all settings fit in one chunk
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(NUMBER_OF_CREATED_SETTINGS);
+		assertThat(result.getCreated()).isEqualTo(NUMBER_OF_CREATED_SETTINGS);
+	}
+
+	@Test
+	@TestTransaction
+	void upsertOfRepresentativeSettingsStatementCount() {
+		final var existing = FeedbackSettingsEntity.create()
+			.withTenantId(TENANT_ID)
+			.withPersonId(UPSERT_PERSON_ID)
+			.withOrganizationId(UPSERT_ORGANIZATION_ID)
+			.withFeedbackChannels(List.of(
+				channelEmbeddable(ContactMethod.SMS, "0706100099"),
+				channelEmbeddable(ContactMethod.SMS, "0736100099"),
+				channelEmbeddable(ContactMethod.EMAIL, "upsert.person@company.com")));
+		feedbackSettingsRepository.persist(existing);
+		entityManager.flush();
+		entityManager.clear();
+		final var statistics = clearedStatistics();
+
+		final var result = feedbackSettingsService.upsertFeedbackSettings(UPSERT_PERSON_ID, UPSERT_ORGANIZATION_ID,
+			UpdateFeedbackSettingsRequest.create().withChannels(List.of(channel(ContactMethod.SMS, "0706100099", true))));
+		final var settings = result.feedbackSettings();
+		entityManager.flush();
+
+		// One upsert of the settings row and one select of settings and channels. Changed channels are then written as an
+		// update of the modification timestamp and a batched delete of the removed channels, the kept channel is untouched.
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+		assertThat(result.created()).isFalse();
+		assertThat(settings.getId()).isEqualTo(existing.getId());
+		assertThat(settings.getChannels()).hasSize(1);
+		// The version is incremented once, by the flush of the changed settings
+		assertThat(settings.getVersion()).isEqualTo(existing.getVersion() + 1);
+	}
+
+	@Test
+	@TestTransaction
+	void updateWithAddedChannelStatementCount() throws ServiceException {
+		final var statistics = clearedStatistics();
+
+		feedbackSettingsService.updateFeedbackSettings(PERSONAL_SETTINGS_ID, null, UpdateFeedbackSettingsRequest.create().withChannels(List.of(
+			channel(ContactMethod.SMS, "0706100003", true),
+			channel(ContactMethod.SMS, "0736100003", true),
+			channel(ContactMethod.EMAIL, "person.3@company.com", true),
+			channel(ContactMethod.EMAIL, "person.3@private.com", true))));
+
+		// One select of settings and channels, one update of the modification timestamp and one insert of the added channel
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+		assertThat(feedbackSettingsRepository.findRowsById(TENANT_ID, PERSONAL_SETTINGS_ID)).hasSize(4);
+	}
+
+	@Test
+	@TestTransaction
+	void updateWithRemovedChannelStatementCount() throws ServiceException {
+		final var statistics = clearedStatistics();
+
+		feedbackSettingsService.updateFeedbackSettings(PERSONAL_SETTINGS_ID, null, UpdateFeedbackSettingsRequest.create().withChannels(List.of(
+			channel(ContactMethod.SMS, "0706100003", true),
+			channel(ContactMethod.EMAIL, "person.3@company.com", true))));
+
+		// One select of settings and channels, one update of the modification timestamp and one delete of the removed channel
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+		assertThat(feedbackSettingsRepository.findRowsById(TENANT_ID, PERSONAL_SETTINGS_ID))
+			.extracting(FeedbackSettingsChannelRow::destination)
+			.containsExactlyInAnyOrder("0706100003", "person.3@company.com");
+	}
+
+	@Test
+	@TestTransaction
+	void updateWithToggledSendFeedbackStatementCount() throws ServiceException {
+		final var statistics = clearedStatistics();
+
+		feedbackSettingsService.updateFeedbackSettings(PERSONAL_SETTINGS_ID, null, UpdateFeedbackSettingsRequest.create().withChannels(List.of(
+			channel(ContactMethod.SMS, "0706100003", true),
+			channel(ContactMethod.SMS, "0736100003", false),
+			channel(ContactMethod.EMAIL, "person.3@company.com", true))));
+
+		// One select of settings and channels, one update of the modification timestamp and one update of the toggled channel
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+		assertThat(feedbackSettingsRepository.findRowsById(TENANT_ID, PERSONAL_SETTINGS_ID))
+			.extracting(FeedbackSettingsChannelRow::destination, FeedbackSettingsChannelRow::sendFeedback)
+			.containsExactlyInAnyOrder(
+				tuple("0706100003", true),
+				tuple("0736100003", false),
+				tuple("person.3@company.com", true));
+	}
+
+	private Statistics clearedStatistics() {
+		final var statistics = sessionFactory.getStatistics();
+		statistics.clear();
+		return statistics;
+	}
+
+	private static RequestedFeedbackChannel channel(ContactMethod contactMethod, String destination, boolean sendFeedback) {
+		return RequestedFeedbackChannel.create().withContactMethod(contactMethod).withDestination(destination).withSendFeedback(sendFeedback);
+	}
+
+	private static FeedbackChannelEmbeddable channelEmbeddable(ContactMethod contactMethod, String destination) {
+		return FeedbackChannelEmbeddable.create().withContactMethod(contactMethod).withDestination(destination).withSendFeedback(true);
+	}
+
+	private Statistics clearedStatisticsAfterAddingSettings() {
+		addSettings();
+		entityManager.flush();
+		entityManager.clear();
+
+		return clearedStatistics();
+	}
+
+	private void addSettings() {
+		final var personIds = additionalPersonIds();
+		IntStream.range(0, NUMBER_OF_ADDITIONAL_SETTINGS)
+			.mapToObj(i -> FeedbackSettingsEntity.create()
+				.withTenantId(TENANT_ID)
+				.withPersonId(personIds.get(i))
+				.withFeedbackChannels(List.of(
+					FeedbackChannelEmbeddable.create().withContactMethod(ContactMethod.SMS).withDestination("07061000" + i).withSendFeedback(true),
+					FeedbackChannelEmbeddable.create().withContactMethod(ContactMethod.EMAIL).withDestination("person" + i + "@company.com").withSendFeedback(true))))
+			.forEach(feedbackSettingsRepository::persist);
+	}
+
+	private static List<String> additionalPersonIds() {
+		return IntStream.range(0, NUMBER_OF_ADDITIONAL_SETTINGS)
+			.mapToObj(i -> String.format("a0000000-0000-0000-0000-%012d", i))
+			.toList();
+	}
+}
@@ -1,45 +1,88 @@
 package se.sundsvall.feedbacksettings.service;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.groups.Tuple.tuple;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.AdditionalAnswers.returnsLastArg;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static se.sundsvall.feedbacksettings.service.mapper.FeedbackSettingsMapper.toFeedbackSettings;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
+import javax.persistence.OptimisticLockException;
+import javax.ws.rs.core.Response.Status;
+
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
-import io.quarkus.panache.common.Page;
 import se.sundsvall.feedbacksettings.ContactMethod;
 import se.sundsvall.feedbacksettings.api.exception.ServiceException;
+import se.sundsvall.feedbacksettings.api.model.BatchCreateRequest;
+import se.sundsvall.feedbacksettings.api.model.BatchCreateResult;
+import se.sundsvall.feedbacksettings.api.model.BatchItemResult;
 import se.sundsvall.feedbacksettings.api.model.CreateFeedbackSettingsRequest;
 import se.sundsvall.feedbacksettings.api.model.FeedbackChannel;
 import se.sundsvall.feedbacksettings.api.model.FeedbackSettings;
+import se.sundsvall.feedbacksettings.api.model.FeedbackSettingsOwner;
+import se.sundsvall.feedbacksettings.api.model.LookupRequest;
+import se.sundsvall.feedbacksettings.api.model.LookupResult;
+import se.sundsvall.feedbacksettings.api.model.OwnerMatch;
 import se.sundsvall.feedbacksettings.api.model.RequestedFeedbackChannel;
 import se.sundsvall.feedbacksettings.api.model.SearchResult;
 import se.sundsvall.feedbacksettings.api.model.UpdateFeedbackSettingsRequest;
 import se.sundsvall.feedbacksettings.integration.db.FeedbackSettingsRepository;
 import se.sundsvall.feedbacksettings.integration.db.model.FeedbackChannelEmbeddable;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsChannelRow;
 import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsEntity;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsJsonRow;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsRow;
+import se.sundsvall.feedbacksettings.integration.db.routing.DataSourceRouting;
+import se.sundsvall.feedbacksettings.integration.db.routing.RecentWrites;
+import se.sundsvall.feedbacksettings.integration.db.routing.ShardRouter;
+import se.sundsvall.feedbacksettings.service.cache.FeedbackSettingsCache;
+import se.sundsvall.feedbacksettings.service.tenant.TenantContext;
 
 @ExtendWith(MockitoExtension.class)
 class FeedbackSettingsServiceTest {
 
 	private static final String FEEDBACK_SETTINGS_ID = "settingsId";
+	private static final String OTHER_FEEDBACK_SETTINGS_ID = "otherSettingsId";
 	private static final String MOBILE_NBR = "mobileNbr";
 	private static final String EMAIL_ADDRESS = "emailAddress";
 	private static final String PERSON_ID = "personId";
@@ -47,6 +90,15 @@ class FeedbackSettingsServiceTest {
 	private static final boolean SEND_FEEDBACK = true;
 	private static final OffsetDateTime CREATED = OffsetDateTime.now().minusDays(1);
 	private static final OffsetDateTime MODIFIED = OffsetDateTime.now();
+	private static final Long VERSION = 1L;
+	private static final String TENANT_ID = "tenantId";
+	private static final String LOOKUP_ID_1 = "0d64c132-3aea-11ec-8d3d-0242ac130001";
+	private static final String LOOKUP_ID_2 = "0d64c132-3aea-11ec-8d3d-0242ac130002";
+	private static final String LOOKUP_ID_3 = "0d64c132-3aea-11ec-8d3d-0242ac130003";
+	private static final String LOOKUP_PERSON_ID = "1d64c132-3aea-11ec-8d3d-0242ac130001";
+	private static final String LOOKUP_ORGANIZATION_ID = "2d64c132-3aea-11ec-8d3d-0242ac130001";
+	private static final String AFTER_ID = "9a24743c-5c19-4774-954e-a3ad67a734e3";
+	private static final String AFTER_CURSOR = "OWEyNDc0M2MtNWMxOS00Nzc0LTk1NGUtYTNhZDY3YTczNGUz";
 	
 	@Mock
 	private FeedbackSettingsRepository repositoryMock;
@@ -56,13 +108,45 @@ class FeedbackSettingsServiceTest {
 	
 	@Mock
 	private PanacheQuery<FeedbackSettingsEntity> panacheQueryMock;
+
+	@Mock
+	private PanacheQuery<FeedbackSettingsRow> rowQueryMock;
+
+	@Mock
+	private FeedbackSettingsCache cacheMock;
+
+	@Mock
+	private DataSourceRouting dataSourceRoutingMock;
+
+	@Mock
+	private RecentWrites recentWritesMock;
+
+	@Mock
+	private ShardRouter shardRouterMock;
+
+	@Mock
+	private EntityManager shard0Mock;
+
+	@Mock
+	private EntityManager shard1Mock;
+
+	@Mock
+	private TenantContext tenantContextMock;
 	
 	@InjectMocks
 	private FeedbackSettingsService service;
 	
 	@Captor
 	private ArgumentCaptor<FeedbackSettingsEntity> entityCaptor;
+
+	@Captor
+	private ArgumentCaptor<List<FeedbackSettingsEntity>> entitiesCaptor;
 	
+	@BeforeEach
+	void setup() {
+		lenient().when(tenantContextMock.getTenantId()).thenReturn(TENANT_ID);
+	}
+
 	@Test
 	void createFeedbackSettings() throws ServiceException {
 		List<RequestedFeedbackChannel> channels = generateChannels();
@@ -73,9 +157,10 @@ class FeedbackSettingsServiceTest {
 				
 		FeedbackSettings response = service.createFeedbackSettings(request);
 		
-		verify(repositoryMock).existsByPersonIdAndOrganizationId(PERSON_ID, ORGANIZATION_ID);
+		verify(repositoryMock).existsByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, ORGANIZATION_ID);
 		verify(repositoryMock).persist(entityCaptor.capture());
-		verifyNoMoreInteractions(repositoryMock);
+		verify(cacheMock).invalidate(TENANT_ID, null, PERSON_ID, ORGANIZATION_ID);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
 		
 		assertThat(entityCaptor.getValue().getFeedbackChannels())
 			.hasSize(2)
@@ -83,6 +168,7 @@ class FeedbackSettingsServiceTest {
 			.containsExactlyInAnyOrder(
 					tuple(ContactMethod.SMS, MOBILE_NBR, SEND_FEEDBACK), 
 					tuple(ContactMethod.EMAIL, EMAIL_ADDRESS, SEND_FEEDBACK));
+		assertThat(entityCaptor.getValue().getTenantId()).isEqualTo(TENANT_ID);
 		assertThat(entityCaptor.getValue().getPersonId()).isEqualTo(PERSON_ID);
 		assertThat(entityCaptor.getValue().getOrganizationId()).isEqualTo(ORGANIZATION_ID);
 		
@@ -98,7 +184,7 @@ class FeedbackSettingsServiceTest {
 
 	@Test
 	void createFeedbackSettingsForExistingId() {
-		when(repositoryMock.existsByPersonIdAndOrganizationId(PERSON_ID, null)).thenReturn(true);
+		when(repositoryMock.existsByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, null)).thenReturn(true);
 		
 		CreateFeedbackSettingsRequest request = CreateFeedbackSettingsRequest.create().withPersonId(PERSON_ID);
 		
@@ -107,23 +193,155 @@ class FeedbackSettingsServiceTest {
 
 		assertThat(exception.getMessage()).isEqualTo("Settings already exist for personId 'personId'");
 		
-		verify(repositoryMock).existsByPersonIdAndOrganizationId(PERSON_ID, null);
+		verify(repositoryMock).existsByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, null);
 		verifyNoMoreInteractions(repositoryMock);
 	}
 	
+	@Test
+	void createFeedbackSettingsInBatch() {
+		service.lookupChunkSize = 10;
+		service.batchChunkSize = 2;
+		when(repositoryMock.findSettingsRowsByPersonIds(TENANT_ID, List.of("person-1", PERSON_ID, "person-2", "person-3"))).thenReturn(List.of(createRow("id-1")));
+
+		BatchCreateResult response = service.createFeedbackSettings(BatchCreateRequest.create().withFeedbackSettings(List.of(
+				CreateFeedbackSettingsRequest.create().withPersonId("person-1").withChannels(generateChannels()),
+				CreateFeedbackSettingsRequest.create().withPersonId(PERSON_ID),
+				CreateFeedbackSettingsRequest.create().withPersonId("person-2").withOrganizationId(ORGANIZATION_ID),
+				CreateFeedbackSettingsRequest.create().withPersonId("person-1"),
+				CreateFeedbackSettingsRequest.create().withPersonId("person-3"))));
+
+		verify(repositoryMock).findSettingsRowsByPersonIds(TENANT_ID, List.of("person-1", PERSON_ID, "person-2", "person-3"));
+		verify(repositoryMock, times(2)).persistAndDetach(entitiesCaptor.capture());
+		verify(cacheMock).invalidate(TENANT_ID, null, "person-1", null);
+		verify(cacheMock).invalidate(TENANT_ID, null, "person-2", ORGANIZATION_ID);
+		verify(cacheMock).invalidate(TENANT_ID, null, "person-3", null);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
+
+		assertThat(entitiesCaptor.getAllValues().get(0))
+			.extracting(FeedbackSettingsEntity::getPersonId, FeedbackSettingsEntity::getOrganizationId)
+			.containsExactly(tuple("person-1", null), tuple("person-2", ORGANIZATION_ID));
+		assertThat(entitiesCaptor.getAllValues().get(0).get(0).getFeedbackChannels()).hasSize(2);
+		assertThat(entitiesCaptor.getAllValues().get(1))
+			.extracting(FeedbackSettingsEntity::getPersonId)
+			.containsExactly("person-3");
+
+		assertThat(response.getCreated()).isEqualTo(3);
+		assertThat(response.getRejected()).isEqualTo(2);
+		assertThat(response.getResults())
+			.extracting(BatchItemResult::getIndex, BatchItemResult::getStatus, BatchItemResult::getMessage)
+			.containsExactly(
+					tuple(0, 201, null),
+					tuple(1, 409, "Settings already exist for personId 'personId'"),
+					tuple(2, 201, null),
+					tuple(3, 409, "Settings already exist for personId 'person-1'"),
+					tuple(4, 201, null));
+		assertThat(response.getResults().get(2).getFeedbackSettings().getOrganizationId()).isEqualTo(ORGANIZATION_ID);
+	}
+
+	@Test
+	void upsertFeedbackSettingsCreatesRepresentativeSettings() {
+		FeedbackSettingsEntity entity = FeedbackSettingsEntity.create().withId(FEEDBACK_SETTINGS_ID).withPersonId(PERSON_ID).withOrganizationId(ORGANIZATION_ID)
+				.withCreated(CREATED).withFeedbackChannels(new ArrayList<>());
+		when(repositoryMock.findByPersonIdAndOrganizationIdWithFeedbackChannels(TENANT_ID, PERSON_ID, ORGANIZATION_ID)).thenReturn(Optional.of(entity));
+		when(repositoryMock.upsertByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, ORGANIZATION_ID)).thenReturn(FEEDBACK_SETTINGS_ID);
+
+		UpsertResult result = service.upsertFeedbackSettings(PERSON_ID, ORGANIZATION_ID, UpdateFeedbackSettingsRequest.create().withChannels(generateChannels()));
+		FeedbackSettings response = result.feedbackSettings();
+
+		verify(repositoryMock).upsertByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, ORGANIZATION_ID);
+		verify(repositoryMock).findByPersonIdAndOrganizationIdWithFeedbackChannels(TENANT_ID, PERSON_ID, ORGANIZATION_ID);
+		verify(repositoryMock).flush();
+		verify(cacheMock).invalidate(TENANT_ID, FEEDBACK_SETTINGS_ID, PERSON_ID, ORGANIZATION_ID);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
+
+		assertThat(response.getId()).isEqualTo(FEEDBACK_SETTINGS_ID);
+		assertThat(result.created()).isTrue();
+		assertThat(response.getModified()).isNull();
+		assertThat(response.getChannels())
+			.extracting(FeedbackChannel::getContactMethod, FeedbackChannel::getDestination)
+			.containsExactlyInAnyOrder(tuple(ContactMethod.SMS, MOBILE_NBR), tuple(ContactMethod.EMAIL, EMAIL_ADDRESS));
+	}
+
+	@Test
+	void upsertFeedbackSettingsReplacesRepresentativeSettings() {
+		FeedbackSettingsEntity entity = FeedbackSettingsEntity.create().withId(FEEDBACK_SETTINGS_ID).withPersonId(PERSON_ID).withOrganizationId(ORGANIZATION_ID)
+				.withCreated(CREATED).withModified(MODIFIED)
+				.withFeedbackChannels(new ArrayList<>(List.of(FeedbackChannelEmbeddable.create().withContactMethod(ContactMethod.SMS).withDestination("0701234567").withSendFeedback(true))));
+		when(repositoryMock.findByPersonIdAndOrganizationIdWithFeedbackChannels(TENANT_ID, PERSON_ID, ORGANIZATION_ID)).thenReturn(Optional.of(entity));
+		when(repositoryMock.upsertByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, ORGANIZATION_ID)).thenReturn(OTHER_FEEDBACK_SETTINGS_ID);
+
+		UpsertResult result = service.upsertFeedbackSettings(PERSON_ID, ORGANIZATION_ID, UpdateFeedbackSettingsRequest.create());
+		FeedbackSettings response = result.feedbackSettings();
+
+		verify(repositoryMock).upsertByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, ORGANIZATION_ID);
+		verify(repositoryMock).findByPersonIdAndOrganizationIdWithFeedbackChannels(TENANT_ID, PERSON_ID, ORGANIZATION_ID);
+		verify(repositoryMock).flush();
+		verify(cacheMock).invalidate(TENANT_ID, FEEDBACK_SETTINGS_ID, PERSON_ID, ORGANIZATION_ID);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
+
+		assertThat(result.created()).isFalse();
+		assertThat(response.getModified()).isNotNull();
+		assertThat(response.getChannels()).isEmpty();
+	}
+
+	@Test
+	void upsertFeedbackSettingsCreatesPersonalSettings() {
+		FeedbackSettingsEntity entity = FeedbackSettingsEntity.create().withId(FEEDBACK_SETTINGS_ID).withTenantId(TENANT_ID).withPersonId(PERSON_ID).withCreated(CREATED)
+				.withFeedbackChannels(new ArrayList<>());
+		when(repositoryMock.findByPersonIdAndOrganizationIdWithFeedbackChannels(TENANT_ID, PERSON_ID, null)).thenReturn(Optional.of(entity));
+		when(repositoryMock.upsertByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, null)).thenReturn(FEEDBACK_SETTINGS_ID);
+
+		UpsertResult result = service.upsertFeedbackSettings(PERSON_ID, null, UpdateFeedbackSettingsRequest.create().withChannels(generateChannels()));
+		FeedbackSettings response = result.feedbackSettings();
+
+		verify(repositoryMock).upsertByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, null);
+		verify(repositoryMock).findByPersonIdAndOrganizationIdWithFeedbackChannels(TENANT_ID, PERSON_ID, null);
+		verify(repositoryMock).flush();
+		verify(cacheMock).invalidate(TENANT_ID, FEEDBACK_SETTINGS_ID, PERSON_ID, null);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
+
+		assertThat(entity.getOrganizationId()).isNull();
+		assertThat(entity.getFeedbackChannels()).hasSize(2);
+		assertThat(result.created()).isTrue();
+		assertThat(response.getModified()).isNull();
+	}
+
+	@Test
+	void upsertFeedbackSettingsReplacesPersonalSettings() {
+		FeedbackSettingsEntity entity = FeedbackSettingsEntity.create().withId(FEEDBACK_SETTINGS_ID).withPersonId(PERSON_ID).withCreated(CREATED).withModified(MODIFIED)
+				.withFeedbackChannels(new ArrayList<>());
+		when(repositoryMock.findByPersonIdAndOrganizationIdWithFeedbackChannels(TENANT_ID, PERSON_ID, null)).thenReturn(Optional.of(entity));
+		when(repositoryMock.upsertByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, null)).thenReturn(OTHER_FEEDBACK_SETTINGS_ID);
+
+		UpsertResult result = service.upsertFeedbackSettings(PERSON_ID, null, UpdateFeedbackSettingsRequest.create().withChannels(generateChannels()));
+		FeedbackSettings response = result.feedbackSettings();
+
+		verify(repositoryMock).upsertByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, null);
+		verify(repositoryMock).findByPersonIdAndOrganizationIdWithFeedbackChannels(TENANT_ID, PERSON_ID, null);
+		verify(repositoryMock).flush();
+		verify(cacheMock).invalidate(TENANT_ID, FEEDBACK_SETTINGS_ID, PERSON_ID, null);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
+
+		assertThat(result.created()).isFalse();
+		assertThat(response.getModified()).isNotNull();
+		assertThat(response.getChannels()).hasSize(2);
+	}
+
 	@Test
 	void updateFeedbackSettings() throws ServiceException {
-		when(repositoryMock.findByIdOptional(FEEDBACK_SETTINGS_ID)).thenReturn(Optional.of(entityMock));
+		when(repositoryMock.findByIdWithFeedbackChannels(TENANT_ID, FEEDBACK_SETTINGS_ID)).thenReturn(Optional.of(entityMock));
 		when(entityMock.getId()).thenReturn(FEEDBACK_SETTINGS_ID);
 		when(entityMock.getPersonId()).thenReturn(PERSON_ID);
 		when(entityMock.getOrganizationId()).thenReturn(ORGANIZATION_ID);
 
 		UpdateFeedbackSettingsRequest request = UpdateFeedbackSettingsRequest.create().withChannels(generateChannels());
-		FeedbackSettings response = service.updateFeedbackSettings(FEEDBACK_SETTINGS_ID, request);
+		FeedbackSettings response = service.updateFeedbackSettings(FEEDBACK_SETTINGS_ID, null, request);
 		
-		verify(repositoryMock).findByIdOptional(FEEDBACK_SETTINGS_ID);
+		verify(repositoryMock).findByIdWithFeedbackChannels(TENANT_ID, FEEDBACK_SETTINGS_ID);
 		verify(repositoryMock).persistAndFlush(entityCaptor.capture());
-		verifyNoMoreInteractions(repositoryMock);
+		verify(cacheMock).invalidate(TENANT_ID, FEEDBACK_SETTINGS_ID, PERSON_ID, ORGANIZATION_ID);
+		verify(recentWritesMock).register(FEEDBACK_SETTINGS_ID, PERSON_ID, ORGANIZATION_ID);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
 		
 		assertThat(entityCaptor.getValue().getId()).isEqualTo(FEEDBACK_SETTINGS_ID);
 		assertThat(entityCaptor.getValue().getPersonId()).isEqualTo(PERSON_ID);
@@ -134,100 +352,789 @@ class FeedbackSettingsServiceTest {
 		assertThat(response.getOrganizationId()).isEqualTo(ORGANIZATION_ID);
 	}
 
+	@Test
+	void updateFeedbackSettingsByUpperCaseId() throws ServiceException {
+		final var upperCaseId = FEEDBACK_SETTINGS_ID.toUpperCase();
+		when(repositoryMock.findByIdWithFeedbackChannels(TENANT_ID, upperCaseId)).thenReturn(Optional.of(entityMock));
+		when(entityMock.getId()).thenReturn(FEEDBACK_SETTINGS_ID);
+		when(entityMock.getPersonId()).thenReturn(PERSON_ID);
+		when(entityMock.getOrganizationId()).thenReturn(ORGANIZATION_ID);
+
+		service.updateFeedbackSettings(upperCaseId, null, UpdateFeedbackSettingsRequest.create().withChannels(generateChannels()));
+
+		// Cached entries are invalidated by the stored id
+		verify(cacheMock).invalidate(TENANT_ID, FEEDBACK_SETTINGS_ID, PERSON_ID, ORGANIZATION_ID);
+		verify(recentWritesMock).register(FEEDBACK_SETTINGS_ID, PERSON_ID, ORGANIZATION_ID);
+		verifyNoMoreInteractions(cacheMock);
+	}
+
 	@Test
 	void updateFeedbackSettingsForNonExistingId() {
 		UpdateFeedbackSettingsRequest request = UpdateFeedbackSettingsRequest.create();
 		
 		final var exception = assertThrows(ServiceException.class, 
-				() -> service.updateFeedbackSettings(FEEDBACK_SETTINGS_ID, request));
+				() -> service.updateFeedbackSettings(FEEDBACK_SETTINGS_ID, null, request));
 		
-		verify(repositoryMock).findByIdOptional(FEEDBACK_SETTINGS_ID);
+		verify(repositoryMock).findByIdWithFeedbackChannels(TENANT_ID, FEEDBACK_SETTINGS_ID);
 		verifyNoMoreInteractions(repositoryMock);
 
 		assertThat(exception.getMessage()).isEqualTo("No settings matching id 'settingsId' were found");
 	}
 	
 	@Test
-	void getFeedbackSettingsById() throws ServiceException {
-		when(repositoryMock.findByIdOptional(FEEDBACK_SETTINGS_ID)).thenReturn(Optional.of(entityMock));
+	void updateFeedbackSettingsWithExpectedVersion() throws ServiceException {
+		when(repositoryMock.findByIdWithFeedbackChannels(TENANT_ID, FEEDBACK_SETTINGS_ID)).thenReturn(Optional.of(entityMock));
+		when(entityMock.getVersion()).thenReturn(VERSION);
+
+		FeedbackSettings response = service.updateFeedbackSettings(FEEDBACK_SETTINGS_ID, VERSION, UpdateFeedbackSettingsRequest.create());
+
+		verify(repositoryMock).persistAndFlush(entityMock);
+		assertThat(response.getVersion()).isEqualTo(VERSION);
+	}
+
+	@Test
+	void updateFeedbackSettingsWithOtherVersion() {
+		when(repositoryMock.findByIdWithFeedbackChannels(TENANT_ID, FEEDBACK_SETTINGS_ID)).thenReturn(Optional.of(entityMock));
 		when(entityMock.getId()).thenReturn(FEEDBACK_SETTINGS_ID);
-		when(entityMock.getPersonId()).thenReturn(PERSON_ID);
-		when(entityMock.getOrganizationId()).thenReturn(ORGANIZATION_ID);
-		when(entityMock.getCreated()).thenReturn(CREATED);
-		when(entityMock.getModified()).thenReturn(MODIFIED);
+		when(entityMock.getVersion()).thenReturn(VERSION + 1);
+
+		final var exception = assertThrows(ServiceException.class, 
+				() -> service.updateFeedbackSettings(FEEDBACK_SETTINGS_ID, VERSION, UpdateFeedbackSettingsRequest.create()));
+
+		verify(repositoryMock).findByIdWithFeedbackChannels(TENANT_ID, FEEDBACK_SETTINGS_ID);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
+
+		assertThat(exception.getStatus()).isEqualTo(Status.PRECONDITION_FAILED);
+		assertThat(exception.getMessage()).isEqualTo("Settings matching id 'settingsId' have version '2', which does not match requested version '1'");
+	}
+
+	@ParameterizedTest
+	@MethodSource("concurrentModificationArguments")
+	void updateFeedbackSettingsModifiedConcurrently(Long expectedVersion, Status expectedStatus) {
+		FeedbackSettingsEntity entity = FeedbackSettingsEntity.create().withId(FEEDBACK_SETTINGS_ID).withVersion(VERSION).withFeedbackChannels(new ArrayList<>());
+		when(repositoryMock.findByIdWithFeedbackChannels(TENANT_ID, FEEDBACK_SETTINGS_ID)).thenReturn(Optional.of(entity));
+		doThrow(new OptimisticLockException()).when(repositoryMock).persistAndFlush(entity);
+
+		final var exception = assertThrows(ServiceException.class, 
+				() -> service.updateFeedbackSettings(FEEDBACK_SETTINGS_ID, expectedVersion, UpdateFeedbackSettingsRequest.create()));
+
+		verifyNoInteractions(cacheMock);
+		assertThat(exception.getStatus()).isEqualTo(expectedStatus);
+		assertThat(exception.getMessage()).isEqualTo("Settings matching id 'settingsId' were modified by another request");
+	}
+
+	@Test
+	void getFeedbackSettingsById() throws ServiceException {
+		when(repositoryMock.findRowsById(TENANT_ID, FEEDBACK_SETTINGS_ID)).thenReturn(List.of(
+				new FeedbackSettingsChannelRow(FEEDBACK_SETTINGS_ID, PERSON_ID, ORGANIZATION_ID, CREATED, MODIFIED, VERSION, "SMS", MOBILE_NBR, SEND_FEEDBACK),
+				new FeedbackSettingsChannelRow(FEEDBACK_SETTINGS_ID, PERSON_ID, ORGANIZATION_ID, CREATED, MODIFIED, VERSION, "EMAIL", EMAIL_ADDRESS, SEND_FEEDBACK)));
+		when(cacheMock.put(eq(TENANT_ID), anyLong(), any())).thenAnswer(returnsLastArg());
 
 		FeedbackSettings response = service.getFeedbackSettingsById(FEEDBACK_SETTINGS_ID);
 		
-		verify(repositoryMock).findByIdOptional(FEEDBACK_SETTINGS_ID);
-		verifyNoMoreInteractions(repositoryMock);
+		verify(cacheMock).getById(TENANT_ID, FEEDBACK_SETTINGS_ID);
+		verify(dataSourceRoutingMock).readFromReplicaUnlessRecentlyWritten(FEEDBACK_SETTINGS_ID);
+		verify(repositoryMock).findRowsById(TENANT_ID, FEEDBACK_SETTINGS_ID);
+		verify(cacheMock).getGeneration(TENANT_ID);
+		verify(cacheMock).put(TENANT_ID, 0L, response);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
 		
-		assertThat(response).isEqualTo(toFeedbackSettings(entityMock));
+		assertThat(response.getId()).isEqualTo(FEEDBACK_SETTINGS_ID);
+		assertThat(response.getPersonId()).isEqualTo(PERSON_ID);
+		assertThat(response.getOrganizationId()).isEqualTo(ORGANIZATION_ID);
+		assertThat(response.getCreated()).isEqualTo(CREATED);
+		assertThat(response.getModified()).isEqualTo(MODIFIED);
+		assertThat(response.getChannels())
+			.extracting(FeedbackChannel::getContactMethod, FeedbackChannel::getDestination, FeedbackChannel::isSendFeedback)
+			.containsExactly(
+					tuple(ContactMethod.SMS, MOBILE_NBR, SEND_FEEDBACK),
+					tuple(ContactMethod.EMAIL, EMAIL_ADDRESS, SEND_FEEDBACK));
+	}
+
+	@Test
+	void getFeedbackSettingsByIdWithJsonChannels() throws ServiceException {
+		service.channelStorageMode = ChannelStorageMode.JSON;
+		when(repositoryMock.findJsonRowById(TENANT_ID, FEEDBACK_SETTINGS_ID)).thenReturn(Optional.of(new FeedbackSettingsJsonRow(FEEDBACK_SETTINGS_ID, PERSON_ID, ORGANIZATION_ID, CREATED, MODIFIED, VERSION,
+				"[{\"contactMethod\":\"SMS\",\"destination\":\"mobileNbr\",\"sendFeedback\":true},{\"contactMethod\":\"EMAIL\",\"destination\":\"emailAddress\",\"sendFeedback\":true}]")));
+		when(cacheMock.put(eq(TENANT_ID), anyLong(), any())).thenAnswer(returnsLastArg());
+
+		FeedbackSettings response = service.getFeedbackSettingsById(FEEDBACK_SETTINGS_ID);
+
+		verify(cacheMock).getById(TENANT_ID, FEEDBACK_SETTINGS_ID);
+		verify(repositoryMock).findJsonRowById(TENANT_ID, FEEDBACK_SETTINGS_ID);
+		verify(cacheMock).getGeneration(TENANT_ID);
+		verify(cacheMock).put(TENANT_ID, 0L, response);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
+
+		assertThat(response.getId()).isEqualTo(FEEDBACK_SETTINGS_ID);
+		assertThat(response.getPersonId()).isEqualTo(PERSON_ID);
+		assertThat(response.getOrganizationId()).isEqualTo(ORGANIZATION_ID);
+		assertThat(response.getVersion()).isEqualTo(VERSION);
+		assertThat(response.getChannels())
+			.extracting(FeedbackChannel::getContactMethod, FeedbackChannel::getDestination, FeedbackChannel::isSendFeedback)
+			.containsExactly(
+					tuple(ContactMethod.SMS, MOBILE_NBR, SEND_FEEDBACK),
+					tuple(ContactMethod.EMAIL, EMAIL_ADDRESS, SEND_FEEDBACK));
+	}
+
+	@Test
+	void getFeedbackSettingsByIdFromReplica() throws ServiceException {
+		when(repositoryMock.findRowsById(TENANT_ID, FEEDBACK_SETTINGS_ID)).thenReturn(List.of(
+				new FeedbackSettingsChannelRow(FEEDBACK_SETTINGS_ID, PERSON_ID, ORGANIZATION_ID, CREATED, MODIFIED, VERSION, "SMS", MOBILE_NBR, SEND_FEEDBACK)));
+		when(dataSourceRoutingMock.isReadFromReplica()).thenReturn(true);
+
+		FeedbackSettings response = service.getFeedbackSettingsById(FEEDBACK_SETTINGS_ID);
+
+		// Settings read from the replica might be outdated and are hence not cached
+		verify(cacheMock).getById(TENANT_ID, FEEDBACK_SETTINGS_ID);
+		verify(cacheMock).getGeneration(TENANT_ID);
+		verify(repositoryMock).findRowsById(TENANT_ID, FEEDBACK_SETTINGS_ID);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
+
+		assertThat(response.getId()).isEqualTo(FEEDBACK_SETTINGS_ID);
+	}
+
+	@Test
+	void getFeedbackSettingsByIdFromCache() throws ServiceException {
+		FeedbackSettings cachedSettings = FeedbackSettings.create().withId(FEEDBACK_SETTINGS_ID);
+		when(cacheMock.getById(TENANT_ID, FEEDBACK_SETTINGS_ID)).thenReturn(cachedSettings);
+
+		FeedbackSettings response = service.getFeedbackSettingsById(FEEDBACK_SETTINGS_ID);
+
+		verify(cacheMock).getById(TENANT_ID, FEEDBACK_SETTINGS_ID);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
+
+		assertThat(response).isSameAs(cachedSettings);
 	}
 
 	@Test
 	void getFeedbackSettingsByIdForNonExistingId() {
-		when(repositoryMock.findByIdOptional(FEEDBACK_SETTINGS_ID)).thenReturn(Optional.empty());
+		when(repositoryMock.findRowsById(TENANT_ID, FEEDBACK_SETTINGS_ID)).thenReturn(emptyList());
 		
 		final var exception = assertThrows(ServiceException.class, 
 				() -> service.getFeedbackSettingsById(FEEDBACK_SETTINGS_ID));
 
-		verify(repositoryMock).findByIdOptional(FEEDBACK_SETTINGS_ID);
+		verify(repositoryMock).findRowsById(TENANT_ID, FEEDBACK_SETTINGS_ID);
 		verifyNoMoreInteractions(repositoryMock);
+		verify(cacheMock, never()).put(any(), anyLong(), any());
 
 		assertThat(exception.getMessage()).isEqualTo("No settings matching id 'settingsId' were found");
 	}
 	
+	@Test
+	void getFeedbackSettingsVersionById() throws ServiceException {
+		when(repositoryMock.findSettingsRowById(TENANT_ID, FEEDBACK_SETTINGS_ID)).thenReturn(Optional.of(
+				new FeedbackSettingsRow(FEEDBACK_SETTINGS_ID, PERSON_ID, ORGANIZATION_ID, CREATED, MODIFIED, VERSION)));
+
+		FeedbackSettings response = service.getFeedbackSettingsVersionById(FEEDBACK_SETTINGS_ID);
+
+		verify(cacheMock).getById(TENANT_ID, FEEDBACK_SETTINGS_ID);
+		verify(repositoryMock).findSettingsRowById(TENANT_ID, FEEDBACK_SETTINGS_ID);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
+
+		assertThat(response.getId()).isEqualTo(FEEDBACK_SETTINGS_ID);
+		assertThat(response.getCreated()).isEqualTo(CREATED);
+		assertThat(response.getModified()).isEqualTo(MODIFIED);
+		assertThat(response.getVersion()).isEqualTo(VERSION);
+		assertThat(response.getChannels()).isEmpty();
+	}
+
+	@Test
+	void getFeedbackSettingsVersionByIdFromCache() throws ServiceException {
+		FeedbackSettings cachedSettings = FeedbackSettings.create().withId(FEEDBACK_SETTINGS_ID).withVersion(VERSION);
+		when(cacheMock.getById(TENANT_ID, FEEDBACK_SETTINGS_ID)).thenReturn(cachedSettings);
+
+		FeedbackSettings response = service.getFeedbackSettingsVersionById(FEEDBACK_SETTINGS_ID);
+
+		verify(cacheMock).getById(TENANT_ID, FEEDBACK_SETTINGS_ID);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
+
+		assertThat(response).isSameAs(cachedSettings);
+	}
+
+	@Test
+	void getFeedbackSettingsVersionByIdForNonExistingId() {
+		when(repositoryMock.findSettingsRowById(TENANT_ID, FEEDBACK_SETTINGS_ID)).thenReturn(Optional.empty());
+
+		final var exception = assertThrows(ServiceException.class,
+				() -> service.getFeedbackSettingsVersionById(FEEDBACK_SETTINGS_ID));
+
+		verify(repositoryMock).findSettingsRowById(TENANT_ID, FEEDBACK_SETTINGS_ID);
+		verifyNoMoreInteractions(repositoryMock);
+
+		assertThat(exception.getMessage()).isEqualTo("No settings matching id 'settingsId' were found");
+		assertThat(exception.getStatus()).isEqualTo(Status.NOT_FOUND);
+	}
+
 	@Test
 	void getFeedbackSettingsForPersonId() {
-		when(entityMock.getId()).thenReturn(FEEDBACK_SETTINGS_ID);
-		when(entityMock.getPersonId()).thenReturn(PERSON_ID);
-		when(repositoryMock.findByPersonIdAndOrganizationId(PERSON_ID, null)).thenReturn(panacheQueryMock);
-		when(panacheQueryMock.page(any(Page.class))).thenReturn(panacheQueryMock);
-		when(panacheQueryMock.page(anyInt(), anyInt())).thenReturn(panacheQueryMock);
-		when(panacheQueryMock.list()).thenReturn(List.of(entityMock));
-		when(panacheQueryMock.pageCount()).thenReturn(1);
+		FeedbackSettingsRow row = new FeedbackSettingsRow(FEEDBACK_SETTINGS_ID, PERSON_ID, null, CREATED, null, VERSION);
+		when(repositoryMock.findByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, null)).thenReturn(panacheQueryMock);
 		when(panacheQueryMock.count()).thenReturn(1L);
+		when(panacheQueryMock.project(FeedbackSettingsRow.class)).thenReturn(rowQueryMock);
+		when(rowQueryMock.page(anyInt(), anyInt())).thenReturn(rowQueryMock);
+		when(rowQueryMock.list()).thenReturn(List.of(row));
+		when(repositoryMock.findFeedbackChannelRowsBySettingIds(List.of(FEEDBACK_SETTINGS_ID))).thenReturn(List.of(
+				new FeedbackSettingsChannelRow(FEEDBACK_SETTINGS_ID, PERSON_ID, null, CREATED, null, VERSION, "SMS", MOBILE_NBR, SEND_FEEDBACK)));
 		
-		SearchResult response = service.getFeedbackSettings(PERSON_ID, null, 1, 10);
+		SearchResult response = service.getFeedbackSettings(PERSON_ID, null, 1, 10, true);
 		
-		verify(repositoryMock).findByPersonIdAndOrganizationId(PERSON_ID, null);
-		verify(panacheQueryMock).page(any(Page.class));
-		verify(panacheQueryMock).page(0, 10);
-		verifyNoMoreInteractions(repositoryMock);
+		verify(repositoryMock).findByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, null);
+		verify(panacheQueryMock).count();
+		verify(panacheQueryMock).project(FeedbackSettingsRow.class);
+		verify(rowQueryMock).page(0, 10);
+		verify(rowQueryMock).list();
+		verify(repositoryMock).findFeedbackChannelRowsBySettingIds(List.of(FEEDBACK_SETTINGS_ID));
+		verifyNoMoreInteractions(repositoryMock, panacheQueryMock, rowQueryMock);
 
 		assertThat(response.getMetaData().getCount()).isEqualTo(1L);
 		assertThat(response.getMetaData().getLimit()).isEqualTo(10);
 		assertThat(response.getMetaData().getPage()).isEqualTo(1);
 		assertThat(response.getMetaData().getTotalPages()).isEqualTo(1);
 		assertThat(response.getMetaData().getTotalRecords()).isEqualTo(1L);
-		assertThat(response.getFeedbackSettings()).containsExactly(toFeedbackSettings(entityMock));
+		assertThat(response.getMetaData().getHasMore()).isNull();
+		assertThat(response.getFeedbackSettings()).containsExactly(FeedbackSettings.create()
+				.withId(FEEDBACK_SETTINGS_ID)
+				.withPersonId(PERSON_ID)
+				.withCreated(CREATED)
+				.withVersion(VERSION)
+				.withChannels(List.of(FeedbackChannel.create()
+						.withContactMethod(ContactMethod.SMS)
+						.withDestination(MOBILE_NBR)
+						.withSendFeedback(SEND_FEEDBACK))));
+		verify(cacheMock, never()).put(any(), anyLong(), any());
+	}
+
+	@Test
+	void getFeedbackSettingsForPageLargerThanLastPage() {
+		when(repositoryMock.findByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, null)).thenReturn(panacheQueryMock);
+		when(panacheQueryMock.count()).thenReturn(21L);
+
+		SearchResult response = service.getFeedbackSettings(PERSON_ID, null, 4, 10, true);
+
+		verify(repositoryMock).findByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, null);
+		verify(panacheQueryMock).count();
+		verify(repositoryMock).findFeedbackChannelRowsBySettingIds(emptyList());
+		verifyNoMoreInteractions(repositoryMock, panacheQueryMock);
+
+		assertThat(response.getMetaData().getCount()).isZero();
+		assertThat(response.getMetaData().getPage()).isEqualTo(4);
+		assertThat(response.getMetaData().getTotalPages()).isEqualTo(3);
+		assertThat(response.getMetaData().getTotalRecords()).isEqualTo(21L);
+		assertThat(response.getFeedbackSettings()).isEmpty();
+	}
+
+	@Test
+	void getFeedbackSettingsWithoutTotals() {
+		when(repositoryMock.findByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, null)).thenReturn(panacheQueryMock);
+		when(panacheQueryMock.project(FeedbackSettingsRow.class)).thenReturn(rowQueryMock);
+		when(rowQueryMock.range(2, 4)).thenReturn(rowQueryMock);
+		when(rowQueryMock.list()).thenReturn(List.of(createRow("id-1"), createRow("id-2"), createRow("id-3")));
+
+		SearchResult response = service.getFeedbackSettings(PERSON_ID, null, 2, 2, false);
+
+		verify(repositoryMock).findByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, null);
+		verify(panacheQueryMock).project(FeedbackSettingsRow.class);
+		verify(rowQueryMock).range(2, 4);
+		verify(rowQueryMock).list();
+		verify(repositoryMock).findFeedbackChannelRowsBySettingIds(List.of("id-1", "id-2"));
+		verifyNoMoreInteractions(repositoryMock, panacheQueryMock, rowQueryMock);
+
+		assertThat(response.getMetaData().getCount()).isEqualTo(2);
+		assertThat(response.getMetaData().getLimit()).isEqualTo(2);
+		assertThat(response.getMetaData().getPage()).isEqualTo(2);
+		assertThat(response.getMetaData().getTotalPages()).isNull();
+		assertThat(response.getMetaData().getTotalRecords()).isNull();
+		assertThat(response.getMetaData().getHasMore()).isTrue();
+		assertThat(response.getFeedbackSettings()).extracting(FeedbackSettings::getId).containsExactly("id-1", "id-2");
+	}
+
+	@Test
+	void getFeedbackSettingsWithoutTotalsForPageBeyondIntegerOffsets() {
+		when(repositoryMock.findByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, null)).thenReturn(panacheQueryMock);
+
+		SearchResult response = service.getFeedbackSettings(PERSON_ID, null, Integer.MAX_VALUE, 1000, false);
+
+		verify(repositoryMock).findByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, null);
+		verify(repositoryMock).findFeedbackChannelRowsBySettingIds(List.of());
+		verifyNoInteractions(rowQueryMock);
+		verifyNoMoreInteractions(repositoryMock, panacheQueryMock);
+
+		assertThat(response.getMetaData().getCount()).isZero();
+		assertThat(response.getMetaData().getPage()).isEqualTo(Integer.MAX_VALUE);
+		assertThat(response.getMetaData().getHasMore()).isFalse();
+		assertThat(response.getFeedbackSettings()).isEmpty();
+	}
+
+	@Test
+	void getFeedbackSettingsWithoutTotalsForLastPage() {
+		when(repositoryMock.findByPersonIdAndOrganizationId(TENANT_ID, null, ORGANIZATION_ID)).thenReturn(panacheQueryMock);
+		when(panacheQueryMock.project(FeedbackSettingsRow.class)).thenReturn(rowQueryMock);
+		when(rowQueryMock.range(0, 10)).thenReturn(rowQueryMock);
+		when(rowQueryMock.list()).thenReturn(List.of(createRow(FEEDBACK_SETTINGS_ID)));
+
+		SearchResult response = service.getFeedbackSettings(null, ORGANIZATION_ID, 1, 10, false);
+
+		verify(rowQueryMock).range(0, 10);
+		verify(rowQueryMock).list();
+		verifyNoMoreInteractions(rowQueryMock);
+
+		assertThat(response.getMetaData().getCount()).isEqualTo(1);
+		assertThat(response.getMetaData().getHasMore()).isFalse();
+		assertThat(response.getFeedbackSettings()).extracting(FeedbackSettings::getId).containsExactly(FEEDBACK_SETTINGS_ID);
+	}
+
+	@Test
+	void getFeedbackSettingsForPersonIdAndOrganizationId() {
+		when(repositoryMock.findByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, ORGANIZATION_ID)).thenReturn(panacheQueryMock);
+		when(panacheQueryMock.count()).thenReturn(1L);
+		when(panacheQueryMock.project(FeedbackSettingsRow.class)).thenReturn(rowQueryMock);
+		when(rowQueryMock.page(anyInt(), anyInt())).thenReturn(rowQueryMock);
+		when(rowQueryMock.list()).thenReturn(List.of(new FeedbackSettingsRow(FEEDBACK_SETTINGS_ID, PERSON_ID, ORGANIZATION_ID, CREATED, MODIFIED, VERSION)));
+
+		SearchResult response = service.getFeedbackSettings(PERSON_ID, ORGANIZATION_ID, 1, 10, true);
+
+		verify(cacheMock).getByOwner(TENANT_ID, PERSON_ID, ORGANIZATION_ID);
+		verify(repositoryMock).findByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, ORGANIZATION_ID);
+		verify(repositoryMock).findFeedbackChannelRowsBySettingIds(List.of(FEEDBACK_SETTINGS_ID));
+		verify(cacheMock).getGeneration(TENANT_ID);
+		verify(cacheMock).put(TENANT_ID, 0L, response.getFeedbackSettings().get(0));
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
+
+		assertThat(response.getMetaData().getTotalRecords()).isEqualTo(1L);
+		assertThat(response.getFeedbackSettings()).extracting(FeedbackSettings::getId, FeedbackSettings::getPersonId, FeedbackSettings::getOrganizationId)
+			.containsExactly(tuple(FEEDBACK_SETTINGS_ID, PERSON_ID, ORGANIZATION_ID));
+	}
+
+	@Test
+	void getFeedbackSettingsForPersonIdAndOrganizationIdFromReplica() {
+		when(repositoryMock.findByPersonIdAndOrganizationId(TENANT_ID, PERSON_ID, ORGANIZATION_ID)).thenReturn(panacheQueryMock);
+		when(panacheQueryMock.count()).thenReturn(1L);
+		when(panacheQueryMock.project(FeedbackSettingsRow.class)).thenReturn(rowQueryMock);
+		when(rowQueryMock.page(anyInt(), anyInt())).thenReturn(rowQueryMock);
+		when(rowQueryMock.list()).thenReturn(List.of(new FeedbackSettingsRow(FEEDBACK_SETTINGS_ID, PERSON_ID, ORGANIZATION_ID, CREATED, MODIFIED, VERSION)));
+		when(dataSourceRoutingMock.isReadFromReplica()).thenReturn(true);
+
+		SearchResult response = service.getFeedbackSettings(PERSON_ID, ORGANIZATION_ID, 1, 10, true);
+
+		verify(cacheMock).getByOwner(TENANT_ID, PERSON_ID, ORGANIZATION_ID);
+		verify(cacheMock).getGeneration(TENANT_ID);
+		verifyNoMoreInteractions(cacheMock);
+
+		assertThat(response.getFeedbackSettings()).extracting(FeedbackSettings::getId).containsExactly(FEEDBACK_SETTINGS_ID);
+	}
+
+	@Test
+	void getFeedbackSettingsForPersonIdAndOrganizationIdFromCache() {
+		FeedbackSettings cachedSettings = FeedbackSettings.create().withId(FEEDBACK_SETTINGS_ID);
+		when(cacheMock.getByOwner(TENANT_ID, PERSON_ID, ORGANIZATION_ID)).thenReturn(cachedSettings);
+
+		SearchResult response = service.getFeedbackSettings(PERSON_ID, ORGANIZATION_ID, 1, 10, true);
+
+		verify(cacheMock).getByOwner(TENANT_ID, PERSON_ID, ORGANIZATION_ID);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
+
+		assertThat(response.getMetaData().getCount()).isEqualTo(1);
+		assertThat(response.getMetaData().getLimit()).isEqualTo(10);
+		assertThat(response.getMetaData().getPage()).isEqualTo(1);
+		assertThat(response.getMetaData().getTotalPages()).isEqualTo(1);
+		assertThat(response.getMetaData().getTotalRecords()).isEqualTo(1L);
+		assertThat(response.getFeedbackSettings()).containsExactly(cachedSettings);
+	}
+
+	@Test
+	void getFeedbackSettingsWithoutTotalsFromCache() {
+		FeedbackSettings cachedSettings = FeedbackSettings.create().withId(FEEDBACK_SETTINGS_ID);
+		when(cacheMock.getByOwner(TENANT_ID, PERSON_ID, ORGANIZATION_ID)).thenReturn(cachedSettings);
+
+		SearchResult response = service.getFeedbackSettings(PERSON_ID, ORGANIZATION_ID, 1, 10, false);
+
+		verify(cacheMock).getByOwner(TENANT_ID, PERSON_ID, ORGANIZATION_ID);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
+
+		assertThat(response.getMetaData().getCount()).isEqualTo(1);
+		assertThat(response.getMetaData().getTotalPages()).isNull();
+		assertThat(response.getMetaData().getTotalRecords()).isNull();
+		assertThat(response.getMetaData().getHasMore()).isFalse();
+		assertThat(response.getFeedbackSettings()).containsExactly(cachedSettings);
+	}
+
+	@Test
+	void getFeedbackSettingsByCursorWithMorePages() throws ServiceException {
+		when(repositoryMock.findByPersonIdAndOrganizationIdAfterId(TENANT_ID, PERSON_ID, null, null)).thenReturn(panacheQueryMock);
+		when(panacheQueryMock.project(FeedbackSettingsRow.class)).thenReturn(rowQueryMock);
+		when(rowQueryMock.range(0, 1)).thenReturn(rowQueryMock);
+		when(rowQueryMock.list()).thenReturn(List.of(createRow("id-1"), createRow("id-2")));
+
+		SearchResult response = service.getFeedbackSettingsByCursor(PERSON_ID, null, "", 1);
+
+		verify(repositoryMock).findByPersonIdAndOrganizationIdAfterId(TENANT_ID, PERSON_ID, null, null);
+		verify(rowQueryMock).range(0, 1);
+		verify(repositoryMock).findFeedbackChannelRowsBySettingIds(List.of("id-1"));
+		verifyNoMoreInteractions(repositoryMock);
+
+		assertThat(response.getMetaData().getCount()).isEqualTo(1);
+		assertThat(response.getMetaData().getLimit()).isEqualTo(1);
+		assertThat(response.getMetaData().getNext()).isEqualTo("aWQtMQ");
+		assertThat(response.getFeedbackSettings()).extracting(FeedbackSettings::getId).containsExactly("id-1");
+	}
+
+	@Test
+	void getFeedbackSettingsFromAllShards() {
+		mockShards();
+		when(repositoryMock.findSettingsRowsByOrganizationIdAfterId(shard0Mock, TENANT_ID, ORGANIZATION_ID, null, 5)).thenReturn(List.of(createRow("id-1"), createRow("id-4")));
+		when(repositoryMock.findSettingsRowsByOrganizationIdAfterId(shard1Mock, TENANT_ID, ORGANIZATION_ID, null, 5)).thenReturn(List.of(createRow("id-2"), createRow("id-3")));
+		when(repositoryMock.countByOrganizationId(shard0Mock, TENANT_ID, ORGANIZATION_ID)).thenReturn(2L);
+		when(repositoryMock.countByOrganizationId(shard1Mock, TENANT_ID, ORGANIZATION_ID)).thenReturn(2L);
+
+		SearchResult response = service.getFeedbackSettings(null, ORGANIZATION_ID, 2, 2, true);
+
+		verify(repositoryMock).findFeedbackChannelRowsBySettingIds(shard0Mock, List.of("id-3", "id-4"));
+		verify(repositoryMock).findFeedbackChannelRowsBySettingIds(shard1Mock, List.of("id-3", "id-4"));
+		verify(repositoryMock, never()).findByPersonIdAndOrganizationId(any(), any(), any());
+
+		assertThat(response.getMetaData().getCount()).isEqualTo(2);
+		assertThat(response.getMetaData().getTotalRecords()).isEqualTo(4);
+		assertThat(response.getMetaData().getTotalPages()).isEqualTo(2);
+		assertThat(response.getFeedbackSettings()).extracting(FeedbackSettings::getId).containsExactly("id-3", "id-4");
+	}
+
+	@Test
+	void getFeedbackSettingsByCursorFromAllShards() throws ServiceException {
+		mockShards();
+		when(repositoryMock.findSettingsRowsByOrganizationIdAfterId(shard0Mock, TENANT_ID, null, AFTER_ID, 3)).thenReturn(List.of(createRow("id-4")));
+		when(repositoryMock.findSettingsRowsByOrganizationIdAfterId(shard1Mock, TENANT_ID, null, AFTER_ID, 3)).thenReturn(List.of(createRow("id-2"), createRow("id-3")));
+
+		SearchResult response = service.getFeedbackSettingsByCursor(null, null, AFTER_CURSOR, 2);
+
+		verify(repositoryMock, never()).findByPersonIdAndOrganizationIdAfterId(any(), any(), any(), any());
+
+		assertThat(response.getMetaData().getCount()).isEqualTo(2);
+		assertThat(response.getMetaData().getNext()).isEqualTo("aWQtMw");
+		assertThat(response.getFeedbackSettings()).extracting(FeedbackSettings::getId).containsExactly("id-2", "id-3");
+	}
+
+	@Test
+	void getFeedbackSettingsByCursorForLastPage() throws ServiceException {
+		when(repositoryMock.findByPersonIdAndOrganizationIdAfterId(TENANT_ID, PERSON_ID, ORGANIZATION_ID, AFTER_ID)).thenReturn(panacheQueryMock);
+		when(panacheQueryMock.project(FeedbackSettingsRow.class)).thenReturn(rowQueryMock);
+		when(rowQueryMock.range(0, 10)).thenReturn(rowQueryMock);
+		when(rowQueryMock.list()).thenReturn(List.of(createRow("id-2")));
+
+		SearchResult response = service.getFeedbackSettingsByCursor(PERSON_ID, ORGANIZATION_ID, AFTER_CURSOR, 10);
+
+		verify(repositoryMock).findByPersonIdAndOrganizationIdAfterId(TENANT_ID, PERSON_ID, ORGANIZATION_ID, AFTER_ID);
+		verify(rowQueryMock).range(0, 10);
+		verify(repositoryMock).findFeedbackChannelRowsBySettingIds(List.of("id-2"));
+		verifyNoMoreInteractions(repositoryMock);
+
+		assertThat(response.getMetaData().getCount()).isEqualTo(1);
+		assertThat(response.getMetaData().getLimit()).isEqualTo(10);
+		assertThat(response.getMetaData().getNext()).isNull();
+		assertThat(response.getFeedbackSettings()).extracting(FeedbackSettings::getId).containsExactly("id-2");
+	}
+
+	@Test
+	void getFeedbackSettingsByDestination() {
+		when(repositoryMock.findRowsByDestination(TENANT_ID, MOBILE_NBR, ContactMethod.SMS)).thenReturn(List.of(
+				new FeedbackSettingsChannelRow("id-1", PERSON_ID, null, CREATED, null, VERSION, "SMS", MOBILE_NBR, SEND_FEEDBACK),
+				new FeedbackSettingsChannelRow("id-1", PERSON_ID, null, CREATED, null, VERSION, "EMAIL", EMAIL_ADDRESS, SEND_FEEDBACK),
+				new FeedbackSettingsChannelRow("id-2", PERSON_ID, ORGANIZATION_ID, CREATED, null, VERSION, "SMS", MOBILE_NBR, SEND_FEEDBACK),
+				new FeedbackSettingsChannelRow("id-3", "other", null, CREATED, null, VERSION, "SMS", MOBILE_NBR, SEND_FEEDBACK)));
+
+		SearchResult response = service.getFeedbackSettingsByDestination(MOBILE_NBR, ContactMethod.SMS, 2, 2, true);
+
+		verify(repositoryMock).findRowsByDestination(TENANT_ID, MOBILE_NBR, ContactMethod.SMS);
+		verifyNoMoreInteractions(repositoryMock);
+
+		assertThat(response.getMetaData().getPage()).isEqualTo(2);
+		assertThat(response.getMetaData().getLimit()).isEqualTo(2);
+		assertThat(response.getMetaData().getCount()).isEqualTo(1);
+		assertThat(response.getMetaData().getTotalRecords()).isEqualTo(3);
+		assertThat(response.getMetaData().getTotalPages()).isEqualTo(2);
+		assertThat(response.getFeedbackSettings()).extracting(FeedbackSettings::getId).containsExactly("id-3");
+	}
+
+	@Test
+	void getFeedbackSettingsByDestinationWithoutTotals() {
+		when(repositoryMock.findRowsByDestination(TENANT_ID, MOBILE_NBR, null)).thenReturn(List.of(
+				new FeedbackSettingsChannelRow("id-1", PERSON_ID, null, CREATED, null, VERSION, "SMS", MOBILE_NBR, SEND_FEEDBACK),
+				new FeedbackSettingsChannelRow("id-1", PERSON_ID, null, CREATED, null, VERSION, "EMAIL", EMAIL_ADDRESS, SEND_FEEDBACK),
+				new FeedbackSettingsChannelRow("id-2", PERSON_ID, ORGANIZATION_ID, CREATED, null, VERSION, "SMS", MOBILE_NBR, SEND_FEEDBACK)));
+
+		SearchResult response = service.getFeedbackSettingsByDestination(MOBILE_NBR, null, 1, 1, false);
+
+		verify(repositoryMock).findRowsByDestination(TENANT_ID, MOBILE_NBR, null);
+		verifyNoMoreInteractions(repositoryMock);
+
+		assertThat(response.getMetaData().getCount()).isEqualTo(1);
+		assertThat(response.getMetaData().getHasMore()).isTrue();
+		assertThat(response.getMetaData().getTotalRecords()).isNull();
+		assertThat(response.getFeedbackSettings()).hasSize(1);
+		assertThat(response.getFeedbackSettings().get(0).getChannels()).extracting(FeedbackChannel::getDestination).containsExactly(MOBILE_NBR, EMAIL_ADDRESS);
+	}
+
+	@Test
+	void getFeedbackSettingsByDestinationWithNoMatches() {
+		SearchResult response = service.getFeedbackSettingsByDestination(MOBILE_NBR, null, 3, 10, true);
+
+		verify(repositoryMock).findRowsByDestination(TENANT_ID, MOBILE_NBR, null);
+
+		assertThat(response.getMetaData().getCount()).isZero();
+		assertThat(response.getMetaData().getTotalRecords()).isZero();
+		assertThat(response.getMetaData().getTotalPages()).isEqualTo(1);
+		assertThat(response.getFeedbackSettings()).isEmpty();
+	}
+
+	@Test
+	void getFeedbackSettingsByInvalidCursor() {
+		final var exception = assertThrows(ServiceException.class,
+				() -> service.getFeedbackSettingsByCursor(PERSON_ID, null, "not*valid", 10));
+
+		verifyNoMoreInteractions(repositoryMock);
+
+		assertThat(exception.getMessage()).isEqualTo("Cursor 'not*valid' is not valid");
+	}
+
+	@Test
+	void getFeedbackSettingsByCursorNotHoldingId() {
+		// Valid Base64 of "abc"
+		final var exception = assertThrows(ServiceException.class,
+				() -> service.getFeedbackSettingsByCursor(PERSON_ID, null, "YWJj", 10));
+
+		verifyNoMoreInteractions(repositoryMock);
+
+		assertThat(exception.getStatus()).isEqualTo(Status.BAD_REQUEST);
+		assertThat(exception.getMessage()).isEqualTo("Cursor 'YWJj' is not valid");
+	}
+
+	@Test
+	void lookupFeedbackSettings() {
+		service.lookupChunkSize = 2;
+		FeedbackSettingsOwner personalOwner = FeedbackSettingsOwner.create().withPersonId(LOOKUP_PERSON_ID);
+		FeedbackSettingsOwner representativeOwner = FeedbackSettingsOwner.create().withPersonId(LOOKUP_PERSON_ID).withOrganizationId(LOOKUP_ORGANIZATION_ID);
+		FeedbackSettingsOwner unknownOwner = FeedbackSettingsOwner.create().withPersonId(LOOKUP_ID_2);
+		when(repositoryMock.findRowsByIds(TENANT_ID, List.of(LOOKUP_ID_1, LOOKUP_ID_2))).thenReturn(List.of(
+				new FeedbackSettingsChannelRow(LOOKUP_ID_1, LOOKUP_PERSON_ID, null, CREATED, null, VERSION, "SMS", MOBILE_NBR, SEND_FEEDBACK)));
+		when(repositoryMock.findRowsByIds(TENANT_ID, List.of(LOOKUP_ID_3))).thenReturn(List.of(
+				new FeedbackSettingsChannelRow(LOOKUP_ID_3, LOOKUP_ID_2, null, CREATED, null, VERSION, null, null, null)));
+		when(repositoryMock.findRowsByPersonIds(TENANT_ID, List.of(LOOKUP_PERSON_ID, LOOKUP_ID_2))).thenReturn(List.of(
+				new FeedbackSettingsChannelRow(LOOKUP_ID_1, LOOKUP_PERSON_ID, null, CREATED, null, VERSION, "SMS", MOBILE_NBR, SEND_FEEDBACK)));
+
+		LookupResult result = service.lookupFeedbackSettings(LookupRequest.create()
+				.withIds(List.of(LOOKUP_ID_1, LOOKUP_ID_2, LOOKUP_ID_1, LOOKUP_ID_3))
+				.withOwners(List.of(personalOwner, representativeOwner, unknownOwner)));
+
+		verify(repositoryMock).findRowsByIds(TENANT_ID, List.of(LOOKUP_ID_1, LOOKUP_ID_2));
+		verify(repositoryMock).findRowsByIds(TENANT_ID, List.of(LOOKUP_ID_3));
+		verify(repositoryMock).findRowsByPersonIds(TENANT_ID, List.of(LOOKUP_PERSON_ID, LOOKUP_ID_2));
+		verifyNoMoreInteractions(repositoryMock);
+
+		assertThat(result.getMatchesById()).containsOnlyKeys(LOOKUP_ID_1, LOOKUP_ID_3);
+		assertThat(result.getMatchesById().get(LOOKUP_ID_1).getChannels()).extracting(FeedbackChannel::getDestination).containsExactly(MOBILE_NBR);
+		assertThat(result.getMatchesById().get(LOOKUP_ID_3).getChannels()).isEmpty();
+		assertThat(result.getUnmatchedIds()).containsExactly(LOOKUP_ID_2);
+		assertThat(result.getMatchesByOwner())
+			.extracting(OwnerMatch::getOwner, match -> match.getFeedbackSettings().getId())
+			.containsExactly(tuple(personalOwner, LOOKUP_ID_1));
+		assertThat(result.getUnmatchedOwners()).containsExactly(representativeOwner, unknownOwner);
+	}
+
+	@Test
+	void lookupFeedbackSettingsWithUpperCaseInput() {
+		service.lookupChunkSize = 2;
+		FeedbackSettingsOwner owner = FeedbackSettingsOwner.create().withPersonId(LOOKUP_PERSON_ID.toUpperCase()).withOrganizationId(LOOKUP_ORGANIZATION_ID.toUpperCase());
+		FeedbackSettingsChannelRow row = new FeedbackSettingsChannelRow(LOOKUP_ID_1, LOOKUP_PERSON_ID, LOOKUP_ORGANIZATION_ID, CREATED, null, VERSION, null, null, null);
+		when(repositoryMock.findRowsByIds(TENANT_ID, List.of(LOOKUP_ID_1))).thenReturn(List.of(row));
+		when(repositoryMock.findRowsByPersonIds(TENANT_ID, List.of(LOOKUP_PERSON_ID))).thenReturn(List.of(row));
+
+		LookupResult result = service.lookupFeedbackSettings(LookupRequest.create()
+				.withIds(List.of(LOOKUP_ID_1.toUpperCase(), LOOKUP_ID_1))
+				.withOwners(List.of(owner)));
+
+		verify(repositoryMock).findRowsByIds(TENANT_ID, List.of(LOOKUP_ID_1));
+		verify(repositoryMock).findRowsByPersonIds(TENANT_ID, List.of(LOOKUP_PERSON_ID));
+		verifyNoMoreInteractions(repositoryMock);
+
+		// Inputs are returned in the form they were sent in
+		assertThat(result.getMatchesById()).containsOnlyKeys(LOOKUP_ID_1.toUpperCase(), LOOKUP_ID_1);
+		assertThat(result.getUnmatchedIds()).isEmpty();
+		assertThat(result.getMatchesByOwner())
+			.extracting(OwnerMatch::getOwner, match -> match.getFeedbackSettings().getId())
+			.containsExactly(tuple(owner, LOOKUP_ID_1));
+		assertThat(result.getUnmatchedOwners()).isEmpty();
+	}
+
+	@Test
+	void lookupFeedbackSettingsWithJsonChannels() {
+		service.lookupChunkSize = 2;
+		service.channelStorageMode = ChannelStorageMode.JSON;
+		FeedbackSettingsOwner personalOwner = FeedbackSettingsOwner.create().withPersonId(LOOKUP_PERSON_ID);
+		FeedbackSettingsJsonRow row = new FeedbackSettingsJsonRow(LOOKUP_ID_1, LOOKUP_PERSON_ID, null, CREATED, null, VERSION, "[{\"contactMethod\":\"SMS\",\"destination\":\"mobileNbr\",\"sendFeedback\":true}]");
+		when(repositoryMock.findJsonRowsByIds(TENANT_ID, List.of(LOOKUP_ID_1, LOOKUP_ID_2))).thenReturn(List.of(row));
+		when(repositoryMock.findJsonRowsByPersonIds(TENANT_ID, List.of(LOOKUP_PERSON_ID))).thenReturn(List.of(row));
+
+		LookupResult result = service.lookupFeedbackSettings(LookupRequest.create()
+				.withIds(List.of(LOOKUP_ID_1, LOOKUP_ID_2))
+				.withOwners(List.of(personalOwner)));
+
+		verify(repositoryMock).findJsonRowsByIds(TENANT_ID, List.of(LOOKUP_ID_1, LOOKUP_ID_2));
+		verify(repositoryMock).findJsonRowsByPersonIds(TENANT_ID, List.of(LOOKUP_PERSON_ID));
+		verifyNoMoreInteractions(repositoryMock);
+
+		assertThat(result.getMatchesById()).containsOnlyKeys(LOOKUP_ID_1);
+		assertThat(result.getMatchesById().get(LOOKUP_ID_1).getChannels()).extracting(FeedbackChannel::getDestination).containsExactly(MOBILE_NBR);
+		assertThat(result.getUnmatchedIds()).containsExactly(LOOKUP_ID_2);
+		assertThat(result.getMatchesByOwner())
+			.extracting(OwnerMatch::getOwner, match -> match.getFeedbackSettings().getId())
+			.containsExactly(tuple(personalOwner, LOOKUP_ID_1));
+		assertThat(result.getUnmatchedOwners()).isEmpty();
+	}
+
+	@Test
+	void lookupFeedbackSettingsWithEmptyRequest() {
+		service.lookupChunkSize = 2;
+		LookupResult result = service.lookupFeedbackSettings(LookupRequest.create());
+
+		verifyNoMoreInteractions(repositoryMock);
+
+		assertThat(result.getMatchesById()).isEmpty();
+		assertThat(result.getMatchesByOwner()).isEmpty();
+		assertThat(result.getUnmatchedIds()).isEmpty();
+		assertThat(result.getUnmatchedOwners()).isEmpty();
+	}
+
+	@Test
+	void exportFeedbackSettings() throws IOException {
+		service.objectMapper = new ObjectMapper().registerModule(new JavaTimeModule()).setSerializationInclusion(Include.NON_NULL);
+		service.exportFetchSize = 100;
+		when(repositoryMock.streamAllWithFeedbackChannels(TENANT_ID, 100)).thenReturn(Stream.of(
+				new FeedbackSettingsChannelRow("id-1", PERSON_ID, null, null, null, VERSION, "SMS", MOBILE_NBR, true),
+				new FeedbackSettingsChannelRow("id-1", PERSON_ID, null, null, null, VERSION, "EMAIL", EMAIL_ADDRESS, false),
+				new FeedbackSettingsChannelRow("id-2", PERSON_ID, ORGANIZATION_ID, null, null, VERSION, null, null, null)));
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		service.exportFeedbackSettings(outputStream);
+
+		verify(repositoryMock).streamAllWithFeedbackChannels(TENANT_ID, 100);
+		verifyNoMoreInteractions(repositoryMock);
+
+		assertThat(outputStream.toString(UTF_8).lines()).containsExactly(
+				"{\"id\":\"id-1\",\"personId\":\"personId\",\"channels\":["
+						+ "{\"contactMethod\":\"SMS\",\"destination\":\"mobileNbr\",\"sendFeedback\":true},"
+						+ "{\"contactMethod\":\"EMAIL\",\"destination\":\"emailAddress\",\"sendFeedback\":false}]}",
+				"{\"id\":\"id-2\",\"personId\":\"personId\",\"organizationId\":\"organizationId\",\"channels\":[]}");
+	}
+
+	@Test
+	void exportFeedbackSettingsWhenEmpty() throws IOException {
+		service.objectMapper = new ObjectMapper();
+		when(repositoryMock.streamAllWithFeedbackChannels(eq(TENANT_ID), anyInt())).thenReturn(Stream.empty());
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		service.exportFeedbackSettings(outputStream);
+
+		assertThat(outputStream.toByteArray()).isEmpty();
 	}
 
 	@Test
 	void deleteFeedbackSettings() throws ServiceException {
-		when(repositoryMock.findByIdOptional(FEEDBACK_SETTINGS_ID)).thenReturn(Optional.of(entityMock));
-		service.deleteFeedbackSettings(FEEDBACK_SETTINGS_ID);
+		when(repositoryMock.findByIdWithFeedbackChannels(TENANT_ID, FEEDBACK_SETTINGS_ID)).thenReturn(Optional.of(entityMock));
+		when(entityMock.getId()).thenReturn(FEEDBACK_SETTINGS_ID);
+		when(entityMock.getPersonId()).thenReturn(PERSON_ID);
+		service.deleteFeedbackSettings(FEEDBACK_SETTINGS_ID, null);
 		
-		verify(repositoryMock).findByIdOptional(FEEDBACK_SETTINGS_ID);
-		verify(repositoryMock).deleteById(FEEDBACK_SETTINGS_ID);
+		verify(repositoryMock).findByIdWithFeedbackChannels(TENANT_ID, FEEDBACK_SETTINGS_ID);
+		verify(repositoryMock).delete(entityMock);
+		verify(repositoryMock).flush();
+		verify(cacheMock).invalidate(TENANT_ID, FEEDBACK_SETTINGS_ID, PERSON_ID, null);
 		
-		verifyNoMoreInteractions(repositoryMock);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
+	}
+
+	@Test
+	void deleteFeedbackSettingsByUpperCaseId() throws ServiceException {
+		final var upperCaseId = FEEDBACK_SETTINGS_ID.toUpperCase();
+		when(repositoryMock.findByIdWithFeedbackChannels(TENANT_ID, upperCaseId)).thenReturn(Optional.of(entityMock));
+		when(entityMock.getId()).thenReturn(FEEDBACK_SETTINGS_ID);
+		when(entityMock.getPersonId()).thenReturn(PERSON_ID);
+		service.deleteFeedbackSettings(upperCaseId, null);
+
+		// Cached entries are invalidated by the stored id
+		verify(cacheMock).invalidate(TENANT_ID, FEEDBACK_SETTINGS_ID, PERSON_ID, null);
+		verify(recentWritesMock).register(FEEDBACK_SETTINGS_ID, PERSON_ID, null);
+		verifyNoMoreInteractions(cacheMock);
+	}
+
+	@Test
+	void deleteFeedbackSettingsWithOtherVersion() {
+		when(repositoryMock.findByIdWithFeedbackChannels(TENANT_ID, FEEDBACK_SETTINGS_ID)).thenReturn(Optional.of(entityMock));
+		when(entityMock.getId()).thenReturn(FEEDBACK_SETTINGS_ID);
+		when(entityMock.getVersion()).thenReturn(VERSION + 1);
+
+		final var exception = assertThrows(ServiceException.class, 
+				() -> service.deleteFeedbackSettings(FEEDBACK_SETTINGS_ID, VERSION));
+
+		verify(repositoryMock).findByIdWithFeedbackChannels(TENANT_ID, FEEDBACK_SETTINGS_ID);
+		verifyNoMoreInteractions(repositoryMock, cacheMock);
+
+		assertThat(exception.getStatus()).isEqualTo(Status.PRECONDITION_FAILED);
+	}
+
+	@ParameterizedTest
+	@MethodSource("concurrentModificationArguments")
+	void deleteFeedbackSettingsModifiedConcurrently(Long expectedVersion, Status expectedStatus) {
+		FeedbackSettingsEntity entity = FeedbackSettingsEntity.create().withId(FEEDBACK_SETTINGS_ID).withVersion(VERSION);
+		when(repositoryMock.findByIdWithFeedbackChannels(TENANT_ID, FEEDBACK_SETTINGS_ID)).thenReturn(Optional.of(entity));
+		doThrow(new OptimisticLockException()).when(repositoryMock).flush();
+
+		final var exception = assertThrows(ServiceException.class, 
+				() -> service.deleteFeedbackSettings(FEEDBACK_SETTINGS_ID, expectedVersion));
+
+		verify(repositoryMock).delete(entity);
+		verifyNoInteractions(cacheMock);
+		assertThat(exception.getStatus()).isEqualTo(expectedStatus);
 	}
 
 	@Test
 	void deleteFeedbackSettingsForNonExistingId() {
-		when(repositoryMock.findByIdOptional(FEEDBACK_SETTINGS_ID)).thenReturn(Optional.empty());
+		when(repositoryMock.findByIdWithFeedbackChannels(TENANT_ID, FEEDBACK_SETTINGS_ID)).thenReturn(Optional.empty());
 
 		final var exception = assertThrows(ServiceException.class, 
-				() -> service.deleteFeedbackSettings(FEEDBACK_SETTINGS_ID));
+				() -> service.deleteFeedbackSettings(FEEDBACK_SETTINGS_ID, null));
 
-		verify(repositoryMock).findByIdOptional(FEEDBACK_SETTINGS_ID);
+		verify(repositoryMock).findByIdWithFeedbackChannels(TENANT_ID, FEEDBACK_SETTINGS_ID);
 		verifyNoMoreInteractions(repositoryMock);
 
 		assertThat(exception.getMessage()).isEqualTo("No settings matching id 'settingsId' were found");
 		
 	}
 	
+	private static Stream<Arguments> concurrentModificationArguments() {
+		return Stream.of(
+				Arguments.of(VERSION, Status.PRECONDITION_FAILED),
+				Arguments.of(null, Status.CONFLICT));
+	}
+
+	/**
+	 * Makes the shard router mock sharded with two shards, executing fanned out work directly against one entity manager
+	 * mock per shard.
+	 */
+	@SuppressWarnings("unchecked")
+	private void mockShards() {
+		when(shardRouterMock.isSharded()).thenReturn(true);
+		lenient().when(shardRouterMock.fanOut(any())).thenAnswer(invocation -> Stream.of(shard0Mock, shard1Mock)
+				.flatMap(entityManager -> ((Function<EntityManager, List<?>>) invocation.getArgument(0)).apply(entityManager).stream())
+				.toList());
+		lenient().when(shardRouterMock.fanOutByShard(any(Function.class))).thenAnswer(invocation -> Map.of(
+				"<default>", ((Function<EntityManager, ?>) invocation.getArgument(0)).apply(shard0Mock),
+				"shard-1", ((Function<EntityManager, ?>) invocation.getArgument(0)).apply(shard1Mock)));
+	}
+
+	private static FeedbackSettingsRow createRow(String id) {
+		return new FeedbackSettingsRow(id, PERSON_ID, null, CREATED, null, VERSION);
+	}
+
 	private List<RequestedFeedbackChannel> generateChannels() {
 		return List.of(
 				RequestedFeedbackChannel.create()
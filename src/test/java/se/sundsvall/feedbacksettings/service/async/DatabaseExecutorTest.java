@@ -0,0 +1,89 @@
+package se.sundsvall.feedbacksettings.service.async;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import se.sundsvall.feedbacksettings.api.exception.ServiceException;
+import se.sundsvall.feedbacksettings.api.exception.ServiceRuntimeException;
+
+class DatabaseExecutorTest {
+
+	private DatabaseExecutor executor;
+
+	@AfterEach
+	void cleanup() {
+		executor.shutdown();
+	}
+
+	@Test
+	void submitInPoolMode() {
+		executor = createExecutor(ExecutionMode.POOL, 1, 1);
+		final var caller = Thread.currentThread();
+
+		final var thread = executor.submit(Thread::currentThread).await().indefinitely();
+
+		assertThat(thread).isNotSameAs(caller);
+	}
+
+	@Test
+	void submitInWorkerMode() {
+		executor = createExecutor(ExecutionMode.WORKER, 1, 1);
+		final var caller = Thread.currentThread();
+
+		final var thread = executor.submit(Thread::currentThread).await().indefinitely();
+
+		assertThat(thread).isSameAs(caller);
+	}
+
+	@Test
+	void submitWorkThrowingServiceException() {
+		executor = createExecutor(ExecutionMode.POOL, 1, 1);
+
+		final var uni = executor.submit(() -> {
+			throw ServiceException.create("message", Status.NOT_FOUND);
+		});
+		final var exception = assertThrows(ServiceRuntimeException.class, () -> uni.await().indefinitely());
+
+		assertThat(exception.getTypedCause().getStatus()).isEqualTo(Status.NOT_FOUND);
+		assertThat(exception.getMessage()).isEqualTo("message");
+	}
+
+	@Test
+	void submitWhenSaturated() throws InterruptedException {
+		executor = createExecutor(ExecutionMode.POOL, 1, 1);
+		final var started = new CountDownLatch(1);
+		final var release = new CompletableFuture<Boolean>();
+
+		// Occupy the only thread and the only queue slot
+		executor.submit(() -> {
+			started.countDown();
+			return release.join();
+		}).subscribe().with(result -> {});
+		assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+		executor.submit(() -> true).subscribe().with(result -> {});
+
+		final var exception = assertThrows(ServiceRuntimeException.class, () -> executor.submit(() -> true).await().indefinitely());
+		release.complete(true);
+
+		assertThat(exception.getTypedCause().getStatus()).isEqualTo(Status.SERVICE_UNAVAILABLE);
+		assertThat(exception.getMessage()).isEqualTo(DatabaseExecutor.EXECUTOR_SATURATED);
+	}
+
+	private static DatabaseExecutor createExecutor(ExecutionMode mode, int maxThreads, int maxQueued) {
+		final var executor = new DatabaseExecutor();
+		executor.mode = mode;
+		executor.maxThreads = maxThreads;
+		executor.maxQueued = maxQueued;
+		executor.init();
+		return executor;
+	}
+}
@@ -0,0 +1,165 @@
+package se.sundsvall.feedbacksettings.service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import se.sundsvall.feedbacksettings.api.model.FeedbackSettings;
+
+@ExtendWith(MockitoExtension.class)
+class FeedbackSettingsCacheTest {
+
+	private static final String TENANT_ID = "tenantId";
+	private static final String OTHER_TENANT_ID = "otherTenantId";
+	private static final String ID = "id";
+	private static final String PERSON_ID = "personId";
+	private static final String ORGANIZATION_ID = "organizationId";
+
+	@Mock
+	private TransactionSynchronizationRegistry registryMock;
+
+	@Captor
+	private ArgumentCaptor<Synchronization> synchronizationCaptor;
+
+	private FeedbackSettingsCache cache;
+
+	@BeforeEach
+	void setup() {
+		cache = new FeedbackSettingsCache();
+		cache.maximumSize = 10;
+		cache.expireAfterWrite = Duration.ofMinutes(1);
+		cache.transactionSynchronizationRegistry = registryMock;
+	}
+
+	@Test
+	void putAndGet() {
+		FeedbackSettings settings = createSettings();
+
+		assertThat(cache.put(TENANT_ID, cache.getGeneration(TENANT_ID), settings)).isSameAs(settings);
+		assertThat(cache.getById(TENANT_ID, ID)).isSameAs(settings);
+		assertThat(cache.getByOwner(TENANT_ID, PERSON_ID, ORGANIZATION_ID)).isSameAs(settings);
+		assertThat(cache.getByOwner(TENANT_ID, PERSON_ID, null)).isNull();
+	}
+
+	@Test
+	void putAndGetIsolatedPerTenant() {
+		FeedbackSettings settings = createSettings();
+		cache.put(TENANT_ID, cache.getGeneration(TENANT_ID), settings);
+
+		assertThat(cache.getById(OTHER_TENANT_ID, ID)).isNull();
+		assertThat(cache.getByOwner(OTHER_TENANT_ID, PERSON_ID, ORGANIZATION_ID)).isNull();
+		assertThat(cache.getById(TENANT_ID, ID)).isSameAs(settings);
+	}
+
+	@Test
+	void evictionIsBoundedPerTenant() {
+		cache.put(OTHER_TENANT_ID, cache.getGeneration(OTHER_TENANT_ID), createSettings());
+		for (int i = 0; i < 100; i++) {
+			cache.put(TENANT_ID, cache.getGeneration(TENANT_ID), FeedbackSettings.create().withId(ID + i).withPersonId(PERSON_ID + i));
+		}
+
+		assertThat(cache.getById(OTHER_TENANT_ID, ID)).isNotNull();
+	}
+
+	@Test
+	void putNull() {
+		assertThat(cache.put(TENANT_ID, cache.getGeneration(TENANT_ID), null)).isNull();
+		assertThat(cache.getStatistics().evictionCount()).isZero();
+	}
+
+	@Test
+	void invalidateWithoutTransaction() {
+		when(registryMock.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+		cache.put(TENANT_ID, cache.getGeneration(TENANT_ID), createSettings());
+
+		cache.invalidate(TENANT_ID, ID, PERSON_ID, ORGANIZATION_ID);
+
+		assertThat(cache.getById(TENANT_ID, ID)).isNull();
+		assertThat(cache.getByOwner(TENANT_ID, PERSON_ID, ORGANIZATION_ID)).isNull();
+	}
+
+	@Test
+	void invalidateWithinTransaction() {
+		when(registryMock.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+		cache.invalidate(TENANT_ID, ID, PERSON_ID, ORGANIZATION_ID);
+
+		verify(registryMock).registerInterposedSynchronization(synchronizationCaptor.capture());
+
+		// Simulate a concurrent reader populating the cache before the transaction completes
+		cache.put(TENANT_ID, cache.getGeneration(TENANT_ID), createSettings());
+		synchronizationCaptor.getValue().beforeCompletion();
+		assertThat(cache.getById(TENANT_ID, ID)).isNotNull();
+
+		synchronizationCaptor.getValue().afterCompletion(Status.STATUS_COMMITTED);
+		assertThat(cache.getById(TENANT_ID, ID)).isNull();
+		assertThat(cache.getByOwner(TENANT_ID, PERSON_ID, ORGANIZATION_ID)).isNull();
+	}
+
+	@Test
+	void putReadBeforeInvalidation() {
+		when(registryMock.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+		long generation = cache.getGeneration(TENANT_ID);
+		FeedbackSettings settings = createSettings();
+
+		// Simulate a write invalidating the settings while they are read by a concurrent reader
+		cache.invalidate(TENANT_ID, ID, PERSON_ID, ORGANIZATION_ID);
+
+		assertThat(cache.put(TENANT_ID, generation, settings)).isSameAs(settings);
+		assertThat(cache.getById(TENANT_ID, ID)).isNull();
+		assertThat(cache.getByOwner(TENANT_ID, PERSON_ID, ORGANIZATION_ID)).isNull();
+	}
+
+	@Test
+	void putReadBeforeInvalidationOfOtherTenant() {
+		when(registryMock.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+		long generation = cache.getGeneration(TENANT_ID);
+
+		cache.invalidate(OTHER_TENANT_ID, ID, PERSON_ID, ORGANIZATION_ID);
+		cache.put(TENANT_ID, generation, createSettings());
+
+		assertThat(cache.getById(TENANT_ID, ID)).isNotNull();
+	}
+
+	@Test
+	void invalidateAll() {
+		cache.put(TENANT_ID, cache.getGeneration(TENANT_ID), createSettings());
+
+		cache.invalidateAll();
+
+		assertThat(cache.getById(TENANT_ID, ID)).isNull();
+		assertThat(cache.getByOwner(TENANT_ID, PERSON_ID, ORGANIZATION_ID)).isNull();
+	}
+
+	@Test
+	void statistics() {
+		cache.getById(TENANT_ID, ID);
+		cache.put(TENANT_ID, cache.getGeneration(TENANT_ID), createSettings());
+		cache.getById(TENANT_ID, ID);
+		cache.getByOwner(TENANT_ID, PERSON_ID, ORGANIZATION_ID);
+
+		assertThat(cache.getStatistics().hitCount()).isEqualTo(2);
+		assertThat(cache.getStatistics().missCount()).isEqualTo(1);
+		assertThat(cache.getStatistics().evictionCount()).isZero();
+	}
+
+	private static FeedbackSettings createSettings() {
+		return FeedbackSettings.create()
+			.withId(ID)
+			.withPersonId(PERSON_ID)
+			.withOrganizationId(ORGANIZATION_ID);
+	}
+}
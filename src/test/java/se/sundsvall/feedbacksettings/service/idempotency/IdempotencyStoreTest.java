@@ -0,0 +1,175 @@
+package se.sundsvall.feedbacksettings.service.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import se.sundsvall.feedbacksettings.api.exception.ServiceException;
+import se.sundsvall.feedbacksettings.integration.db.IdempotencyKeyRepository;
+import se.sundsvall.feedbacksettings.integration.db.model.IdempotencyKeyEntity;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+
+	private static final String TENANT_ID = "tenantId";
+	private static final String IDEMPOTENCY_KEY = "idempotencyKey";
+	private static final String STORED_KEY = "tenantId:idempotencyKey";
+	private static final String REQUEST_HASH = "requestHash";
+	private static final IdempotentResponse RESPONSE = new IdempotentResponse(REQUEST_HASH, 201, "location", "\"0\"", "{}");
+
+	@Mock
+	private IdempotencyKeyRepository repositoryMock;
+
+	@Captor
+	private ArgumentCaptor<OffsetDateTime> nowCaptor;
+
+	@Captor
+	private ArgumentCaptor<IdempotencyKeyEntity> entityCaptor;
+
+	private IdempotencyStore store;
+
+	@BeforeEach
+	void setup() {
+		store = new IdempotencyStore();
+		store.timeToLive = Duration.ofHours(24);
+		store.inProgressTimeout = Duration.ofMinutes(1);
+		store.maximumSize = 10;
+		store.idempotencyKeyRepository = repositoryMock;
+		store.init();
+	}
+
+	@Test
+	void findOrClaimForNewKey() throws ServiceException {
+		when(repositoryMock.findNonExpired(eq(STORED_KEY), nowCaptor.capture())).thenReturn(Optional.empty());
+		when(repositoryMock.insertIfAbsent(eq(STORED_KEY), eq(REQUEST_HASH), any(), any())).thenReturn(true);
+
+		assertThat(store.findOrClaim(TENANT_ID, IDEMPOTENCY_KEY, REQUEST_HASH)).isNull();
+
+		final var now = nowCaptor.getValue();
+		verify(repositoryMock).deleteExpired(STORED_KEY, now);
+		verify(repositoryMock).insertIfAbsent(STORED_KEY, REQUEST_HASH, now, now.plusMinutes(1));
+		verifyNoMoreInteractions(repositoryMock);
+	}
+
+	@Test
+	void findOrClaimForKeyClaimedConcurrently() {
+		when(repositoryMock.findNonExpired(eq(STORED_KEY), any())).thenReturn(Optional.empty());
+		when(repositoryMock.insertIfAbsent(eq(STORED_KEY), eq(REQUEST_HASH), any(), any())).thenReturn(false);
+
+		final var exception = assertThrows(ServiceException.class, () -> store.findOrClaim(TENANT_ID, IDEMPOTENCY_KEY, REQUEST_HASH));
+
+		assertThat(exception.getStatus()).isEqualTo(Status.CONFLICT);
+		assertThat(exception.getMessage()).isEqualTo("A request with idempotency key 'idempotencyKey' is already in progress");
+	}
+
+	@Test
+	void findOrClaimForKeyInProgress() {
+		when(repositoryMock.findNonExpired(eq(STORED_KEY), any())).thenReturn(Optional.of(IdempotencyKeyEntity.create()
+			.withIdempotencyKey(STORED_KEY)
+			.withRequestHash(REQUEST_HASH)));
+
+		final var exception = assertThrows(ServiceException.class, () -> store.findOrClaim(TENANT_ID, IDEMPOTENCY_KEY, REQUEST_HASH));
+
+		assertThat(exception.getStatus()).isEqualTo(Status.CONFLICT);
+		verify(repositoryMock).findNonExpired(eq(STORED_KEY), any());
+		verifyNoMoreInteractions(repositoryMock);
+	}
+
+	@Test
+	void findOrClaimForStoredResponse() throws ServiceException {
+		when(repositoryMock.findNonExpired(eq(STORED_KEY), any())).thenReturn(Optional.of(IdempotencyKeyEntity.create()
+			.withIdempotencyKey(STORED_KEY)
+			.withRequestHash(REQUEST_HASH)
+			.withStatus(RESPONSE.status())
+			.withLocation(RESPONSE.location())
+			.withEntityTag(RESPONSE.entityTag())
+			.withBody(RESPONSE.body())));
+
+		assertThat(store.findOrClaim(TENANT_ID, IDEMPOTENCY_KEY, REQUEST_HASH)).isEqualTo(RESPONSE);
+		// Second retry is answered from cache
+		assertThat(store.findOrClaim(TENANT_ID, IDEMPOTENCY_KEY, REQUEST_HASH)).isEqualTo(RESPONSE);
+
+		verify(repositoryMock).findNonExpired(eq(STORED_KEY), any());
+		verifyNoMoreInteractions(repositoryMock);
+	}
+
+	@Test
+	void findOrClaimForDifferentRequest() {
+		when(repositoryMock.findNonExpired(eq(STORED_KEY), any())).thenReturn(Optional.of(IdempotencyKeyEntity.create()
+			.withIdempotencyKey(STORED_KEY)
+			.withRequestHash("otherRequestHash")
+			.withStatus(RESPONSE.status())));
+
+		final var exception = assertThrows(ServiceException.class, () -> store.findOrClaim(TENANT_ID, IDEMPOTENCY_KEY, REQUEST_HASH));
+
+		assertThat(exception.getStatus()).isEqualTo(Status.BAD_REQUEST);
+		assertThat(exception.getMessage()).isEqualTo("Idempotency key 'idempotencyKey' has already been used for a different request");
+	}
+
+	@Test
+	void complete() throws ServiceException {
+		store.complete(TENANT_ID, IDEMPOTENCY_KEY, RESPONSE);
+
+		verify(repositoryMock).complete(entityCaptor.capture());
+		assertThat(entityCaptor.getValue().getIdempotencyKey()).isEqualTo(STORED_KEY);
+		assertThat(entityCaptor.getValue().getStatus()).isEqualTo(RESPONSE.status());
+		assertThat(entityCaptor.getValue().getLocation()).isEqualTo(RESPONSE.location());
+		assertThat(entityCaptor.getValue().getEntityTag()).isEqualTo(RESPONSE.entityTag());
+		assertThat(entityCaptor.getValue().getBody()).isEqualTo(RESPONSE.body());
+		assertThat(entityCaptor.getValue().getExpires()).isCloseTo(OffsetDateTime.now().plusHours(24), within(2, ChronoUnit.SECONDS));
+
+		// Completed response is answered from cache
+		assertThat(store.findOrClaim(TENANT_ID, IDEMPOTENCY_KEY, REQUEST_HASH)).isEqualTo(RESPONSE);
+		verifyNoMoreInteractions(repositoryMock);
+	}
+
+	@Test
+	void findOrClaimForKeyOfOtherTenant() throws ServiceException {
+		when(repositoryMock.findNonExpired(eq(STORED_KEY), any())).thenReturn(Optional.of(IdempotencyKeyEntity.create()
+			.withIdempotencyKey(STORED_KEY)
+			.withRequestHash(REQUEST_HASH)
+			.withStatus(RESPONSE.status())));
+		when(repositoryMock.findNonExpired(eq("otherTenantId:idempotencyKey"), any())).thenReturn(Optional.empty());
+		when(repositoryMock.insertIfAbsent(eq("otherTenantId:idempotencyKey"), eq(REQUEST_HASH), any(), any())).thenReturn(true);
+
+		assertThat(store.findOrClaim(TENANT_ID, IDEMPOTENCY_KEY, REQUEST_HASH)).isNotNull();
+		assertThat(store.findOrClaim("otherTenantId", IDEMPOTENCY_KEY, REQUEST_HASH)).isNull();
+	}
+
+	@Test
+	void release() {
+		store.release(TENANT_ID, IDEMPOTENCY_KEY);
+
+		verify(repositoryMock).deleteById(STORED_KEY);
+		verifyNoMoreInteractions(repositoryMock);
+	}
+
+	@Test
+	void purgeExpired() {
+		store.purgeExpired();
+
+		verify(repositoryMock).deleteAllExpired(nowCaptor.capture());
+		assertThat(nowCaptor.getValue()).isCloseTo(OffsetDateTime.now(), within(2, ChronoUnit.SECONDS));
+		verifyNoMoreInteractions(repositoryMock);
+	}
+}
@@ -16,10 +16,14 @@ import se.sundsvall.feedbacksettings.ContactMethod;
 import se.sundsvall.feedbacksettings.api.exception.ServiceException;
 import se.sundsvall.feedbacksettings.api.model.CreateFeedbackSettingsRequest;
 import se.sundsvall.feedbacksettings.api.model.FeedbackChannel;
+import se.sundsvall.feedbacksettings.api.model.FeedbackSettings;
 import se.sundsvall.feedbacksettings.api.model.RequestedFeedbackChannel;
 import se.sundsvall.feedbacksettings.api.model.UpdateFeedbackSettingsRequest;
 import se.sundsvall.feedbacksettings.integration.db.model.FeedbackChannelEmbeddable;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsChannelRow;
 import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsEntity;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsJsonRow;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsRow;
 
 class FeedbackSettingsMapperTest {
 	private static final String FEEDBACK_SETTING_ID = "settingId";
@@ -30,6 +34,7 @@ class FeedbackSettingsMapperTest {
 	private static final Boolean SEND_FEEDBACK = Boolean.TRUE;
 	private static final OffsetDateTime CREATED = OffsetDateTime.now().minusDays(5L);
 	private static final OffsetDateTime MODIFIED = OffsetDateTime.now().minusDays(2L);
+	private static final Long VERSION = 3L;
 	
 	@Test
 	void toFeedbackSettingsEntityFromCreateRequest() {
@@ -87,6 +92,7 @@ class FeedbackSettingsMapperTest {
 				tuple(ContactMethod.EMAIL, EMAIL_ADDRESS, SEND_FEEDBACK));
 		assertThat(settings.getCreated()).isEqualTo(CREATED);
 		assertThat(settings.getModified()).isEqualTo(MODIFIED);
+		assertThat(settings.getVersion()).isEqualTo(VERSION);
 	}
 
 	@Test
@@ -132,6 +138,79 @@ class FeedbackSettingsMapperTest {
 		assertThat(settings).isNotNull().isEmpty();
 	}
 	
+	@Test
+	void toFeedbackSettingsFromRow() {
+		final var settings = FeedbackSettingsMapper.toFeedbackSettings(new FeedbackSettingsRow(FEEDBACK_SETTING_ID, PERSON_ID, ORGANIZATION_ID, CREATED, MODIFIED, VERSION));
+
+		assertThat(settings.getId()).isEqualTo(FEEDBACK_SETTING_ID);
+		assertThat(settings.getPersonId()).isEqualTo(PERSON_ID);
+		assertThat(settings.getOrganizationId()).isEqualTo(ORGANIZATION_ID);
+		assertThat(settings.getChannels()).isEmpty();
+		assertThat(settings.getCreated()).isEqualTo(CREATED);
+		assertThat(settings.getModified()).isEqualTo(MODIFIED);
+		assertThat(settings.getVersion()).isEqualTo(VERSION);
+		assertThat(FeedbackSettingsMapper.toFeedbackSettings((FeedbackSettingsRow) null)).isNull();
+	}
+
+	@Test
+	void toFeedbackSettingsFromJsonRow() {
+		final var settings = FeedbackSettingsMapper.toFeedbackSettings(new FeedbackSettingsJsonRow(FEEDBACK_SETTING_ID, PERSON_ID, ORGANIZATION_ID, CREATED, MODIFIED, VERSION,
+				"[{\"contactMethod\":\"SMS\",\"destination\":\"" + MOBILE_NUMBER + "\",\"sendFeedback\":true}]"));
+
+		assertThat(settings.getId()).isEqualTo(FEEDBACK_SETTING_ID);
+		assertThat(settings.getPersonId()).isEqualTo(PERSON_ID);
+		assertThat(settings.getOrganizationId()).isEqualTo(ORGANIZATION_ID);
+		assertThat(settings.getChannels())
+			.extracting(FeedbackChannel::getContactMethod, FeedbackChannel::getDestination, FeedbackChannel::isSendFeedback)
+			.containsExactly(tuple(ContactMethod.SMS, MOBILE_NUMBER, true));
+		assertThat(settings.getCreated()).isEqualTo(CREATED);
+		assertThat(settings.getModified()).isEqualTo(MODIFIED);
+		assertThat(settings.getVersion()).isEqualTo(VERSION);
+		assertThat(FeedbackSettingsMapper.toFeedbackSettings(new FeedbackSettingsJsonRow(FEEDBACK_SETTING_ID, PERSON_ID, null, CREATED, null, VERSION, null)).getChannels()).isEmpty();
+		assertThat(FeedbackSettingsMapper.toFeedbackSettings((FeedbackSettingsJsonRow) null)).isNull();
+	}
+
+	@Test
+	void toFeedbackChannelFromRow() {
+		assertThat(FeedbackSettingsMapper.toFeedbackChannel(generateChannelRow(FEEDBACK_SETTING_ID, "SMS", MOBILE_NUMBER)))
+			.extracting(FeedbackChannel::getContactMethod, FeedbackChannel::getDestination, FeedbackChannel::isSendFeedback)
+			.containsExactly(ContactMethod.SMS, MOBILE_NUMBER, SEND_FEEDBACK);
+		assertThat(FeedbackSettingsMapper.toFeedbackChannel(generateChannelRow(FEEDBACK_SETTING_ID, null, null))).isNull();
+		assertThat(FeedbackSettingsMapper.toFeedbackChannel(null)).isNull();
+	}
+
+	@Test
+	void groupFeedbackSettings() {
+		final var settings = FeedbackSettingsMapper.groupFeedbackSettings(List.of(
+				generateChannelRow("id-2", "SMS", MOBILE_NUMBER),
+				generateChannelRow("id-2", "EMAIL", EMAIL_ADDRESS),
+				generateChannelRow("id-1", null, null)));
+
+		assertThat(settings).extracting(FeedbackSettings::getId, FeedbackSettings::getVersion).containsExactly(tuple("id-2", VERSION), tuple("id-1", VERSION));
+		assertThat(settings.get(0).getChannels())
+			.extracting(FeedbackChannel::getContactMethod, FeedbackChannel::getDestination)
+			.containsExactly(tuple(ContactMethod.SMS, MOBILE_NUMBER), tuple(ContactMethod.EMAIL, EMAIL_ADDRESS));
+		assertThat(settings.get(1).getChannels()).isEmpty();
+		assertThat(FeedbackSettingsMapper.groupFeedbackSettings(null)).isEmpty();
+	}
+
+	@Test
+	void addFeedbackChannels() {
+		final var settings = List.of(
+				FeedbackSettingsMapper.toFeedbackSettings(new FeedbackSettingsRow("id-1", PERSON_ID, null, CREATED, null, VERSION)),
+				FeedbackSettingsMapper.toFeedbackSettings(new FeedbackSettingsRow("id-2", PERSON_ID, null, CREATED, null, VERSION)));
+
+		FeedbackSettingsMapper.addFeedbackChannels(settings, List.of(
+				generateChannelRow("id-2", "SMS", MOBILE_NUMBER),
+				generateChannelRow("id-2", "EMAIL", EMAIL_ADDRESS),
+				generateChannelRow("id-3", "SMS", MOBILE_NUMBER)));
+
+		assertThat(settings.get(0).getChannels()).isEmpty();
+		assertThat(settings.get(1).getChannels())
+			.extracting(FeedbackChannel::getContactMethod)
+			.containsExactly(ContactMethod.SMS, ContactMethod.EMAIL);
+	}
+
 	@Test
 	void mergeFeedbackSettingsWithExistingChannelsChanged() throws ServiceException {
 		final var entity = generateEntity();
@@ -191,6 +270,35 @@ class FeedbackSettingsMapperTest {
 				tuple(ContactMethod.EMAIL, EMAIL_ADDRESS, SEND_FEEDBACK));
 	}
 
+	@Test
+	void mergeFeedbackSettingsWithToggledSendFeedback() throws ServiceException {
+		final var entity = generateEntity();
+		final var emailChannel = entity.getFeedbackChannels().get(0);
+		final var smsChannel = entity.getFeedbackChannels().get(1);
+
+		final var request = UpdateFeedbackSettingsRequest.create()
+				.withChannels(List.of(
+						RequestedFeedbackChannel.create()
+								.withContactMethod(ContactMethod.EMAIL)
+								.withDestination(EMAIL_ADDRESS.toUpperCase())
+								.withSendFeedback(!SEND_FEEDBACK),
+						RequestedFeedbackChannel.create()
+								.withContactMethod(ContactMethod.SMS)
+								.withDestination(MOBILE_NUMBER)
+								.withSendFeedback(SEND_FEEDBACK)));
+		
+		FeedbackSettingsMapper.mergeFeedbackSettings(entity, request) ;
+		
+		//Toggled channel should be updated in place so that it is written as an update of the existing row
+		assertThat(entity.getModified()).isCloseTo(OffsetDateTime.now(), within(2, ChronoUnit.SECONDS));
+		assertThat(entity.getFeedbackChannels()).hasSize(2);
+		assertThat(entity.getFeedbackChannels().get(0)).isSameAs(emailChannel);
+		assertThat(entity.getFeedbackChannels().get(1)).isSameAs(smsChannel);
+		assertThat(emailChannel.getDestination()).isEqualTo(EMAIL_ADDRESS);
+		assertThat(emailChannel.isSendFeedback()).isEqualTo(!SEND_FEEDBACK);
+		assertThat(smsChannel.isSendFeedback()).isEqualTo(SEND_FEEDBACK);
+	}
+
 	@Test
 	void mergeFeedbackSettingsWithAddedChannel() throws ServiceException {
 		final var entity = generateEntity();
@@ -302,6 +410,7 @@ class FeedbackSettingsMapperTest {
 				.withId(FEEDBACK_SETTING_ID)
 				.withCreated(CREATED)
 				.withModified(MODIFIED)
+				.withVersion(VERSION)
 				.withPersonId(PERSON_ID)
 				.withOrganizationId(ORGANIZATION_ID)
 				.withFeedbackChannels(new ArrayList<FeedbackChannelEmbeddable>(List.of(
@@ -315,4 +424,8 @@ class FeedbackSettingsMapperTest {
 							.withSendFeedback(SEND_FEEDBACK)
 				)));
 	}
-}
\ No newline at end of file
+
+	private static FeedbackSettingsChannelRow generateChannelRow(String id, String contactMethod, String destination) {
+		return new FeedbackSettingsChannelRow(id, PERSON_ID, ORGANIZATION_ID, CREATED, MODIFIED, VERSION, contactMethod, destination, contactMethod == null ? null : SEND_FEEDBACK);
+	}
+}
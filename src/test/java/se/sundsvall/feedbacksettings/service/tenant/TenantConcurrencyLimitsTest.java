@@ -0,0 +1,48 @@
+package se.sundsvall.feedbacksettings.service.tenant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TenantConcurrencyLimitsTest {
+
+	private static final String TENANT_ID = "tenantId";
+	private static final String OTHER_TENANT_ID = "otherTenantId";
+
+	private TenantConcurrencyLimits limits;
+
+	@BeforeEach
+	void setup() {
+		limits = new TenantConcurrencyLimits();
+		limits.maxConcurrentRequests = 2;
+	}
+
+	@Test
+	void tryAcquireUpToLimit() {
+		assertThat(limits.tryAcquire(TENANT_ID)).isTrue();
+		assertThat(limits.tryAcquire(TENANT_ID)).isTrue();
+		assertThat(limits.tryAcquire(TENANT_ID)).isFalse();
+	}
+
+	@Test
+	void tryAcquireAfterRelease() {
+		limits.tryAcquire(TENANT_ID);
+		limits.tryAcquire(TENANT_ID);
+
+		limits.release(TENANT_ID);
+
+		assertThat(limits.availablePermits(TENANT_ID)).isEqualTo(1);
+		assertThat(limits.tryAcquire(TENANT_ID)).isTrue();
+	}
+
+	@Test
+	void limitsAreIsolatedPerTenant() {
+		limits.tryAcquire(TENANT_ID);
+		limits.tryAcquire(TENANT_ID);
+
+		assertThat(limits.tryAcquire(OTHER_TENANT_ID)).isTrue();
+		assertThat(limits.tryAcquire(OTHER_TENANT_ID)).isTrue();
+		assertThat(limits.tryAcquire(OTHER_TENANT_ID)).isFalse();
+	}
+}
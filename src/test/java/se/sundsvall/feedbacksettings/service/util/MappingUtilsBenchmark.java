@@ -0,0 +1,110 @@
+package se.sundsvall.feedbacksettings.service.util;
+
+import static org.apache.commons.lang3.StringUtils.equalsIgnoreCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import se.sundsvall.feedbacksettings.ContactMethod;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackChannelEmbeddable;
+import se.sundsvall.feedbacksettings.integration.db.model.FeedbackSettingsEntity;
+
+/**
+ * JMH benchmark comparing the hash based channel diff in MappingUtils with matching every requested channel against
+ * every existing channel. Not executed as part of the test suite, run it with:
+ * 
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) se.sundsvall.feedbacksettings.service.util.MappingUtilsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MappingUtilsBenchmark {
+
+	@Param({ "1", "10", "100", "1000" })
+	int numberOfChannels;
+
+	private FeedbackSettingsEntity entity;
+	private List<FeedbackChannelEmbeddable> requestedChannels;
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(MappingUtilsBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	/**
+	 * Every tenth existing channel is removed, every tenth is toggled and the rest are requested with destinations in
+	 * upper case. One new channel is added per ten existing channels.
+	 */
+	@Setup
+	public void setup() {
+		entity = FeedbackSettingsEntity.create().withFeedbackChannels(IntStream.range(0, numberOfChannels)
+			.mapToObj(i -> channel(i % 2 == 0 ? ContactMethod.SMS : ContactMethod.EMAIL, "destination-" + i, true))
+			.toList());
+
+		requestedChannels = new ArrayList<>();
+		for (int i = 0; i < numberOfChannels; i++) {
+			final var existing = entity.getFeedbackChannels().get(i);
+			switch (i % 10) {
+				case 0 -> requestedChannels.add(channel(existing.getContactMethod(), "added-destination-" + i, true));
+				case 1 -> requestedChannels.add(channel(existing.getContactMethod(), existing.getDestination(), false));
+				default -> requestedChannels.add(channel(existing.getContactMethod(), existing.getDestination().toUpperCase(), true));
+			}
+		}
+	}
+
+	@Benchmark
+	public FeedbackChannelDiff diffFeedbackChannels() {
+		return MappingUtils.diffFeedbackChannels(entity.getFeedbackChannels(), requestedChannels);
+	}
+
+	@Benchmark
+	public void addedAndRemovedFeedbackChannels(Blackhole blackhole) {
+		blackhole.consume(MappingUtils.getAddedFeedbackChannels(entity, requestedChannels));
+		blackhole.consume(MappingUtils.getRemovedFeedbackChannels(entity, requestedChannels));
+	}
+
+	/**
+	 * The previous implementation, where each channel is compared with all channels in the other list.
+	 */
+	@Benchmark
+	public void nestedLoopBaseline(Blackhole blackhole) {
+		blackhole.consume(requestedChannels.stream()
+			.filter(requested -> !existsInList(requested, entity.getFeedbackChannels()))
+			.toList());
+		blackhole.consume(entity.getFeedbackChannels().stream()
+			.filter(existing -> !existsInList(existing, requestedChannels))
+			.toList());
+	}
+
+	private static boolean existsInList(FeedbackChannelEmbeddable objectToCheck, List<FeedbackChannelEmbeddable> list) {
+		return list.stream()
+			.anyMatch(entity -> equalsIgnoreCase(entity.getDestination(), objectToCheck.getDestination()) &&
+				entity.getContactMethod() == objectToCheck.getContactMethod() &&
+				entity.isSendFeedback() == objectToCheck.isSendFeedback());
+	}
+
+	private static FeedbackChannelEmbeddable channel(ContactMethod contactMethod, String destination, boolean sendFeedback) {
+		return FeedbackChannelEmbeddable.create().withContactMethod(contactMethod).withDestination(destination).withSendFeedback(sendFeedback);
+	}
+}
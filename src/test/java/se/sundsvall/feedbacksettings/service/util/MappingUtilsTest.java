@@ -346,6 +346,79 @@ class MappingUtilsTest {
 		assertThat(MappingUtils.getAddedFeedbackChannels(generateEntity(), null)).isEmpty();
 	}
 
+	/**
+	 * Entity contains:  [DESTINATION_1, DESTINATION_2 (sendFeedback false), DESTINATION_3]
+	 * Request contains: [DESTINATION_1 (upper case), DESTINATION_2 (sendFeedback true), DESTINATION_4]
+	 * Expected result:  added [DESTINATION_4], removed [DESTINATION_3], changed [DESTINATION_2]
+	 */
+	@Test
+	void diffFeedbackChannels() {
+		final var existingChannels = generateEntity().getFeedbackChannels();
+		final var requestedChannels = List.of(
+			FeedbackChannelEmbeddable.create()
+				.withContactMethod(ContactMethod.SMS)
+				.withDestination(DESTINATION_1.toUpperCase())
+				.withSendFeedback(true),
+			FeedbackChannelEmbeddable.create()
+				.withContactMethod(ContactMethod.EMAIL)
+				.withDestination(DESTINATION_2)
+				.withSendFeedback(true),
+			FeedbackChannelEmbeddable.create()
+				.withContactMethod(ContactMethod.SMS)
+				.withDestination(DESTINATION_4)
+				.withSendFeedback(true));
+
+		final var diff = MappingUtils.diffFeedbackChannels(existingChannels, requestedChannels);
+
+		assertThat(diff.isEmpty()).isFalse();
+		assertThat(diff.added()).containsExactly(requestedChannels.get(2));
+		assertThat(diff.removed()).containsExactly(existingChannels.get(2));
+		assertThat(diff.changed()).singleElement().satisfies(changedChannel -> {
+			assertThat(changedChannel.existing()).isSameAs(existingChannels.get(1));
+			assertThat(changedChannel.requested()).isSameAs(requestedChannels.get(1));
+		});
+	}
+
+	/**
+	 * Entity contains:  [DESTINATION_1, DESTINATION_2, DESTINATION_3]
+	 * Request contains: [DESTINATION_1, DESTINATION_2, DESTINATION_3]
+	 * Expected result:  no difference
+	 */
+	@Test
+	void diffFeedbackChannelsListUnchanged() {
+		assertThat(MappingUtils.diffFeedbackChannels(generateEntity().getFeedbackChannels(), generateEntity().getFeedbackChannels()).isEmpty()).isTrue();
+	}
+
+	/**
+	 * Entity contains:  [DESTINATION_1, DESTINATION_1, DESTINATION_2, DESTINATION_3]
+	 * Request contains: [DESTINATION_1, DESTINATION_2, DESTINATION_3]
+	 * Expected result:  removed [second DESTINATION_1]
+	 */
+	@Test
+	void diffFeedbackChannelsWithDuplicateInEntity() {
+		final var existingChannels = generateEntity().getFeedbackChannels();
+		final var duplicate = FeedbackChannelEmbeddable.create()
+			.withContactMethod(ContactMethod.SMS)
+			.withDestination(DESTINATION_1)
+			.withSendFeedback(true);
+		existingChannels.add(1, duplicate);
+
+		final var diff = MappingUtils.diffFeedbackChannels(existingChannels, generateEntity().getFeedbackChannels());
+
+		assertThat(diff.added()).isEmpty();
+		assertThat(diff.changed()).isEmpty();
+		assertThat(diff.removed()).singleElement().isSameAs(duplicate);
+	}
+
+	@Test
+	void diffFeedbackChannelsWhenListsNull() {
+		final var existingChannels = generateEntity().getFeedbackChannels();
+
+		assertThat(MappingUtils.diffFeedbackChannels(null, null).isEmpty()).isTrue();
+		assertThat(MappingUtils.diffFeedbackChannels(null, existingChannels).added()).containsExactlyElementsOf(existingChannels);
+		assertThat(MappingUtils.diffFeedbackChannels(existingChannels, null).removed()).containsExactlyElementsOf(existingChannels);
+	}
+
 	private FeedbackSettingsEntity generateEntity() {
 		return FeedbackSettingsEntity.create()
 				.withFeedbackChannels(new ArrayList<>(List.of(
@@ -1,34 +1,55 @@
 
     create table feedback_channels (
-       setting_id varchar(255) not null,
-        contact_method varchar(255) not null,
+       setting_id binary(16) not null,
+        contact_method tinyint not null,
         destination varchar(255) not null,
-        send_feedback bit not null
+        normalized_destination varchar(255) not null,
+        send_feedback bit not null,
+        id binary(16) not null,
+        primary key (id)
     ) engine=InnoDB;
 
     create table feedback_settings (
-       id varchar(255) not null,
+       id binary(16) not null,
+        channels_json longtext,
         created datetime(6) not null,
         modified datetime(6),
-        organization_id varchar(255),
-        person_id varchar(255) not null,
+        organization_id binary(16),
+        organization_key binary(16) as (coalesce(organization_id, X'00000000000000000000000000000000')) persistent,
+        person_id binary(16) not null,
+        tenant_id varchar(64) not null,
+        version bigint not null,
         primary key (id)
     ) engine=InnoDB;
 
+    create table idempotency_keys (
+       idempotency_key varchar(320) not null,
+        body longtext,
+        created datetime(6) not null,
+        entity_tag varchar(255),
+        expires datetime(6) not null,
+        location varchar(255),
+        request_hash varchar(255) not null,
+        status integer,
+        primary key (idempotency_key)
+    ) engine=InnoDB;
+
     create table schema_history (
        schema_version varchar(255) not null,
         applied datetime(6) not null,
         comment varchar(8192) not null,
         primary key (schema_version)
     ) engine=InnoDB;
+create index feedback_channels_normalized_destination_index on feedback_channels (normalized_destination, contact_method);
 
     alter table feedback_channels 
        add constraint feedback_channels_unique_combinations_constraint unique (setting_id, contact_method, destination);
-create index feedback_settings_organization_id_index on feedback_settings (organization_id);
-create index feedback_settings_person_id_index on feedback_settings (person_id);
+create index feedback_settings_tenant_id_organization_id_index on feedback_settings (tenant_id, organization_id);
+create index feedback_settings_tenant_id_person_id_index on feedback_settings (tenant_id, person_id);
 
     alter table feedback_settings 
-       add constraint feedback_settings_person_id_organization_id_unique_constraint unique (person_id, organization_id);
+       add constraint feedback_settings_tenant_owner_unique_constraint unique (tenant_id, person_id, organization_key);
+create index idempotency_keys_expires_index on idempotency_keys (expires);
 
     alter table feedback_channels 
        add constraint fk_feedback_settings_id 
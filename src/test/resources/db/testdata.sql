@@ -5,43 +5,46 @@
 -- UpdateFeedbackSettingsTest.*
 -- DeleteFeedbackSettingsTest.*
 -------------------------------------
+-- Ids are stored as 16 byte binary values, written here as hex literals of the UUIDs
+-- Contact methods are stored as codes, 1 for SMS and 2 for EMAIL
+-- Channels are also stored as a JSON copy in the settings, which must be kept in line with the channel rows
 -- Private person 1
-INSERT INTO feedbacksettings.feedback_settings(id, person_id, created)
-VALUES ('9a24743c-5c19-4774-954e-a3ad67a734e1', '49a974ea-9137-419b-bcb9-ad74c81a1d1f', '2022-01-10 10:00:00.000');
+INSERT INTO feedbacksettings.feedback_settings(id, tenant_id, person_id, created, version, channels_json)
+VALUES (X'9a24743c5c194774954ea3ad67a734e1', 'default', X'49a974ea9137419bbcb9ad74c81a1d1f', '2022-01-10 10:00:00.000', 0, '[{"contactMethod":"SMS","destination":"0706100001","sendFeedback":true}]');
 
-INSERT INTO feedbacksettings.feedback_channels(setting_id, contact_method, destination, send_feedback)
-VALUES ('9a24743c-5c19-4774-954e-a3ad67a734e1', 'SMS', '0706100001', true);
+INSERT INTO feedbacksettings.feedback_channels(id, setting_id, contact_method, destination, normalized_destination, send_feedback)
+VALUES (X'c0000000000000000000000000000001', X'9a24743c5c194774954ea3ad67a734e1', 1, '0706100001', '0706100001', true);
 
 -- Private person 2
-INSERT INTO feedbacksettings.feedback_settings(id, person_id, created)
-VALUES ('9a24743c-5c19-4774-954e-a3ad67a734e2', '49a974ea-9137-419b-bcb9-ad74c81a1d2f', '2022-01-10 10:00:00.000');
+INSERT INTO feedbacksettings.feedback_settings(id, tenant_id, person_id, created, version, channels_json)
+VALUES (X'9a24743c5c194774954ea3ad67a734e2', 'default', X'49a974ea9137419bbcb9ad74c81a1d2f', '2022-01-10 10:00:00.000', 0, '[{"contactMethod":"SMS","destination":"0706100002","sendFeedback":true},{"contactMethod":"EMAIL","destination":"person.2@company.com","sendFeedback":true}]');
 
-INSERT INTO feedbacksettings.feedback_channels(setting_id, contact_method, destination, send_feedback)
-VALUES ('9a24743c-5c19-4774-954e-a3ad67a734e2', 'SMS', '0706100002', true),
-       ('9a24743c-5c19-4774-954e-a3ad67a734e2', 'EMAIL', 'person.2@company.com', true);
+INSERT INTO feedbacksettings.feedback_channels(id, setting_id, contact_method, destination, normalized_destination, send_feedback)
+VALUES (X'c0000000000000000000000000000002', X'9a24743c5c194774954ea3ad67a734e2', 1, '0706100002', '0706100002', true),
+       (X'c0000000000000000000000000000003', X'9a24743c5c194774954ea3ad67a734e2', 2, 'person.2@company.com', 'person.2@company.com', true);
 
 -- Private person 3
-INSERT INTO feedbacksettings.feedback_settings(id, person_id, created)
-VALUES ('9a24743c-5c19-4774-954e-a3ad67a734e3', '49a974ea-9137-419b-bcb9-ad74c81a1d3f', '2022-01-10 10:00:00.000');
+INSERT INTO feedbacksettings.feedback_settings(id, tenant_id, person_id, created, version, channels_json)
+VALUES (X'9a24743c5c194774954ea3ad67a734e3', 'default', X'49a974ea9137419bbcb9ad74c81a1d3f', '2022-01-10 10:00:00.000', 0, '[{"contactMethod":"SMS","destination":"0706100003","sendFeedback":true},{"contactMethod":"SMS","destination":"0736100003","sendFeedback":true},{"contactMethod":"EMAIL","destination":"person.3@company.com","sendFeedback":true}]');
 
-INSERT INTO feedbacksettings.feedback_channels(setting_id, contact_method, destination, send_feedback)
-VALUES ('9a24743c-5c19-4774-954e-a3ad67a734e3', 'SMS', '0706100003', true),
-       ('9a24743c-5c19-4774-954e-a3ad67a734e3', 'SMS', '0736100003', true),
-       ('9a24743c-5c19-4774-954e-a3ad67a734e3', 'EMAIL', 'person.3@company.com', true);
+INSERT INTO feedbacksettings.feedback_channels(id, setting_id, contact_method, destination, normalized_destination, send_feedback)
+VALUES (X'c0000000000000000000000000000004', X'9a24743c5c194774954ea3ad67a734e3', 1, '0706100003', '0706100003', true),
+       (X'c0000000000000000000000000000005', X'9a24743c5c194774954ea3ad67a734e3', 1, '0736100003', '0736100003', true),
+       (X'c0000000000000000000000000000006', X'9a24743c5c194774954ea3ad67a734e3', 2, 'person.3@company.com', 'person.3@company.com', true);
 
 -- Organizational representative 1 (person 3 has both private and representative settings)
-INSERT INTO feedbacksettings.feedback_settings(id, person_id, organization_id, created)
-VALUES ('9a24743c-5c19-4774-954e-a3ad67a734e4', '49a974ea-9137-419b-bcb9-ad74c81a1d3f', '15aee472-46ab-4f03-9605-68bd64ebc84a', '2022-01-10 10:00:00.000');
+INSERT INTO feedbacksettings.feedback_settings(id, tenant_id, person_id, organization_id, created, version, channels_json)
+VALUES (X'9a24743c5c194774954ea3ad67a734e4', 'default', X'49a974ea9137419bbcb9ad74c81a1d3f', X'15aee47246ab4f03960568bd64ebc84a', '2022-01-10 10:00:00.000', 0, '[{"contactMethod":"SMS","destination":"0706100004","sendFeedback":true},{"contactMethod":"EMAIL","destination":"representative.1@company.com","sendFeedback":false}]');
 
-INSERT INTO feedbacksettings.feedback_channels(setting_id, contact_method, destination, send_feedback)
-VALUES ('9a24743c-5c19-4774-954e-a3ad67a734e4', 'SMS', '0706100004', true),
-       ('9a24743c-5c19-4774-954e-a3ad67a734e4', 'EMAIL', 'representative.1@company.com', false);
+INSERT INTO feedbacksettings.feedback_channels(id, setting_id, contact_method, destination, normalized_destination, send_feedback)
+VALUES (X'c0000000000000000000000000000007', X'9a24743c5c194774954ea3ad67a734e4', 1, '0706100004', '0706100004', true),
+       (X'c0000000000000000000000000000008', X'9a24743c5c194774954ea3ad67a734e4', 2, 'representative.1@company.com', 'representative.1@company.com', false);
 
 -- Organizational representative 2 (has only representative settings for same company as representative 1)
-INSERT INTO feedbacksettings.feedback_settings(id, person_id, organization_id, created)
-VALUES ('9a24743c-5c19-4774-954e-a3ad67a734e5', '49a974ea-9137-419b-bcb9-ad74c81a1d4f', '15aee472-46ab-4f03-9605-68bd64ebc84a', '2022-01-10 10:00:00.000');
+INSERT INTO feedbacksettings.feedback_settings(id, tenant_id, person_id, organization_id, created, version, channels_json)
+VALUES (X'9a24743c5c194774954ea3ad67a734e5', 'default', X'49a974ea9137419bbcb9ad74c81a1d4f', X'15aee47246ab4f03960568bd64ebc84a', '2022-01-10 10:00:00.000', 0, '[{"contactMethod":"SMS","destination":"0706100005","sendFeedback":true},{"contactMethod":"SMS","destination":"0736100005","sendFeedback":true},{"contactMethod":"EMAIL","destination":"representative.2@company.com","sendFeedback":true}]');
 
-INSERT INTO feedbacksettings.feedback_channels(setting_id, contact_method, destination, send_feedback)
-VALUES ('9a24743c-5c19-4774-954e-a3ad67a734e5', 'SMS', '0706100005', true),
-       ('9a24743c-5c19-4774-954e-a3ad67a734e5', 'SMS', '0736100005', true),
-       ('9a24743c-5c19-4774-954e-a3ad67a734e5', 'EMAIL', 'representative.2@company.com', true);
+INSERT INTO feedbacksettings.feedback_channels(id, setting_id, contact_method, destination, normalized_destination, send_feedback)
+VALUES (X'c0000000000000000000000000000009', X'9a24743c5c194774954ea3ad67a734e5', 1, '0706100005', '0706100005', true),
+       (X'c0000000000000000000000000000010', X'9a24743c5c194774954ea3ad67a734e5', 1, '0736100005', '0736100005', true),
+       (X'c0000000000000000000000000000011', X'9a24743c5c194774954ea3ad67a734e5', 2, 'representative.2@company.com', 'representative.2@company.com', true);